@@ -21,8 +21,6 @@ import fr.inria.atlanmod.mogwai.datastore.jdbc.DefaultJdbcDatastore;
 import fr.inria.atlanmod.mogwai.datastore.jdbc.JdbcElement;
 import fr.inria.atlanmod.mogwai.datastore.neo4j3.DefaultEmbeddedNeo4j3Datastore;
 import fr.inria.atlanmod.mogwai.processor.ATLQueryProcessor;
-import fr.inria.atlanmod.mogwai.processor.AbstractATLProcessor;
-import fr.inria.atlanmod.mogwai.processor.GremlinScriptRunner;
 import fr.inria.atlanmod.mogwai.query.ATLQuery;
 import fr.inria.atlanmod.mogwai.query.MogwaiQuery;
 import fr.inria.atlanmod.mogwai.query.builder.ATLQueryBuilder;
@@ -33,12 +31,41 @@ public class PanamaMogwai {
 	public static void main(String[] args) throws Exception {
 //		Thread.sleep(10000);
 		
-		MogwaiQuery query = ATLQueryBuilder.newBuilder().fromURI(URI.createURI("transformation/panama.atl"))
+		long time = migrate(URI.createURI("transformation/panama.atl"), new File("db/panama.graphdb"), "jdbc:h2:~/testH2",
+				false);
+		
+		System.out.println(MessageFormat.format("Time to compute the query: {0}", time));
+		
+//		Thread.sleep(500000);
+		
+	}
+	
+	/**
+	 * Migrates the Panama officers stored in the Neo4j database
+	 * {@code graphDbDirectory} to the H2 database {@code jdbcUrl} using the
+	 * provided ATL transformation.
+	 * 
+	 * @param transformation
+	 *            the {@link URI} of the ATL transformation
+	 * @param graphDbDirectory
+	 *            the directory of the Neo4j database
+	 * @param jdbcUrl
+	 *            the URL of the H2 database
+	 * @param bulkExport
+	 *            whether the created rows are staged in CSV files (see
+	 *            {@link DefaultJdbcDatastore#startBulkExport()}) instead of
+	 *            being inserted in batches
+	 * @return the time to compute the transformation and commit its result,
+	 *         in milliseconds
+	 */
+	public static long migrate(URI transformation, File graphDbDirectory, String jdbcUrl, boolean bulkExport)
+			throws Exception {
+		MogwaiQuery query = ATLQueryBuilder.newBuilder().fromURI(transformation)
 				.sourcePackage(PanamaNeo4jPackage.eINSTANCE).targetPackage(PanamaRelationalPackage.eINSTANCE).build();
 		
-		GraphDatabaseService graphdb = new GraphDatabaseFactory().newEmbeddedDatabase(new File("db/panama.graphdb"));
+		GraphDatabaseService graphdb = new GraphDatabaseFactory().newEmbeddedDatabase(graphDbDirectory);
 		JdbcDataSource ds = new JdbcDataSource();
-		ds.setUrl("jdbc:h2:~/testH2");
+		ds.setUrl(jdbcUrl);
 		ds.setUser("test");
 		ds.setPassword("test");
 		Connection c = ds.getConnection();
@@ -50,22 +77,23 @@ public class PanamaMogwai {
 
 		DefaultEmbeddedNeo4j3Datastore graphMapping = new DefaultEmbeddedNeo4j3Datastore(graphdb);
 		DefaultJdbcDatastore jdbcMapping = new DefaultJdbcDatastore(c);
+		if(bulkExport) {
+			jdbcMapping.startBulkExport();
+		}
 		
 		Map<String, Object> options = new HashMap<>();
-		options.put(GremlinScriptRunner.PRINT_SCRIPT_OPTION, true);
 		options.put(ATLQueryProcessor.TRANSFORMATION_HELPER_KEY, new DummyATLTransformationHelper<Node, JdbcElement>(graphMapping, jdbcMapping));
-		options.put(AbstractATLProcessor.ATL_DEBUG_KEY, true);
 		
 		ATLQueryProcessor processor = new ATLQueryProcessor();
 		processor.process((ATLQuery)query, Arrays.asList(graphMapping, jdbcMapping), options);
 	
+		if(bulkExport) {
+			jdbcMapping.finishBulkExport();
+		}
 		c.commit();
 		
 		long end = System.currentTimeMillis();
 		
-		System.out.println(MessageFormat.format("Time to compute the query: {0}", (end - begin)));
-		
-		
 		Statement result = c.createStatement();
 		result.execute("select * from PanamaOfficers;");
 		ResultSet rSet = result.getResultSet();
@@ -78,8 +106,7 @@ public class PanamaMogwai {
 		
 		graphdb.shutdown();
 		
-//		Thread.sleep(500000);
-		
+		return end - begin;
 	}
 	
 }
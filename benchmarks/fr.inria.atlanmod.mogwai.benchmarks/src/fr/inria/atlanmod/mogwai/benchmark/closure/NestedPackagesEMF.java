@@ -0,0 +1,60 @@
+package fr.inria.atlanmod.mogwai.benchmark.closure;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.gmt.modisco.java.Package;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.inria.atlanmod.mogwai.benchmarks.AbstractQueryTest;
+
+public class NestedPackagesEMF extends AbstractQueryTest {
+
+	public NestedPackagesEMF(String resourceName) {
+		super(resourceName);
+	}
+
+	@Before
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    @Test
+    public void test() {
+        startTimer();
+        List<Package> packages = new ArrayList<>();
+        Iterator<EObject> it = resource.getAllContents();
+        while(it.hasNext()) {
+        	EObject e = it.next();
+        	if(e instanceof Package) {
+        		packages.add((Package)e);
+        	}
+        }
+        Set<Package> result = new LinkedHashSet<>();
+        for(Package p : packages) {
+        	collectNestedPackages(p, result);
+        }
+        endTimer();
+        System.out.println("Result set size : " + result.size());
+    }
+
+    private void collectNestedPackages(Package p, Set<Package> result) {
+    	for(Package nested : p.getOwnedPackages()) {
+    		if(result.add(nested)) {
+    			collectNestedPackages(nested, result);
+    		}
+    	}
+    }
+
+}
@@ -0,0 +1,42 @@
+package fr.inria.atlanmod.mogwai.benchmark.closure;
+
+import java.util.HashMap;
+
+import org.eclipse.emf.common.util.URI;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.inria.atlanmod.mogwai.benchmarks.mogwai.tests.MogwaiQueryTest;
+import fr.inria.atlanmod.mogwai.neoemf.query.NeoEMFQueryResult;
+import fr.inria.atlanmod.mogwai.neoemf.resource.MogwaiResource;
+import fr.inria.atlanmod.mogwai.query.MogwaiQuery;
+import fr.inria.atlanmod.mogwai.query.builder.OCLQueryBuilder;
+
+public class NestedPackagesMogwai extends MogwaiQueryTest {
+
+	public NestedPackagesMogwai(String resourceName) {
+		super(resourceName);
+	}
+
+	@Before
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    @Test
+    public void test() {
+    	MogwaiQuery query = OCLQueryBuilder.newBuilder().fromURI(URI.createURI("ocl/closure/nestedPackages.ocl")).build();
+        MogwaiResource mogResource = (MogwaiResource)resource;
+        startTimer();
+        NeoEMFQueryResult result = mogResource.query(query, new HashMap<>());
+        endTimer();
+        System.out.println("Result set size : " + result.resultSize());
+    }
+
+}
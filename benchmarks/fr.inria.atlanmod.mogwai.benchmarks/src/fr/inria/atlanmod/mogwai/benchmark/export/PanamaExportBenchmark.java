@@ -0,0 +1,80 @@
+package fr.inria.atlanmod.mogwai.benchmark.export;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.eclipse.emf.common.util.URI;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import fr.inria.atlanmod.mogwai.applications.panama.PanamaMogwai;
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+
+@RunWith(Parameterized.class)
+public class PanamaExportBenchmark {
+
+	private static final String PANAMA_PROJECT = "../../applications/panama/fr.inria.atlanmod.mogwai.applications.panama.migration/";
+
+	private static final URI TRANSFORMATION = URI.createFileURI(new File(PANAMA_PROJECT + "transformation/panama.atl")
+			.getAbsolutePath());
+
+	private static final File GRAPH_DB = new File(PANAMA_PROJECT + "db/panama.graphdb");
+
+	private static final int WARMUP_ITERATIONS = 1;
+
+	private static final int ITERATIONS = 3;
+
+	@Parameters
+	public static Collection<Object[]> modes() {
+		return Arrays.asList(new Object[][] { { false }, { true } });
+	}
+
+	private boolean bulkExport;
+
+	public PanamaExportBenchmark(boolean bulkExport) {
+		this.bulkExport = bulkExport;
+	}
+
+	@Before
+	public void setUp() {
+		assumeTrue("The Panama database is not available", GRAPH_DB.exists());
+	}
+
+	@Test
+	public void export() throws Exception {
+		String name = bulkExport ? "csvStagedExport" : "batchedExport";
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			migrate();
+		}
+		long time = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			time += migrate();
+		}
+		MogwaiLogger.info("{0}: {1}ms/op", name, time / ITERATIONS);
+	}
+
+	/**
+	 * Migrates the Panama officers into a new H2 database, and deletes it.
+	 */
+	private long migrate() throws Exception {
+		Path directory = Files.createTempDirectory("mogwai-panama");
+		try {
+			return PanamaMogwai.migrate(TRANSFORMATION, GRAPH_DB, "jdbc:h2:" + directory.resolve("panama"),
+					bulkExport);
+		} finally {
+			for (File file : directory.toFile().listFiles()) {
+				file.delete();
+			}
+			Files.delete(directory);
+		}
+	}
+
+}
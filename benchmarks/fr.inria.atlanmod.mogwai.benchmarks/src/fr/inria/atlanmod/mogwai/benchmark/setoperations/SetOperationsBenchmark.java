@@ -0,0 +1,93 @@
+package fr.inria.atlanmod.mogwai.benchmark.setoperations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+import fr.inria.atlanmod.mogwai.util.GremlinHelper;
+
+@RunWith(Parameterized.class)
+public class SetOperationsBenchmark {
+
+	private static final int WARMUP_ITERATIONS = 3;
+
+	private static final int ITERATIONS = 5;
+
+	@Parameters
+	public static Collection<Object[]> sizes() {
+		return Arrays.asList(new Object[][] { { 10000 }, { 1000000 } });
+	}
+
+	private int size;
+
+	private List<Object> left;
+
+	private List<Object> right;
+
+	private GremlinHelper helper = GremlinHelper.getInstance();
+
+	public SetOperationsBenchmark(int size) {
+		this.size = size;
+	}
+
+	@Before
+	public void setUp() {
+		// Half of the right elements are contained in left
+		List<Object> elements = new ArrayList<>();
+		for (int i = 0; i < size + size / 2; i++) {
+			elements.add(new Object());
+		}
+		left = elements.subList(0, size);
+		right = elements.subList(size / 2, size + size / 2);
+	}
+
+	@Test
+	public void union() {
+		run("union", () -> helper.union(left, right));
+		run("lazyUnion", () -> helper.lazyUnion(left, right));
+	}
+
+	@Test
+	public void intersection() {
+		run("intersection", () -> helper.intersection(left, right));
+		run("lazyIntersection", () -> helper.lazyIntersection(left, right));
+	}
+
+	@Test
+	public void difference() {
+		run("difference", () -> helper.difference(left, right));
+		run("lazyDifference", () -> helper.lazyDifference(left, right));
+	}
+
+	private void run(String name, Supplier<Iterable<Object>> operation) {
+		for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+			size(operation.get());
+		}
+		long begin = System.nanoTime();
+		int resultSize = 0;
+		for (int i = 0; i < ITERATIONS; i++) {
+			resultSize = size(operation.get());
+		}
+		long end = System.nanoTime();
+		MogwaiLogger.info("{0} ({1}x{1}): {2}ms/op, result size {3}", name, size,
+				(end - begin) / ITERATIONS / 1000000, resultSize);
+	}
+
+	private static int size(Iterable<Object> iterable) {
+		int count = 0;
+		for (@SuppressWarnings("unused") Object o : iterable) {
+			count++;
+		}
+		return count;
+	}
+
+}
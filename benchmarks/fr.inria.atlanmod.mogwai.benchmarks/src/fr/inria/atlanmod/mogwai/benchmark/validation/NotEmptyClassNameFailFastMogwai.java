@@ -0,0 +1,59 @@
+package fr.inria.atlanmod.mogwai.benchmark.validation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.inria.atlanmod.mogwai.benchmarks.mogwai.tests.MogwaiQueryTest;
+import fr.inria.atlanmod.mogwai.neoemf.query.NeoEMFValidationResult;
+import fr.inria.atlanmod.mogwai.neoemf.resource.MogwaiResource;
+import fr.inria.atlanmod.mogwai.query.MogwaiQuery;
+import fr.inria.atlanmod.mogwai.query.builder.OCLQueryBuilder;
+
+public class NotEmptyClassNameFailFastMogwai extends MogwaiQueryTest {
+
+	public NotEmptyClassNameFailFastMogwai(String resourceName) {
+		super(resourceName);
+	}
+
+	@Before
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    @Test
+    public void testFailFast() {
+    	MogwaiQuery query = OCLQueryBuilder.newBuilder().fromURI(URI.createURI("ocl/validation/notEmptyClassName.ocl")).build();
+    	Map<String, Object> options = new HashMap<>();
+    	options.put(MogwaiResource.VALIDATION_MODE, MogwaiResource.VALIDATION_MODE_FAIL_FAST);
+        startTimer();
+        MogwaiResource mogResource = (MogwaiResource)resource;
+        NeoEMFValidationResult result = mogResource.validate(query, options);
+        boolean validated = result.isValidated();
+        endTimer();
+        System.out.println("Validated : " + validated);
+    }
+
+    @Test
+    public void testCount() {
+    	MogwaiQuery query = OCLQueryBuilder.newBuilder().fromURI(URI.createURI("ocl/validation/notEmptyClassName.ocl")).build();
+    	Map<String, Object> options = new HashMap<>();
+    	options.put(MogwaiResource.VALIDATION_MODE, MogwaiResource.VALIDATION_MODE_COUNT);
+        startTimer();
+        MogwaiResource mogResource = (MogwaiResource)resource;
+        NeoEMFValidationResult result = mogResource.validate(query, options);
+        long violationCount = result.getViolationCount();
+        endTimer();
+        System.out.println("Violation count : " + violationCount);
+    }
+
+}
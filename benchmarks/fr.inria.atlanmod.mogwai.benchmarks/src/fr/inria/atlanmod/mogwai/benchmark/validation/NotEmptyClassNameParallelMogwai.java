@@ -0,0 +1,56 @@
+package fr.inria.atlanmod.mogwai.benchmark.validation;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.inria.atlanmod.mogwai.benchmarks.mogwai.tests.MogwaiQueryTest;
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+import fr.inria.atlanmod.mogwai.neoemf.query.NeoEMFValidationResult;
+import fr.inria.atlanmod.mogwai.neoemf.resource.MogwaiResource;
+import fr.inria.atlanmod.mogwai.query.MogwaiQuery;
+import fr.inria.atlanmod.mogwai.query.builder.OCLQueryBuilder;
+
+public class NotEmptyClassNameParallelMogwai extends MogwaiQueryTest {
+
+	private static final int CHUNK_SIZE = 1000;
+
+	public NotEmptyClassNameParallelMogwai(String resourceName) {
+		super(resourceName);
+	}
+
+	@Before
+    public void setUp() throws Exception {
+        super.setUp();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        super.tearDown();
+    }
+
+    @Test
+    public void test() {
+    	MogwaiQuery query = OCLQueryBuilder.newBuilder().fromURI(URI.createURI("ocl/validation/notEmptyClassName.ocl")).build();
+        MogwaiResource mogResource = (MogwaiResource)resource;
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        for(int threads = 1; threads <= maxThreads; threads *= 2) {
+        	Map<String, Object> options = new HashMap<>();
+        	options.put(MogwaiResource.VALIDATION_PARALLELISM, threads);
+        	options.put(MogwaiResource.VALIDATION_CHUNK_SIZE, CHUNK_SIZE);
+        	MogwaiLogger.info("Validating with {0} thread(s)", threads);
+        	startTimer();
+        	NeoEMFValidationResult result = mogResource.validate(query, options);
+        	List<EObject> violatingInstances = result.getViolatingInstances(mogResource);
+        	endTimer();
+        	System.out.println("Result set size (" + threads + " threads) : " + violatingInstances.size());
+        }
+    }
+
+}
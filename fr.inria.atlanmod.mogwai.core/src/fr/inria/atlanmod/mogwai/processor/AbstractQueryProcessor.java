@@ -11,17 +11,26 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import com.tinkerpop.blueprints.Graph;
 
 import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
 import fr.inria.atlanmod.mogwai.common.util.MogwaiQueryUtil;
 import fr.inria.atlanmod.mogwai.core.exception.MogwaiCoreException;
 import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
 import fr.inria.atlanmod.mogwai.gremlin.GremlinScript;
 import fr.inria.atlanmod.mogwai.gremlin.impl.GremlinScriptImpl;
 import fr.inria.atlanmod.mogwai.query.GremlinQuery;
 import fr.inria.atlanmod.mogwai.query.MogwaiQuery;
 import fr.inria.atlanmod.mogwai.query.QueryResult;
 import fr.inria.atlanmod.mogwai.query.builder.GremlinQueryBuilder;
+import fr.inria.atlanmod.mogwai.util.CompactVertexSet;
 import fr.inria.atlanmod.mogwai.util.GremlinHelper;
 
 /**
@@ -50,6 +59,48 @@ public abstract class AbstractQueryProcessor<Q extends MogwaiQuery> {
 	 */
 	public static final String BINDINGS_KEY = "bindings";
 
+	/**
+	 * The option key to specify the maximum number of results to compute.
+	 * <p>
+	 * If the raw result of the query is a lazy {@link Iterable} (such as a
+	 * Gremlin pipeline) the computation stops as soon as the limit is reached.
+	 */
+	public static final String RESULT_LIMIT_OPTION = "result.limit";
+
+	/**
+	 * The option key to specify that only the number of results has to be
+	 * computed.
+	 * <p>
+	 * If this option is set to {@code true} the raw result of the query is
+	 * consumed without being stored, and the returned {@link QueryResult}
+	 * contains a single {@link Long} value.
+	 */
+	public static final String RESULT_COUNT_OPTION = "result.count";
+
+	/**
+	 * The option key to specify that intermediate collections of vertices have
+	 * to be stored as vertex identifiers.
+	 * <p>
+	 * If this option is set to {@code true} and the input datastore is backed
+	 * by a {@link Graph}, the {@link Set}s computed by the query (see
+	 * {@link GremlinHelper}) are {@link CompactVertexSet}s, which rehydrate
+	 * their vertices when they are iterated.
+	 * <p>
+	 * <b>Note:</b> compact sets are only used for the computations performed
+	 * during the call to {@code process}: lazy results iterated after the end
+	 * of the processing use regular {@link Set}s.
+	 */
+	public static final String COMPACT_SETS_OPTION = "compact.sets";
+
+	/**
+	 * The option key to specify whether the attribute filters applied on the
+	 * instances of a type are pushed down to the input datastore.
+	 * <p>
+	 * This option is enabled by default. Filters are only pushed down if the
+	 * input datastore supports them, see {@link FilterPushdownPlanner}.
+	 */
+	public static final String FILTER_PUSHDOWN_OPTION = "filter.pushdown";
+
 	/**
 	 * The binding key representing the source datastore.
 	 * <p>
@@ -196,8 +247,79 @@ public abstract class AbstractQueryProcessor<Q extends MogwaiQuery> {
 		initGremlinScriptRunner(datastores);
 		Map<String, Object> bindings = createBindings(datastores, options);
 		GremlinScript gScript = createGremlinScript(query, options);
-		Object result = runGremlinScript(gScript, bindings, options);
-		return adaptResult(result, gScript, options);
+		gScript = pushDownFilters(gScript, datastores.get(0), options);
+		boolean compactSets = enableCompactSets(datastores.get(0), options);
+		try {
+			Object result = runGremlinScript(gScript, bindings, options);
+			return adaptResult(shortCircuitResult(result, options), gScript, options);
+		} finally {
+			if (compactSets) {
+				GremlinHelper.getInstance().disableCompactSets();
+			}
+		}
+	}
+
+	/**
+	 * Pushes the attribute filters of the provided {@code script} down to the
+	 * input {@code datastore} if the {@link #FILTER_PUSHDOWN_OPTION} is not
+	 * disabled.
+	 * <p>
+	 * The filters are pushed down in a copy of {@code script}: the scripts
+	 * created by {@link #createGremlinScript(MogwaiQuery, Map)} can be cached by the
+	 * transformation and computed on other datastores.
+	 * 
+	 * @param script
+	 *            the {@link GremlinScript} to rewrite
+	 * @param datastore
+	 *            the input {@link ModelDatastore}
+	 * @param options
+	 *            a {@link Map} containing execution options
+	 * @return the rewritten copy of {@code script}, or {@code script} if no
+	 *         filter has been pushed down
+	 * 
+	 * @see FilterPushdownPlanner
+	 */
+	@SuppressWarnings("rawtypes")
+	private GremlinScript pushDownFilters(GremlinScript script, ModelDatastore datastore,
+			Map<String, Object> options) {
+		if (options.containsKey(FILTER_PUSHDOWN_OPTION) && !(boolean) options.get(FILTER_PUSHDOWN_OPTION)) {
+			return script;
+		}
+		if (datastore instanceof PipesDatastore) {
+			GremlinScript plannedScript = EcoreUtil.copy(script);
+			if (new FilterPushdownPlanner((PipesDatastore) datastore).plan(plannedScript) > 0) {
+				return plannedScript;
+			}
+		}
+		return script;
+	}
+
+	/**
+	 * Enables {@link CompactVertexSet}s for the current thread if the
+	 * {@link #COMPACT_SETS_OPTION} is set.
+	 * 
+	 * @param datastore
+	 *            the input {@link ModelDatastore} used to rehydrate the
+	 *            stored vertices
+	 * @param options
+	 *            a {@link Map} containing execution options
+	 * @return {@code true} if compact sets have been enabled, {@code false}
+	 *         otherwise
+	 * 
+	 * @see GremlinHelper#enableCompactSets(Graph)
+	 */
+	@SuppressWarnings("rawtypes")
+	private boolean enableCompactSets(ModelDatastore datastore, Map<String, Object> options) {
+		if (!options.containsKey(COMPACT_SETS_OPTION) || !(boolean) options.get(COMPACT_SETS_OPTION)) {
+			return false;
+		}
+		if (!(datastore.getDataSource() instanceof Graph)) {
+			MogwaiLogger.warn("Cannot enable compact sets: the datastore {0} is not backed by a Graph",
+					datastore.getClass().getName());
+			return false;
+		}
+		GremlinHelper.getInstance().enableCompactSets((Graph) datastore.getDataSource());
+		return true;
 	}
 
 	/**
@@ -374,6 +496,39 @@ public abstract class AbstractQueryProcessor<Q extends MogwaiQuery> {
 		return GremlinScriptRunner.getInstance().runGremlinScript(script, bindings, options);
 	}
 
+	/**
+	 * Applies the {@link #RESULT_LIMIT_OPTION} and {@link #RESULT_COUNT_OPTION}
+	 * options to the raw Gremlin engine result.
+	 * <p>
+	 * This method consumes the raw {@code result} only if one of these options
+	 * is set, and stops the iteration as soon as the limit is reached.
+	 * Non-{@link Iterable} results are returned unchanged.
+	 * 
+	 * @param result
+	 *            the {@link Object} representing the output of the Gremlin
+	 *            engine
+	 * @param options
+	 *            a {@link Map} containing execution options
+	 * @return the limited or counted {@code result}, or {@code result} if no
+	 *         option is set
+	 */
+	@SuppressWarnings("unchecked")
+	protected Object shortCircuitResult(Object result, Map<String, Object> options) {
+		if (!(result instanceof Iterable)) {
+			return result;
+		}
+		Iterable<Object> iterable = (Iterable<Object>) result;
+		if (options.containsKey(RESULT_LIMIT_OPTION)) {
+			int limit = (int) options.get(RESULT_LIMIT_OPTION);
+			checkArgument(limit >= 0, "Cannot limit the query result: invalid limit {0}", limit);
+			iterable = Lists.newArrayList(Iterables.limit(iterable, limit));
+		}
+		if (options.containsKey(RESULT_COUNT_OPTION) && (boolean) options.get(RESULT_COUNT_OPTION)) {
+			return (long) Iterables.size(iterable);
+		}
+		return iterable == result ? result : iterable;
+	}
+
 	/**
 	 * Adapts the raw Gremlin engine result.
 	 * 
@@ -0,0 +1,417 @@
+package fr.inria.atlanmod.mogwai.processor;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.ecore.EObject;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter.Comparison;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
+import fr.inria.atlanmod.mogwai.gremlin.AndExpression;
+import fr.inria.atlanmod.mogwai.gremlin.BinaryExpression;
+import fr.inria.atlanmod.mogwai.gremlin.BooleanLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.Closure;
+import fr.inria.atlanmod.mogwai.gremlin.ClosureIt;
+import fr.inria.atlanmod.mogwai.gremlin.CountCall;
+import fr.inria.atlanmod.mogwai.gremlin.CustomStep;
+import fr.inria.atlanmod.mogwai.gremlin.DifferenceExpression;
+import fr.inria.atlanmod.mogwai.gremlin.DoubleLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.EqualityExpression;
+import fr.inria.atlanmod.mogwai.gremlin.FilterStep;
+import fr.inria.atlanmod.mogwai.gremlin.GreaterExpression;
+import fr.inria.atlanmod.mogwai.gremlin.GreaterOrEqualExpression;
+import fr.inria.atlanmod.mogwai.gremlin.GremlinFactory;
+import fr.inria.atlanmod.mogwai.gremlin.GremlinScript;
+import fr.inria.atlanmod.mogwai.gremlin.IdentityStep;
+import fr.inria.atlanmod.mogwai.gremlin.Instruction;
+import fr.inria.atlanmod.mogwai.gremlin.IntegerLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.LessExpression;
+import fr.inria.atlanmod.mogwai.gremlin.LessOrEqualExpression;
+import fr.inria.atlanmod.mogwai.gremlin.NextCall;
+import fr.inria.atlanmod.mogwai.gremlin.PropertyStep;
+import fr.inria.atlanmod.mogwai.gremlin.StringLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.TraversalElement;
+import fr.inria.atlanmod.mogwai.gremlin.VariableAccess;
+import fr.inria.atlanmod.mogwai.gremlin.VariableDeclaration;
+
+/**
+ * Rewrites the {@link GremlinScript}s generated by the transformations to push
+ * the attribute filters applied on the instances of a type down to the input
+ * {@link PipesDatastore}.
+ * <p>
+ * The planner recognizes the traversals starting with an {@code allOfType} or
+ * {@code allOfKind} step directly followed by {@code filter} steps whose
+ * closure is a comparison (or a conjunction of comparisons) between an
+ * attribute of the iterated element and a literal, such as:
+ *
+ * <pre>
+ * {@code
+ * g.allOfKind("Officer").filter{ each = it; each.getAtt("name") == "Smith" }
+ * }
+ * </pre>
+ *
+ * These filter steps are removed and the initial step is replaced by an
+ * {@code allOfTypeWhere} or {@code allOfKindWhere} call evaluated by the
+ * datastore, for example as a single SQL {@code SELECT}. The remaining steps
+ * of the traversal are computed by Pipes over the returned elements.
+ * <p>
+ * If the filters are followed by reference navigations (
+ * {@code _().getRef("ref","",false)}) and/or a {@code count()} call, the
+ * planner also tries to push them down as a {@link TraversalPattern}: the
+ * initial step is then replaced by a {@code traversal} (or
+ * {@code countTraversal}) call, that can be evaluated by the datastore in a
+ * single native query, for example as a Cypher {@code MATCH} clause.
+ * <p>
+ * <b>Note:</b> filters are only pushed down if the datastore accepts them (see
+ * {@link PipesDatastore#canFilter(String, List)} and
+ * {@link PipesDatastore#canTraverse(TraversalPattern)}), the script is left
+ * unchanged otherwise.
+ *
+ * @see AbstractQueryProcessor#FILTER_PUSHDOWN_OPTION
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public class FilterPushdownPlanner {
+
+	/**
+	 * The {@link PipesDatastore} evaluating the pushed-down filters.
+	 */
+	@SuppressWarnings("rawtypes")
+	private final PipesDatastore datastore;
+
+	/**
+	 * Constructs a new {@link FilterPushdownPlanner} pushing filters down to
+	 * the provided {@code datastore}.
+	 *
+	 * @param datastore
+	 *            the {@link PipesDatastore} evaluating the pushed-down filters
+	 */
+	@SuppressWarnings("rawtypes")
+	public FilterPushdownPlanner(PipesDatastore datastore) {
+		checkNotNull(datastore, "Cannot create a planner for the datastore {0}", datastore);
+		this.datastore = datastore;
+	}
+
+	/**
+	 * Pushes the supported filters of the provided {@code script} down to the
+	 * datastore.
+	 * <p>
+	 * <b>Note:</b> the provided {@code script} is modified in place. Scripts
+	 * that are shared, such as the ones cached by the transformations, have to
+	 * be copied before being planned.
+	 *
+	 * @param script
+	 *            the {@link GremlinScript} to rewrite
+	 * @return the number of filter steps pushed down to the datastore
+	 */
+	public int plan(GremlinScript script) {
+		checkNotNull(script, "Cannot plan the script {0}", script);
+		List<CustomStep> typeSteps = new ArrayList<>();
+		TreeIterator<EObject> it = script.eAllContents();
+		while (it.hasNext()) {
+			EObject element = it.next();
+			if (isTypeStep(element)) {
+				typeSteps.add((CustomStep) element);
+			}
+		}
+		int pushed = 0;
+		for (CustomStep typeStep : typeSteps) {
+			pushed += planTypeStep(typeStep);
+		}
+		if (pushed > 0) {
+			MogwaiLogger.info("Pushed {0} filters down to {1}", pushed, datastore.getClass().getSimpleName());
+		}
+		return pushed;
+	}
+
+	/**
+	 * Pushes the filter steps following the provided {@code typeStep} down to
+	 * the datastore.
+	 *
+	 * @param typeStep
+	 *            the {@code allOfType} or {@code allOfKind} step to rewrite
+	 * @return the number of filter steps pushed down to the datastore
+	 */
+	@SuppressWarnings("unchecked")
+	private int planTypeStep(CustomStep typeStep) {
+		String typeName = ((StringLiteral) typeStep.getParams().get(0)).getValue();
+		List<AttributeFilter> filters = new ArrayList<>();
+		List<Instruction> literals = new ArrayList<>();
+		int filterSteps = 0;
+		TraversalElement next = typeStep.getNextElement();
+		TraversalElement remaining = next;
+		while (next instanceof FilterStep) {
+			List<AttributeFilter> stepFilters = new ArrayList<>();
+			List<Instruction> stepLiterals = new ArrayList<>();
+			if (!collectFilters(((FilterStep) next).getClosure(), stepFilters, stepLiterals)) {
+				break;
+			}
+			filters.addAll(stepFilters);
+			literals.addAll(stepLiterals);
+			filterSteps++;
+			next = next.getNextElement();
+			remaining = next;
+		}
+		if (planTraversal(typeStep, filters, literals, remaining)) {
+			return filterSteps;
+		}
+		if (filters.isEmpty() || !datastore.canFilter(typeName, filters)) {
+			return 0;
+		}
+		typeStep.setName(typeStep.getName() + "Where");
+		addFilterParams(typeStep, filters, literals);
+		typeStep.setNextElement(remaining);
+		return filterSteps;
+	}
+
+	/**
+	 * Pushes the provided {@code filters} and the reference navigations and
+	 * {@code count()} call following them down to the datastore as a
+	 * {@link TraversalPattern}.
+	 *
+	 * @param typeStep
+	 *            the {@code allOfType} or {@code allOfKind} step to rewrite
+	 * @param filters
+	 *            the {@link AttributeFilter}s following the {@code typeStep}
+	 * @param literals
+	 *            the literal of each filter
+	 * @param next
+	 *            the first step following the filters
+	 * @return {@code true} if the traversal has been pushed down,
+	 *         {@code false} otherwise
+	 */
+	private boolean planTraversal(CustomStep typeStep, List<AttributeFilter> filters, List<Instruction> literals,
+			TraversalElement next) {
+		List<String> references = new ArrayList<>();
+		TraversalElement remaining = next;
+		TraversalElement step = next;
+		while (nonNull(step)) {
+			while (step instanceof IdentityStep) {
+				step = step.getNextElement();
+			}
+			String refName = referenceName(step);
+			if (isNull(refName)) {
+				break;
+			}
+			references.add(refName);
+			step = step.getNextElement();
+			remaining = step;
+		}
+		boolean count = remaining instanceof CountCall;
+		if (count) {
+			remaining = remaining.getNextElement();
+		}
+		if (references.isEmpty() && !count) {
+			return false;
+		}
+		boolean kind = "allOfKind".equals(typeStep.getName());
+		String typeName = ((StringLiteral) typeStep.getParams().get(0)).getValue();
+		TraversalPattern pattern = TraversalPattern.of(typeName, kind, filters, references);
+		if (!datastore.canTraverse(pattern)) {
+			return false;
+		}
+		typeStep.setName(count ? "countTraversal" : "traversal");
+		BooleanLiteral kindLiteral = GremlinFactory.eINSTANCE.createBooleanLiteral();
+		kindLiteral.setValue(kind);
+		typeStep.getParams().add(kindLiteral);
+		IntegerLiteral referenceCount = GremlinFactory.eINSTANCE.createIntegerLiteral();
+		referenceCount.setValue(references.size());
+		typeStep.getParams().add(referenceCount);
+		for (String refName : references) {
+			StringLiteral refLiteral = GremlinFactory.eINSTANCE.createStringLiteral();
+			refLiteral.setValue(refName);
+			typeStep.getParams().add(refLiteral);
+		}
+		addFilterParams(typeStep, filters, literals);
+		typeStep.setNextElement(remaining);
+		MogwaiLogger.info("Pushed the traversal {0} down to {1}", pattern, datastore.getClass().getSimpleName());
+		return true;
+	}
+
+	/**
+	 * Appends the triples representing the provided {@code filters} to the
+	 * parameters of {@code typeStep}.
+	 *
+	 * @see AttributeFilter#fromParameters(Object...)
+	 */
+	private static void addFilterParams(CustomStep typeStep, List<AttributeFilter> filters,
+			List<Instruction> literals) {
+		for (int i = 0; i < filters.size(); i++) {
+			StringLiteral attName = GremlinFactory.eINSTANCE.createStringLiteral();
+			attName.setValue(filters.get(i).getAttName());
+			StringLiteral comparison = GremlinFactory.eINSTANCE.createStringLiteral();
+			comparison.setValue(filters.get(i).getComparison().name());
+			typeStep.getParams().add(attName);
+			typeStep.getParams().add(comparison);
+			typeStep.getParams().add(literals.get(i));
+		}
+	}
+
+	/**
+	 * Collects the {@link AttributeFilter}s represented by the provided
+	 * filter {@code closure}.
+	 *
+	 * @param closure
+	 *            the {@link Closure} of the filter step
+	 * @param filters
+	 *            the {@link List} to add the collected filters to
+	 * @param literals
+	 *            the {@link List} to add the literal of each collected filter
+	 *            to
+	 * @return {@code true} if the whole closure can be pushed down,
+	 *         {@code false} otherwise
+	 */
+	private boolean collectFilters(Closure closure, List<AttributeFilter> filters, List<Instruction> literals) {
+		if (isNull(closure) || closure.getInstructions().size() != 2) {
+			return false;
+		}
+		Instruction declaration = closure.getInstructions().get(0);
+		if (!(declaration instanceof VariableDeclaration)
+				|| !(((VariableDeclaration) declaration).getValue() instanceof ClosureIt)) {
+			return false;
+		}
+		String varName = ((VariableDeclaration) declaration).getName();
+		return collectCondition(closure.getInstructions().get(1), varName, filters, literals);
+	}
+
+	private boolean collectCondition(Instruction condition, String varName, List<AttributeFilter> filters,
+			List<Instruction> literals) {
+		if (condition instanceof AndExpression) {
+			BinaryExpression and = (BinaryExpression) condition;
+			return collectCondition(and.getLeft(), varName, filters, literals)
+					&& collectCondition(and.getRight(), varName, filters, literals);
+		}
+		Comparison comparison = comparisonOf(condition);
+		if (isNull(comparison)) {
+			return false;
+		}
+		BinaryExpression expression = (BinaryExpression) condition;
+		Instruction attAccess = expression.getLeft();
+		Instruction literal = expression.getRight();
+		if (isNull(literalValue(literal))) {
+			attAccess = expression.getRight();
+			literal = expression.getLeft();
+			comparison = comparison.reverse();
+		}
+		String attName = attributeName(attAccess, varName);
+		Object value = literalValue(literal);
+		if (isNull(attName) || isNull(value)) {
+			return false;
+		}
+		filters.add(AttributeFilter.of(attName, comparison, value));
+		literals.add(literal);
+		return true;
+	}
+
+	/**
+	 * Returns the name of the attribute accessed by the provided
+	 * {@code instruction} on the variable {@code varName}.
+	 * <p>
+	 * Supported accesses are {@code varName.getAtt("att")} and
+	 * {@code varName.att}, optionally followed by {@code next()}.
+	 *
+	 * @return the name of the accessed attribute, or {@code null} if the
+	 *         {@code instruction} is not a supported attribute access
+	 */
+	private static String attributeName(Instruction instruction, String varName) {
+		if (!(instruction instanceof VariableAccess) || instruction instanceof ClosureIt
+				|| !varName.equals(((VariableAccess) instruction).getName())) {
+			return null;
+		}
+		TraversalElement step = ((VariableAccess) instruction).getNextElement();
+		while (step instanceof IdentityStep) {
+			step = step.getNextElement();
+		}
+		String attName = null;
+		if (step instanceof CustomStep && "getAtt".equals(((CustomStep) step).getName())
+				&& ((CustomStep) step).getParams().size() == 1
+				&& ((CustomStep) step).getParams().get(0) instanceof StringLiteral) {
+			attName = ((StringLiteral) ((CustomStep) step).getParams().get(0)).getValue();
+		} else if (step instanceof PropertyStep) {
+			attName = ((PropertyStep) step).getName();
+		} else {
+			return null;
+		}
+		step = step.getNextElement();
+		if (step instanceof NextCall) {
+			step = step.getNextElement();
+		}
+		return isNull(step) ? attName : null;
+	}
+
+	/**
+	 * Returns the name of the reference navigated by the provided
+	 * {@code step}.
+	 * <p>
+	 * Only outgoing navigations ({@code getRef("ref","",false)}) are
+	 * supported.
+	 *
+	 * @return the name of the navigated reference, or {@code null} if the
+	 *         {@code step} is not a supported reference navigation
+	 */
+	private static String referenceName(TraversalElement step) {
+		if (!(step instanceof CustomStep) || !"getRef".equals(((CustomStep) step).getName())) {
+			return null;
+		}
+		List<EObject> params = ((CustomStep) step).getParams();
+		if (params.size() != 3 || !(params.get(0) instanceof StringLiteral)
+				|| !(params.get(1) instanceof StringLiteral) || !(params.get(2) instanceof BooleanLiteral)) {
+			return null;
+		}
+		String oppositeName = ((StringLiteral) params.get(1)).getValue();
+		if ((nonNull(oppositeName) && !oppositeName.isEmpty()) || ((BooleanLiteral) params.get(2)).isValue()) {
+			return null;
+		}
+		return ((StringLiteral) params.get(0)).getValue();
+	}
+
+	private static Comparison comparisonOf(Instruction instruction) {
+		if (instruction instanceof EqualityExpression) {
+			return Comparison.EQUAL;
+		} else if (instruction instanceof DifferenceExpression) {
+			return Comparison.DIFFERENT;
+		} else if (instruction instanceof LessExpression) {
+			return Comparison.LESS;
+		} else if (instruction instanceof LessOrEqualExpression) {
+			return Comparison.LESS_OR_EQUAL;
+		} else if (instruction instanceof GreaterExpression) {
+			return Comparison.GREATER;
+		} else if (instruction instanceof GreaterOrEqualExpression) {
+			return Comparison.GREATER_OR_EQUAL;
+		}
+		return null;
+	}
+
+	private static Object literalValue(Instruction instruction) {
+		if (instruction instanceof StringLiteral) {
+			return ((StringLiteral) instruction).getValue();
+		} else if (instruction instanceof IntegerLiteral) {
+			return ((IntegerLiteral) instruction).getValue();
+		} else if (instruction instanceof DoubleLiteral) {
+			return ((DoubleLiteral) instruction).getValue();
+		} else if (instruction instanceof BooleanLiteral) {
+			return ((BooleanLiteral) instruction).isValue();
+		}
+		return null;
+	}
+
+	private static boolean isTypeStep(EObject element) {
+		if (!(element instanceof CustomStep)) {
+			return false;
+		}
+		CustomStep step = (CustomStep) element;
+		return ("allOfType".equals(step.getName()) || "allOfKind".equals(step.getName()))
+				&& step.getParams().size() == 1 && step.getParams().get(0) instanceof StringLiteral
+				&& nonNull(step.getNextElement());
+	}
+
+}
@@ -91,6 +91,11 @@ public class GremlinScriptRunner {
 	 * <b>Note:</b> the {@link ModelDatastore}s involved in the script computation
 	 * are not provided as parameters, they are set in the bindings and linked to
 	 * their corresponding variables in the script.
+	 * <p>
+	 * <b>Note:</b> this method is synchronized because the script engine and
+	 * its {@link Bindings} are shared. Lazy results (such as Gremlin pipelines)
+	 * are returned without being iterated, and can be consumed concurrently by
+	 * the calling threads.
 	 * 
 	 * @param script
 	 *            the {@link GremlinScript} to execute
@@ -100,7 +105,8 @@ public class GremlinScriptRunner {
 	 *            a {@link Map} containing execution options
 	 * @return a raw {@link Object} representing the query result
 	 */
-	public Object runGremlinScript(GremlinScript script, Map<String, Object> bindings, Map<String, Object> options) {
+	public synchronized Object runGremlinScript(GremlinScript script, Map<String, Object> bindings,
+			Map<String, Object> options) {
 		checkNotNull(script, "{0} is not a valid query", script);
 		boolean print = getPrintOption(options);
 		if (print) {
@@ -131,8 +137,9 @@ public class GremlinScriptRunner {
 				}
 			}
 			throw new RuntimeException(e);
+		} finally {
+			this.bindings.clear();
 		}
-		this.bindings.clear();
 		return result;
 	}
 
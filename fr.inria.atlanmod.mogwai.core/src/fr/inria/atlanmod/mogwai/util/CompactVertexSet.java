@@ -0,0 +1,141 @@
+package fr.inria.atlanmod.mogwai.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.AbstractSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import com.carrotsearch.hppc.ObjectOpenHashSet;
+import com.google.common.collect.Iterators;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+/**
+ * A {@link Set} implementation storing {@link Vertex} elements as identifiers.
+ * <p>
+ * This class is used by {@link GremlinHelper} to store large intermediate
+ * collections of vertices: the identifiers (UUID {@link String}s in NeoEMF) are
+ * stored in an open-addressing hash set, avoiding the allocation of a map
+ * entry per element and keeping the {@link Vertex} wrappers (and their cached
+ * properties) out of the heap. The {@link Vertex} elements are rehydrated from
+ * the underlying {@link Graph} when the set is iterated.
+ * <p>
+ * Elements that are not {@link Vertex} instances are stored in a regular
+ * {@link HashSet}.
+ * <p>
+ * <b>Note:</b> this set trades memory for time: each {@link Vertex} returned
+ * by its iterators is retrieved with {@link Graph#getVertex(Object)}, which
+ * costs an index lookup per element (and may return a new wrapper instance).
+ * Iterating the set several times repeats these lookups. This set does not
+ * preserve the insertion order of its elements, and its iterators do not
+ * support {@link Iterator#remove()}.
+ *
+ * @see GremlinHelper#enableCompactSets(Graph)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public class CompactVertexSet extends AbstractSet<Object> {
+
+	/**
+	 * The {@link Graph} used to rehydrate the stored {@link Vertex} elements.
+	 */
+	private final Graph graph;
+
+	/**
+	 * The identifiers of the stored {@link Vertex} elements.
+	 */
+	private final ObjectOpenHashSet<Object> ids;
+
+	/**
+	 * The stored elements that are not {@link Vertex} instances.
+	 */
+	private final Set<Object> others;
+
+	/**
+	 * Constructs a new empty {@link CompactVertexSet} rehydrating its elements
+	 * from the provided {@code graph}.
+	 *
+	 * @param graph
+	 *            the {@link Graph} used to rehydrate the stored {@link Vertex}
+	 *            elements
+	 */
+	public CompactVertexSet(Graph graph) {
+		checkNotNull(graph, "Cannot create a compact set from the graph {0}", graph);
+		this.graph = graph;
+		this.ids = new ObjectOpenHashSet<>();
+		this.others = new HashSet<>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Only the identifier of the provided {@code element} is stored if it is
+	 * a {@link Vertex}.
+	 */
+	@Override
+	public boolean add(Object element) {
+		if (element instanceof Vertex) {
+			return ids.add(((Vertex) element).getId());
+		}
+		return others.add(element);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * {@link Vertex} elements are compared according to their identifier and
+	 * are not rehydrated.
+	 */
+	@Override
+	public boolean contains(Object element) {
+		if (element instanceof Vertex) {
+			return ids.contains(((Vertex) element).getId());
+		}
+		return others.contains(element);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean remove(Object element) {
+		if (element instanceof Vertex) {
+			return ids.removeAllOccurrences(((Vertex) element).getId()) > 0;
+		}
+		return others.remove(element);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return ids.size() + others.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void clear() {
+		ids.clear();
+		others.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@link Vertex} elements are retrieved from the underlying
+	 * {@link Graph} when the returned {@link Iterator} reaches them, with one
+	 * {@link Graph#getVertex(Object)} lookup per element.
+	 */
+	@Override
+	public Iterator<Object> iterator() {
+		Iterator<Object> vertices = Iterators.transform(ids.iterator(), c -> graph.getVertex(c.value));
+		return Iterators.unmodifiableIterator(Iterators.concat(vertices, others.iterator()));
+	}
+
+}
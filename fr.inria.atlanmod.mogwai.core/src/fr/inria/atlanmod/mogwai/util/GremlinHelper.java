@@ -1,11 +1,26 @@
 package fr.inria.atlanmod.mogwai.util;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+import groovy.lang.Closure;
 
 import fr.inria.atlanmod.mogwai.query.MogwaiQuery;
 
@@ -27,6 +42,12 @@ public class GremlinHelper {
 	 */
 	public static final String BINDING_NAME = "gremlinHelper";
 
+	/**
+	 * The {@link Graph} used to create {@link CompactVertexSet}s for the
+	 * current thread, or {@code null} if compact sets are disabled.
+	 */
+	private final ThreadLocal<Graph> compactSetGraph = new ThreadLocal<>();
+
 	/**
 	 * Returns the singleton instance of this class.
 	 * 
@@ -36,17 +57,64 @@ public class GremlinHelper {
 		return Holder.INSTANCE;
 	}
 
+	/**
+	 * Enables {@link CompactVertexSet}s for the intermediate collections
+	 * computed by the current thread.
+	 * <p>
+	 * Once enabled, the {@link Set}s created by this class store
+	 * {@link Vertex} identifiers instead of {@link Vertex} instances, and
+	 * rehydrate them from the provided {@code graph} when they are iterated.
+	 * This reduces the memory consumption of queries computing large
+	 * intermediate collections, at the cost of a lookup in the {@code graph}
+	 * for each iterated {@link Vertex}.
+	 * 
+	 * @param graph
+	 *            the {@link Graph} used to rehydrate the stored {@link Vertex}
+	 *            elements
+	 * 
+	 * @see #disableCompactSets()
+	 */
+	public void enableCompactSets(Graph graph) {
+		checkNotNull(graph, "Cannot enable compact sets for the graph {0}", graph);
+		compactSetGraph.set(graph);
+	}
+
+	/**
+	 * Disables {@link CompactVertexSet}s for the current thread.
+	 * 
+	 * @see #enableCompactSets(Graph)
+	 */
+	public void disableCompactSets() {
+		compactSetGraph.remove();
+	}
+
+	/**
+	 * Returns whether {@link CompactVertexSet}s are enabled for the current
+	 * thread.
+	 * 
+	 * @return {@code true} if compact sets are enabled, {@code false}
+	 *         otherwise
+	 */
+	public boolean isCompactSetsEnabled() {
+		return nonNull(compactSetGraph.get());
+	}
+
 	/**
 	 * Computes the union of two {@link Iterable}s.
+	 * <p>
+	 * The created {@link Set} is pre-sized when the size of the inputs is
+	 * known.
 	 * 
 	 * @param left
 	 *            the left part of the union
 	 * @param right
 	 *            the right part of the union
 	 * @return an {@link Iterable} containing {@code left union right}
+	 * 
+	 * @see #lazyUnion(Iterable, Iterable)
 	 */
 	public Iterable<Object> union(Iterable<Object> left, Iterable<Object> right) {
-		Set<Object> set = new HashSet<>();
+		Set<Object> set = newSet(sizeHint(left) + sizeHint(right));
 		Iterables.addAll(set, left);
 		Iterables.addAll(set, right);
 		return set;
@@ -54,17 +122,43 @@ public class GremlinHelper {
 
 	/**
 	 * Computes the intersection of two {@link Iterable}s.
+	 * <p>
+	 * The intersection is computed with hash probes: if both inputs are
+	 * {@link Collection}s the smallest one is materialized in a {@link Set},
+	 * otherwise {@code right} is materialized and {@code left} is iterated
+	 * once. The order of {@code left} is preserved.
 	 * 
 	 * @param left
 	 *            the left part of the intersection
 	 * @param right
 	 *            the right part of the intersection
 	 * @return an {@link Iterable} containing {@code left intersection right}
+	 * 
+	 * @see #lazyIntersection(Iterable, Iterable)
 	 */
 	public Iterable<Object> intersection(Iterable<Object> left, Iterable<Object> right) {
+		Set<Object> probe;
+		if (left instanceof Collection && right instanceof Collection
+				&& ((Collection<?>) left).size() < ((Collection<?>) right).size()) {
+			/*
+			 * Materialize the left side and keep the elements of right it
+			 * contains, the result is then computed from left to preserve its
+			 * order.
+			 */
+			Set<Object> leftSet = newSet(sizeHint(left));
+			leftSet.addAll((Collection<?>) left);
+			probe = newSet(0);
+			for (Object o : right) {
+				if (leftSet.contains(o)) {
+					probe.add(o);
+				}
+			}
+		} else {
+			probe = toSet(right);
+		}
 		List<Object> res = new ArrayList<>();
 		for (Object o : left) {
-			if (Iterables.contains(right, o)) {
+			if (probe.contains(o)) {
 				res.add(o);
 			}
 		}
@@ -73,23 +167,465 @@ public class GremlinHelper {
 
 	/**
 	 * Computes the difference between two {@link Iterable}s.
+	 * <p>
+	 * {@code right} is materialized in a {@link Set} and {@code left} is
+	 * iterated once. The order of {@code left} is preserved.
 	 * 
 	 * @param left
 	 *            the left part of the difference
 	 * @param right
 	 *            the right part of the difference
 	 * @return an {@link Iterable} containing {@code left difference right}
+	 * 
+	 * @see #lazyDifference(Iterable, Iterable)
 	 */
 	public Iterable<Object> difference(Iterable<Object> left, Iterable<Object> right) {
+		Set<Object> probe = toSet(right);
 		List<Object> res = new ArrayList<>();
 		for (Object o : left) {
-			if (!Iterables.contains(right, o)) {
+			if (!probe.contains(o)) {
 				res.add(o);
 			}
 		}
 		return res;
 	}
 
+	/**
+	 * Computes the union of two {@link Iterable}s lazily.
+	 * <p>
+	 * The returned {@link Iterable} iterates {@code left} and then
+	 * {@code right}, skipping the elements that have already been returned. The
+	 * inputs are not iterated until the result is.
+	 * <p>
+	 * <b>Note:</b> each iteration of the returned {@link Iterable} iterates the
+	 * inputs again, it should be iterated only once when the inputs are lazy
+	 * pipelines.
+	 * 
+	 * @param left
+	 *            the left part of the union
+	 * @param right
+	 *            the right part of the union
+	 * @return a lazy {@link Iterable} containing {@code left union right}
+	 * 
+	 * @see #union(Iterable, Iterable)
+	 */
+	public Iterable<Object> lazyUnion(Iterable<Object> left, Iterable<Object> right) {
+		return () -> {
+			Set<Object> seen = newSet(0);
+			return Iterators.filter(Iterators.concat(left.iterator(), right.iterator()), o -> seen.add(o));
+		};
+	}
+
+	/**
+	 * Computes the intersection of two {@link Iterable}s lazily.
+	 * <p>
+	 * {@code right} is materialized in a {@link Set} when the returned
+	 * {@link Iterable} is iterated, and {@code left} is streamed.
+	 * 
+	 * @param left
+	 *            the left part of the intersection
+	 * @param right
+	 *            the right part of the intersection
+	 * @return a lazy {@link Iterable} containing {@code left intersection right}
+	 * 
+	 * @see #intersection(Iterable, Iterable)
+	 */
+	public Iterable<Object> lazyIntersection(Iterable<Object> left, Iterable<Object> right) {
+		return () -> {
+			Set<Object> probe = toSet(right);
+			return Iterators.filter(left.iterator(), o -> probe.contains(o));
+		};
+	}
+
+	/**
+	 * Computes the difference between two {@link Iterable}s lazily.
+	 * <p>
+	 * {@code right} is materialized in a {@link Set} when the returned
+	 * {@link Iterable} is iterated, and {@code left} is streamed.
+	 * 
+	 * @param left
+	 *            the left part of the difference
+	 * @param right
+	 *            the right part of the difference
+	 * @return a lazy {@link Iterable} containing {@code left difference right}
+	 * 
+	 * @see #difference(Iterable, Iterable)
+	 */
+	public Iterable<Object> lazyDifference(Iterable<Object> left, Iterable<Object> right) {
+		return () -> {
+			Set<Object> probe = toSet(right);
+			return Iterators.filter(left.iterator(), o -> !probe.contains(o));
+		};
+	}
+
+	/**
+	 * Returns a {@link Set} containing the elements of {@code elements}.
+	 * <p>
+	 * The created {@link Set} is a {@link CompactVertexSet} if compact sets
+	 * are enabled for the current thread.
+	 * 
+	 * @param elements
+	 *            the elements to put in the {@link Set}
+	 * @return a {@link Set} containing the elements of {@code elements}
+	 * 
+	 * @see #enableCompactSets(Graph)
+	 */
+	public Set<Object> asSet(Iterable<Object> elements) {
+		Set<Object> set = newSet(sizeHint(elements));
+		Iterables.addAll(set, elements);
+		return set;
+	}
+
+	/**
+	 * Computes the sum of the provided {@code values}.
+	 * <p>
+	 * The sum is computed as a streaming reduction: {@code values} are
+	 * iterated once and are not stored. The result is a {@link Long} if all the
+	 * values are integral, and a {@link Double} otherwise. {@code null} values
+	 * are ignored.
+	 * 
+	 * @param values
+	 *            the values to sum
+	 * @return the sum of the provided {@code values}, or {@code 0} if
+	 *         {@code values} is empty
+	 */
+	public Number sum(Iterable<?> values) {
+		long integralSum = 0;
+		double realSum = 0;
+		boolean isIntegral = true;
+		for (Object value : values) {
+			Number number = (Number) unwrap(value);
+			if (isNull(number)) {
+				continue;
+			}
+			if (isIntegral && isIntegral(number)) {
+				integralSum += number.longValue();
+			} else {
+				if (isIntegral) {
+					realSum = integralSum;
+					isIntegral = false;
+				}
+				realSum += number.doubleValue();
+			}
+		}
+		return isIntegral ? (Number) integralSum : (Number) realSum;
+	}
+
+	/**
+	 * Computes the minimum of the provided {@code values}.
+	 * <p>
+	 * The minimum is computed as a streaming reduction: {@code values} are
+	 * iterated once and are not stored. {@code null} values are ignored.
+	 * 
+	 * @param values
+	 *            the {@link Comparable} values to compute the minimum of
+	 * @return the minimum of the provided {@code values}, or {@code null} if
+	 *         {@code values} is empty
+	 */
+	public Object min(Iterable<?> values) {
+		Object min = null;
+		for (Object value : values) {
+			Object unwrapped = unwrap(value);
+			if (!isNull(unwrapped) && (isNull(min) || compare(unwrapped, min) < 0)) {
+				min = unwrapped;
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Computes the maximum of the provided {@code values}.
+	 * <p>
+	 * The maximum is computed as a streaming reduction: {@code values} are
+	 * iterated once and are not stored. {@code null} values are ignored.
+	 * 
+	 * @param values
+	 *            the {@link Comparable} values to compute the maximum of
+	 * @return the maximum of the provided {@code values}, or {@code null} if
+	 *         {@code values} is empty
+	 */
+	public Object max(Iterable<?> values) {
+		Object max = null;
+		for (Object value : values) {
+			Object unwrapped = unwrap(value);
+			if (!isNull(unwrapped) && (isNull(max) || compare(unwrapped, max) > 0)) {
+				max = unwrapped;
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Computes the average of the provided {@code values}.
+	 * <p>
+	 * The average is computed as a streaming reduction: {@code values} are
+	 * iterated once and are not stored. {@code null} values are ignored.
+	 * 
+	 * @param values
+	 *            the values to compute the average of
+	 * @return the average of the provided {@code values}, or {@code null} if
+	 *         {@code values} is empty
+	 */
+	public Double avg(Iterable<?> values) {
+		double sum = 0;
+		long count = 0;
+		for (Object value : values) {
+			Number number = (Number) unwrap(value);
+			if (!isNull(number)) {
+				sum += number.doubleValue();
+				count++;
+			}
+		}
+		return count == 0 ? null : sum / count;
+	}
+
+	/**
+	 * Sorts the provided {@code elements} according to the values computed by
+	 * {@code key}.
+	 * <p>
+	 * {@code key} is evaluated once per element, and the sort is stable.
+	 * 
+	 * @param elements
+	 *            the elements to sort
+	 * @param key
+	 *            the {@link Closure} computing the sort key of an element
+	 * @return a {@link List} containing the sorted {@code elements}
+	 * 
+	 * @see #topK(Iterable, int, int, Closure)
+	 */
+	public List<Object> sortedBy(Iterable<?> elements, Closure<?> key) {
+		checkNotNull(key, "Cannot sort elements with a null key");
+		List<KeyedElement> keyedElements = new ArrayList<>();
+		long index = 0;
+		for (Object element : elements) {
+			keyedElements.add(new KeyedElement(element, unwrap(key.call(element)), index++));
+		}
+		Collections.sort(keyedElements);
+		List<Object> res = new ArrayList<>(keyedElements.size());
+		for (KeyedElement keyedElement : keyedElements) {
+			res.add(keyedElement.element);
+		}
+		return res;
+	}
+
+	/**
+	 * Computes the elements between the positions {@code lower} and
+	 * {@code upper} (inclusive, starting at {@code 1}) of the provided
+	 * {@code elements} sorted according to {@code key}.
+	 * <p>
+	 * This method is equivalent to
+	 * {@code sortedBy(elements, key).subList(lower - 1, upper)}, but only keeps
+	 * the {@code upper} smallest elements in a bounded heap instead of sorting
+	 * the entire collection.
+	 * 
+	 * @param elements
+	 *            the elements to sort
+	 * @param lower
+	 *            the position of the first element to return
+	 * @param upper
+	 *            the position of the last element to return
+	 * @param key
+	 *            the {@link Closure} computing the sort key of an element
+	 * @return a {@link List} containing the sorted elements between
+	 *         {@code lower} and {@code upper}
+	 * 
+	 * @see #sortedBy(Iterable, Closure)
+	 */
+	public List<Object> topK(Iterable<?> elements, int lower, int upper, Closure<?> key) {
+		checkArgument(lower >= 1 && upper >= lower, "Cannot compute the top elements: invalid range [{0}..{1}]",
+				lower, upper);
+		checkNotNull(key, "Cannot sort elements with a null key");
+		PriorityQueue<KeyedElement> heap = new PriorityQueue<>(upper, Collections.reverseOrder());
+		long index = 0;
+		for (Object element : elements) {
+			KeyedElement keyedElement = new KeyedElement(element, unwrap(key.call(element)), index++);
+			if (heap.size() < upper) {
+				heap.add(keyedElement);
+			} else if (keyedElement.compareTo(heap.peek()) < 0) {
+				heap.poll();
+				heap.add(keyedElement);
+			}
+		}
+		List<KeyedElement> keyedElements = new ArrayList<>(heap);
+		Collections.sort(keyedElements);
+		List<Object> res = new ArrayList<>();
+		for (int i = lower - 1; i < keyedElements.size(); i++) {
+			res.add(keyedElements.get(i).element);
+		}
+		return res;
+	}
+
+	/**
+	 * Returns a {@link Set} containing the elements of {@code elements}.
+	 * <p>
+	 * {@code elements} is returned as is if it is already a {@link Set}.
+	 * 
+	 * @param elements
+	 *            the elements to put in the {@link Set}
+	 * @return a {@link Set} containing the elements of {@code elements}
+	 */
+	@SuppressWarnings("unchecked")
+	private Set<Object> toSet(Iterable<Object> elements) {
+		if (elements instanceof Set) {
+			return (Set<Object>) elements;
+		}
+		Set<Object> set = newSet(sizeHint(elements));
+		Iterables.addAll(set, elements);
+		return set;
+	}
+
+	/**
+	 * Creates a new empty {@link Set} able to store {@code expectedSize}
+	 * elements.
+	 * 
+	 * @param expectedSize
+	 *            the number of elements the {@link Set} is expected to store
+	 * @return a new {@link CompactVertexSet} if compact sets are enabled for
+	 *         the current thread, a new {@link HashSet} otherwise
+	 */
+	private Set<Object> newSet(int expectedSize) {
+		Graph graph = compactSetGraph.get();
+		if (nonNull(graph)) {
+			return new CompactVertexSet(graph);
+		}
+		return Sets.newHashSetWithExpectedSize(expectedSize);
+	}
+
+	/**
+	 * Returns the size of {@code elements} if it is a {@link Collection}.
+	 * 
+	 * @param elements
+	 *            the elements to compute the size of
+	 * @return the size of {@code elements} if it is a {@link Collection},
+	 *         {@code 0} otherwise
+	 */
+	private static int sizeHint(Iterable<?> elements) {
+		return elements instanceof Collection ? ((Collection<?>) elements).size() : 0;
+	}
+
+	/**
+	 * Returns the value represented by the provided {@code object}.
+	 * <p>
+	 * Navigation and attribute steps evaluated in Gremlin closures return
+	 * {@link Iterable}s or {@link Iterator}s containing a single value. This
+	 * method returns this value, or the provided {@code object} if it is not an
+	 * {@link Iterable} nor an {@link Iterator}.
+	 * 
+	 * @param object
+	 *            the object to unwrap
+	 * @return the unwrapped value, or {@code null} if {@code object} is an empty
+	 *         {@link Iterable}
+	 */
+	private static Object unwrap(Object object) {
+		Iterator<?> it = null;
+		if (object instanceof Iterator) {
+			it = (Iterator<?>) object;
+		} else if (object instanceof Iterable) {
+			it = ((Iterable<?>) object).iterator();
+		}
+		if (isNull(it)) {
+			return object;
+		}
+		return it.hasNext() ? it.next() : null;
+	}
+
+	/**
+	 * Returns whether the provided {@code number} is an integral value.
+	 * 
+	 * @param number
+	 *            the {@link Number} to check
+	 * @return {@code true} if {@code number} is an integral value,
+	 *         {@code false} otherwise
+	 */
+	private static boolean isIntegral(Number number) {
+		return number instanceof Integer || number instanceof Long || number instanceof Short
+				|| number instanceof Byte;
+	}
+
+	/**
+	 * Compares the provided values.
+	 * <p>
+	 * {@link Number}s of different types are compared according to their
+	 * numeric value, other values have to be {@link Comparable}. {@code null}
+	 * values are ordered after non-{@code null} values.
+	 * 
+	 * @param left
+	 *            the first value to compare
+	 * @param right
+	 *            the second value to compare
+	 * @return a negative integer, zero, or a positive integer as {@code left}
+	 *         is less than, equal to, or greater than {@code right}
+	 */
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static int compare(Object left, Object right) {
+		if (isNull(left) || isNull(right)) {
+			return isNull(left) ? (isNull(right) ? 0 : 1) : -1;
+		}
+		if (left instanceof Number && right instanceof Number) {
+			Number l = (Number) left;
+			Number r = (Number) right;
+			if (isIntegral(l) && isIntegral(r)) {
+				return Long.compare(l.longValue(), r.longValue());
+			}
+			return Double.compare(l.doubleValue(), r.doubleValue());
+		}
+		return ((Comparable) left).compareTo(right);
+	}
+
+	/**
+	 * An element associated to its sort key and its position in the sorted
+	 * collection.
+	 * <p>
+	 * The position is used to break ties and provide a stable ordering.
+	 */
+	private static class KeyedElement implements Comparable<KeyedElement> {
+
+		/**
+		 * The wrapped element.
+		 */
+		private final Object element;
+
+		/**
+		 * The sort key of the element.
+		 */
+		private final Object key;
+
+		/**
+		 * The position of the element in its collection.
+		 */
+		private final long index;
+
+		/**
+		 * Constructs a new {@link KeyedElement} with the provided
+		 * {@code element}, {@code key}, and {@code index}.
+		 * 
+		 * @param element
+		 *            the wrapped element
+		 * @param key
+		 *            the sort key of the element
+		 * @param index
+		 *            the position of the element in its collection
+		 */
+		private KeyedElement(Object element, Object key, long index) {
+			this.element = element;
+			this.key = key;
+			this.index = index;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 * <p>
+		 * Elements are compared according to their key, and then to their
+		 * position.
+		 */
+		@Override
+		public int compareTo(KeyedElement o) {
+			int res = compare(key, o.key);
+			return res != 0 ? res : Long.compare(index, o.index);
+		}
+
+	}
+
 	/**
 	 * A lazy holder maintaining a singleton instance of {@link GremlinHelper}.
 	 *
@@ -1,22 +1,35 @@
 package fr.inria.atlanmod.mogwai.datastore.blueprints;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.nonNull;
+
+import java.util.Collection;
+import java.util.List;
+
 import org.eclipse.emf.ecore.EPackage;
 
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.TransactionalGraph;
 import com.tinkerpop.blueprints.Vertex;
-import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
 
 /**
  * A {@link NeoEMFGraphDatastore} implementation that automatically commits
- * modifications after a given number of performed operations.
+ * modifications according to a {@link CommitPolicy}.
  * <p>
  * This mapping uses the transactional capabilities of the underlying
  * {@link Graph} to free memory by committing changes in the database during the
  * execution. It can be used in memory constrained environments to improve model
  * access scalability.
+ * <p>
+ * Only the operations modifying the model are recorded by the
+ * {@link CommitPolicy}, read operations never trigger a commit. The remaining
+ * modifications are committed when the datastore is closed.
  * 
  * @see NeoEMFGraphDatastore
+ * @see CommitPolicy
  * 
  * @author Gwendal DANIEL
  *
@@ -24,41 +37,45 @@ import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
 public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 
 	/**
-	 * The default number of operations to perform between each commit.
+	 * The estimated size (in bytes) of a created {@link Vertex}.
+	 */
+	private static final long VERTEX_BYTES = 64;
+
+	/**
+	 * The estimated size (in bytes) of a created {@link Edge}.
 	 */
-	private static final int DEFAULT_OPS_BETWEEN_COMMITS = 100000;
+	private static final long EDGE_BYTES = 48;
 
 	/**
-	 * The current number of operations to perform between each commit.
+	 * The estimated size (in bytes) of a property, without its value.
 	 */
-	private int opsBetweenCommits;
+	private static final long PROPERTY_BYTES = 32;
 
 	/**
-	 * The number of operations currently pending in the transaction.
+	 * The {@link CommitPolicy} defining when the modifications are committed.
 	 */
-	private int opCount;
+	private CommitPolicy commitPolicy;
 
 	/**
 	 * Constructs a new {@link AutocommitNeoEMFGraphDatastore} wrapping the
-	 * provided {@code graph}. The default number of operations between commits
-	 * is used to trigger transaction commits.
+	 * provided {@code graph}. The default {@link CommitPolicy} is used to
+	 * trigger transaction commits.
 	 * 
 	 * @param graph
 	 *            the underlying {@link Graph} used to store the NeoEMF model
 	 * 
 	 * @see AutocommitNeoEMFGraphDatastore#AutocommitNeoEMFGraphDatastore(Graph,
-	 *      int, EPackage)
+	 *      CommitPolicy, EPackage)
 	 */
 	public AutocommitNeoEMFGraphDatastore(Graph graph) {
-		this(graph, DEFAULT_OPS_BETWEEN_COMMITS, null);
+		this(graph, CommitPolicy.newBuilder().build(), null);
 	}
 
 	/**
 	 * Constructs a new {@link AutocommitNeoEMFGraphDatastore} wrapping the
 	 * provided {@code graph} and using {@code ePackage} to compute metamodel
 	 * information that aren't stored in the underlying database. The default
-	 * number of operation between commits is used to trigger transaction
-	 * commits.
+	 * {@link CommitPolicy} is used to trigger transaction commits.
 	 * 
 	 * @param graph
 	 *            the underlying {@link Graph} used to store the NeoEMF model
@@ -67,24 +84,24 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	 *            aren't stored in the graph
 	 * 
 	 * @see AutocommitNeoEMFGraphDatastore#AutocommitNeoEMFGraphDatastore(Graph,
-	 *      int, EPackage)
+	 *      CommitPolicy, EPackage)
 	 */
 	public AutocommitNeoEMFGraphDatastore(Graph graph, EPackage ePackage) {
-		this(graph, DEFAULT_OPS_BETWEEN_COMMITS, ePackage);
+		this(graph, CommitPolicy.newBuilder().build(), ePackage);
 	}
 
 	/**
 	 * Constructs a new {@link AutocommitNeoEMFGraphDatastore} wrapping the
 	 * provided {@code graph} and committing the changes after
-	 * {@code opsBetweenCommits} operations.
+	 * {@code opsBetweenCommits} mutations.
 	 * 
 	 * @param graph
 	 *            the underlying {@link Graph} used to store the NeoEMF model
 	 * @param opsBetweenCommits
-	 *            the number of operations to perform between each commit
+	 *            the number of mutations to perform between each commit
 	 * 
 	 * @see AutocommitNeoEMFGraphDatastore#AutocommitNeoEMFGraphDatastore(Graph,
-	 *      int, EPackage)
+	 *      CommitPolicy, EPackage)
 	 */
 	public AutocommitNeoEMFGraphDatastore(Graph graph, int opsBetweenCommits) {
 		this(graph, opsBetweenCommits, null);
@@ -94,40 +111,54 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	 * Constructs a new {@link AutocommitNeoEMFGraphDatastore} wrapping the
 	 * provided {@code graph} and using {@code ePackage} to compute metamodel
 	 * information that aren't stored in the underlying database. Changes are
-	 * committed after {@code opsBetweenCommits} operations.
+	 * committed after {@code opsBetweenCommits} mutations.
 	 * 
 	 * @param graph
 	 *            the underlying {@link Graph} used to store the NeoEMF model
 	 * @param opsBetweenCommits
-	 *            the number of operation to perform between each commit
+	 *            the number of mutations to perform between each commit
 	 * @param ePackage
 	 *            the {@link EPackage} containing metamodel information that
 	 *            aren't stored in the graph
+	 * 
+	 * @see AutocommitNeoEMFGraphDatastore#AutocommitNeoEMFGraphDatastore(Graph,
+	 *      CommitPolicy, EPackage)
 	 */
 	public AutocommitNeoEMFGraphDatastore(Graph graph, int opsBetweenCommits, EPackage ePackage) {
-		super(graph, ePackage);
-		this.opsBetweenCommits = opsBetweenCommits;
-		this.opCount = 0;
+		this(graph, CommitPolicy.mutationCount(opsBetweenCommits), ePackage);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Constructs a new {@link AutocommitNeoEMFGraphDatastore} wrapping the
+	 * provided {@code graph} and using {@code ePackage} to compute metamodel
+	 * information that aren't stored in the underlying database. Changes are
+	 * committed according to the provided {@code commitPolicy}.
+	 * 
+	 * @param graph
+	 *            the underlying {@link Graph} used to store the NeoEMF model
+	 * @param commitPolicy
+	 *            the {@link CommitPolicy} defining when the modifications are
+	 *            committed
+	 * @param ePackage
+	 *            the {@link EPackage} containing metamodel information that
+	 *            aren't stored in the graph
 	 */
-	@Override
-	public Iterable<Vertex> allOfType(String typeName) {
-		Iterable<Vertex> result = super.allOfType(typeName);
-		incrementAndCommit();
-		return result;
+	public AutocommitNeoEMFGraphDatastore(Graph graph, CommitPolicy commitPolicy, EPackage ePackage) {
+		super(graph, ePackage);
+		checkNotNull(commitPolicy, "Cannot create a datastore with the commit policy {0}", commitPolicy);
+		this.commitPolicy = commitPolicy;
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Returns the {@link CommitPolicy} used by this datastore.
+	 * <p>
+	 * The returned policy can be used to retrieve the latency of the performed
+	 * commits.
+	 * 
+	 * @return the {@link CommitPolicy} used by this datastore
 	 */
-	@Override
-	public Iterable<Vertex> allOfKind(String typeName) {
-		Iterable<Vertex> result = super.allOfKind(typeName);
-		incrementAndCommit();
-		return result;
+	public CommitPolicy getCommitPolicy() {
+		return commitPolicy;
 	}
 
 	/**
@@ -137,17 +168,8 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	public Vertex newInstance(String typeName, String typePackageNsURI, String resourceName)
 			throws NullPointerException {
 		Vertex result = super.newInstance(typeName, typePackageNsURI, resourceName);
-		incrementAndCommit();
-		return result;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public Vertex getParent(Vertex from) {
-		Vertex result = super.getParent(from);
-		incrementAndCommit();
+		// The vertex, its instanceof edge, and the updated instance counter
+		recordMutation(VERTEX_BYTES + EDGE_BYTES + PROPERTY_BYTES);
 		return result;
 	}
 
@@ -155,9 +177,10 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public Iterable<Vertex> getRef(Vertex from, String refName, String oppositeName, boolean isContainer) {
-		Iterable<Vertex> result = super.getRef(from, refName, oppositeName, isContainer);
-		incrementAndCommit();
+	public Edge setRef(Vertex from, String refName, String oppositeName, Vertex to, boolean isContainment) {
+		Edge result = super.setRef(from, refName, oppositeName, to, isContainment);
+		// The edge, its position, and the updated size of the reference
+		recordMutation(EDGE_BYTES + 2 * PROPERTY_BYTES);
 		return result;
 	}
 
@@ -165,9 +188,10 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public Edge setRef(Vertex from, String refName, String oppositeName, Vertex to, boolean isContainment) {
-		Edge result = super.setRef(from, refName, oppositeName, to, isContainment);
-		incrementAndCommit();
+	public List<Edge> setRefs(Vertex from, String refName, String oppositeName, Iterable<Vertex> to,
+			boolean isContainment) {
+		List<Edge> result = super.setRefs(from, refName, oppositeName, to, isContainment);
+		recordMutation(result.size() * (EDGE_BYTES + PROPERTY_BYTES) + PROPERTY_BYTES);
 		return result;
 	}
 
@@ -177,7 +201,7 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	@Override
 	public Vertex removeRef(Vertex from, String refName, Vertex to, boolean isContainment) {
 		Vertex result = super.removeRef(from, refName, to, isContainment);
-		incrementAndCommit();
+		recordMutation(EDGE_BYTES + PROPERTY_BYTES);
 		return result;
 	}
 
@@ -185,9 +209,9 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public Iterable<Object> getAtt(Vertex from, String attName) {
-		Iterable<Object> result = super.getAtt(from, attName);
-		incrementAndCommit();
+	public List<Vertex> removeRefs(Vertex from, String refName, Collection<Vertex> to, boolean isContainment) {
+		List<Vertex> result = super.removeRefs(from, refName, to, isContainment);
+		recordMutation(result.size() * EDGE_BYTES + PROPERTY_BYTES);
 		return result;
 	}
 
@@ -197,49 +221,53 @@ public class AutocommitNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
 	@Override
 	public Vertex setAtt(Vertex from, String attName, Object attValue) {
 		Vertex result = super.setAtt(from, attName, attValue);
-		incrementAndCommit();
+		recordMutation(PROPERTY_BYTES + estimateSize(attValue));
 		return result;
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The modifications that haven't been committed yet are committed, and the
+	 * latency of the performed commits is logged.
 	 */
 	@Override
-	public String getType(Vertex from) {
-		String result = super.getType(from);
-		incrementAndCommit();
-		return result;
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public boolean isTypeOf(Vertex from, String type) {
-		boolean result = super.isTypeOf(from, type);
-		incrementAndCommit();
-		return result;
+	public void close() {
+		super.close();
+		if (commitPolicy.getPendingMutations() > 0) {
+			commitPolicy.commit((TransactionalGraph) getDataSource());
+		}
+		MogwaiLogger.info("{0} commits performed (total: {1}ms, average: {2}ms, max: {3}ms)",
+				commitPolicy.getCommitCount(), commitPolicy.getTotalCommitTime(),
+				commitPolicy.getAverageCommitTime(), commitPolicy.getMaxCommitTime());
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Records a mutation of the estimated size {@code estimatedBytes} and
+	 * commits the changes if required by the {@link CommitPolicy}.
+	 * 
+	 * @param estimatedBytes
+	 *            the estimated size (in bytes) of the mutation
 	 */
-	@Override
-	public boolean isKindOf(Vertex from, String type) {
-		boolean result = super.isKindOf(from, type);
-		incrementAndCommit();
-		return result;
+	private void recordMutation(long estimatedBytes) {
+		if (commitPolicy.recordMutation(estimatedBytes)) {
+			commitPolicy.commit((TransactionalGraph) getDataSource());
+		}
 	}
 
 	/**
-	 * Increments the number of performed operations and commits the changes if
-	 * necessary.
+	 * Returns the estimated size (in bytes) of the provided attribute
+	 * {@code value}.
+	 * 
+	 * @param value
+	 *            the value to compute the size of
+	 * @return the estimated size of {@code value}
 	 */
-	private void incrementAndCommit() {
-		opCount = (opCount + 1) % opsBetweenCommits;
-		if (opCount == 0) {
-			((IdGraph<?>) getDataSource()).commit();
+	private long estimateSize(Object value) {
+		if (value instanceof CharSequence) {
+			return 2 * ((CharSequence) value).length();
 		}
+		return nonNull(value) ? 8 : 0;
 	}
 
 }
@@ -0,0 +1,331 @@
+package fr.inria.atlanmod.mogwai.datastore.blueprints;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EPackage;
+
+import com.google.common.collect.Lists;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.Vertex;
+
+import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
+
+/**
+ * A {@link NeoEMFGraphDatastore} implementation that records the
+ * {@link Vertex} elements created, modified, and deleted since the last
+ * checkpoint.
+ * <p>
+ * The recorded change log is used by incremental validation to re-evaluate
+ * constraints only on the elements affected by the latest modifications. Write
+ * operations performed through this datastore are tracked automatically, while
+ * modifications performed outside of Mogwai (for example through the EMF API
+ * of a NeoEMF resource) can be reported using {@link #markModified(Object)}
+ * and {@link #markDeleted(Object)}.
+ * <p>
+ * <b>Note:</b> the change log is not cleared automatically, client
+ * applications have to call {@link #checkpoint()} once all the constraints
+ * have been validated.
+ *
+ * @see NeoEMFGraphDatastore
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public class ChangeTrackingNeoEMFGraphDatastore extends NeoEMFGraphDatastore {
+
+	/**
+	 * The identifiers of the {@link Vertex} elements created since the last
+	 * checkpoint.
+	 */
+	private Set<Object> createdIds;
+
+	/**
+	 * The identifiers of the {@link Vertex} elements modified since the last
+	 * checkpoint.
+	 */
+	private Set<Object> modifiedIds;
+
+	/**
+	 * The identifiers of the {@link Vertex} elements deleted since the last
+	 * checkpoint.
+	 */
+	private Set<Object> deletedIds;
+
+	/**
+	 * Constructs a new {@link ChangeTrackingNeoEMFGraphDatastore} wrapping the
+	 * provided {@code graph}.
+	 *
+	 * @param graph
+	 *            the underlying {@link Graph} used to store the NeoEMF model
+	 *
+	 * @see ChangeTrackingNeoEMFGraphDatastore#ChangeTrackingNeoEMFGraphDatastore(Graph,
+	 *      EPackage)
+	 */
+	public ChangeTrackingNeoEMFGraphDatastore(Graph graph) {
+		this(graph, null);
+	}
+
+	/**
+	 * Constructs a new {@link ChangeTrackingNeoEMFGraphDatastore} wrapping the
+	 * provided {@code graph} and using {@code ePackage} to compute metamodel
+	 * information that aren't stored in the underlying database.
+	 *
+	 * @param graph
+	 *            the underlying {@link Graph} used to store the NeoEMF model
+	 * @param ePackage
+	 *            the {@link EPackage} containing metamodel information that
+	 *            aren't stored in the graph
+	 */
+	public ChangeTrackingNeoEMFGraphDatastore(Graph graph, EPackage ePackage) {
+		super(graph, ePackage);
+		this.createdIds = new LinkedHashSet<>();
+		this.modifiedIds = new LinkedHashSet<>();
+		this.deletedIds = new LinkedHashSet<>();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The created {@link Vertex} is recorded in the change log.
+	 */
+	@Override
+	public Vertex newInstance(String typeName, String typePackageNsURI, String resourceName)
+			throws NullPointerException {
+		Vertex result = super.newInstance(typeName, typePackageNsURI, resourceName);
+		createdIds.add(result.getId());
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Both {@code from} and {@code to} are recorded as modified, because the
+	 * new {@link Edge} can be navigated from each of them (through the
+	 * opposite or the container of {@code to}).
+	 */
+	@Override
+	public Edge setRef(Vertex from, String refName, String oppositeName, Vertex to, boolean isContainment) {
+		Edge result = super.setRef(from, refName, oppositeName, to, isContainment);
+		markModified(from.getId());
+		markModified(to.getId());
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * {@code from} and all the elements in {@code to} are recorded as
+	 * modified. {@code to} is copied before setting the references, and can
+	 * be iterated only once.
+	 */
+	@Override
+	public List<Edge> setRefs(Vertex from, String refName, String oppositeName, Iterable<Vertex> to,
+			boolean isContainment) {
+		List<Vertex> targets = Lists.newArrayList(to);
+		List<Edge> result = super.setRefs(from, refName, oppositeName, targets, isContainment);
+		markModified(from.getId());
+		for (Vertex v : targets) {
+			markModified(v.getId());
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Both {@code from} and {@code to} are recorded as modified.
+	 */
+	@Override
+	public Vertex removeRef(Vertex from, String refName, Vertex to, boolean isContainment) {
+		Vertex result = super.removeRef(from, refName, to, isContainment);
+		markModified(from.getId());
+		markModified(to.getId());
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * {@code from} and all the elements in {@code to} are recorded as
+	 * modified. {@code to} is copied before removing the references, in case
+	 * it is a view that is updated by the removal.
+	 */
+	@Override
+	public List<Vertex> removeRefs(Vertex from, String refName, Collection<Vertex> to, boolean isContainment) {
+		List<Vertex> targets = new ArrayList<>(to);
+		List<Vertex> result = super.removeRefs(from, refName, targets, isContainment);
+		markModified(from.getId());
+		for (Vertex v : targets) {
+			markModified(v.getId());
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The updated {@link Vertex} is recorded as modified.
+	 */
+	@Override
+	public Vertex setAtt(Vertex from, String attName, Object attValue) {
+		Vertex result = super.setAtt(from, attName, attValue);
+		markModified(from.getId());
+		return result;
+	}
+
+	/**
+	 * Records the {@link Vertex} with the provided {@code id} as modified.
+	 * <p>
+	 * This method is called by the write operations of this datastore, and can
+	 * be used by client applications to report modifications that are not
+	 * performed through Mogwai.
+	 *
+	 * @param id
+	 *            the identifier of the modified {@link Vertex}
+	 */
+	public void markModified(Object id) {
+		checkNotNull(id, "Cannot record a modification on a null identifier");
+		if (!createdIds.contains(id) && !deletedIds.contains(id)) {
+			modifiedIds.add(id);
+		}
+	}
+
+	/**
+	 * Records the {@link Vertex} with the provided {@code id} as deleted.
+	 * <p>
+	 * {@link ModelDatastore} doesn't define element deletion, this method is
+	 * used by client applications to report deletions that are not performed
+	 * through Mogwai.
+	 * <p>
+	 * If the {@link Vertex} can still be resolved in the underlying
+	 * {@link Graph}, the elements connected to it (the sources of its incoming
+	 * {@link Edge}s and the targets of its outgoing ones) are recorded as
+	 * modified, allowing incremental validation to re-evaluate the elements
+	 * that referred to the deleted one.
+	 * <p>
+	 * <b>Note:</b> this method should be called before removing the
+	 * {@link Vertex} from the {@link Graph}. Otherwise its former neighbors
+	 * cannot be computed anymore, and have to be reported with
+	 * {@link #markModified(Object)}.
+	 *
+	 * @param id
+	 *            the identifier of the deleted {@link Vertex}
+	 */
+	public void markDeleted(Object id) {
+		checkNotNull(id, "Cannot record a deletion on a null identifier");
+		Vertex vertex = getDataSource().getVertex(id);
+		createdIds.remove(id);
+		modifiedIds.remove(id);
+		deletedIds.add(id);
+		if (nonNull(vertex)) {
+			for (Vertex neighbor : vertex.getVertices(Direction.BOTH)) {
+				if (!id.equals(neighbor.getId())) {
+					markModified(neighbor.getId());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the identifiers of the {@link Vertex} elements created since the
+	 * last checkpoint.
+	 *
+	 * @return an unmodifiable view of the created {@link Vertex} identifiers
+	 */
+	public Set<Object> getCreatedIds() {
+		return Collections.unmodifiableSet(createdIds);
+	}
+
+	/**
+	 * Returns the identifiers of the {@link Vertex} elements modified since the
+	 * last checkpoint.
+	 * <p>
+	 * <b>Note:</b> elements created since the last checkpoint are not
+	 * contained in the returned {@link Set}, see {@link #getCreatedIds()}.
+	 *
+	 * @return an unmodifiable view of the modified {@link Vertex} identifiers
+	 */
+	public Set<Object> getModifiedIds() {
+		return Collections.unmodifiableSet(modifiedIds);
+	}
+
+	/**
+	 * Returns the identifiers of the {@link Vertex} elements deleted since the
+	 * last checkpoint.
+	 *
+	 * @return an unmodifiable view of the deleted {@link Vertex} identifiers
+	 */
+	public Set<Object> getDeletedIds() {
+		return Collections.unmodifiableSet(deletedIds);
+	}
+
+	/**
+	 * Returns the {@link Vertex} elements created or modified since the last
+	 * checkpoint.
+	 * <p>
+	 * Identifiers that cannot be resolved in the underlying {@link Graph} are
+	 * ignored.
+	 *
+	 * @return a {@link Set} containing the created and modified {@link Vertex}
+	 *         elements
+	 */
+	public Set<Vertex> getChangedVertices() {
+		Set<Vertex> result = new LinkedHashSet<>();
+		for (Object id : createdIds) {
+			addVertex(result, id);
+		}
+		for (Object id : modifiedIds) {
+			addVertex(result, id);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns whether the change log contains changes.
+	 *
+	 * @return {@code true} if an element has been created, modified, or
+	 *         deleted since the last checkpoint, {@code false} otherwise
+	 */
+	public boolean hasChanges() {
+		return !(createdIds.isEmpty() && modifiedIds.isEmpty() && deletedIds.isEmpty());
+	}
+
+	/**
+	 * Clears the change log.
+	 * <p>
+	 * This method should be called once all the constraints have been
+	 * validated against the current state of the model.
+	 */
+	public void checkpoint() {
+		createdIds.clear();
+		modifiedIds.clear();
+		deletedIds.clear();
+	}
+
+	/**
+	 * Resolves the {@link Vertex} with the provided {@code id} and adds it to
+	 * {@code vertices} if it exists.
+	 *
+	 * @param vertices
+	 *            the {@link Set} to add the resolved {@link Vertex} to
+	 * @param id
+	 *            the identifier of the {@link Vertex} to resolve
+	 */
+	private void addVertex(Set<Vertex> vertices, Object id) {
+		Vertex vertex = getDataSource().getVertex(id);
+		if (nonNull(vertex)) {
+			vertices.add(vertex);
+		}
+	}
+
+}
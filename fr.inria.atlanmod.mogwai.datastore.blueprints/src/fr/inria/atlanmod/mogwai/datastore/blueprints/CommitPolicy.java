@@ -0,0 +1,363 @@
+package fr.inria.atlanmod.mogwai.datastore.blueprints;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.TimeUnit;
+
+import com.tinkerpop.blueprints.TransactionalGraph;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+
+/**
+ * Defines when an {@link AutocommitNeoEMFGraphDatastore} commits the
+ * modifications pending in the current transaction.
+ * <p>
+ * Only mutations are recorded by the policy: read operations never trigger a
+ * commit. A commit is required as soon as one of the enabled thresholds is
+ * reached:
+ * <ul>
+ * <li><b>mutations:</b> the number of mutations performed in the
+ * transaction</li>
+ * <li><b>delay:</b> the time elapsed since the first mutation of the
+ * transaction</li>
+ * <li><b>bytes:</b> the estimated size of the modifications performed in the
+ * transaction</li>
+ * </ul>
+ * The policy also records the latency of the commits it performs, that can be
+ * retrieved with {@link #getCommitCount()}, {@link #getTotalCommitTime()},
+ * {@link #getMaxCommitTime()}, and {@link #getAverageCommitTime()}.
+ * <p>
+ * Instances of this class are created using {@link #newBuilder()}:
+ *
+ * <pre>
+ * {@code
+ * CommitPolicy policy = CommitPolicy.newBuilder()
+ * 	.maxMutations(50000)
+ * 	.maxDelay(10, TimeUnit.SECONDS)
+ * 	.maxBytes(64 * 1024 * 1024)
+ * 	.build();
+ * }
+ * </pre>
+ * <p>
+ * <b>Note:</b> Blueprints transactions are bound to the thread that performed
+ * the modifications, commits are therefore computed synchronously by the
+ * thread recording the mutation that reached a threshold.
+ *
+ * @see AutocommitNeoEMFGraphDatastore
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public class CommitPolicy {
+
+	/**
+	 * The default number of mutations to perform between each commit.
+	 */
+	public static final int DEFAULT_MAX_MUTATIONS = 100000;
+
+	/**
+	 * The number of mutations triggering a commit, {@code 0} if the threshold
+	 * is disabled.
+	 */
+	private final int maxMutations;
+
+	/**
+	 * The delay (in nanoseconds) triggering a commit, {@code 0} if the
+	 * threshold is disabled.
+	 */
+	private final long maxDelay;
+
+	/**
+	 * The estimated size (in bytes) of the modifications triggering a commit,
+	 * {@code 0} if the threshold is disabled.
+	 */
+	private final long maxBytes;
+
+	/**
+	 * The number of mutations pending in the current transaction.
+	 */
+	private int mutationCount;
+
+	/**
+	 * The estimated size (in bytes) of the modifications pending in the
+	 * current transaction.
+	 */
+	private long pendingBytes;
+
+	/**
+	 * The time (in nanoseconds) of the first mutation of the current
+	 * transaction.
+	 */
+	private long transactionStart;
+
+	/**
+	 * The number of commits performed by this policy.
+	 */
+	private long commitCount;
+
+	/**
+	 * The total time (in nanoseconds) spent in commits.
+	 */
+	private long totalCommitTime;
+
+	/**
+	 * The longest commit time (in nanoseconds).
+	 */
+	private long maxCommitTime;
+
+	/**
+	 * Constructs a new {@link CommitPolicy} with the thresholds defined in the
+	 * provided {@code builder}.
+	 * <p>
+	 * <b>Note:</b> this constructor is not public, use {@link #newBuilder()}
+	 * to create new instances of this class.
+	 *
+	 * @param builder
+	 *            the {@link Builder} defining the thresholds of the policy
+	 */
+	protected CommitPolicy(Builder builder) {
+		this.maxMutations = builder.maxMutations;
+		this.maxDelay = builder.maxDelay;
+		this.maxBytes = builder.maxBytes;
+		this.mutationCount = 0;
+		this.pendingBytes = 0;
+	}
+
+	/**
+	 * Creates a new {@link Builder} that can be chained with threshold
+	 * definitions.
+	 * <p>
+	 * All the thresholds are disabled in the created {@link Builder}. If none
+	 * of them is enabled the built policy commits every
+	 * {@link #DEFAULT_MAX_MUTATIONS} mutations.
+	 *
+	 * @return a new {@link Builder}
+	 */
+	public static Builder newBuilder() {
+		return new Builder();
+	}
+
+	/**
+	 * Creates a new {@link CommitPolicy} that commits the modifications every
+	 * {@code maxMutations} mutations.
+	 *
+	 * @param maxMutations
+	 *            the number of mutations to perform between each commit
+	 * @return the created {@link CommitPolicy}
+	 */
+	public static CommitPolicy mutationCount(int maxMutations) {
+		return newBuilder().maxMutations(maxMutations).build();
+	}
+
+	/**
+	 * Records a mutation of the estimated size {@code estimatedBytes} and
+	 * returns whether a commit is required.
+	 *
+	 * @param estimatedBytes
+	 *            the estimated size (in bytes) of the mutation
+	 * @return {@code true} if a commit is required, {@code false} otherwise
+	 *
+	 * @see #commit(TransactionalGraph)
+	 */
+	public boolean recordMutation(long estimatedBytes) {
+		if (mutationCount == 0) {
+			transactionStart = System.nanoTime();
+		}
+		mutationCount++;
+		pendingBytes += estimatedBytes;
+		return isCommitRequired();
+	}
+
+	/**
+	 * Returns whether one of the enabled thresholds has been reached by the
+	 * current transaction.
+	 *
+	 * @return {@code true} if a commit is required, {@code false} otherwise
+	 */
+	public boolean isCommitRequired() {
+		if (mutationCount == 0) {
+			return false;
+		}
+		if (maxMutations > 0 && mutationCount >= maxMutations) {
+			return true;
+		}
+		if (maxBytes > 0 && pendingBytes >= maxBytes) {
+			return true;
+		}
+		if (maxDelay > 0 && System.nanoTime() - transactionStart >= maxDelay) {
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Commits the current transaction of {@code graph} and records the commit
+	 * latency.
+	 *
+	 * @param graph
+	 *            the {@link TransactionalGraph} to commit
+	 */
+	public void commit(TransactionalGraph graph) {
+		checkNotNull(graph, "Cannot commit the graph {0}", graph);
+		long begin = System.nanoTime();
+		graph.commit();
+		long latency = System.nanoTime() - begin;
+		commitCount++;
+		totalCommitTime += latency;
+		maxCommitTime = Math.max(maxCommitTime, latency);
+		MogwaiLogger.debug("Committed {0} mutations (~{1} bytes) in {2}ms", mutationCount, pendingBytes,
+				TimeUnit.NANOSECONDS.toMillis(latency));
+		mutationCount = 0;
+		pendingBytes = 0;
+	}
+
+	/**
+	 * Returns the number of mutations pending in the current transaction.
+	 *
+	 * @return the number of pending mutations
+	 */
+	public int getPendingMutations() {
+		return mutationCount;
+	}
+
+	/**
+	 * Returns the number of commits performed by this policy.
+	 *
+	 * @return the number of commits
+	 */
+	public long getCommitCount() {
+		return commitCount;
+	}
+
+	/**
+	 * Returns the total time spent in the commits performed by this policy.
+	 *
+	 * @return the total commit time in milliseconds
+	 */
+	public long getTotalCommitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(totalCommitTime);
+	}
+
+	/**
+	 * Returns the time spent in the longest commit performed by this policy.
+	 *
+	 * @return the longest commit time in milliseconds
+	 */
+	public long getMaxCommitTime() {
+		return TimeUnit.NANOSECONDS.toMillis(maxCommitTime);
+	}
+
+	/**
+	 * Returns the average time spent in the commits performed by this policy.
+	 *
+	 * @return the average commit time in milliseconds, or {@code 0} if no
+	 *         commit has been performed
+	 */
+	public double getAverageCommitTime() {
+		if (commitCount == 0) {
+			return 0;
+		}
+		return (double) totalCommitTime / commitCount / TimeUnit.MILLISECONDS.toNanos(1);
+	}
+
+	/**
+	 * A builder that creates {@link CommitPolicy} instances.
+	 *
+	 * @see CommitPolicy#newBuilder()
+	 *
+	 * @author Gwendal DANIEL
+	 *
+	 */
+	public static class Builder {
+
+		/**
+		 * The number of mutations triggering a commit.
+		 */
+		private int maxMutations;
+
+		/**
+		 * The delay (in nanoseconds) triggering a commit.
+		 */
+		private long maxDelay;
+
+		/**
+		 * The estimated size (in bytes) of the modifications triggering a
+		 * commit.
+		 */
+		private long maxBytes;
+
+		/**
+		 * Creates a new {@link Builder} with all the thresholds disabled.
+		 * <p>
+		 * <b>Note:</b> this constructor is not public, use
+		 * {@link CommitPolicy#newBuilder()} instead.
+		 */
+		protected Builder() {
+			this.maxMutations = 0;
+			this.maxDelay = 0;
+			this.maxBytes = 0;
+		}
+
+		/**
+		 * Sets the number of mutations triggering a commit.
+		 *
+		 * @param maxMutations
+		 *            the number of mutations to perform between each commit
+		 * @return the current builder
+		 */
+		public Builder maxMutations(int maxMutations) {
+			checkArgument(maxMutations > 0, "Cannot set the maximum number of mutations to {0}", maxMutations);
+			this.maxMutations = maxMutations;
+			return this;
+		}
+
+		/**
+		 * Sets the delay triggering a commit.
+		 * <p>
+		 * The delay is computed from the first mutation of the transaction,
+		 * and is checked each time a mutation is recorded.
+		 *
+		 * @param delay
+		 *            the maximum age of a transaction
+		 * @param unit
+		 *            the {@link TimeUnit} of {@code delay}
+		 * @return the current builder
+		 */
+		public Builder maxDelay(long delay, TimeUnit unit) {
+			checkArgument(delay > 0, "Cannot set the maximum delay to {0}", delay);
+			checkNotNull(unit, "Cannot set the maximum delay with the unit {0}", unit);
+			this.maxDelay = unit.toNanos(delay);
+			return this;
+		}
+
+		/**
+		 * Sets the estimated size of the modifications triggering a commit.
+		 *
+		 * @param maxBytes
+		 *            the maximum estimated size (in bytes) of a transaction
+		 * @return the current builder
+		 */
+		public Builder maxBytes(long maxBytes) {
+			checkArgument(maxBytes > 0, "Cannot set the maximum size to {0}", maxBytes);
+			this.maxBytes = maxBytes;
+			return this;
+		}
+
+		/**
+		 * Creates a new {@link CommitPolicy} with the defined thresholds.
+		 * <p>
+		 * If no threshold has been defined the created policy commits every
+		 * {@link CommitPolicy#DEFAULT_MAX_MUTATIONS} mutations.
+		 *
+		 * @return the created {@link CommitPolicy}
+		 */
+		public CommitPolicy build() {
+			if (maxMutations == 0 && maxDelay == 0 && maxBytes == 0) {
+				maxMutations = DEFAULT_MAX_MUTATIONS;
+			}
+			return new CommitPolicy(this);
+		}
+	}
+
+}
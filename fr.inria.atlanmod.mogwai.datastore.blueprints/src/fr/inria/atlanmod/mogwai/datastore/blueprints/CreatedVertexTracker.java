@@ -0,0 +1,300 @@
+package fr.inria.atlanmod.mogwai.datastore.blueprints;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.carrotsearch.hppc.ObjectOpenHashSet;
+import com.carrotsearch.hppc.cursors.ObjectCursor;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
+import com.tinkerpop.blueprints.Vertex;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+
+/**
+ * Tracks the identifiers of the {@link Vertex} elements created by a
+ * {@link NeoEMFGraphDatastore}, grouped by the name of the resource they
+ * belong to.
+ * <p>
+ * Identifiers are stored in open-addressing hash sets, avoiding the entry
+ * objects allocated by {@link java.util.HashSet}. When the number of
+ * identifiers held in memory for a resource reaches the memory threshold they
+ * are spilled to a temporary file, bounding the memory consumption of the
+ * tracker. Spill files are deleted by {@link #close()}.
+ * <p>
+ * <b>Note:</b> {@link #remove(Object)} only removes the identifiers that are
+ * still in memory. Clients iterating the tracked identifiers have to check
+ * that the corresponding elements still need to be processed.
+ * <p>
+ * Spilled identifiers are stored as {@link String}s, which matches the
+ * {@link String} identifiers of the NeoEMF {@code IdGraph}.
+ *
+ * @see NeoEMFGraphDatastore#close()
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+class CreatedVertexTracker {
+
+	/**
+	 * The number of identifiers kept in memory for a resource before being
+	 * spilled to disk.
+	 */
+	private final int memoryThreshold;
+
+	/**
+	 * The tracked identifiers, grouped by resource name.
+	 */
+	private final Map<String, Bucket> buckets;
+
+	/**
+	 * Constructs a new empty {@link CreatedVertexTracker} keeping at most
+	 * {@code memoryThreshold} identifiers in memory for each resource.
+	 *
+	 * @param memoryThreshold
+	 *            the number of identifiers kept in memory for a resource
+	 *            before being spilled to disk
+	 */
+	public CreatedVertexTracker(int memoryThreshold) {
+		checkArgument(memoryThreshold > 0, "Cannot create a tracker with the memory threshold {0}", memoryThreshold);
+		this.memoryThreshold = memoryThreshold;
+		this.buckets = new HashMap<>();
+	}
+
+	/**
+	 * Tracks the provided {@code id} for the resource {@code resourceName}.
+	 *
+	 * @param id
+	 *            the identifier of the created {@link Vertex}
+	 * @param resourceName
+	 *            the name of the resource containing the created {@link Vertex}
+	 */
+	public void add(Object id, String resourceName) {
+		Bucket bucket = buckets.get(resourceName);
+		if (isNull(bucket)) {
+			bucket = new Bucket();
+			buckets.put(resourceName, bucket);
+		}
+		bucket.add(id);
+		if (bucket.memorySize() >= memoryThreshold) {
+			bucket.spill(resourceName);
+		}
+	}
+
+	/**
+	 * Stops tracking the provided {@code id} if it is still in memory.
+	 *
+	 * @param id
+	 *            the identifier to remove
+	 */
+	public void remove(Object id) {
+		for (Bucket bucket : buckets.values()) {
+			if (bucket.remove(id)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Returns the names of the resources containing tracked identifiers.
+	 *
+	 * @return the names of the resources
+	 */
+	public Set<String> getResourceNames() {
+		return buckets.keySet();
+	}
+
+	/**
+	 * Returns an {@link Iterator} over the identifiers tracked for the
+	 * resource {@code resourceName}.
+	 * <p>
+	 * Spilled identifiers are read from disk when the returned
+	 * {@link Iterator} reaches them.
+	 *
+	 * @param resourceName
+	 *            the name of the resource to get the identifiers of
+	 * @return an {@link Iterator} over the tracked identifiers
+	 */
+	public Iterator<Object> ids(String resourceName) {
+		Bucket bucket = buckets.get(resourceName);
+		if (isNull(bucket)) {
+			return Collections.emptyIterator();
+		}
+		return bucket.iterator();
+	}
+
+	/**
+	 * Stops tracking all the identifiers, closes the opened spill file readers,
+	 * and deletes the spill files.
+	 * <p>
+	 * The tracker can be reused after being closed.
+	 */
+	public void close() {
+		for (Bucket bucket : buckets.values()) {
+			bucket.close();
+		}
+		buckets.clear();
+	}
+
+	/**
+	 * The identifiers tracked for a single resource.
+	 */
+	private static class Bucket {
+
+		/**
+		 * The identifiers held in memory.
+		 */
+		private final ObjectOpenHashSet<Object> memoryIds = new ObjectOpenHashSet<>();
+
+		/**
+		 * The file containing the spilled identifiers, {@code null} if no
+		 * identifier has been spilled.
+		 */
+		private File spillFile;
+
+		/**
+		 * The stream used to append identifiers to {@link #spillFile}.
+		 */
+		private DataOutputStream spillStream;
+
+		/**
+		 * The readers opened on {@link #spillFile} by {@link #iterator()}.
+		 */
+		private final List<SpillIterator> spillReaders = new ArrayList<>();
+
+		public void add(Object id) {
+			memoryIds.add(id);
+		}
+
+		public boolean remove(Object id) {
+			return memoryIds.removeAllOccurrences(id) > 0;
+		}
+
+		public int memorySize() {
+			return memoryIds.size();
+		}
+
+		/**
+		 * Appends the identifiers held in memory to the spill file and clears
+		 * them.
+		 *
+		 * @param resourceName
+		 *            the name of the resource, used in log messages
+		 */
+		public void spill(String resourceName) {
+			try {
+				if (isNull(spillStream)) {
+					spillFile = File.createTempFile("mogwai-created", ".bin");
+					spillStream = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(spillFile)));
+				}
+				MogwaiLogger.debug("Spilling {0} created vertices of {1} to {2}", memorySize(), resourceName,
+						spillFile);
+				for (ObjectCursor<Object> c : memoryIds) {
+					spillStream.writeUTF(c.value.toString());
+				}
+				memoryIds.clear();
+			} catch (IOException e) {
+				MogwaiLogger.error(e, "Cannot spill the created vertices of {0}", resourceName);
+				throw new IllegalStateException(MessageFormat.format("Cannot spill the created vertices of {0}",
+						resourceName), e);
+			}
+		}
+
+		public Iterator<Object> iterator() {
+			Iterator<Object> memoryIterator = Iterators.transform(memoryIds.iterator(), c -> c.value);
+			if (isNull(spillFile)) {
+				return memoryIterator;
+			}
+			try {
+				spillStream.flush();
+				DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(spillFile)));
+				SpillIterator spillIterator = new SpillIterator(in);
+				spillReaders.add(spillIterator);
+				return Iterators.concat(spillIterator, memoryIterator);
+			} catch (IOException e) {
+				MogwaiLogger.error(e, "Cannot read the spilled vertices from {0}", spillFile);
+				throw new IllegalStateException(MessageFormat.format("Cannot read the spilled vertices from {0}",
+						spillFile), e);
+			}
+		}
+
+		public void close() {
+			memoryIds.clear();
+			for (SpillIterator reader : spillReaders) {
+				reader.closeQuietly();
+			}
+			spillReaders.clear();
+			if (nonNull(spillStream)) {
+				try {
+					spillStream.close();
+				} catch (IOException e) {
+					MogwaiLogger.warn(e, "Cannot close the spill file {0}", spillFile);
+				}
+				if (!spillFile.delete()) {
+					MogwaiLogger.warn("Cannot delete the spill file {0}", spillFile);
+				}
+				spillStream = null;
+				spillFile = null;
+			}
+		}
+	}
+
+	/**
+	 * An {@link Iterator} reading the identifiers stored in a spill file.
+	 * <p>
+	 * The underlying stream is closed when the end of the file is reached.
+	 */
+	private static class SpillIterator extends AbstractIterator<Object> {
+
+		/**
+		 * The stream to read the identifiers from.
+		 */
+		private final DataInputStream in;
+
+		public SpillIterator(DataInputStream in) {
+			this.in = in;
+		}
+
+		@Override
+		protected Object computeNext() {
+			try {
+				return in.readUTF();
+			} catch (EOFException e) {
+				closeQuietly();
+				return endOfData();
+			} catch (IOException e) {
+				closeQuietly();
+				MogwaiLogger.error(e, "Cannot read the spilled vertices");
+				throw new IllegalStateException("Cannot read the spilled vertices", e);
+			}
+		}
+
+		private void closeQuietly() {
+			try {
+				in.close();
+			} catch (IOException e) {
+				MogwaiLogger.warn(e, "Cannot close the spill file");
+			}
+		}
+	}
+
+}
@@ -2,15 +2,18 @@ package fr.inria.atlanmod.mogwai.datastore.blueprints;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -19,7 +22,9 @@ import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EPackage;
 
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Table;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Graph;
@@ -27,7 +32,6 @@ import com.tinkerpop.blueprints.Index;
 import com.tinkerpop.blueprints.KeyIndexableGraph;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
-import com.tinkerpop.pipes.util.structures.Pair;
 
 import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
 import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
@@ -101,6 +105,12 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 	 */
 	private static final String KEY_EPACKAGE_NSURI = "nsURI";
 
+	/**
+	 * The property key used to store the number of instances of a metaclass in
+	 * metaclass {@link Vertex} elements.
+	 */
+	private static final String KEY_INSTANCE_COUNT = "instanceCount";
+
 	/**
 	 * The property key used to define the index of an {@link Edge} in an
 	 * ordered collection.
@@ -136,6 +146,24 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 	 */
 	private static final String CONTAINING_FEATURE_KEY = "containingFeature";
 
+	/**
+	 * The default number of created {@link Vertex} identifiers kept in memory
+	 * for a resource before being spilled to disk.
+	 */
+	public static final int DEFAULT_CREATED_VERTICES_THRESHOLD = 1000000;
+
+	/**
+	 * The number of top-level {@link Vertex} elements linked to their resource
+	 * root between each commit when the datastore is closed.
+	 */
+	private static final int ROOT_LINK_BATCH_SIZE = 10000;
+
+	/**
+	 * The default number of mutations performed between each commit in
+	 * bulk-load mode.
+	 */
+	public static final int DEFAULT_BULK_LOAD_BUFFER_SIZE = 100000;
+
 	/**
 	 * The {@link Graph} instance containing the model to manipulate.
 	 */
@@ -156,6 +184,59 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 	 */
 	private EPackage ePackage;
 
+	/**
+	 * Tracks the {@link Vertex} elements created by
+	 * {@link #newInstance(String, String, String)} that are not contained
+	 * yet.
+	 * <p>
+	 * These elements are linked to their resource root when the datastore is
+	 * closed (see {@link #close()}).
+	 */
+	private CreatedVertexTracker createdVertices = new CreatedVertexTracker(DEFAULT_CREATED_VERTICES_THRESHOLD);
+
+	/**
+	 * Whether the datastore is in bulk-load mode.
+	 * 
+	 * @see #startBulkLoad(int)
+	 * @see #finishBulkLoad()
+	 */
+	private boolean bulkLoad = false;
+
+	/**
+	 * The number of mutations performed between each commit in bulk-load
+	 * mode.
+	 */
+	private int bulkLoadBufferSize;
+
+	/**
+	 * The number of mutations performed since the last commit in bulk-load
+	 * mode.
+	 */
+	private int bulkLoadMutations;
+
+	/**
+	 * The metaclass {@link Vertex} elements accessed in bulk-load mode, grouped
+	 * by metaclass name.
+	 */
+	private Map<String, List<Vertex>> bulkMetaclasses;
+
+	/**
+	 * The metaclass {@link Vertex} elements created in bulk-load mode that
+	 * haven't been added to {@link #metaclassIndex} yet.
+	 */
+	private List<Vertex> pendingIndexedMetaclasses;
+
+	/**
+	 * The instance counter increments of the metaclass {@link Vertex} elements
+	 * that haven't been written yet in bulk-load mode.
+	 */
+	private Map<Vertex, Long> pendingInstanceCounts;
+
+	/**
+	 * The reference sizes that haven't been written yet in bulk-load mode.
+	 */
+	private Table<Vertex, String, Integer> pendingSizes;
+
 	/**
 	 * Constructs a new {@link NeoEMFGraphDatastore} wrapping the provided
 	 * {@code graph}.
@@ -269,36 +350,93 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 					.getName());
 			result = allOfType(typeName);
 		} else {
-			EClassifier classifier = ePackage.getEClassifier(typeName);
-			if (classifier instanceof EClass) {
-				EClass eClass = (EClass)classifier;
-				Set<EClass> eClassesToFind = new HashSet<>();
-				eClass.getEPackage().getEClassifiers()
-					.stream()
-					.filter(EClass.class::isInstance)
-					.map(EClass.class::cast)
-					.filter(c -> eClass.isSuperTypeOf(c) && ! c.isAbstract())
-					.forEach(eClassesToFind::add);
-				List<Iterable<Vertex>> allInstances = new ArrayList<>();
-				for(EClass ec : eClassesToFind) {
-					Vertex metaVertex = getMetaclassVertex(ec.getName(), null);
-					if(nonNull(metaVertex)) {
-						allInstances.add(metaVertex.getVertices(Direction.IN, KEY_INSTANCE_OF));
-					}
+			List<Iterable<Vertex>> allInstances = new ArrayList<>();
+			for(EClass ec : getConcreteSubTypes(typeName)) {
+				Vertex metaVertex = getMetaclassVertex(ec.getName(), null);
+				if(nonNull(metaVertex)) {
+					allInstances.add(metaVertex.getVertices(Direction.IN, KEY_INSTANCE_OF));
 				}
-				result = Iterables.concat(allInstances);
-
-			} else {
-				MogwaiLogger.error("EPackage {0} doesn't contain an EClass for {1} (found {2})", ePackage.getName(),
-						typeName, classifier);
-				throw new IllegalStateException(MessageFormat.format(
-						"EPackage {0} doesn't contain an EClass for {1} (found {2})", ePackage.getName(), typeName,
-						classifier));
 			}
+			result = Iterables.concat(allInstances);
 		}
 		return result;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The result is read from the instance counter of the metaclass
+	 * {@link Vertex}. Metaclasses that don't define a counter (for example if
+	 * they have been created by NeoEMF) are iterated, see
+	 * {@link #rebuildInstanceCounters()} to initialize their counter.
+	 */
+	@Override
+	public long countOfType(String typeName) {
+		Vertex metaClassVertex = getMetaclassVertex(typeName, null);
+		if (isNull(metaClassVertex)) {
+			return 0;
+		}
+		Number count = metaClassVertex.getProperty(KEY_INSTANCE_COUNT);
+		if (isNull(count)) {
+			return Iterables.size(metaClassVertex.getVertices(Direction.IN, KEY_INSTANCE_OF));
+		}
+		if (bulkLoad && pendingInstanceCounts.containsKey(metaClassVertex)) {
+			return count.longValue() + pendingInstanceCounts.get(metaClassVertex);
+		}
+		return count.longValue();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The result is computed from the instance counters of the concrete
+	 * subclasses of {@code typeName} (see {@link #countOfType(String)}). If no
+	 * {@link EPackage} is set this method delegates to
+	 * {@link #countOfType(String)} and logs a warning.
+	 */
+	@Override
+	public long countOfKind(String typeName) {
+		if (isNull(ePackage)) {
+			MogwaiLogger.warn("{0} doesn't support countOfKind mapping, computing countOfType instead", this
+					.getClass().getName());
+			return countOfType(typeName);
+		}
+		long count = 0;
+		for (EClass ec : getConcreteSubTypes(typeName)) {
+			count += countOfType(ec.getName());
+		}
+		return count;
+	}
+
+	/**
+	 * Recomputes the instance counters of all the metaclass {@link Vertex}
+	 * elements stored in the graph.
+	 * <p>
+	 * Instance counters are maintained by {@link #newInstance(String, String, String)}
+	 * in the same transaction as the created {@link Vertex}, but they are not
+	 * updated by modifications performed outside of Mogwai (for example
+	 * through the EMF API of a NeoEMF resource). This method can be used to
+	 * repair them, or to initialize them on an existing database.
+	 * <p>
+	 * <b>Note:</b> this method iterates all the {@link Vertex} elements in the
+	 * graph and commits the updated counters.
+	 * 
+	 * @return the number of updated metaclass {@link Vertex} elements
+	 */
+	public int rebuildInstanceCounters() {
+		int updated = 0;
+		for (Vertex vertex : graph.getVertices()) {
+			if (nonNull(vertex.getProperty(KEY_EPACKAGE_NSURI)) && nonNull(vertex.getProperty(KEY_ECLASS_NAME))) {
+				long count = Iterables.size(vertex.getVertices(Direction.IN, KEY_INSTANCE_OF));
+				vertex.setProperty(KEY_INSTANCE_COUNT, count);
+				updated++;
+			}
+		}
+		graph.commit();
+		MogwaiLogger.info("Rebuilt the instance counters of {0} metaclasses", updated);
+		return updated;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -324,8 +462,14 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		Vertex eClassVertex = getMetaclassVertex(typeName, typePackageNsURI);
 		if (isNull(eClassVertex)) {
 			eClassVertex = createMetaclassVertex(typeName, typePackageNsURI);
-			metaclassIndex.put(KEY_NAME, typeName, eClassVertex);
+			if (bulkLoad) {
+				bulkMetaclasses.get(typeName).add(eClassVertex);
+				pendingIndexedMetaclasses.add(eClassVertex);
+			} else {
+				metaclassIndex.put(KEY_NAME, typeName, eClassVertex);
+			}
 		}
+		incrementInstanceCount(eClassVertex);
 		long endGetMetaclass = System.currentTimeMillis();
 		newInstanceGetMetaclass += (endGetMetaclass - endNewVertex);
 		/*
@@ -338,11 +482,10 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		long end = System.currentTimeMillis();
 		newInstanceTime += (end - begin);
 		newInstanceSetRef += (end - begin2);
-		createdVertices.put(vertex.getId(), new Pair<Vertex, String>(vertex, resourceName));
+		createdVertices.add(vertex.getId(), resourceName);
+		recordBulkLoadMutations(1);
 		return vertex;
 	}
-	
-	public Map<Object, Pair<Vertex,String>> createdVertices = new HashMap<>();
 
 	public static long newInstanceTime = 0;
 	public static long newInstanceSetRef = 0;
@@ -379,6 +522,50 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		return result;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Negative indices are resolved and out of bounds indices are rejected
+	 * using the {@code <refName>:size} property of {@code from}, without
+	 * iterating the reference. References that don't store their size (such
+	 * as single-valued references) are iterated.
+	 * <p>
+	 * <b>Note:</b> the element itself is retrieved by filtering the
+	 * {@code refName} {@link Edge}s of {@code from} on their {@code position}
+	 * property. Blueprints doesn't index edge properties, so this filter still
+	 * iterates the edges of the reference until it finds the matching one.
+	 */
+	@Override
+	public Vertex getRefAt(Vertex from, String refName, String oppositeName, boolean isContainer, int index) {
+		int size = getSize(from, refName);
+		if ((isContainer && nonNull(oppositeName) && !oppositeName.equals("")) || size == 0) {
+			return PipesDatastore.super.getRefAt(from, refName, oppositeName, isContainer, index);
+		}
+		int position = index < 0 ? size + index : index;
+		if (position < 0 || position >= size) {
+			return null;
+		}
+		return Iterables.getFirst(
+				from.query().direction(Direction.OUT).labels(refName).has(POSITION_KEY, position).limit(1).vertices(),
+				null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The size is read from the {@code <refName>:size} property of
+	 * {@code from}. References that don't store their size (such as
+	 * single-valued references) are iterated.
+	 */
+	@Override
+	public int sizeOf(Vertex from, String refName, String oppositeName, boolean isContainer) {
+		int size = getSize(from, refName);
+		if ((isContainer && nonNull(oppositeName) && !oppositeName.equals("")) || size == 0) {
+			return PipesDatastore.super.sizeOf(from, refName, oppositeName, isContainer);
+		}
+		return size;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -407,37 +594,143 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		int newSize = size + 1;
 		newEdge.setProperty(POSITION_KEY, size);
 		setSize(from, refName, newSize);
+		recordBulkLoadMutations(1);
 		return newEdge;
 	}
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The size of the reference is read and written once, and the positions
+	 * of the created {@link Edge}s are allocated from it.
 	 */
 	@Override
-	public Vertex removeRef(Vertex from, String refName, Vertex to, boolean isContainment) {
+	public List<Edge> setRefs(Vertex from, String refName, String oppositeName, Iterable<Vertex> to,
+			boolean isContainment) {
+		List<Edge> result = new ArrayList<>();
 		int size = getSize(from, refName);
-		Iterable<Edge> refEdges = from.getEdges(Direction.OUT, refName);
-		Vertex oldVertex = null;
-		for (Edge refEdge : refEdges) {
-			if (oldVertex != null) {
-				// We have found the edge, update the position of the next
-				// ones
-				int position = refEdge.getProperty(POSITION_KEY);
-				refEdge.setProperty(POSITION_KEY, position - 1);
+		for (Vertex v : to) {
+			if (isContainment) {
+				if (v.getEdges(Direction.OUT, CONTAINER_LABEL).iterator().hasNext()) {
+					/*
+					 * v is moved and may be removed from the reference, the
+					 * stored size has to be synchronized
+					 */
+					setSize(from, refName, size);
+					updateContainment(from, refName, v);
+					size = getSize(from, refName);
+				} else {
+					updateContainment(from, refName, v);
+				}
+			} else if (nonNull(oppositeName) && !oppositeName.equals("")) {
+				setRef(v, oppositeName, null, from, false);
 			}
-			if (refEdge.getVertex(Direction.IN).equals(to)) {
-				oldVertex = refEdge.getVertex(Direction.IN);
-				if (isContainment) {
-					Edge containerEdge = Iterables.getFirst(oldVertex.getEdges(Direction.OUT, CONTAINER_LABEL), null);
-					if (nonNull(containerEdge)) {
-						containerEdge.remove();
-					}
+			Edge newEdge = from.addEdge(refName, v);
+			newEdge.setProperty(POSITION_KEY, size++);
+			result.add(newEdge);
+		}
+		setSize(from, refName, size);
+		recordBulkLoadMutations(result.size());
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Vertex removeRef(Vertex from, String refName, Vertex to, boolean isContainment) {
+		return Iterables.getFirst(removeEdges(from, refName, Collections.singleton(to.getId()), isContainment), null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The reference {@link Edge}s of {@code from} are iterated once, and the
+	 * positions of the remaining ones are updated once for all the removed
+	 * elements.
+	 */
+	@Override
+	public List<Vertex> removeRefs(Vertex from, String refName, Collection<Vertex> to, boolean isContainment) {
+		Set<Object> toIds = new HashSet<>();
+		for (Vertex v : to) {
+			toIds.add(v.getId());
+		}
+		return removeEdges(from, refName, toIds, isContainment);
+	}
+
+	/**
+	 * Removes the {@code refName} {@link Edge}s between {@code from} and the
+	 * {@link Vertex} elements with the provided {@code toIds}, and updates the
+	 * {@code position} property of the remaining {@link Edge}s.
+	 * <p>
+	 * The positions are updated in a single pass: each remaining {@link Edge}
+	 * is shifted by the number of removed {@link Edge}s that were located
+	 * before it.
+	 * 
+	 * @param from
+	 *            the tail {@link Vertex} of the {@link Edge}s to remove
+	 * @param refName
+	 *            the label of the {@link Edge}s to remove
+	 * @param toIds
+	 *            the identifiers of the head {@link Vertex} elements of the
+	 *            {@link Edge}s to remove
+	 * @param isContainment
+	 *            {@code true} if the reference is a containment, {@code false}
+	 *            otherwise
+	 * @return a {@link List} containing the previously linked {@link Vertex}
+	 *         elements
+	 * 
+	 * @see #removeRef(Vertex, String, Vertex, boolean)
+	 * @see #removeRefs(Vertex, String, Collection, boolean)
+	 */
+	private List<Vertex> removeEdges(Vertex from, String refName, Set<Object> toIds, boolean isContainment) {
+		List<Edge> removedEdges = new ArrayList<>();
+		List<Edge> remainingEdges = new ArrayList<>();
+		for (Edge refEdge : from.getEdges(Direction.OUT, refName)) {
+			if (toIds.contains(refEdge.getVertex(Direction.IN).getId())) {
+				removedEdges.add(refEdge);
+			} else {
+				remainingEdges.add(refEdge);
+			}
+		}
+		List<Vertex> oldVertices = new ArrayList<>(removedEdges.size());
+		if (removedEdges.isEmpty()) {
+			return oldVertices;
+		}
+		int[] removedPositions = new int[removedEdges.size()];
+		int removedCount = 0;
+		for (Edge refEdge : removedEdges) {
+			Integer position = refEdge.getProperty(POSITION_KEY);
+			if (nonNull(position)) {
+				removedPositions[removedCount++] = position;
+			}
+			Vertex oldVertex = refEdge.getVertex(Direction.IN);
+			if (isContainment) {
+				Edge containerEdge = Iterables.getFirst(oldVertex.getEdges(Direction.OUT, CONTAINER_LABEL), null);
+				if (nonNull(containerEdge)) {
+					containerEdge.remove();
 				}
-				refEdge.remove();
 			}
+			refEdge.remove();
+			oldVertices.add(oldVertex);
 		}
-		setSize(from, refName, size - 1);
-		return oldVertex;
+		Arrays.sort(removedPositions, 0, removedCount);
+		for (Edge refEdge : remainingEdges) {
+			Integer position = refEdge.getProperty(POSITION_KEY);
+			if (nonNull(position)) {
+				/*
+				 * The insertion point of the position in the sorted removed
+				 * positions is the number of removed edges located before it
+				 */
+				int shift = -(Arrays.binarySearch(removedPositions, 0, removedCount, position) + 1);
+				if (shift > 0) {
+					refEdge.setProperty(POSITION_KEY, position - shift);
+				}
+			}
+		}
+		setSize(from, refName, Math.max(0, getSize(from, refName) - removedEdges.size()));
+		recordBulkLoadMutations(removedEdges.size());
+		return oldVertices;
 	}
 
 	/**
@@ -489,6 +782,7 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		} else {
 			from.setProperty(attName, attValue);
 		}
+		recordBulkLoadMutations(1);
 		return from;
 	}
 
@@ -574,6 +868,20 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 	private Vertex getMetaclassVertex(final String typeName, final String typePackageNsURI) {
 		checkNotNull(metaclassIndex,
 				"Metaclass index cannot be found, call setGraph before starting graph manipulation");
+		if (bulkLoad) {
+			List<Vertex> metaclasses = bulkMetaclasses.get(typeName);
+			if (isNull(metaclasses)) {
+				metaclasses = new ArrayList<>();
+				Iterables.addAll(metaclasses, metaclassIndex.get(KEY_NAME, typeName));
+				bulkMetaclasses.put(typeName, metaclasses);
+			}
+			for (Vertex mm : metaclasses) {
+				if (isNull(typePackageNsURI) || mm.getProperty(KEY_EPACKAGE_NSURI).equals(typePackageNsURI)) {
+					return mm;
+				}
+			}
+			return null;
+		}
 		if (isNull(typePackageNsURI)) {
 			return Iterables.getOnlyElement(metaclassIndex.get(KEY_NAME, typeName), null);
 		} else {
@@ -602,9 +910,67 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		Vertex vertex = graph.addVertex(new StringBuilder(typeName).append('@').append(typePackageNsURI).toString());
 		vertex.setProperty(KEY_ECLASS_NAME, typeName);
 		vertex.setProperty(KEY_EPACKAGE_NSURI, typePackageNsURI);
+		vertex.setProperty(KEY_INSTANCE_COUNT, 0L);
 		return vertex;
 	}
 
+	/**
+	 * Increments the instance counter of the provided
+	 * {@code metaclassVertex}.
+	 * <p>
+	 * <b>Note:</b> metaclass {@link Vertex} elements that don't define a
+	 * counter are not updated, because their counter cannot be computed
+	 * without iterating their instances (see
+	 * {@link #rebuildInstanceCounters()}).
+	 * 
+	 * @param metaclassVertex
+	 *            the metaclass {@link Vertex} to update
+	 */
+	private void incrementInstanceCount(Vertex metaclassVertex) {
+		Number count = metaclassVertex.getProperty(KEY_INSTANCE_COUNT);
+		if (nonNull(count)) {
+			if (bulkLoad) {
+				Long pending = pendingInstanceCounts.get(metaclassVertex);
+				pendingInstanceCounts.put(metaclassVertex, isNull(pending) ? 1 : pending + 1);
+			} else {
+				metaclassVertex.setProperty(KEY_INSTANCE_COUNT, count.longValue() + 1);
+			}
+		}
+	}
+
+	/**
+	 * Returns the concrete {@link EClass}es that are subclasses of
+	 * {@code typeName} (including itself).
+	 * 
+	 * @param typeName
+	 *            the name of the {@link EClass} to compute the subclasses of
+	 * @return a {@link Set} containing the concrete subclasses of
+	 *         {@code typeName}
+	 * @throws IllegalStateException
+	 *             if the {@link EPackage} doesn't contain an {@link EClass}
+	 *             named {@code typeName}
+	 */
+	private Set<EClass> getConcreteSubTypes(String typeName) throws IllegalStateException {
+		EClassifier classifier = ePackage.getEClassifier(typeName);
+		if (classifier instanceof EClass) {
+			EClass eClass = (EClass) classifier;
+			Set<EClass> eClassesToFind = new HashSet<>();
+			eClass.getEPackage().getEClassifiers()
+				.stream()
+				.filter(EClass.class::isInstance)
+				.map(EClass.class::cast)
+				.filter(c -> eClass.isSuperTypeOf(c) && ! c.isAbstract())
+				.forEach(eClassesToFind::add);
+			return eClassesToFind;
+		} else {
+			MogwaiLogger.error("EPackage {0} doesn't contain an EClass for {1} (found {2})", ePackage.getName(),
+					typeName, classifier);
+			throw new IllegalStateException(MessageFormat.format(
+					"EPackage {0} doesn't contain an EClass for {1} (found {2})", ePackage.getName(), typeName,
+					classifier));
+		}
+	}
+
 	/**
 	 * Returns the {@link Vertex} containing the metaclass information for
 	 * {@code instanceVertex}.
@@ -640,12 +1006,20 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 	 *         otherwise
 	 */
 	private Integer getSize(Vertex vertex, String feature) {
+		if (bulkLoad) {
+			Integer pendingSize = pendingSizes.get(vertex, feature);
+			if (nonNull(pendingSize)) {
+				return pendingSize;
+			}
+		}
 		Integer size = vertex.getProperty(feature + SEPARATOR + SIZE_LITERAL);
 		return isNull(size) ? 0 : size;
 	}
 
 	/**
 	 * Sets the size of the given {@code feature} to {@code size}.
+	 * <p>
+	 * In bulk-load mode the size is buffered and written at the next commit.
 	 * 
 	 * @param vertex
 	 *            the input {@link Vertex} of the {@code feature}
@@ -655,6 +1029,26 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 	 *            the new size to set
 	 */
 	private void setSize(Vertex vertex, String feature, int size) {
+		if (bulkLoad) {
+			pendingSizes.put(vertex, feature, size);
+		} else {
+			writeSize(vertex, feature, size);
+		}
+	}
+
+	/**
+	 * Writes the size of the given {@code feature} in the graph.
+	 * 
+	 * @param vertex
+	 *            the input {@link Vertex} of the {@code feature}
+	 * @param feature
+	 *            the name of the feature to set the size of
+	 * @param size
+	 *            the new size to set
+	 * 
+	 * @see #setSize(Vertex, String, int)
+	 */
+	private void writeSize(Vertex vertex, String feature, int size) {
 		if (size == 0) {
 			vertex.removeProperty(feature + SEPARATOR + SIZE_LITERAL);
 		} else {
@@ -689,9 +1083,7 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 
 		// Remove eContents edges if the element is a top-level element
 		long begin2 = System.currentTimeMillis();
-		if(createdVertices.containsKey(to.getId())) {
-			createdVertices.remove(to.getId());
-		}
+		createdVertices.remove(to.getId());
 //		for (Vertex rootVertex : to.getVertices(Direction.IN, CONTENTS_LABEL)) {
 //			removeRef(rootVertex, CONTENTS_LABEL, to, false);
 //			break;
@@ -705,13 +1097,173 @@ public class NeoEMFGraphDatastore implements ModelDatastore<Graph, Vertex, Edge,
 		updateContainment2 += (end2 - begin2);
 	}
 	
+	/**
+	 * Starts the bulk-load mode using the default buffer size.
+	 * 
+	 * @see #startBulkLoad(int)
+	 */
+	public void startBulkLoad() {
+		startBulkLoad(DEFAULT_BULK_LOAD_BUFFER_SIZE);
+	}
+
+	/**
+	 * Starts the bulk-load mode, committing the modifications every
+	 * {@code bufferSize} mutations.
+	 * <p>
+	 * This mode is designed for transformations creating large models: the
+	 * metaclass {@link Vertex} elements are cached in memory and the creation
+	 * of their index entries is deferred, while the instance counters and the
+	 * reference sizes are buffered and written once per commit instead of once
+	 * per mutation.
+	 * <p>
+	 * <b>Note:</b> the buffered information is only visible through this
+	 * datastore until the next commit, and the metaclasses created in bulk-load
+	 * mode are only indexed when {@link #finishBulkLoad()} is called. The model
+	 * is not readable by NeoEMF before {@link #finishBulkLoad()} (or
+	 * {@link #close()}) has been called.
+	 * 
+	 * @param bufferSize
+	 *            the number of mutations to perform between each commit
+	 * 
+	 * @see #finishBulkLoad()
+	 */
+	public void startBulkLoad(int bufferSize) {
+		checkArgument(bufferSize > 0, "Cannot start a bulk load with the buffer size {0}", bufferSize);
+		checkState(!bulkLoad, "The datastore is already in bulk-load mode");
+		this.bulkLoad = true;
+		this.bulkLoadBufferSize = bufferSize;
+		this.bulkLoadMutations = 0;
+		this.bulkMetaclasses = new HashMap<>();
+		this.pendingIndexedMetaclasses = new ArrayList<>();
+		this.pendingInstanceCounts = new HashMap<>();
+		this.pendingSizes = HashBasedTable.create();
+	}
+
+	/**
+	 * Finishes the bulk-load mode.
+	 * <p>
+	 * This method writes the buffered instance counters and reference sizes,
+	 * adds the created metaclasses to the metaclass index, and commits the
+	 * modifications. The resulting graph can be read by NeoEMF.
+	 * 
+	 * @see #startBulkLoad(int)
+	 */
+	public void finishBulkLoad() {
+		checkState(bulkLoad, "The datastore is not in bulk-load mode");
+		flushBulkLoadBuffers();
+		for (Vertex metaclassVertex : pendingIndexedMetaclasses) {
+			metaclassIndex.put(KEY_NAME, metaclassVertex.getProperty(KEY_ECLASS_NAME), metaclassVertex);
+		}
+		graph.commit();
+		MogwaiLogger.info("Bulk load finished, {0} metaclasses indexed", pendingIndexedMetaclasses.size());
+		this.bulkLoad = false;
+		this.bulkMetaclasses = null;
+		this.pendingIndexedMetaclasses = null;
+		this.pendingInstanceCounts = null;
+		this.pendingSizes = null;
+	}
+
+	/**
+	 * Returns whether the datastore is in bulk-load mode.
+	 * 
+	 * @return {@code true} if the datastore is in bulk-load mode,
+	 *         {@code false} otherwise
+	 */
+	public boolean isBulkLoad() {
+		return bulkLoad;
+	}
+
+	/**
+	 * Records {@code count} mutations in bulk-load mode, and commits the
+	 * modifications if the buffer size has been reached.
+	 * <p>
+	 * This method does nothing if the datastore is not in bulk-load mode.
+	 * 
+	 * @param count
+	 *            the number of performed mutations
+	 */
+	private void recordBulkLoadMutations(int count) {
+		if (bulkLoad) {
+			bulkLoadMutations += count;
+			if (bulkLoadMutations >= bulkLoadBufferSize) {
+				flushBulkLoadBuffers();
+				graph.commit();
+				bulkLoadMutations = 0;
+			}
+		}
+	}
+
+	/**
+	 * Writes the buffered instance counters and reference sizes in the graph.
+	 */
+	private void flushBulkLoadBuffers() {
+		for (Map.Entry<Vertex, Long> entry : pendingInstanceCounts.entrySet()) {
+			Number count = entry.getKey().getProperty(KEY_INSTANCE_COUNT);
+			entry.getKey().setProperty(KEY_INSTANCE_COUNT, count.longValue() + entry.getValue());
+		}
+		pendingInstanceCounts.clear();
+		for (Table.Cell<Vertex, String, Integer> cell : pendingSizes.cellSet()) {
+			writeSize(cell.getRowKey(), cell.getColumnKey(), cell.getValue());
+		}
+		pendingSizes.clear();
+	}
+
+	/**
+	 * Sets the number of created {@link Vertex} identifiers kept in memory for
+	 * a resource before being spilled to disk.
+	 * <p>
+	 * <b>Note:</b> this method should be called before creating new elements,
+	 * the elements created so far are not tracked anymore.
+	 * 
+	 * @param threshold
+	 *            the number of identifiers kept in memory for a resource
+	 */
+	public void setCreatedVerticesThreshold(int threshold) {
+		createdVertices.close();
+		createdVertices = new CreatedVertexTracker(threshold);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The created elements that are not contained are linked to their resource
+	 * root. The links are created in chunks of {@link #ROOT_LINK_BATCH_SIZE}
+	 * elements using {@link #setRefs(Vertex, String, String, Iterable, boolean)},
+	 * and each chunk is committed.
+	 * <p>
+	 * If the datastore is in bulk-load mode {@link #finishBulkLoad()} is
+	 * called first. The spill files of the created element tracker are deleted
+	 * even if the links cannot be created.
+	 */
 	@Override
 	public void close() {
-		for(Pair<Vertex, String> v : createdVertices.values()) {
-			Vertex resourceRoot = getOrCreateResourceRoot(v.getB());
-			setRef(resourceRoot, CONTENTS_LABEL, null, v.getA(), false);
+		try {
+			if (bulkLoad) {
+				finishBulkLoad();
+			}
+			for (String resourceName : createdVertices.getResourceNames()) {
+				Vertex resourceRoot = getOrCreateResourceRoot(resourceName);
+				List<Vertex> chunk = new ArrayList<>(ROOT_LINK_BATCH_SIZE);
+				Iterator<Object> ids = createdVertices.ids(resourceName);
+				while (ids.hasNext()) {
+					Vertex v = graph.getVertex(ids.next());
+					/*
+					 * Spilled elements may have been contained after being
+					 * tracked
+					 */
+					if (nonNull(v) && !v.getEdges(Direction.OUT, CONTAINER_LABEL).iterator().hasNext()) {
+						chunk.add(v);
+					}
+					if (chunk.size() == ROOT_LINK_BATCH_SIZE || (!ids.hasNext() && !chunk.isEmpty())) {
+						setRefs(resourceRoot, CONTENTS_LABEL, null, chunk, false);
+						graph.commit();
+						chunk.clear();
+					}
+				}
+			}
+		} finally {
+			createdVertices.close();
 		}
-		createdVertices = null;
 	}
 	
 	public static int updateContainmentCount = 0;
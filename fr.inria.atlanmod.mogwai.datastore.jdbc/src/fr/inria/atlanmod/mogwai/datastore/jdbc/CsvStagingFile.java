@@ -0,0 +1,143 @@
+package fr.inria.atlanmod.mogwai.datastore.jdbc;
+
+import static java.util.Objects.nonNull;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * A temporary CSV file containing rows to load in a table.
+ * <p>
+ * The first line of the file contains the names of the columns. Values are
+ * quoted (quotes are escaped by doubling them), and {@code null} values are
+ * represented by empty unquoted fields, following the format read by the H2
+ * {@code CSVREAD} function.
+ * <p>
+ * <b>Note:</b> this class is used by {@link DefaultJdbcDatastore} in bulk
+ * export mode, and is not intended to be used by clients.
+ *
+ * @see DefaultJdbcDatastore#startBulkExport(Path, int)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+class CsvStagingFile implements Closeable {
+
+	/**
+	 * The name of the table to load the rows in.
+	 */
+	private final String tableName;
+
+	/**
+	 * The columns of the staged rows.
+	 */
+	private final List<String> columns;
+
+	/**
+	 * The location of the staging file.
+	 */
+	private final Path path;
+
+	/**
+	 * The buffered {@link Writer} appending the rows to the file.
+	 */
+	private final Writer writer;
+
+	/**
+	 * The number of rows written in the file.
+	 */
+	private long rowCount;
+
+	/**
+	 * Constructs a new {@link CsvStagingFile} in the provided
+	 * {@code directory}, and writes its header.
+	 *
+	 * @param directory
+	 *            the directory to create the file in
+	 * @param tableName
+	 *            the name of the table to load the rows in
+	 * @param columns
+	 *            the columns of the staged rows
+	 * @param bufferSize
+	 *            the number of characters buffered before writing them to the
+	 *            file
+	 * @throws IOException
+	 *             if the file cannot be created
+	 */
+	public CsvStagingFile(Path directory, String tableName, List<String> columns, int bufferSize)
+			throws IOException {
+		this.tableName = tableName;
+		this.columns = columns;
+		this.path = Files.createTempFile(directory, tableName + "_", ".csv");
+		this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(path), StandardCharsets.UTF_8),
+				bufferSize);
+		writer.write(String.join(",", columns));
+		writer.write('\n');
+		this.rowCount = 0;
+	}
+
+	/**
+	 * Appends a row to the file.
+	 *
+	 * @param values
+	 *            the values of the row, in the order of the columns
+	 * @throws IOException
+	 *             if the row cannot be written
+	 */
+	public void writeRow(List<?> values) throws IOException {
+		String delim = "";
+		for (Object value : values) {
+			writer.write(delim);
+			if (nonNull(value)) {
+				writer.write('"');
+				writer.write(value.toString().replace("\"", "\"\""));
+				writer.write('"');
+			}
+			delim = ",";
+		}
+		writer.write('\n');
+		rowCount++;
+	}
+
+	public String getTableName() {
+		return tableName;
+	}
+
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	public long getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * Flushes the buffered rows and closes the file.
+	 */
+	@Override
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	/**
+	 * Deletes the file.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be deleted
+	 */
+	public void delete() throws IOException {
+		Files.deleteIfExists(path);
+	}
+
+}
@@ -1,27 +1,78 @@
 package fr.inria.atlanmod.mogwai.datastore.jdbc;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.nonNull;
 import static java.util.Objects.isNull;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
+import java.sql.JDBCType;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
 import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.eclipse.emf.common.util.Enumerator;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
+
+import com.google.common.collect.Iterables;
+import com.tinkerpop.pipes.util.Pipeline;
 
 import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
 import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
 import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesUtils;
 
-// There is no EPackage, tables are used to represent elements, attributes, and references
-// This is clearly not the best mapping if we have informations on the schema
-// This is work in progress, a full working implementation of this mapping is planned for a future release
-// Only supports auto-increment ID fields for elements, and varchar attributes
+/**
+ * A {@link ModelDatastore} storing models in a relational database accessed
+ * through JDBC.
+ * <p>
+ * Each concrete type is represented by a table with an auto-increment
+ * {@code ID} column, and a column for each of its attributes. The
+ * {@link Schema} of the database is either generated from an {@link EPackage}
+ * (see {@link SchemaGenerator}), in which case the tables, typed columns,
+ * reference columns, join tables, and indexes are created when the datastore
+ * is initialized, or discovered from the {@link DatabaseMetaData} of an
+ * existing database.
+ * <p>
+ * Values are bound to the {@link PreparedStatement}s according to the SQL type
+ * of their column: enumeration literals are stored as {@code VARCHAR}s, and
+ * {@link java.util.Date}s as {@code TIMESTAMP}s.
+ * <p>
+ * The datastore also provides a bulk export mode (see
+ * {@link #startBulkExport(Path, int)}) that stages the created rows in CSV
+ * files and loads them with the database's native bulk loading.
+ * <p>
+ * <b>Note:</b> references can only be navigated and set if the schema has
+ * been generated from an {@link EPackage}. Containers and reference removal
+ * are not supported.
+ *
+ * @see Schema
+ * @see SchemaGenerator
+ */
 public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElement, Object, Object>,
 		PipesDatastore<Connection, JdbcElement, Object, Object> {
 
@@ -36,19 +87,253 @@ public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElem
 	 * @see Schema
 	 */
 	private Schema schema;
-	
-	private String elementToCreate;
-	
-	private Map<String, String> valuesToSet;
 
+	/**
+	 * The {@link EPackage} the {@link #schema} is generated from, or
+	 * {@code null} if it is discovered from the database metadata.
+	 */
+	private EPackage ePackage;
+
+	/**
+	 * The {@link EClass}es of {@link #ePackage} and its sub-packages, indexed
+	 * by name.
+	 */
+	private Map<String, EClass> eClasses;
+
+	/**
+	 * The number of rows to insert in a table before executing its batch.
+	 */
+	private final int batchSize;
+
+	/**
+	 * The element created by the last call to
+	 * {@link #newInstance(String, String, String)}, that is added to the batch
+	 * of its table when the next element is created.
+	 */
+	private JdbcElement elementToCreate;
+
+	/**
+	 * The column values of {@link #elementToCreate}.
+	 */
+	private Map<String, Object> valuesToSet;
+
+	/**
+	 * The {@link InsertBatch}es used to create elements, cached by table name.
+	 */
+	private Map<String, InsertBatch> insertBatches;
+
+	/**
+	 * Whether the driver returns the keys generated for all the rows of a
+	 * batch. This flag is cleared the first time a batch doesn't return them,
+	 * and the following rows are inserted one by one.
+	 */
+	private boolean batchGeneratedKeys;
+
+	/**
+	 * The number of rows fetched at once by the cursors returned by
+	 * {@link #allOfType(String)}.
+	 */
+	private int fetchSize;
+
+	/**
+	 * The {@link JdbcElementCursor}s that are currently open, closed when the
+	 * datastore is closed.
+	 */
+	private Set<JdbcElementCursor> openCursors;
+
+	/**
+	 * The {@link PreparedStatement}s used to read and update values, cached by
+	 * SQL query.
+	 */
+	private Map<String, PreparedStatement> statements;
+
+	/**
+	 * The elements to add to the many-valued references, indexed by join
+	 * table. Each link is represented by its source and target elements, and
+	 * is inserted when the identifiers of both elements are known.
+	 */
+	private Map<String, List<JdbcElement[]>> pendingLinks;
+
+	/**
+	 * Whether the datastore is in bulk export mode.
+	 */
+	private boolean bulkExport = false;
+
+	/**
+	 * The directory containing the staging files in bulk export mode.
+	 */
+	private Path stagingDirectory;
+
+	/**
+	 * Whether {@link #stagingDirectory} has been created by the datastore, and
+	 * must be deleted when the bulk export is finished.
+	 */
+	private boolean ownsStagingDirectory;
+
+	/**
+	 * The number of characters buffered by each staging file in bulk export
+	 * mode.
+	 */
+	private int bulkExportBufferSize;
+
+	/**
+	 * The staging files containing the created rows, indexed by table.
+	 */
+	private Map<String, CsvStagingFile> stagedRows;
+
+	/**
+	 * The staging files containing the updates of already staged rows,
+	 * indexed by table and updated columns.
+	 */
+	private Map<String, CsvStagingFile> stagedUpdates;
+
+	/**
+	 * The staging files containing the links of the many-valued references,
+	 * indexed by join table.
+	 */
+	private Map<String, CsvStagingFile> stagedLinks;
+
+	/**
+	 * The next identifier to assign in each table in bulk export mode.
+	 */
+	private Map<String, Integer> nextIds;
+
+	/**
+	 * The first identifier assigned in each table in bulk export mode.
+	 */
+	private Map<String, Integer> firstExportedIds;
+
+	/**
+	 * The size of the many-valued references staged in bulk export mode,
+	 * indexed by join table and source identifier.
+	 */
+	private Map<String, Map<Integer, Integer>> stagedLinkCounts;
+
+	/**
+	 * The default number of rows to insert in a table before executing its
+	 * batch.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * The default number of rows fetched at once when iterating the instances
+	 * of a type.
+	 */
+	public static final int DEFAULT_FETCH_SIZE = 1000;
+
+	/**
+	 * The default number of characters buffered by each staging file in bulk
+	 * export mode.
+	 */
+	public static final int DEFAULT_BULK_EXPORT_BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The maximum number of SQL queries used to evaluate a
+	 * {@link TraversalPattern}, see {@link #canTraverse(TraversalPattern)}.
+	 */
+	public static final int MAX_TRAVERSAL_QUERIES = 64;
+
+	/**
+	 * Constructs a new {@link DefaultJdbcDatastore} wrapping the provided
+	 * {@code connection} and executing its inserts in batches of
+	 * {@link #DEFAULT_BATCH_SIZE} rows.
+	 * 
+	 * @param connection
+	 *            the {@link Connection} containing the model to manipulate
+	 */
 	public DefaultJdbcDatastore(Connection connection) {
-		setDataSource(connection);
+		this(connection, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructs a new {@link DefaultJdbcDatastore} wrapping the provided
+	 * {@code connection} and executing its inserts in batches of
+	 * {@code batchSize} rows.
+	 * 
+	 * @param connection
+	 *            the {@link Connection} containing the model to manipulate
+	 * @param batchSize
+	 *            the number of rows to insert in a table before executing its
+	 *            batch
+	 */
+	public DefaultJdbcDatastore(Connection connection, int batchSize) {
+		this(connection, null, batchSize);
+	}
+
+	/**
+	 * Constructs a new {@link DefaultJdbcDatastore} wrapping the provided
+	 * {@code connection} and storing the instances of {@code ePackage}.
+	 * <p>
+	 * The tables representing the types of {@code ePackage} are created if
+	 * they don't exist.
+	 * 
+	 * @param connection
+	 *            the {@link Connection} containing the model to manipulate
+	 * @param ePackage
+	 *            the {@link EPackage} defining the types of the model
+	 * 
+	 * @see SchemaGenerator
+	 */
+	public DefaultJdbcDatastore(Connection connection, EPackage ePackage) {
+		this(connection, ePackage, DEFAULT_BATCH_SIZE);
+	}
+
+	/**
+	 * Constructs a new {@link DefaultJdbcDatastore} wrapping the provided
+	 * {@code connection}, storing the instances of {@code ePackage}, and
+	 * executing its inserts in batches of {@code batchSize} rows.
+	 * 
+	 * @param connection
+	 *            the {@link Connection} containing the model to manipulate
+	 * @param ePackage
+	 *            the {@link EPackage} defining the types of the model, or
+	 *            {@code null} to discover the schema from the database
+	 * @param batchSize
+	 *            the number of rows to insert in a table before executing its
+	 *            batch
+	 */
+	public DefaultJdbcDatastore(Connection connection, EPackage ePackage, int batchSize) {
+		checkArgument(batchSize > 0, "Cannot create a datastore with the batch size {0}", batchSize);
+		this.batchSize = batchSize;
+		this.fetchSize = DEFAULT_FETCH_SIZE;
+		this.openCursors = new HashSet<>();
+		setDataSource(connection, ePackage);
 	}
 
-	private static final String ALL_INSTANCES_SQL = "select ID from {0};";
+	private static final String ID_COLUMN = "ID";
+
+	private static final String ALL_INSTANCES_SQL = "select ID from {0}";
+
+	private static final String FILTERED_INSTANCES_SQL = "select ID from {0} where {1}";
+
+	private static final String ATTRIBUTE_VALUE_SQL = "select {1} from {0} where ID = ?";
+
+	private static final String INSERT_ELEMENT_SQL = "insert into {0} ({1}) values ({2})";
+
+	private static final String UPDATE_COLUMN_SQL = "update {0} set {1} = ? where ID = ?";
+
+	private static final String UPDATE_REFERENCE_SQL = "update {0} set {1} = ?, {2} = ? where ID = ?";
+
+	private static final String REFERENCE_VALUE_SQL = "select {1}, {2} from {0} where ID = ?";
+
+	private static final String INSERT_LINK_SQL = "insert into {0} (SOURCE_ID, TARGET_ID, TARGET_TYPE, REF_POSITION) "
+			+ "select ?, ?, ?, count(*) from {0} where SOURCE_ID = ?";
+
+	private static final String LINKED_ELEMENTS_SQL = "select TARGET_ID, TARGET_TYPE from {0} where SOURCE_ID = ? "
+			+ "order by REF_POSITION";
+
+	private static final String NEXT_ID_SQL = "select coalesce(max(ID), 0) + 1 from {0}";
+
+	private static final String REFERENCE_SIZE_SQL = "select count(*) from {0} where SOURCE_ID = ?";
+
+	private static final String LOAD_ROWS_SQL = "insert into {0} ({1}) "
+			+ "select {1} from CSVREAD(''{2}'', null, ''charset=UTF-8'')";
+
+	private static final String MERGE_ROWS_SQL = "merge into {0} ({1}) key (ID) "
+			+ "select {1} from CSVREAD(''{2}'', null, ''charset=UTF-8'')";
+
+	private static final String RESTART_ID_SQL = "alter table {0} alter column ID restart with {1}";
 
-	private static final String INSERT_ELEMENT_SQL = "insert into {0} values ({1});";
-	
 	/**
 	 * {@inheritDoc}
 	 * <p>
@@ -57,41 +342,109 @@ public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElem
 	 * autocommit feature, and will perform all the requested operations within
 	 * a single transaction.
 	 * <p>
+	 * The {@link EPackage} of the previous {@link Connection} (if any) is used
+	 * to initialize the new one.
+	 * <p>
 	 * TODO handle autocommit feature in a dedicated subclass.
 	 * 
 	 * @see DefaultJdbcDatastore#DefaultJdbcDatastore(Connection)
+	 * @see #setDataSource(Connection, EPackage)
 	 */
 	@Override
 	public void setDataSource(Connection dataSource) {
+		setDataSource(dataSource, ePackage);
+	}
+
+	/**
+	 * Sets the {@link Connection} containing the model to manipulate, and the
+	 * {@link EPackage} defining its types.
+	 * <p>
+	 * If {@code ePackage} is not {@code null} the {@link Schema} of the
+	 * database is generated from it, and the missing tables and indexes are
+	 * created. Otherwise the schema is discovered from the
+	 * {@link DatabaseMetaData} of {@code dataSource}.
+	 * 
+	 * @param dataSource
+	 *            the {@link Connection} containing the model to manipulate
+	 * @param ePackage
+	 *            the {@link EPackage} defining the types of the model, or
+	 *            {@code null} to discover the schema from the database
+	 * 
+	 * @see #setDataSource(Connection)
+	 */
+	public void setDataSource(Connection dataSource, EPackage ePackage) {
 		MogwaiLogger.info("Initializing {0}", this.getClass().getSimpleName());
 		try {
 			if(nonNull(this.connection)) {
+				if(bulkExport) {
+					finishBulkExport();
+				}
+				flush();
+				closeInsertBatches();
+				closeCursors();
+				closeStatements();
 				this.connection.commit();
 				this.connection.close();
 			}
-			this.elementToCreate = "";
+			this.elementToCreate = null;
 			this.valuesToSet = new HashMap<>();
+			this.insertBatches = new HashMap<>();
+			this.batchGeneratedKeys = true;
+			this.statements = new HashMap<>();
+			this.pendingLinks = new HashMap<>();
 			this.connection = dataSource;
-			this.schema = Schema.newSchema();
-			DatabaseMetaData metaData = connection.getMetaData();
-			
-			ResultSet tables = metaData.getTables(null, "PUBLIC", null, null);
-			while(tables.next()) {
-				String tableName = tables.getString(3);
-				MogwaiLogger.info("Found Table {0}", tableName);
-				schema.setTable(tableName);
-				ResultSet columns = metaData.getColumns(null, null, tableName, null);
-				while(columns.next()) {
-					String columnName = columns.getString(4);
-					String columnType = columns.getString(6);
-					MogwaiLogger.info("Found Column {0} (type: {1})", columns.getString(4), columnType);
-					schema.setAttribute(tableName, columnName, columnType);
-				}
+			this.ePackage = ePackage;
+			this.eClasses = new HashMap<>();
+			if(nonNull(ePackage)) {
+				collectEClasses(ePackage);
+				this.schema = SchemaGenerator.generate(ePackage);
+				createTables();
+			} else {
+				discoverSchema();
 			}
 		} catch (SQLException e) {
-			e.printStackTrace();
+			MogwaiLogger.error(e, "Cannot initialize the datastore");
+			throw new IllegalStateException("Cannot initialize the datastore", e);
+		}
+	}
+
+	private void collectEClasses(EPackage ePackage) {
+		for(EClassifier eClassifier : ePackage.getEClassifiers()) {
+			if(eClassifier instanceof EClass) {
+				eClasses.put(eClassifier.getName(), (EClass) eClassifier);
+			}
 		}
+		for(EPackage subPackage : ePackage.getESubpackages()) {
+			collectEClasses(subPackage);
+		}
+	}
+
+	private void createTables() throws SQLException {
+		try (Statement statement = connection.createStatement()) {
+			for(String sql : schema.createStatements()) {
+				MogwaiLogger.info("Executing {0}", sql);
+				statement.execute(sql);
+			}
+		}
+	}
+
+	private void discoverSchema() throws SQLException {
+		this.schema = Schema.newSchema();
+		DatabaseMetaData metaData = connection.getMetaData();
 		
+		ResultSet tables = metaData.getTables(null, "PUBLIC", null, null);
+		while(tables.next()) {
+			String tableName = tables.getString(3);
+			MogwaiLogger.info("Found Table {0}", tableName);
+			schema.setTable(tableName);
+			ResultSet columns = metaData.getColumns(null, null, tableName, null);
+			while(columns.next()) {
+				String columnName = columns.getString(4);
+				String columnType = columns.getString(6);
+				MogwaiLogger.info("Found Column {0} (type: {1})", columns.getString(4), columnType);
+				schema.setAttribute(tableName, columnName, columnType);
+			}
+		}
 	}
 
 	/**
@@ -102,35 +455,631 @@ public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElem
 		return connection;
 	}
 
+	/**
+	 * Sets the number of rows fetched at once by the cursors returned by
+	 * {@link #allOfType(String)}.
+	 * <p>
+	 * <b>Note:</b> the fetch size is a hint given to the JDBC driver, see
+	 * {@link Statement#setFetchSize(int)}.
+	 * 
+	 * @param fetchSize
+	 *            the number of rows to fetch at once
+	 */
+	public void setFetchSize(int fetchSize) {
+		checkArgument(fetchSize > 0, "Cannot set the fetch size to {0}", fetchSize);
+		this.fetchSize = fetchSize;
+	}
+
+	/**
+	 * Starts the bulk export mode, staging the rows in a temporary directory
+	 * with the default buffer size.
+	 * 
+	 * @see #startBulkExport(Path, int)
+	 */
+	public void startBulkExport() {
+		startBulkExport(null, DEFAULT_BULK_EXPORT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Starts the bulk export mode, staging the created rows in CSV files
+	 * located in {@code stagingDirectory}.
+	 * <p>
+	 * In bulk export mode the created elements are written in a staging file
+	 * per table, the attributes and single-valued references set on elements
+	 * that have already been written are staged as updates, and the elements
+	 * added to many-valued references in a staging file per join table. The
+	 * files are loaded with {@code CSVREAD} when the bulk export is finished,
+	 * and deleted.
+	 * <p>
+	 * The identifiers of the created elements are assigned by the datastore
+	 * from the current maximum identifier of their table, allowing to resolve
+	 * references without accessing the database. The identity columns are
+	 * restarted after the identifiers assigned during the export when it is
+	 * finished.
+	 * <p>
+	 * <b>Note:</b> this mode is designed for one-shot exports: the staged
+	 * elements are not visible to the queries until
+	 * {@link #finishBulkExport()} is called. The pending inserts are executed
+	 * before entering bulk export mode.
+	 * 
+	 * @param stagingDirectory
+	 *            the directory to write the staging files in, or {@code null}
+	 *            to use a temporary directory
+	 * @param bufferSize
+	 *            the number of characters buffered by each staging file before
+	 *            writing them to the disk
+	 * 
+	 * @see #finishBulkExport()
+	 */
+	public void startBulkExport(Path stagingDirectory, int bufferSize) {
+		checkState(!bulkExport, "Cannot start the bulk export: the datastore is already in bulk export mode");
+		checkArgument(bufferSize > 0, "Cannot start a bulk export with the buffer size {0}", bufferSize);
+		createLastElement();
+		flush();
+		try {
+			if(isNull(stagingDirectory)) {
+				this.stagingDirectory = Files.createTempDirectory("mogwai-jdbc");
+				this.ownsStagingDirectory = true;
+			} else {
+				this.stagingDirectory = Files.createDirectories(stagingDirectory);
+				this.ownsStagingDirectory = false;
+			}
+		} catch (IOException e) {
+			MogwaiLogger.error(e, "Cannot create the staging directory {0}", stagingDirectory);
+			throw new IllegalStateException(MessageFormat.format("Cannot create the staging directory {0}",
+					stagingDirectory), e);
+		}
+		this.bulkExportBufferSize = bufferSize;
+		this.stagedRows = new LinkedHashMap<>();
+		this.stagedUpdates = new LinkedHashMap<>();
+		this.stagedLinks = new LinkedHashMap<>();
+		this.nextIds = new HashMap<>();
+		this.firstExportedIds = new HashMap<>();
+		this.stagedLinkCounts = new HashMap<>();
+		this.bulkExport = true;
+		MogwaiLogger.info("Starting bulk export (staging directory: {0})", this.stagingDirectory);
+	}
+
+	/**
+	 * Finishes the bulk export mode, loading the staged rows in the database.
+	 * <p>
+	 * The created rows are loaded first, then the staged updates are merged,
+	 * and the links of the many-valued references are inserted. The staging
+	 * files are deleted, including when the load fails.
+	 * <p>
+	 * <b>Note:</b> this method is called by {@link #close()} if the bulk
+	 * export has not been finished. The {@link Connection} is not committed.
+	 * 
+	 * @see #startBulkExport(Path, int)
+	 */
+	public void finishBulkExport() {
+		checkState(bulkExport, "Cannot finish the bulk export: the datastore is not in bulk export mode");
+		createLastElement();
+		try {
+			for(CsvStagingFile file : allStagingFiles()) {
+				file.close();
+			}
+			try (Statement statement = connection.createStatement()) {
+				for(CsvStagingFile file : stagedRows.values()) {
+					loadStagingFile(statement, LOAD_ROWS_SQL, file);
+					statement.execute(MessageFormat.format(RESTART_ID_SQL, file.getTableName(),
+							String.valueOf(nextIds.get(file.getTableName()))));
+				}
+				for(CsvStagingFile file : stagedUpdates.values()) {
+					loadStagingFile(statement, MERGE_ROWS_SQL, file);
+				}
+				for(CsvStagingFile file : stagedLinks.values()) {
+					loadStagingFile(statement, LOAD_ROWS_SQL, file);
+				}
+			}
+		} catch (IOException | SQLException e) {
+			MogwaiLogger.error(e, "Cannot load the staged rows from {0}", stagingDirectory);
+			throw new IllegalStateException(MessageFormat.format("Cannot load the staged rows from {0}",
+					stagingDirectory), e);
+		} finally {
+			deleteStagingFiles();
+			this.bulkExport = false;
+		}
+	}
+
+	private void loadStagingFile(Statement statement, String sqlPattern, CsvStagingFile file) throws SQLException {
+		String path = file.getPath().toAbsolutePath().toString().replace("'", "''");
+		MogwaiLogger.info("Loading {0} rows in {1}", file.getRowCount(), file.getTableName());
+		statement.executeUpdate(MessageFormat.format(sqlPattern, file.getTableName(),
+				String.join(", ", file.getColumns()), path));
+	}
+
+	private List<CsvStagingFile> allStagingFiles() {
+		List<CsvStagingFile> files = new ArrayList<>(stagedRows.values());
+		files.addAll(stagedUpdates.values());
+		files.addAll(stagedLinks.values());
+		return files;
+	}
+
+	private void deleteStagingFiles() {
+		for(CsvStagingFile file : allStagingFiles()) {
+			try {
+				file.close();
+				file.delete();
+			} catch (IOException e) {
+				MogwaiLogger.warn(e, "Cannot delete the staging file {0}", file.getPath());
+			}
+		}
+		if(ownsStagingDirectory) {
+			try {
+				Files.deleteIfExists(stagingDirectory);
+			} catch (IOException e) {
+				MogwaiLogger.warn(e, "Cannot delete the staging directory {0}", stagingDirectory);
+			}
+		}
+		stagedRows.clear();
+		stagedUpdates.clear();
+		stagedLinks.clear();
+		nextIds.clear();
+		firstExportedIds.clear();
+		stagedLinkCounts.clear();
+	}
+
+	/**
+	 * Returns the staging file indexed by {@code key} in {@code files}, and
+	 * creates it if it doesn't exist.
+	 */
+	private CsvStagingFile stagingFile(Map<String, CsvStagingFile> files, String key, String tableName,
+			List<String> columns) throws IOException {
+		CsvStagingFile file = files.get(key);
+		if(isNull(file)) {
+			file = new CsvStagingFile(stagingDirectory, tableName, columns, bulkExportBufferSize);
+			files.put(key, file);
+		}
+		return file;
+	}
+
+	/**
+	 * Returns the next identifier to assign in {@code tableName} in bulk
+	 * export mode.
+	 */
+	private int nextId(String tableName) {
+		Integer id = nextIds.get(tableName);
+		if(isNull(id)) {
+			try (Statement statement = connection.createStatement();
+					ResultSet resultSet = statement.executeQuery(MessageFormat.format(NEXT_ID_SQL, tableName))) {
+				resultSet.next();
+				id = resultSet.getInt(1);
+			} catch (SQLException e) {
+				MogwaiLogger.error(e, "Cannot compute the next identifier of {0}", tableName);
+				throw new IllegalStateException(MessageFormat.format("Cannot compute the next identifier of {0}",
+						tableName), e);
+			}
+			firstExportedIds.put(tableName, id);
+		}
+		nextIds.put(tableName, id + 1);
+		return id;
+	}
+
+	/**
+	 * Stages the row representing {@code element} in the staging file of its
+	 * table.
+	 */
+	private void stageRow(JdbcElement element, Map<String, Object> values) throws IOException {
+		String tableName = element.getType().toUpperCase();
+		List<String> columns = StreamSupport.stream(schema.getAttributeNamesFor(tableName).spliterator(), false)
+				.collect(Collectors.toList());
+		List<Object> row = new ArrayList<>(columns.size());
+		for(String column : columns) {
+			row.add(ID_COLUMN.equals(column) ? element.getId() : toSqlValue(values.get(column)));
+		}
+		stagingFile(stagedRows, tableName, tableName, columns).writeRow(row);
+	}
+
+	/**
+	 * Stages the update of the provided {@code columns} of {@code element}.
+	 */
+	private void stageUpdate(JdbcElement element, List<String> columns, List<Object> values) {
+		String tableName = element.getType().toUpperCase();
+		List<String> updatedColumns = new ArrayList<>(columns.size() + 1);
+		updatedColumns.add(ID_COLUMN);
+		updatedColumns.addAll(columns);
+		List<Object> row = new ArrayList<>(values.size() + 1);
+		row.add(element.getId());
+		for(Object value : values) {
+			row.add(toSqlValue(value));
+		}
+		try {
+			stagingFile(stagedUpdates, tableName + "." + String.join(".", columns), tableName, updatedColumns)
+					.writeRow(row);
+		} catch (IOException e) {
+			MogwaiLogger.error(e, "Cannot stage the update of {0}", element);
+			throw new IllegalStateException(MessageFormat.format("Cannot stage the update of {0}", element), e);
+		}
+	}
+
+	/**
+	 * Stages the addition of {@code to} at the end of the many-valued
+	 * reference stored in {@code joinTable}.
+	 * <p>
+	 * The size of the references of the elements created before the bulk
+	 * export is read from the database the first time they are accessed.
+	 */
+	private void stageLink(String joinTable, JdbcElement from, JdbcElement to) {
+		Map<Integer, Integer> counts = stagedLinkCounts.get(joinTable);
+		if(isNull(counts)) {
+			counts = new HashMap<>();
+			stagedLinkCounts.put(joinTable, counts);
+		}
+		try {
+			Integer position = counts.get(from.getId());
+			if(isNull(position)) {
+				position = 0;
+				Integer firstExportedId = firstExportedIds.get(from.getType().toUpperCase());
+				if(isNull(firstExportedId) || from.getId() < firstExportedId) {
+					PreparedStatement statement = prepare(MessageFormat.format(REFERENCE_SIZE_SQL, joinTable));
+					statement.setInt(1, from.getId());
+					try (ResultSet resultSet = statement.executeQuery()) {
+						resultSet.next();
+						position = resultSet.getInt(1);
+					}
+				}
+			}
+			counts.put(from.getId(), position + 1);
+			List<String> columns = Arrays.asList(Schema.SOURCE_COLUMN, Schema.TARGET_COLUMN, Schema.TARGET_TYPE_COLUMN,
+					Schema.POSITION_COLUMN);
+			stagingFile(stagedLinks, joinTable, joinTable, columns)
+					.writeRow(Arrays.asList(from.getId(), to.getId(), to.getType(), position));
+		} catch (IOException | SQLException e) {
+			MogwaiLogger.error(e, "Cannot stage the link from {0} to {1}", from, to);
+			throw new IllegalStateException(MessageFormat.format("Cannot stage the link from {0} to {1}", from, to), e);
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The returned {@link Iterable} is lazy: each call to
+	 * {@link Iterable#iterator()} executes the query and returns a
+	 * {@link JdbcElementCursor} streaming the rows from the database. The
+	 * cursor's {@link Statement} is closed when it is exhausted, or when the
+	 * datastore is closed.
+	 * <p>
+	 * The pending inserts are executed before querying the database.
+	 * 
+	 * @see #setFetchSize(int)
+	 */
 	@Override
 	public Iterable<JdbcElement> allOfType(String typeName) {
-		Iterable<JdbcElement> result = null;
-		try {
-			Statement statement = connection.createStatement();
-			statement.execute((createAllOfTypeStatement(typeName)));
-			ResultSet resultSet = statement.getResultSet();
-			result = elementIterableFrom(resultSet, typeName);
-		} catch (SQLException e) {
-			e.printStackTrace();
+		String sql = createAllOfTypeStatement(typeName);
+		return () -> openCursor(sql, Collections.emptyList(), typeName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code filters} can be evaluated if the table {@code typeName} and
+	 * the columns of the filtered attributes exist in the database.
+	 */
+	@Override
+	public boolean canFilter(String typeName, List<AttributeFilter> filters) {
+		if(!schema.hasTable(typeName)) {
+			return false;
+		}
+		for(AttributeFilter filter : filters) {
+			if(!schema.hasAttribute(typeName, filter.getAttName())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the elements of the type {@code typeName} matching all the
+	 * provided {@code filters}.
+	 * <p>
+	 * The {@code filters} are compiled into a single SQL {@code SELECT} whose
+	 * {@code WHERE} clause compares the attribute columns to the filter values
+	 * bound as parameters. The returned {@link Iterable} streams the results
+	 * like {@link #allOfType(String)}.
+	 * 
+	 * @param typeName
+	 *            the name of the table to get the elements of
+	 * @param filters
+	 *            the {@link AttributeFilter}s the returned elements must match
+	 * @return an {@link Iterable} over the matching elements
+	 * 
+	 * @see #canFilter(String, List)
+	 */
+	public Iterable<JdbcElement> allOfTypeWhere(String typeName, List<AttributeFilter> filters) {
+		StringBuilder where = new StringBuilder();
+		List<Object> parameters = new ArrayList<>(filters.size());
+		String delim = "";
+		for(AttributeFilter filter : filters) {
+			where.append(delim).append(sqlCondition(filter.getAttName().toUpperCase(), filter.getComparison()));
+			parameters.add(filter.getValue());
+			delim = " and ";
+		}
+		String sql = MessageFormat.format(FILTERED_INSTANCES_SQL, typeName, where.toString());
+		return () -> openCursor(sql, parameters, typeName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * 
+	 * @see #allOfTypeWhere(String, List)
+	 */
+	@Override
+	public Pipeline<JdbcElement, ?> allOfTypeWherePipeline(String typeName, List<AttributeFilter> filters) {
+		return PipesUtils.pipelineOf(allOfTypeWhere(typeName, filters));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the datastore has been initialized with an {@link EPackage} the
+	 * filters are evaluated on the tables of the concrete subtypes of
+	 * {@code typeName}. Otherwise tables do not support inheritance, and this
+	 * method is equivalent to {@link #allOfTypeWherePipeline(String, List)}.
+	 */
+	@Override
+	public Pipeline<JdbcElement, ?> allOfKindWherePipeline(String typeName, List<AttributeFilter> filters) {
+		List<Iterable<JdbcElement>> instances = new ArrayList<>();
+		for(String concreteType : concreteTypesOf(typeName)) {
+			instances.add(allOfTypeWhere(concreteType, filters));
+		}
+		return PipesUtils.pipelineOf(Iterables.concat(instances));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * A {@code pattern} can be evaluated if its filters can be evaluated on
+	 * the tables of its type (see {@link #canFilter(String, List)}), and if
+	 * its references are part of the {@link Schema}, which requires the schema
+	 * to be generated from an {@link EPackage}.
+	 * <p>
+	 * Identifiers are only unique within a table, so the elements reached by
+	 * an intermediate reference are joined with the table of each concrete
+	 * subtype of the reference type, in a separate query. Patterns requiring
+	 * more than {@link #MAX_TRAVERSAL_QUERIES} queries are not evaluated.
+	 * 
+	 * @see #traversalPipeline(TraversalPattern)
+	 * @see #countTraversal(TraversalPattern)
+	 */
+	@Override
+	public boolean canTraverse(TraversalPattern pattern) {
+		for(String typeName : rootTypesOf(pattern)) {
+			if(!canFilter(typeName, pattern.getFilters())) {
+				return false;
+			}
 		}
-		return result;
+		return nonNull(traversalPaths(pattern));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code pattern} is compiled into SQL {@code SELECT}s joining the
+	 * table of its type with the foreign key columns and join tables of its
+	 * references, and the tables of the intermediate elements. The filters
+	 * are evaluated in the {@code WHERE} clause. For example, the pattern
+	 * {@code allOfType(Officer)[name EQUAL Smith][ship][crew]} navigating a
+	 * single-valued {@code ship} and a many-valued {@code crew} reference is
+	 * compiled into:
+	 * 
+	 * <pre>
+	 * {@code
+	 * select l1.TARGET_ID, l1.TARGET_TYPE from OFFICER e0
+	 *   join SHIP e1 on e1.ID = e0.SHIP and e0.SHIP_TYPE = ?
+	 *   join SHIP_CREW l1 on l1.SOURCE_ID = e1.ID
+	 *   where e0.NAME = ? order by e0.ID, l1.REF_POSITION
+	 * }
+	 * </pre>
+	 * 
+	 * The returned {@link Pipeline} streams the results like
+	 * {@link #allOfType(String)}, and the elements reached through different
+	 * concrete types are returned one type after the other.
+	 * 
+	 * @see #canTraverse(TraversalPattern)
+	 */
+	@Override
+	public Pipeline<JdbcElement, ?> traversalPipeline(TraversalPattern pattern) {
+		List<List<String>> paths = traversalPaths(pattern);
+		if(isNull(paths)) {
+			return PipesDatastore.super.traversalPipeline(pattern);
+		}
+		List<Iterable<JdbcElement>> results = new ArrayList<>();
+		for(List<String> path : paths) {
+			List<Object> parameters = new ArrayList<>();
+			String sql = traversalQuery(pattern, path, parameters, false);
+			String typeName = pattern.getReferences().isEmpty() ? path.get(0) : null;
+			results.add(() -> openCursor(sql, parameters, typeName));
+		}
+		return PipesUtils.pipelineOf(Iterables.concat(results));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code pattern} is compiled into SQL {@code count} queries, see
+	 * {@link #traversalPipeline(TraversalPattern)}.
+	 */
+	@Override
+	public long countTraversal(TraversalPattern pattern) {
+		List<List<String>> paths = traversalPaths(pattern);
+		if(isNull(paths)) {
+			return PipesDatastore.super.countTraversal(pattern);
+		}
+		flush();
+		long count = 0;
+		for(List<String> path : paths) {
+			List<Object> parameters = new ArrayList<>();
+			String sql = traversalQuery(pattern, path, parameters, true);
+			try {
+				PreparedStatement statement = prepare(sql);
+				for(int i = 0; i < parameters.size(); i++) {
+					statement.setObject(i + 1, parameters.get(i));
+				}
+				try (ResultSet resultSet = statement.executeQuery()) {
+					resultSet.next();
+					count += resultSet.getLong(1);
+				}
+			} catch (SQLException e) {
+				MogwaiLogger.error(e, "Cannot count the elements reached by {0}", pattern);
+				throw new IllegalStateException(MessageFormat.format("Cannot count the elements reached by {0}",
+						pattern), e);
+			}
+		}
+		return count;
+	}
+
+	private List<String> rootTypesOf(TraversalPattern pattern) {
+		return pattern.isKind() ? concreteTypesOf(pattern.getTypeName())
+				: Collections.singletonList(pattern.getTypeName());
+	}
+
+	/**
+	 * Returns the sequences of tables joined to evaluate {@code pattern}: each
+	 * path contains the table of the first element, and the tables of the
+	 * elements reached by the intermediate references.
+	 * 
+	 * @return the paths to evaluate, or {@code null} if one of the references
+	 *         of {@code pattern} is not part of the {@link Schema}, or if the
+	 *         pattern requires more than {@link #MAX_TRAVERSAL_QUERIES} queries
+	 */
+	private List<List<String>> traversalPaths(TraversalPattern pattern) {
+		List<List<String>> paths = new ArrayList<>();
+		for(String typeName : rootTypesOf(pattern)) {
+			paths.add(Collections.singletonList(typeName));
+		}
+		List<String> references = pattern.getReferences();
+		for(int i = 0; i < references.size() - 1; i++) {
+			List<List<String>> nextPaths = new ArrayList<>();
+			for(List<String> path : paths) {
+				String source = path.get(path.size() - 1);
+				if(!schema.hasReference(source, references.get(i))) {
+					return null;
+				}
+				for(String target : concreteTypesOf(schema.getReferencedTypeFor(source, references.get(i)))) {
+					List<String> nextPath = new ArrayList<>(path);
+					nextPath.add(target);
+					nextPaths.add(nextPath);
+				}
+			}
+			if(nextPaths.size() > MAX_TRAVERSAL_QUERIES) {
+				return null;
+			}
+			paths = nextPaths;
+		}
+		if(!references.isEmpty()) {
+			String lastReference = references.get(references.size() - 1);
+			for(List<String> path : paths) {
+				if(!schema.hasReference(path.get(path.size() - 1), lastReference)) {
+					return null;
+				}
+			}
+		}
+		return paths.size() > MAX_TRAVERSAL_QUERIES ? null : paths;
+	}
+
+	/**
+	 * Returns the SQL query evaluating {@code pattern} along the provided
+	 * {@code path}, and adds the values of its parameters to
+	 * {@code parameters}.
+	 * <p>
+	 * The query selects the identifier and the type of the reached elements,
+	 * or only their identifier if {@code pattern} doesn't navigate references,
+	 * or their number if {@code count} is {@code true}.
+	 */
+	private String traversalQuery(TraversalPattern pattern, List<String> path, List<Object> parameters,
+			boolean count) {
+		StringBuilder from = new StringBuilder(path.get(0).toUpperCase()).append(" e0");
+		List<String> conditions = new ArrayList<>();
+		List<String> order = new ArrayList<>();
+		order.add("e0." + ID_COLUMN);
+		String target = "e0." + ID_COLUMN;
+		String targetType = null;
+		List<String> references = pattern.getReferences();
+		for(int i = 0; i < references.size(); i++) {
+			String refName = references.get(i).toUpperCase();
+			String joinTable = schema.getJoinTableFor(path.get(i), refName);
+			if(isNull(joinTable)) {
+				target = "e" + i + "." + refName;
+				targetType = "e" + i + "." + Schema.typeColumnFor(refName);
+			} else {
+				String link = "l" + i;
+				from.append(" join ").append(joinTable).append(' ').append(link).append(" on ").append(link)
+						.append('.').append(Schema.SOURCE_COLUMN).append(" = e").append(i).append('.')
+						.append(ID_COLUMN);
+				target = link + "." + Schema.TARGET_COLUMN;
+				targetType = link + "." + Schema.TARGET_TYPE_COLUMN;
+				order.add(link + "." + Schema.POSITION_COLUMN);
+			}
+			if(i < references.size() - 1) {
+				String element = "e" + (i + 1);
+				from.append(" join ").append(path.get(i + 1).toUpperCase()).append(' ').append(element)
+						.append(" on ").append(element).append('.').append(ID_COLUMN).append(" = ").append(target)
+						.append(" and ").append(targetType).append(" = ?");
+				parameters.add(path.get(i + 1));
+			} else if(isNull(joinTable)) {
+				conditions.add(target + " is not null");
+			}
+		}
+		for(AttributeFilter filter : pattern.getFilters()) {
+			conditions.add(sqlCondition("e0." + filter.getAttName().toUpperCase(), filter.getComparison()));
+			parameters.add(filter.getValue());
+		}
+		StringBuilder sql = new StringBuilder("select ");
+		if(count) {
+			sql.append("count(*)");
+		} else {
+			sql.append(target);
+			if(nonNull(targetType)) {
+				sql.append(", ").append(targetType);
+			}
+		}
+		sql.append(" from ").append(from);
+		if(!conditions.isEmpty()) {
+			sql.append(" where ").append(String.join(" and ", conditions));
+		}
+		if(!count) {
+			sql.append(" order by ").append(String.join(", ", order));
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the datastore has been initialized with an {@link EPackage} the
+	 * returned {@link Iterable} concatenates the instances of the concrete
+	 * subtypes of {@code typeName}. Otherwise tables do not support
+	 * inheritance, and this method is equivalent to {@link #allOfType(String)}.
+	 */
 	@Override
 	public Iterable<JdbcElement> allOfKind(String typeName) {
-		return allOfType(typeName);
+		List<Iterable<JdbcElement>> instances = new ArrayList<>();
+		for(String concreteType : concreteTypesOf(typeName)) {
+			instances.add(allOfType(concreteType));
+		}
+		return Iterables.concat(instances);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The row representing the created element is added to the batch of its
+	 * table when the next element is created (i.e. when all its attributes
+	 * have been set). The identifier of the returned {@link JdbcElement} is
+	 * updated with the key generated by the database when the batch is
+	 * executed, see {@link #flush()}.
+	 * <p>
+	 * In bulk export mode the identifier is assigned by the datastore, and the
+	 * row is written in the staging file of the table.
+	 */
 	@Override
 	public JdbcElement newInstance(String typeName, String typePackageNsURI, String resourceName) {
 		createLastElement();
-		this.elementToCreate = typeName;
-		Iterable<String> attributes = schema.getAttributeNamesFor(typeName);
-		for(String att : attributes) {
-			valuesToSet.put(att, null);
-		}
-		// Place holder
-		return new JdbcElement(-10, typeName);
+		int id = bulkExport ? nextId(typeName.toUpperCase()) : JdbcElement.UNSET_ID;
+		this.elementToCreate = new JdbcElement(id, typeName);
+		this.valuesToSet.clear();
+		return elementToCreate;
 	}
 
 	@Override
@@ -138,14 +1087,119 @@ public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElem
 		throw new UnsupportedOperationException("Not implemented yet");
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Single-valued references are read from their foreign key column, and
+	 * many-valued ones from their join table, ordered by position.
+	 * <p>
+	 * <b>Note:</b> opposite and container references are not supported, the
+	 * provided {@code oppositeName} and {@code isContainer} are ignored.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if {@code refName} is not a reference of the {@link Schema}
+	 */
 	@Override
 	public Iterable<JdbcElement> getRef(JdbcElement from, String refName, String oppositeName, boolean isContainer) {
-		throw new UnsupportedOperationException("Not implemented yet");
+		String joinTable = schema.getJoinTableFor(from.getType(), refName);
+		String sql;
+		if(isNull(joinTable)) {
+			if(from == elementToCreate) {
+				Object to = valuesToSet.get(refName.toUpperCase());
+				return isNull(to) ? Collections.emptyList() : Collections.singletonList((JdbcElement) to);
+			}
+			sql = MessageFormat.format(REFERENCE_VALUE_SQL, from.getType().toUpperCase(), refName.toUpperCase(),
+					Schema.typeColumnFor(refName));
+		} else {
+			sql = MessageFormat.format(LINKED_ELEMENTS_SQL, joinTable);
+		}
+		try {
+			PreparedStatement statement = prepare(sql);
+			statement.setInt(1, idOf(from));
+			flush();
+			List<JdbcElement> result = new ArrayList<>();
+			try (ResultSet resultSet = statement.executeQuery()) {
+				while(resultSet.next()) {
+					if(nonNull(resultSet.getObject(1))) {
+						result.add(new JdbcElement(resultSet.getInt(1), resultSet.getString(2)));
+					}
+				}
+			}
+			return result;
+		} catch (SQLException e) {
+			MogwaiLogger.error(e, "Cannot get the reference {0} of {1}", refName, from);
+			throw new IllegalStateException(MessageFormat.format("Cannot get the reference {0} of {1}", refName, from), e);
+		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * Single-valued references are stored in the row of {@code from}: the
+	 * value is inserted with the row if {@code from} is the last created
+	 * element, and updated otherwise. Elements added to many-valued references
+	 * are appended to their join table, the links are inserted in batches
+	 * once the identifiers of their source and target are known.
+	 * <p>
+	 * <b>Note:</b> {@code to} is inserted in the database if it is the last
+	 * created element. Opposite references are not supported, the provided
+	 * {@code oppositeName} and {@code isContainment} are ignored.
+	 * 
+	 * @return the referenced element
+	 * 
+	 * @throws IllegalArgumentException
+	 *             if {@code refName} is not a reference of the {@link Schema}
+	 */
 	@Override
 	public Object setRef(JdbcElement from, String refName, String oppositeName, JdbcElement to, boolean isContainment) {
-		throw new UnsupportedOperationException("Not implemented yet");
+		String joinTable = schema.getJoinTableFor(from.getType(), refName);
+		if(bulkExport) {
+			if(nonNull(joinTable)) {
+				stageLink(joinTable, from, to);
+			} else if(from == elementToCreate) {
+				valuesToSet.put(refName.toUpperCase(), to);
+				valuesToSet.put(Schema.typeColumnFor(refName), to.getType());
+			} else {
+				stageUpdate(from, Arrays.asList(refName.toUpperCase(), Schema.typeColumnFor(refName)),
+						Arrays.asList(to, to.getType()));
+			}
+			return to;
+		}
+		if(to == elementToCreate) {
+			createLastElement();
+		}
+		if(nonNull(joinTable)) {
+			if(from == elementToCreate) {
+				createLastElement();
+			}
+			List<JdbcElement[]> links = pendingLinks.get(joinTable);
+			if(isNull(links)) {
+				links = new ArrayList<>();
+				pendingLinks.put(joinTable, links);
+			}
+			links.add(new JdbcElement[] { from, to });
+			if(links.size() >= batchSize) {
+				flush();
+			}
+		} else if(from == elementToCreate) {
+			valuesToSet.put(refName.toUpperCase(), to);
+			valuesToSet.put(Schema.typeColumnFor(refName), to.getType());
+		} else {
+			String sql = MessageFormat.format(UPDATE_REFERENCE_SQL, from.getType().toUpperCase(), refName.toUpperCase(),
+					Schema.typeColumnFor(refName));
+			try {
+				PreparedStatement statement = prepare(sql);
+				statement.setInt(1, idOf(to));
+				statement.setString(2, to.getType());
+				statement.setInt(3, idOf(from));
+				statement.executeUpdate();
+			} catch (SQLException e) {
+				MogwaiLogger.error(e, "Cannot set the reference {0} of {1}", refName, from);
+				throw new IllegalStateException(MessageFormat.format("Cannot set the reference {0} of {1}", refName,
+						from), e);
+			}
+		}
+		return to;
 	}
 
 	@Override
@@ -155,13 +1209,56 @@ public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElem
 
 	@Override
 	public Iterable<Object> getAtt(JdbcElement from, String attName) {
-		throw new UnsupportedOperationException("Not implemented yet");
+		String tableName = from.getType().toUpperCase();
+		String columnName = attName.toUpperCase();
+		if(from == elementToCreate) {
+			Object value = valuesToSet.get(columnName);
+			return isNull(value) ? Collections.emptyList() : Collections.singletonList(value);
+		}
+		flush();
+		try {
+			PreparedStatement statement = prepare(MessageFormat.format(ATTRIBUTE_VALUE_SQL, tableName, columnName));
+			statement.setInt(1, from.getId());
+			try (ResultSet resultSet = statement.executeQuery()) {
+				if(resultSet.next() && nonNull(resultSet.getObject(1))) {
+					return Collections.singletonList(resultSet.getObject(1));
+				}
+			}
+			return Collections.emptyList();
+		} catch (SQLException e) {
+			MogwaiLogger.error(e, "Cannot get the attribute {0} of {1}", attName, from);
+			throw new IllegalStateException(MessageFormat.format("Cannot get the attribute {0} of {1}", attName, from), e);
+		}
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The value is inserted with the row of {@code from} if it is the last
+	 * created element, and updated otherwise (the update is staged in bulk
+	 * export mode). It is converted according to the SQL type of its column.
+	 */
 	@Override
 	public JdbcElement setAtt(JdbcElement from, String attName, Object attValue) {
-		valuesToSet.put(attName.toUpperCase(), (String)attValue);
-		return from;
+		if(from == elementToCreate) {
+			valuesToSet.put(attName.toUpperCase(), attValue);
+			return from;
+		} else if(bulkExport) {
+			stageUpdate(from, Collections.singletonList(attName.toUpperCase()), Collections.singletonList(attValue));
+			return from;
+		}
+		String tableName = from.getType().toUpperCase();
+		String columnName = attName.toUpperCase();
+		try {
+			PreparedStatement statement = prepare(MessageFormat.format(UPDATE_COLUMN_SQL, tableName, columnName));
+			bind(statement, 1, attValue, schema.getAttributeTypeFor(tableName, columnName));
+			statement.setInt(2, idOf(from));
+			statement.executeUpdate();
+			return from;
+		} catch (SQLException e) {
+			MogwaiLogger.error(e, "Cannot set the attribute {0} of {1}", attName, from);
+			throw new IllegalStateException(MessageFormat.format("Cannot set the attribute {0} of {1}", attName, from), e);
+		}
 	}
 
 	@Override
@@ -174,50 +1271,437 @@ public class DefaultJdbcDatastore implements ModelDatastore<Connection, JdbcElem
 		return from.getType().equals(type);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * If the datastore has not been initialized with an {@link EPackage}
+	 * tables do not support inheritance, and this method is equivalent to
+	 * {@link #isTypeOf(JdbcElement, String)}.
+	 */
 	@Override
 	public boolean isKindOf(JdbcElement from, String type) {
+		EClass eClass = eClasses.get(type);
+		EClass fromEClass = eClasses.get(from.getType());
+		if(nonNull(eClass) && nonNull(fromEClass)) {
+			return eClass.isSuperTypeOf(fromEClass);
+		}
 		return from.getType().equals(type);
 	}
 
+	/**
+	 * Returns the names of the concrete types whose instances are instances of
+	 * {@code typeName}.
+	 */
+	private List<String> concreteTypesOf(String typeName) {
+		EClass eClass = eClasses.get(typeName);
+		if(isNull(eClass)) {
+			return Collections.singletonList(typeName);
+		}
+		List<String> concreteTypes = new ArrayList<>();
+		for(EClass subType : eClasses.values()) {
+			if(!subType.isAbstract() && !subType.isInterface() && eClass.isSuperTypeOf(subType)) {
+				concreteTypes.add(subType.getName());
+			}
+		}
+		return concreteTypes;
+	}
+
 	private static String createAllOfTypeStatement(String typeName) {
 		return MessageFormat.format(ALL_INSTANCES_SQL, typeName);
 	}
 
-	private static Iterable<JdbcElement> elementIterableFrom(ResultSet resultSet, String typeName) throws SQLException {
-		List<JdbcElement> result = new ArrayList<>();
-		while (resultSet.next()) {
-			result.add(new JdbcElement(resultSet.getInt(1), typeName));
+	/**
+	 * Returns the SQL condition comparing the provided {@code column} to a
+	 * parameter.
+	 * <p>
+	 * {@link AttributeFilter.Comparison#DIFFERENT} conditions also match the
+	 * {@code NULL} values, like the Groovy {@code !=} comparison of the filter
+	 * steps they replace (SQL comparisons to {@code NULL} are never true).
+	 */
+	private static String sqlCondition(String column, AttributeFilter.Comparison comparison) {
+		if (comparison == AttributeFilter.Comparison.DIFFERENT) {
+			return "(" + column + " <> ? or " + column + " is null)";
+		}
+		return column + " " + sqlOperator(comparison) + " ?";
+	}
+
+	private static String sqlOperator(AttributeFilter.Comparison comparison) {
+		switch(comparison) {
+		case EQUAL:
+			return "=";
+		case DIFFERENT:
+			return "<>";
+		case LESS:
+			return "<";
+		case LESS_OR_EQUAL:
+			return "<=";
+		case GREATER:
+			return ">";
+		default:
+			return ">=";
+		}
+	}
+
+	private JdbcElementCursor openCursor(String sql, List<Object> parameters, String typeName) {
+		flush();
+		try {
+			JdbcElementCursor cursor = new JdbcElementCursor(connection, sql, parameters, typeName, fetchSize,
+					openCursors::remove);
+			openCursors.add(cursor);
+			return cursor;
+		} catch (SQLException e) {
+			MogwaiLogger.error(e, "Cannot execute the query {0}", sql);
+			throw new IllegalStateException(MessageFormat.format("Cannot execute the query {0}", sql), e);
+		}
+	}
+
+	private void closeCursors() {
+		for(JdbcElementCursor cursor : new ArrayList<>(openCursors)) {
+			cursor.close();
 		}
-		return result;
+		openCursors.clear();
 	}
-	
+
+	/**
+	 * Returns the cached {@link PreparedStatement} executing the provided
+	 * {@code sql} query, and creates it if it doesn't exist.
+	 */
+	private PreparedStatement prepare(String sql) throws SQLException {
+		PreparedStatement statement = statements.get(sql);
+		if(isNull(statement)) {
+			statement = connection.prepareStatement(sql);
+			statements.put(sql, statement);
+		}
+		return statement;
+	}
+
+	private void closeStatements() {
+		for(PreparedStatement statement : statements.values()) {
+			try {
+				statement.close();
+			} catch (SQLException e) {
+				MogwaiLogger.warn(e, "Cannot close the statement {0}", statement);
+			}
+		}
+		statements.clear();
+	}
+
+	/**
+	 * Binds the provided {@code value} to the parameter {@code index} of
+	 * {@code statement}, converting it according to {@code sqlType}.
+	 * <p>
+	 * {@link JdbcElement}s are bound to their identifier, enumeration literals
+	 * to their name, and {@link java.util.Date}s to {@link Timestamp}s. Values
+	 * with an unknown {@code sqlType} are bound without conversion.
+	 */
+	private void bind(PreparedStatement statement, int index, Object value, String sqlType) throws SQLException {
+		Integer typeNumber = typeNumberOf(sqlType);
+		Object sqlValue = toSqlValue(value);
+		if(isNull(sqlValue)) {
+			statement.setNull(index, isNull(typeNumber) ? Types.NULL : typeNumber);
+		} else if(isNull(typeNumber)) {
+			statement.setObject(index, sqlValue);
+		} else {
+			statement.setObject(index, sqlValue, typeNumber);
+		}
+	}
+
+	private Object toSqlValue(Object value) {
+		if(value instanceof JdbcElement) {
+			return idOf((JdbcElement) value);
+		} else if(value instanceof Enumerator) {
+			return ((Enumerator) value).getLiteral();
+		} else if(value instanceof Enum) {
+			return ((Enum<?>) value).name();
+		} else if(value instanceof java.util.Date && !(value instanceof Timestamp)) {
+			return new Timestamp(((java.util.Date) value).getTime());
+		}
+		return value;
+	}
+
+	/**
+	 * Returns the {@link Types} constant corresponding to the provided
+	 * {@code sqlType}, or {@code null} if it is not a standard SQL type.
+	 */
+	private static Integer typeNumberOf(String sqlType) {
+		if(isNull(sqlType)) {
+			return null;
+		}
+		try {
+			return JDBCType.valueOf(sqlType.toUpperCase()).getVendorTypeNumber();
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns the identifier of the provided {@code element}, and inserts it in
+	 * the database if needed.
+	 */
+	private int idOf(JdbcElement element) {
+		if(element == elementToCreate) {
+			createLastElement();
+		}
+		if(element.getId() == JdbcElement.UNSET_ID) {
+			flush();
+		}
+		return element.getId();
+	}
+
+	/**
+	 * Adds the row representing {@link #elementToCreate} to the batch of its
+	 * table, and executes the batch if it contains {@link #batchSize} rows.
+	 */
 	private void createLastElement() {
-		if(isNull(elementToCreate) || elementToCreate.isEmpty()) {
+		if(isNull(elementToCreate)) {
 			return;
 		}
-		StringBuilder attBuilder = new StringBuilder();
-		String delim = "";
-		for(String att : valuesToSet.keySet()) {
-			attBuilder.append(delim);
-			if(isNull(valuesToSet.get(att))) {
-				attBuilder.append("NULL");
+		JdbcElement element = elementToCreate;
+		Map<String, Object> values = new HashMap<>(valuesToSet);
+		this.elementToCreate = null;
+		this.valuesToSet.clear();
+		String tableName = element.getType().toUpperCase();
+		try {
+			if(bulkExport) {
+				stageRow(element, values);
+				return;
+			}
+			InsertBatch batch = insertBatches.get(tableName);
+			if(isNull(batch)) {
+				batch = new InsertBatch(tableName);
+				insertBatches.put(tableName, batch);
 			}
-			else {
-				attBuilder.append("'").append(valuesToSet.get(att).replace("'", "''")).append("'");
+			batch.add(element, values);
+			if(batch.size() >= batchSize) {
+				batch.execute();
 			}
-			delim = ",";
+		} catch (IOException | SQLException e) {
+			MogwaiLogger.error(e, "Cannot insert the element {0}", element);
+			throw new IllegalStateException(MessageFormat.format("Cannot insert the element {0}", element), e);
 		}
-		try {
-			Statement statement = connection.createStatement();
-			statement.execute(MessageFormat.format(INSERT_ELEMENT_SQL, elementToCreate, attBuilder.toString()));
-		} catch (SQLException e) {
-			e.printStackTrace();
+	}
+
+	/**
+	 * Executes the pending inserts and updates the identifiers of the created
+	 * {@link JdbcElement}s with the keys generated by the database, then
+	 * inserts the pending links of the many-valued references.
+	 * <p>
+	 * <b>Note:</b> the last created element is not inserted, because its
+	 * attributes can still be set. It is inserted when the next element is
+	 * created or when the datastore is closed.
+	 */
+	public void flush() {
+		for(InsertBatch batch : insertBatches.values()) {
+			try {
+				batch.execute();
+			} catch (SQLException e) {
+				MogwaiLogger.error(e, "Cannot execute the pending inserts in {0}", batch.tableName);
+				throw new IllegalStateException(MessageFormat.format("Cannot execute the pending inserts in {0}",
+						batch.tableName), e);
+			}
+		}
+		for(Map.Entry<String, List<JdbcElement[]>> links : pendingLinks.entrySet()) {
+			if(links.getValue().isEmpty()) {
+				continue;
+			}
+			try {
+				PreparedStatement statement = prepare(MessageFormat.format(INSERT_LINK_SQL, links.getKey()));
+				for(JdbcElement[] link : links.getValue()) {
+					statement.setInt(1, link[0].getId());
+					statement.setInt(2, link[1].getId());
+					statement.setString(3, link[1].getType());
+					statement.setInt(4, link[0].getId());
+					statement.addBatch();
+				}
+				statement.executeBatch();
+				links.getValue().clear();
+			} catch (SQLException e) {
+				MogwaiLogger.error(e, "Cannot execute the pending inserts in {0}", links.getKey());
+				throw new IllegalStateException(MessageFormat.format("Cannot execute the pending inserts in {0}",
+						links.getKey()), e);
+			}
 		}
 	}
-	
+
+	private void closeInsertBatches() {
+		for(InsertBatch batch : insertBatches.values()) {
+			try {
+				batch.statement.close();
+			} catch (SQLException e) {
+				MogwaiLogger.warn(e, "Cannot close the insert statement of {0}", batch.tableName);
+			}
+		}
+		insertBatches.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The pending inserts are executed, the bulk export is finished if needed,
+	 * and the cached {@link PreparedStatement}s and open cursors are closed.
+	 * Note that the {@link Connection} is not committed.
+	 */
 	@Override
 	public void close() {
+		if(bulkExport) {
+			finishBulkExport();
+		}
 		createLastElement();
+		flush();
+		closeInsertBatches();
+		closeCursors();
+		closeStatements();
+	}
+
+	/**
+	 * A cached {@link PreparedStatement} inserting rows in a table, and the
+	 * {@link JdbcElement}s waiting for the keys generated by its pending batch.
+	 * <p>
+	 * The {@code ID} column is not part of the statement, its value is
+	 * generated by the database.
+	 */
+	private class InsertBatch {
+
+		private final String tableName;
+
+		private final List<String> columns;
+
+		private final List<String> columnTypes;
+
+		private final PreparedStatement statement;
+
+		private final List<JdbcElement> pendingElements;
+
+		private final List<List<Object>> pendingRows;
+
+		public InsertBatch(String tableName) throws SQLException {
+			this.tableName = tableName;
+			this.columns = new ArrayList<>();
+			this.columnTypes = new ArrayList<>();
+			for(String column : schema.getAttributeNamesFor(tableName)) {
+				if(!ID_COLUMN.equals(column)) {
+					columns.add(column);
+					columnTypes.add(schema.getAttributeTypeFor(tableName, column));
+				}
+			}
+			StringBuilder parameters = new StringBuilder();
+			String delim = "";
+			for(int i = 0; i < columns.size(); i++) {
+				parameters.append(delim).append("?");
+				delim = ",";
+			}
+			String sql = MessageFormat.format(INSERT_ELEMENT_SQL, tableName, String.join(",", columns),
+					parameters.toString());
+			this.statement = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+			this.pendingElements = new ArrayList<>();
+			this.pendingRows = new ArrayList<>();
+		}
+
+		/**
+		 * Adds the row representing {@code element} to the batch.
+		 * <p>
+		 * The identifiers of the referenced elements are resolved before
+		 * binding the row, this may execute the pending batches.
+		 */
+		public void add(JdbcElement element, Map<String, Object> values) throws SQLException {
+			List<Object> row = new ArrayList<>(columns.size());
+			for(String column : columns) {
+				Object value = values.get(column);
+				row.add(value instanceof JdbcElement ? idOf((JdbcElement) value) : value);
+			}
+			if(batchGeneratedKeys) {
+				bindRow(row);
+				statement.addBatch();
+			}
+			pendingElements.add(element);
+			pendingRows.add(row);
+		}
+
+		public int size() {
+			return pendingElements.size();
+		}
+
+		/**
+		 * Executes the pending batch and sets the generated keys to the pending
+		 * elements.
+		 * <p>
+		 * Some drivers (including H2 before 1.4.197) only return the key of
+		 * the last inserted row for a batch. Identity values are not
+		 * guaranteed to be consecutive, so the other keys cannot be computed
+		 * from it: in this case the batch is rolled back and its rows are
+		 * inserted one by one, as well as the rows of the following batches.
+		 * 
+		 * @throws IllegalStateException
+		 *             if the keys are not returned and the batch cannot be
+		 *             rolled back because the {@link Connection} is in
+		 *             auto-commit mode
+		 */
+		public void execute() throws SQLException {
+			if(pendingElements.isEmpty()) {
+				return;
+			}
+			if(!batchGeneratedKeys) {
+				executeRowByRow();
+				return;
+			}
+			Savepoint savepoint = connection.getAutoCommit() ? null : connection.setSavepoint();
+			statement.executeBatch();
+			List<Integer> keys = new ArrayList<>(pendingElements.size());
+			try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+				while(generatedKeys.next()) {
+					keys.add(generatedKeys.getInt(1));
+				}
+			}
+			if(keys.size() == pendingElements.size()) {
+				if(nonNull(savepoint)) {
+					connection.releaseSavepoint(savepoint);
+				}
+				for(int i = 0; i < keys.size(); i++) {
+					pendingElements.get(i).setId(keys.get(i));
+				}
+			} else if(nonNull(savepoint)) {
+				MogwaiLogger.warn("The driver returned {0} generated keys for {1} rows in {2}, inserting the rows one by one",
+						keys.size(), pendingElements.size(), tableName);
+				connection.rollback(savepoint);
+				batchGeneratedKeys = false;
+				executeRowByRow();
+				return;
+			} else {
+				throw new IllegalStateException(MessageFormat.format(
+						"Cannot retrieve the generated keys of {0} elements in {1}: the driver returned {2} keys",
+						pendingElements.size(), tableName, keys.size()));
+			}
+			pendingElements.clear();
+			pendingRows.clear();
+		}
+
+		/**
+		 * Inserts the pending rows one by one, retrieving the generated key of
+		 * each of them.
+		 */
+		private void executeRowByRow() throws SQLException {
+			// Rows batched before the batch keys were found to be unsupported
+			statement.clearBatch();
+			for(int i = 0; i < pendingElements.size(); i++) {
+				bindRow(pendingRows.get(i));
+				statement.executeUpdate();
+				try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+					if(!generatedKeys.next()) {
+						throw new IllegalStateException(MessageFormat.format(
+								"Cannot retrieve the generated key of the element {0}", pendingElements.get(i)));
+					}
+					pendingElements.get(i).setId(generatedKeys.getInt(1));
+				}
+			}
+			pendingElements.clear();
+			pendingRows.clear();
+		}
+
+		private void bindRow(List<Object> row) throws SQLException {
+			for(int i = 0; i < columns.size(); i++) {
+				bind(statement, i + 1, row.get(i), columnTypes.get(i));
+			}
+		}
 	}
 
 }
@@ -2,33 +2,74 @@ package fr.inria.atlanmod.mogwai.datastore.jdbc;
 
 public class JdbcElement {
 
+	/**
+	 * The identifier of the elements that have not been inserted in the
+	 * database yet.
+	 */
+	public static final int UNSET_ID = -10;
+
 	private int id;
 	private String type;
 
+	/**
+	 * Whether this element has been created with {@link #UNSET_ID}.
+	 * <p>
+	 * Pending elements use identity-based {@link #equals(Object)} and
+	 * {@link #hashCode()}, even after their identifier has been set: their
+	 * hash code cannot change while they are stored in hash-based collections.
+	 */
+	private final boolean pending;
+
 	public JdbcElement(int id, String type) {
 		this.id = id;
 		this.type = type;
+		this.pending = id == UNSET_ID;
 	}
 
 	public int getId() {
 		return id;
 	}
 
+	/**
+	 * Sets the identifier generated by the database for this element.
+	 * <p>
+	 * <b>Note:</b> this method is called by {@link DefaultJdbcDatastore} when
+	 * the batch containing the element is executed.
+	 * 
+	 * @param id
+	 *            the generated identifier
+	 */
+	void setId(int id) {
+		this.id = id;
+	}
+
 	public String getType() {
 		return type;
 	}
 
 	@Override
 	public int hashCode() {
+		if (pending) {
+			return System.identityHashCode(this);
+		}
 		return Integer.hashCode(id) + type.hashCode();
 	}
 
 	@Override
 	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
 		if (obj instanceof JdbcElement) {
-			return this == obj || (((JdbcElement) obj).getId() == id && ((JdbcElement) obj).getType().equals(type));
+			JdbcElement other = (JdbcElement) obj;
+			return !pending && !other.pending && other.getId() == id && other.getType().equals(type);
 		}
-		return super.equals(obj);
+		return false;
+	}
+
+	@Override
+	public String toString() {
+		return type + "#" + id;
 	}
 
 }
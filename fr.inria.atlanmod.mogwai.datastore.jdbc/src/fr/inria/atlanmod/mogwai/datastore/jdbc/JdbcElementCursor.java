@@ -0,0 +1,156 @@
+package fr.inria.atlanmod.mogwai.datastore.jdbc;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.MessageFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import com.google.common.collect.AbstractIterator;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+
+/**
+ * An {@link Iterator} over the {@link JdbcElement}s returned by a query
+ * selecting element identifiers.
+ * <p>
+ * The rows are read from the database cursor when the iterator reaches them,
+ * using the provided fetch size: only the identifier of the current row is
+ * held in memory, and the corresponding {@link JdbcElement} is created when
+ * it is returned by {@link #next()}. This allows to iterate full tables in
+ * constant memory.
+ * <p>
+ * The underlying {@link Statement} is closed when the end of the
+ * {@link ResultSet} is reached, when an error occurs, or when
+ * {@link #close()} is called.
+ * <p>
+ * <b>Note:</b> some drivers (e.g. PostgreSQL) ignore the fetch size if the
+ * {@link Connection} is in autocommit mode.
+ *
+ * @see DefaultJdbcDatastore#allOfType(String)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+class JdbcElementCursor extends AbstractIterator<JdbcElement> implements AutoCloseable {
+
+	/**
+	 * The executed query.
+	 */
+	private final String sql;
+
+	/**
+	 * The {@link Statement} executing the query.
+	 */
+	private final PreparedStatement statement;
+
+	/**
+	 * The {@link ResultSet} containing the identifiers of the elements.
+	 */
+	private final ResultSet resultSet;
+
+	/**
+	 * The type of the returned {@link JdbcElement}s, or {@code null} if it is
+	 * read from the second column of the {@link ResultSet}.
+	 */
+	private final String typeName;
+
+	/**
+	 * The callback notified when the cursor is closed, may be {@code null}.
+	 */
+	private final Consumer<JdbcElementCursor> onClose;
+
+	/**
+	 * Whether the underlying {@link Statement} has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Executes the provided {@code sql} query with the given
+	 * {@code parameters} and constructs a new {@link JdbcElementCursor}
+	 * iterating its results.
+	 *
+	 * @param connection
+	 *            the {@link Connection} to execute the query on
+	 * @param sql
+	 *            the query selecting the identifiers of the elements in its
+	 *            first column, and optionally their type in its second column
+	 * @param parameters
+	 *            the values of the parameters of the query
+	 * @param typeName
+	 *            the type of the returned {@link JdbcElement}s, or
+	 *            {@code null} if the query selects the type of each element
+	 *            in its second column
+	 * @param fetchSize
+	 *            the number of rows to fetch from the database at once
+	 * @param onClose
+	 *            the callback notified when the cursor is closed, may be
+	 *            {@code null}
+	 * @throws SQLException
+	 *             if the query cannot be executed
+	 */
+	public JdbcElementCursor(Connection connection, String sql, List<Object> parameters, String typeName,
+			int fetchSize, Consumer<JdbcElementCursor> onClose) throws SQLException {
+		this.sql = sql;
+		this.typeName = typeName;
+		this.onClose = onClose;
+		this.statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+		try {
+			statement.setFetchSize(fetchSize);
+			for (int i = 0; i < parameters.size(); i++) {
+				statement.setObject(i + 1, parameters.get(i));
+			}
+			this.resultSet = statement.executeQuery();
+		} catch (SQLException e) {
+			statement.close();
+			throw e;
+		}
+	}
+
+	@Override
+	protected JdbcElement computeNext() {
+		if (closed) {
+			return endOfData();
+		}
+		try {
+			if (resultSet.next()) {
+				return new JdbcElement(resultSet.getInt(1), isNull(typeName) ? resultSet.getString(2) : typeName);
+			}
+		} catch (SQLException e) {
+			close();
+			MogwaiLogger.error(e, "Cannot read the results of {0}", sql);
+			throw new IllegalStateException(MessageFormat.format("Cannot read the results of {0}", sql), e);
+		}
+		close();
+		return endOfData();
+	}
+
+	/**
+	 * Closes the underlying {@link Statement}.
+	 * <p>
+	 * The cursor does not return any element once it has been closed.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			MogwaiLogger.warn(e, "Cannot close the cursor over the results of {0}", sql);
+		}
+		if (nonNull(onClose)) {
+			onClose.accept(this);
+		}
+	}
+
+}
@@ -1,37 +1,194 @@
 package fr.inria.atlanmod.mogwai.datastore.jdbc;
 
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
 import java.text.MessageFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+/**
+ * The relational schema manipulated by a {@link DefaultJdbcDatastore}.
+ * <p>
+ * A {@link Schema} contains the tables representing the model types, their
+ * typed columns, and the references between them:
+ * <ul>
+ * <li><b>single-valued references</b> are stored in a foreign key column of
+ * the source table containing the {@code ID} of the target element, and a
+ * {@code <reference>_TYPE} column containing its type</li>
+ * <li><b>many-valued references</b> are stored in a join table containing the
+ * {@code SOURCE_ID}, {@code TARGET_ID}, and {@code TARGET_TYPE} of the linked
+ * elements, and the {@code REF_POSITION} of the target in the reference</li>
+ * </ul>
+ * Target types are stored with the identifiers because identifiers are only
+ * unique within a table, and references can contain instances of any subtype
+ * of their declared type.
+ * Schemas are either discovered from the database metadata (in this case only
+ * tables and columns are available), or generated from an {@code EPackage}
+ * (see {@link SchemaGenerator}).
+ * <p>
+ * <b>Note:</b> table and column names are case insensitive, and stored in
+ * upper case.
+ *
+ * @see SchemaGenerator
+ *
+ * @author Gwendal DANIEL
+ *
+ */
 public class Schema {
 
+	/**
+	 * The name of the column containing the identifier of the elements.
+	 */
+	public static final String ID_COLUMN = "ID";
+
+	/**
+	 * The name of the join table column containing the identifier of the
+	 * source element.
+	 */
+	public static final String SOURCE_COLUMN = "SOURCE_ID";
+
+	/**
+	 * The name of the join table column containing the identifier of the
+	 * target element.
+	 */
+	public static final String TARGET_COLUMN = "TARGET_ID";
+
+	/**
+	 * The name of the join table column containing the type of the target
+	 * element.
+	 */
+	public static final String TARGET_TYPE_COLUMN = "TARGET_TYPE";
+
+	/**
+	 * The name of the join table column containing the position of the target
+	 * element in the reference.
+	 */
+	public static final String POSITION_COLUMN = "REF_POSITION";
+
+	/**
+	 * The SQL type of identifier columns.
+	 */
+	public static final String ID_TYPE = "INTEGER";
+
+	/**
+	 * The SQL type of the columns containing the type of referenced elements.
+	 */
+	public static final String TYPE_TYPE = "VARCHAR";
+
+	private static final String TYPE_COLUMN_SUFFIX = "_TYPE";
+
+	private static final String CREATE_TABLE_SQL = "create table if not exists {0} ({1})";
+
+	private static final String CREATE_INDEX_SQL = "create index if not exists {0}_{1}_IDX on {0} ({2})";
+
 	public static Schema newSchema() {
 		return new Schema();
 	}
 
 	protected Map<String, List<ColumnSpecification>> internalSchema;
 
+	/**
+	 * The references of each table, indexed by reference name.
+	 */
+	protected Map<String, Map<String, ReferenceSpecification>> references;
+
+	/**
+	 * The indexed columns of each table. Each index is represented by the
+	 * list of its columns.
+	 */
+	protected Map<String, List<List<String>>> indexes;
+
 	protected Schema() {
-		internalSchema = new HashMap<>();
+		internalSchema = new LinkedHashMap<>();
+		references = new LinkedHashMap<>();
+		indexes = new LinkedHashMap<>();
 	}
 
 	public Schema setTable(String tableName) {
-		internalSchema.put(tableName, new ArrayList<ColumnSpecification>());
+		internalSchema.put(key(tableName), new ArrayList<ColumnSpecification>());
 		return this;
 	}
 
 	public Schema setAttribute(String tableName, String attName, String attType) {
-		getColumnsForTable(tableName).add(new ColumnSpecification(attName, attType));
+		getColumnsForTable(tableName).add(new ColumnSpecification(key(attName), attType));
 		return this;
 	}
 
+	/**
+	 * Adds a single-valued reference to the table {@code sourceTable}.
+	 * <p>
+	 * The reference is stored in the foreign key column {@code refName} of
+	 * {@code sourceTable}, and the type of the referenced element in the
+	 * column returned by {@link #typeColumnFor(String)}.
+	 *
+	 * @param sourceTable
+	 *            the table containing the reference
+	 * @param refName
+	 *            the name of the reference
+	 * @param targetTable
+	 *            the table of the referenced elements
+	 * @return the current {@link Schema}
+	 */
 	public Schema setReference(String sourceTable, String refName, String targetTable) {
-		getColumnsForTable(sourceTable).add(new ColumnSpecification(refName, targetTable, targetTable));
+		getColumnsForTable(sourceTable).add(new ColumnSpecification(key(refName), ID_TYPE, key(targetTable)));
+		getColumnsForTable(sourceTable).add(new ColumnSpecification(typeColumnFor(refName), TYPE_TYPE));
+		getReferencesForTable(sourceTable).put(key(refName), new ReferenceSpecification(targetTable, null));
+		return this;
+	}
+
+	/**
+	 * Adds a many-valued reference to the table {@code sourceTable}.
+	 * <p>
+	 * The reference is stored in the join table {@code sourceTable_refName},
+	 * that is indexed on its {@link #SOURCE_COLUMN} and
+	 * {@link #POSITION_COLUMN}.
+	 *
+	 * @param sourceTable
+	 *            the table containing the reference
+	 * @param refName
+	 *            the name of the reference
+	 * @param targetTable
+	 *            the table of the referenced elements
+	 * @return the current {@link Schema}
+	 */
+	public Schema setManyReference(String sourceTable, String refName, String targetTable) {
+		String joinTable = key(sourceTable) + "_" + key(refName);
+		setTable(joinTable);
+		getColumnsForTable(joinTable).add(new ColumnSpecification(SOURCE_COLUMN, ID_TYPE, key(sourceTable)));
+		getColumnsForTable(joinTable).add(new ColumnSpecification(TARGET_COLUMN, ID_TYPE, key(targetTable)));
+		getColumnsForTable(joinTable).add(new ColumnSpecification(TARGET_TYPE_COLUMN, TYPE_TYPE));
+		getColumnsForTable(joinTable).add(new ColumnSpecification(POSITION_COLUMN, ID_TYPE));
+		setIndex(joinTable, SOURCE_COLUMN, POSITION_COLUMN);
+		getReferencesForTable(sourceTable).put(key(refName), new ReferenceSpecification(targetTable, joinTable));
+		return this;
+	}
+
+	/**
+	 * Adds an index on the provided {@code columns} of {@code tableName}.
+	 *
+	 * @param tableName
+	 *            the table to index
+	 * @param columns
+	 *            the indexed columns
+	 * @return the current {@link Schema}
+	 */
+	public Schema setIndex(String tableName, String... columns) {
+		List<String> indexColumns = new ArrayList<>(columns.length);
+		for (String column : columns) {
+			indexColumns.add(key(column));
+		}
+		List<List<String>> tableIndexes = indexes.get(key(tableName));
+		if (isNull(tableIndexes)) {
+			tableIndexes = new ArrayList<>();
+			indexes.put(key(tableName), tableIndexes);
+		}
+		tableIndexes.add(indexColumns);
 		return this;
 	}
 
@@ -39,8 +196,17 @@ public class Schema {
 		return internalSchema.keySet();
 	}
 
+	public boolean hasTable(String tableName) {
+		return internalSchema.containsKey(key(tableName));
+	}
+
+	public boolean hasAttribute(String tableName, String attName) {
+		return hasTable(tableName) && internalSchema.get(key(tableName)).stream()
+				.anyMatch(cs -> cs.getColumnName().equals(key(attName)));
+	}
+
 	public Iterable<String> getAttributeNamesFor(String table) {
-		Stream<String> s = StreamSupport.stream(getColumnsForTable(table.toUpperCase()).spliterator(), false).map(cs -> cs.getColumnName());
+		Stream<String> s = StreamSupport.stream(getColumnsForTable(table).spliterator(), false).map(cs -> cs.getColumnName());
 		return s::iterator;
 	}
 
@@ -49,21 +215,125 @@ public class Schema {
 		return s::iterator;
 	}
 
-//	public Iterable<String> getReferenceNamesFor(String table) {
-//		
-//	}
-//
-//	public Iterable<String> getReferencedTypesFor(String table);
+	/**
+	 * Returns the SQL type of the column {@code attName} of {@code table}.
+	 *
+	 * @return the SQL type of the column, or {@code null} if the column
+	 *         doesn't exist
+	 */
+	public String getAttributeTypeFor(String table, String attName) {
+		if (!hasTable(table)) {
+			return null;
+		}
+		return internalSchema.get(key(table)).stream().filter(cs -> cs.getColumnName().equals(key(attName)))
+				.map(cs -> cs.getSQLType()).findFirst().orElse(null);
+	}
+
+	public Iterable<String> getReferenceNamesFor(String table) {
+		Map<String, ReferenceSpecification> tableReferences = references.get(key(table));
+		return isNull(tableReferences) ? Collections.emptyList() : tableReferences.keySet();
+	}
+
+	public boolean hasReference(String table, String refName) {
+		Map<String, ReferenceSpecification> tableReferences = references.get(key(table));
+		return nonNull(tableReferences) && tableReferences.containsKey(key(refName));
+	}
+
+	/**
+	 * Returns the declared type of the elements referenced by {@code refName}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the reference doesn't exist
+	 */
+	public String getReferencedTypeFor(String table, String refName) {
+		return getReference(table, refName).targetTable;
+	}
+
+	/**
+	 * Returns the join table storing the many-valued reference {@code refName}.
+	 *
+	 * @return the name of the join table, or {@code null} if the reference is
+	 *         single-valued
+	 * @throws IllegalArgumentException
+	 *             if the reference doesn't exist
+	 */
+	public String getJoinTableFor(String table, String refName) {
+		return getReference(table, refName).joinTable;
+	}
+
+	/**
+	 * Returns the name of the column containing the type of the element
+	 * referenced by the single-valued reference {@code refName}.
+	 */
+	public static String typeColumnFor(String refName) {
+		return key(refName) + TYPE_COLUMN_SUFFIX;
+	}
+
+	/**
+	 * Returns the SQL statements creating the tables and indexes of this
+	 * schema.
+	 * <p>
+	 * The {@link #ID_COLUMN} of the tables that are not join tables is
+	 * generated by the database. Foreign key columns are indexed but not
+	 * constrained, allowing to insert elements in any order.
+	 *
+	 * @return the DDL statements of this schema
+	 */
+	public List<String> createStatements() {
+		List<String> statements = new ArrayList<>();
+		for (Map.Entry<String, List<ColumnSpecification>> table : internalSchema.entrySet()) {
+			StringBuilder columns = new StringBuilder();
+			String delim = "";
+			for (ColumnSpecification column : table.getValue()) {
+				columns.append(delim).append(column.getColumnName()).append(' ').append(column.getSQLType());
+				if (ID_COLUMN.equals(column.getColumnName())) {
+					columns.append(" auto_increment primary key");
+				}
+				delim = ", ";
+			}
+			statements.add(MessageFormat.format(CREATE_TABLE_SQL, table.getKey(), columns.toString()));
+		}
+		for (Map.Entry<String, List<List<String>>> tableIndexes : indexes.entrySet()) {
+			for (List<String> columns : tableIndexes.getValue()) {
+				statements.add(MessageFormat.format(CREATE_INDEX_SQL, tableIndexes.getKey(), String.join("_", columns),
+						String.join(", ", columns)));
+			}
+		}
+		return statements;
+	}
 
 	private List<ColumnSpecification> getColumnsForTable(String tableName) {
-		if (internalSchema.containsKey(tableName)) {
-			return internalSchema.get(tableName);
+		if (internalSchema.containsKey(key(tableName))) {
+			return internalSchema.get(key(tableName));
 		} else {
 			throw new IllegalArgumentException(MessageFormat.format(
 					"Cannot get the specification of {0}, the table doesn't exist", tableName));
 		}
 	}
 
+	private Map<String, ReferenceSpecification> getReferencesForTable(String tableName) {
+		getColumnsForTable(tableName);
+		Map<String, ReferenceSpecification> tableReferences = references.get(key(tableName));
+		if (isNull(tableReferences)) {
+			tableReferences = new LinkedHashMap<>();
+			references.put(key(tableName), tableReferences);
+		}
+		return tableReferences;
+	}
+
+	private ReferenceSpecification getReference(String tableName, String refName) {
+		if (hasReference(tableName, refName)) {
+			return references.get(key(tableName)).get(key(refName));
+		} else {
+			throw new IllegalArgumentException(MessageFormat.format(
+					"Cannot get the specification of {0}.{1}, the reference doesn't exist", tableName, refName));
+		}
+	}
+
+	private static String key(String name) {
+		return name.toUpperCase();
+	}
+
 	private class ColumnSpecification {
 
 		private String name;
@@ -97,4 +367,17 @@ public class Schema {
 
 	}
 
+	private class ReferenceSpecification {
+
+		private final String targetTable;
+
+		private final String joinTable;
+
+		public ReferenceSpecification(String targetTable, String joinTable) {
+			this.targetTable = targetTable;
+			this.joinTable = joinTable;
+		}
+
+	}
+
 }
@@ -0,0 +1,177 @@
+package fr.inria.atlanmod.mogwai.datastore.jdbc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EDataType;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+
+/**
+ * Generates the relational {@link Schema} representing the instances of an
+ * {@link EPackage}.
+ * <p>
+ * The generated schema maps each concrete {@link EClass} to a table (abstract
+ * classes and interfaces don't have instances and are not mapped):
+ * <ul>
+ * <li>single-valued {@link EAttribute}s (including inherited ones) are mapped
+ * to columns typed according to their {@link EDataType}, {@link EEnum}s are
+ * stored as {@code VARCHAR} literals</li>
+ * <li>single-valued {@link EReference}s are mapped to indexed foreign key
+ * columns</li>
+ * <li>many-valued {@link EReference}s are mapped to join tables with a
+ * position column (see {@link Schema#setManyReference(String, String, String)})
+ * </li>
+ * <li>{@link EAttribute}s marked as {@code iD} are indexed</li>
+ * </ul>
+ * <p>
+ * <b>Note:</b> many-valued {@link EAttribute}s are not supported and are
+ * ignored. The type of the referenced elements is stored with their
+ * {@code ID}, references to abstract types can contain instances of any of
+ * their concrete subtypes.
+ *
+ * @see Schema#createStatements()
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public class SchemaGenerator {
+
+	/**
+	 * The SQL type used for attributes that don't have a more specific
+	 * mapping.
+	 */
+	private static final String DEFAULT_SQL_TYPE = "VARCHAR";
+
+	/**
+	 * Constructs a new {@link SchemaGenerator}.
+	 * <p>
+	 * <b>Note:</b> this constructor is private, use
+	 * {@link #generate(EPackage)} to create schemas.
+	 */
+	private SchemaGenerator() {
+
+	}
+
+	/**
+	 * Generates the {@link Schema} representing the instances of the provided
+	 * {@code ePackage} and its sub-packages.
+	 *
+	 * @param ePackage
+	 *            the {@link EPackage} to generate the schema of
+	 * @return the generated {@link Schema}
+	 */
+	public static Schema generate(EPackage ePackage) {
+		checkNotNull(ePackage, "Cannot generate the schema of {0}", ePackage);
+		Schema schema = Schema.newSchema();
+		addTables(schema, ePackage);
+		addColumns(schema, ePackage);
+		return schema;
+	}
+
+	private static void addTables(Schema schema, EPackage ePackage) {
+		for (EClassifier eClassifier : ePackage.getEClassifiers()) {
+			if (isMapped(eClassifier)) {
+				schema.setTable(eClassifier.getName());
+				schema.setAttribute(eClassifier.getName(), Schema.ID_COLUMN, Schema.ID_TYPE);
+			}
+		}
+		for (EPackage subPackage : ePackage.getESubpackages()) {
+			addTables(schema, subPackage);
+		}
+	}
+
+	private static void addColumns(Schema schema, EPackage ePackage) {
+		for (EClassifier eClassifier : ePackage.getEClassifiers()) {
+			if (isMapped(eClassifier)) {
+				EClass eClass = (EClass) eClassifier;
+				for (EAttribute eAttribute : eClass.getEAllAttributes()) {
+					addAttribute(schema, eClass, eAttribute);
+				}
+				for (EReference eReference : eClass.getEAllReferences()) {
+					addReference(schema, eClass, eReference);
+				}
+			}
+		}
+		for (EPackage subPackage : ePackage.getESubpackages()) {
+			addColumns(schema, subPackage);
+		}
+	}
+
+	private static void addAttribute(Schema schema, EClass eClass, EAttribute eAttribute) {
+		if (eAttribute.isMany()) {
+			MogwaiLogger.warn("Cannot map the many-valued attribute {0}.{1}, the attribute is ignored",
+					eClass.getName(), eAttribute.getName());
+			return;
+		}
+		if (Schema.ID_COLUMN.equalsIgnoreCase(eAttribute.getName())) {
+			MogwaiLogger.warn("Cannot map the attribute {0}.{1}, the column {2} is reserved", eClass.getName(),
+					eAttribute.getName(), Schema.ID_COLUMN);
+			return;
+		}
+		schema.setAttribute(eClass.getName(), eAttribute.getName(), sqlTypeFor(eAttribute.getEAttributeType()));
+		if (eAttribute.isID()) {
+			schema.setIndex(eClass.getName(), eAttribute.getName());
+		}
+	}
+
+	private static void addReference(Schema schema, EClass eClass, EReference eReference) {
+		String targetTable = eReference.getEReferenceType().getName();
+		if (eReference.isMany()) {
+			schema.setManyReference(eClass.getName(), eReference.getName(), targetTable);
+		} else {
+			schema.setReference(eClass.getName(), eReference.getName(), targetTable);
+			schema.setIndex(eClass.getName(), eReference.getName());
+		}
+	}
+
+	/**
+	 * Returns the SQL type used to store the values of the provided
+	 * {@code eDataType}.
+	 *
+	 * @param eDataType
+	 *            the {@link EDataType} to get the SQL type of
+	 * @return the name of the SQL type (a {@link java.sql.JDBCType} name)
+	 */
+	public static String sqlTypeFor(EDataType eDataType) {
+		if (eDataType instanceof EEnum) {
+			return DEFAULT_SQL_TYPE;
+		}
+		Class<?> instanceClass = eDataType.getInstanceClass();
+		if (instanceClass == int.class || instanceClass == Integer.class) {
+			return "INTEGER";
+		} else if (instanceClass == long.class || instanceClass == Long.class) {
+			return "BIGINT";
+		} else if (instanceClass == short.class || instanceClass == Short.class) {
+			return "SMALLINT";
+		} else if (instanceClass == byte.class || instanceClass == Byte.class) {
+			return "TINYINT";
+		} else if (instanceClass == boolean.class || instanceClass == Boolean.class) {
+			return "BOOLEAN";
+		} else if (instanceClass == double.class || instanceClass == Double.class) {
+			return "DOUBLE";
+		} else if (instanceClass == float.class || instanceClass == Float.class) {
+			return "REAL";
+		} else if (instanceClass == char.class || instanceClass == Character.class) {
+			return "CHAR";
+		} else if (instanceClass == java.util.Date.class) {
+			return "TIMESTAMP";
+		} else if (instanceClass == java.math.BigDecimal.class) {
+			return "DECIMAL";
+		} else if (instanceClass == java.math.BigInteger.class) {
+			return "DECIMAL";
+		}
+		return DEFAULT_SQL_TYPE;
+	}
+
+	private static boolean isMapped(EClassifier eClassifier) {
+		return eClassifier instanceof EClass && !((EClass) eClassifier).isAbstract()
+				&& !((EClass) eClassifier).isInterface();
+	}
+
+}
@@ -0,0 +1,285 @@
+package fr.inria.atlanmod.mogwai.datastore.jdbc.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMultiset;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter.Comparison;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
+import fr.inria.atlanmod.mogwai.datastore.jdbc.DefaultJdbcDatastore;
+import fr.inria.atlanmod.mogwai.datastore.jdbc.JdbcElement;
+
+public class DefaultJdbcDatastoreTest {
+
+	private static int databaseCount = 0;
+
+	private DefaultJdbcDatastore datastore;
+
+	private JdbcElement frigate;
+
+	private JdbcElement cruiser;
+
+	private JdbcElement smithChief;
+
+	private JdbcElement smith;
+
+	private JdbcElement jones;
+
+	/**
+	 * Creates an in-memory database containing the model:
+	 * <ul>
+	 * <li>a Frigate whose crew is [smithChief]</li>
+	 * <li>a Cruiser whose crew is [jones, smith]</li>
+	 * <li>smithChief (name Smith, rank Chief) on the Frigate</li>
+	 * <li>smith (name Smith, no rank) on the Cruiser</li>
+	 * <li>jones (name Jones, rank Chief) on the Cruiser</li>
+	 * </ul>
+	 * Frigate and Cruiser are the concrete subtypes of the abstract Ship
+	 * type referenced by Officer.ship.
+	 */
+	@Before
+	public void setUp() throws SQLException {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:mogwai-jdbc-test-" + databaseCount++);
+		Connection connection = ds.getConnection();
+		datastore = new DefaultJdbcDatastore(connection, createEPackage());
+
+		frigate = datastore.newInstance("Frigate", "fleet", null);
+		datastore.setAtt(frigate, "name", "F");
+		cruiser = datastore.newInstance("Cruiser", "fleet", null);
+		datastore.setAtt(cruiser, "name", "C");
+		smithChief = newOfficer("Smith", "Chief", frigate);
+		smith = newOfficer("Smith", null, cruiser);
+		jones = newOfficer("Jones", "Chief", cruiser);
+		datastore.setRef(frigate, "crew", "", smithChief, false);
+		datastore.setRef(cruiser, "crew", "", jones, false);
+		datastore.setRef(cruiser, "crew", "", smith, false);
+		datastore.flush();
+	}
+
+	@After
+	public void tearDown() {
+		datastore.close();
+	}
+
+	/**
+	 * Check that DIFFERENT filters keep the elements that don't have a value
+	 * for the filtered attribute, as the OCL {@code <>} operator does.
+	 */
+	@Test
+	public void differentKeepsNullValues() {
+		List<AttributeFilter> filters = Collections.singletonList(
+				AttributeFilter.of("rank", Comparison.DIFFERENT, "Chief"));
+
+		assertTrue(datastore.canFilter("Officer", filters));
+		assertElements(datastore.allOfTypeWhere("Officer", filters), smith);
+	}
+
+	/**
+	 * Check that DIFFERENT filters are combined with the other filters.
+	 */
+	@Test
+	public void differentAndEqual() {
+		List<AttributeFilter> filters = Arrays.asList(AttributeFilter.of("name", Comparison.EQUAL, "Jones"),
+				AttributeFilter.of("rank", Comparison.DIFFERENT, "Captain"));
+
+		assertElements(datastore.allOfTypeWhere("Officer", filters), jones);
+	}
+
+	/**
+	 * Check that the filters are not pushed down on unknown columns.
+	 */
+	@Test
+	public void unknownAttribute() {
+		assertFalse(datastore.canFilter("Officer",
+				Collections.singletonList(AttributeFilter.of("age", Comparison.EQUAL, 30))));
+	}
+
+	/**
+	 * Check that traversals through a reference to an abstract type are
+	 * joined with the table of each of its concrete subtypes:
+	 * allOfType(Officer)[name EQUAL Smith][ship][crew] reaches the crew of
+	 * the Frigate and of the Cruiser.
+	 */
+	@Test
+	public void multiTypeJoin() {
+		TraversalPattern pattern = TraversalPattern.of("Officer", false,
+				Collections.singletonList(AttributeFilter.of("name", Comparison.EQUAL, "Smith")),
+				Arrays.asList("ship", "crew"));
+
+		assertTrue(datastore.canTraverse(pattern));
+		assertElements(datastore.traversalPipeline(pattern), smithChief, jones, smith);
+		assertEquals(3, datastore.countTraversal(pattern));
+	}
+
+	/**
+	 * Check that single-valued references ending a traversal return the
+	 * referenced elements with their concrete type, and that DIFFERENT
+	 * filters keep the elements without value.
+	 */
+	@Test
+	public void differentTraversal() {
+		TraversalPattern pattern = TraversalPattern.of("Officer", false,
+				Collections.singletonList(AttributeFilter.of("rank", Comparison.DIFFERENT, "Chief")),
+				Collections.singletonList("ship"));
+
+		assertTrue(datastore.canTraverse(pattern));
+		JdbcElement ship = (JdbcElement) Iterables.getOnlyElement(datastore.traversalPipeline(pattern));
+		assertEquals(cruiser, ship);
+		assertEquals("Cruiser", ship.getType());
+		assertEquals(1, datastore.countTraversal(pattern));
+	}
+
+	/**
+	 * Check that kind traversals start from all the concrete subtypes of
+	 * their type.
+	 */
+	@Test
+	public void kindTraversal() {
+		TraversalPattern pattern = TraversalPattern.of("Ship", true, Collections.emptyList(),
+				Collections.singletonList("crew"));
+
+		assertTrue(datastore.canTraverse(pattern));
+		assertElements(datastore.traversalPipeline(pattern), smithChief, jones, smith);
+		assertEquals(3, datastore.countTraversal(pattern));
+	}
+
+	/**
+	 * Check that traversals navigating unknown references are not pushed
+	 * down.
+	 */
+	@Test
+	public void unknownReference() {
+		assertFalse(datastore.canTraverse(TraversalPattern.of("Officer", false, Collections.emptyList(),
+				Arrays.asList("ship", "captain"))));
+	}
+
+	/**
+	 * Check that allOfType executes the pending inserts before querying the
+	 * database.
+	 */
+	@Test
+	public void allOfTypeFlushesPendingInserts() {
+		JdbcElement brown = newOfficer("Brown", null, frigate);
+		datastore.newInstance("Frigate", "fleet", null);
+
+		List<JdbcElement> officers = Lists.newArrayList(datastore.allOfType("Officer"));
+		assertElements(officers, smithChief, smith, jones, brown);
+	}
+
+	/**
+	 * Check that each iteration of allOfType executes the query again, and
+	 * that all the rows are returned when they are fetched one by one.
+	 */
+	@Test
+	public void allOfTypeFetchSize() {
+		datastore.setFetchSize(1);
+		Iterable<JdbcElement> officers = datastore.allOfType("Officer");
+
+		assertElements(officers, smithChief, smith, jones);
+		assertElements(officers, smithChief, smith, jones);
+		assertElements(datastore.allOfKind("Ship"), frigate, cruiser);
+	}
+
+	/**
+	 * Check that the cursors that are not exhausted are closed with the
+	 * datastore, and don't return any element afterwards.
+	 */
+	@Test
+	public void closeClosesCursors() {
+		Iterator<JdbcElement> officers = datastore.allOfType("Officer").iterator();
+		assertTrue(officers.hasNext());
+		officers.next();
+
+		datastore.close();
+
+		assertFalse(officers.hasNext());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void setInvalidFetchSize() {
+		datastore.setFetchSize(0);
+	}
+
+	private JdbcElement newOfficer(String name, String rank, JdbcElement ship) {
+		JdbcElement officer = datastore.newInstance("Officer", "fleet", null);
+		datastore.setAtt(officer, "name", name);
+		if (rank != null) {
+			datastore.setAtt(officer, "rank", rank);
+		}
+		datastore.setRef(officer, "ship", "", ship, false);
+		return officer;
+	}
+
+	private static void assertElements(Iterable<?> actual, JdbcElement... expected) {
+		assertEquals(ImmutableMultiset.copyOf(expected), HashMultiset.create(actual));
+	}
+
+	private static EPackage createEPackage() {
+		EcoreFactory factory = EcoreFactory.eINSTANCE;
+		EPackage ePackage = factory.createEPackage();
+		ePackage.setName("fleet");
+		ePackage.setNsURI("fleet");
+
+		EClass ship = factory.createEClass();
+		ship.setName("Ship");
+		ship.setAbstract(true);
+		ship.getEStructuralFeatures().add(attribute("name"));
+		EClass frigate = factory.createEClass();
+		frigate.setName("Frigate");
+		frigate.getESuperTypes().add(ship);
+		EClass cruiser = factory.createEClass();
+		cruiser.setName("Cruiser");
+		cruiser.getESuperTypes().add(ship);
+
+		EClass officer = factory.createEClass();
+		officer.setName("Officer");
+		officer.getEStructuralFeatures().add(attribute("name"));
+		officer.getEStructuralFeatures().add(attribute("rank"));
+		officer.getEStructuralFeatures().add(reference("ship", ship, false));
+		ship.getEStructuralFeatures().add(reference("crew", officer, true));
+
+		ePackage.getEClassifiers().addAll(Arrays.asList(ship, frigate, cruiser, officer));
+		return ePackage;
+	}
+
+	private static EAttribute attribute(String name) {
+		EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+		eAttribute.setName(name);
+		eAttribute.setEType(EcorePackage.Literals.ESTRING);
+		return eAttribute;
+	}
+
+	private static EReference reference(String name, EClass type, boolean many) {
+		EReference eReference = EcoreFactory.eINSTANCE.createEReference();
+		eReference.setName(name);
+		eReference.setEType(type);
+		eReference.setUpperBound(many ? -1 : 1);
+		return eReference;
+	}
+
+}
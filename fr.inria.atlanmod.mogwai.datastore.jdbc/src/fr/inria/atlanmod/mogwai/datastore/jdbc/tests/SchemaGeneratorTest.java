@@ -0,0 +1,242 @@
+package fr.inria.atlanmod.mogwai.datastore.jdbc.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EEnum;
+import org.eclipse.emf.ecore.EEnumLiteral;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+
+import fr.inria.atlanmod.mogwai.datastore.jdbc.Schema;
+import fr.inria.atlanmod.mogwai.datastore.jdbc.SchemaGenerator;
+
+public class SchemaGeneratorTest {
+
+	private Schema schema;
+
+	@Before
+	public void setUp() {
+		schema = SchemaGenerator.generate(createEPackage());
+	}
+
+	/**
+	 * Check that the concrete classes of the package and its sub-packages are
+	 * mapped to tables, and that abstract classes and interfaces are not.
+	 */
+	@Test
+	public void tables() {
+		assertTrue(schema.hasTable("Book"));
+		assertTrue(schema.hasTable("Author"));
+		assertTrue(schema.hasTable("Shelf"));
+		assertFalse(schema.hasTable("Named"));
+		assertFalse(schema.hasTable("Tagged"));
+	}
+
+	/**
+	 * Check that the inherited attributes are mapped to columns typed
+	 * according to their data type.
+	 */
+	@Test
+	public void attributes() {
+		assertEquals("VARCHAR", schema.getAttributeTypeFor("Book", "name"));
+		assertEquals("VARCHAR", schema.getAttributeTypeFor("Author", "code"));
+		assertEquals("INTEGER", schema.getAttributeTypeFor("Book", "pages"));
+		assertEquals("DOUBLE", schema.getAttributeTypeFor("Book", "price"));
+		assertEquals("TIMESTAMP", schema.getAttributeTypeFor("Book", "published"));
+		assertEquals("VARCHAR", schema.getAttributeTypeFor("Book", "genre"));
+		assertNull(schema.getAttributeTypeFor("Author", "pages"));
+	}
+
+	/**
+	 * Check that many-valued attributes and attributes named after the
+	 * identifier column are not mapped.
+	 */
+	@Test
+	public void ignoredAttributes() {
+		assertFalse(schema.hasAttribute("Book", "tags"));
+		assertEquals(Schema.ID_TYPE, schema.getAttributeTypeFor("Book", Schema.ID_COLUMN));
+		assertEquals(1, Iterables.frequency(schema.getAttributeNamesFor("Book"), Schema.ID_COLUMN));
+	}
+
+	/**
+	 * Check the SQL types of the primitive data types.
+	 */
+	@Test
+	public void sqlTypeFor() {
+		assertEquals("BIGINT", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.ELONG_OBJECT));
+		assertEquals("SMALLINT", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.ESHORT));
+		assertEquals("TINYINT", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.EBYTE));
+		assertEquals("BOOLEAN", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.EBOOLEAN));
+		assertEquals("REAL", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.EFLOAT));
+		assertEquals("CHAR", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.ECHAR));
+		assertEquals("DECIMAL", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.EBIG_DECIMAL));
+		assertEquals("DECIMAL", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.EBIG_INTEGER));
+		assertEquals("VARCHAR", SchemaGenerator.sqlTypeFor(EcorePackage.Literals.EJAVA_OBJECT));
+	}
+
+	/**
+	 * Check that single-valued references are mapped to a foreign key column
+	 * and a type column, and many-valued references to a join table.
+	 */
+	@Test
+	public void references() {
+		assertTrue(schema.hasReference("Book", "author"));
+		assertNull(schema.getJoinTableFor("Book", "author"));
+		assertEquals("Author", schema.getReferencedTypeFor("Book", "author"));
+		assertEquals(Schema.ID_TYPE, schema.getAttributeTypeFor("Book", "author"));
+		assertEquals(Schema.TYPE_TYPE, schema.getAttributeTypeFor("Book", Schema.typeColumnFor("author")));
+
+		assertTrue(schema.hasReference("Author", "books"));
+		assertFalse(schema.hasAttribute("Author", "books"));
+		assertEquals("AUTHOR_BOOKS", schema.getJoinTableFor("Author", "books"));
+		assertTrue(schema.hasTable("AUTHOR_BOOKS"));
+		assertTrue(schema.hasAttribute("AUTHOR_BOOKS", Schema.POSITION_COLUMN));
+	}
+
+	/**
+	 * Check that the generated statements can be executed twice on H2, and
+	 * that they create the indexes of the identifier attributes, single-valued
+	 * references and join tables.
+	 */
+	@Test
+	public void createStatements() throws SQLException {
+		JdbcDataSource ds = new JdbcDataSource();
+		ds.setURL("jdbc:h2:mem:mogwai-schema-test");
+		try (Connection connection = ds.getConnection(); Statement statement = connection.createStatement()) {
+			for (int i = 0; i < 2; i++) {
+				for (String sql : schema.createStatements()) {
+					statement.execute(sql);
+				}
+			}
+			assertEquals(new HashSet<>(Arrays.asList("CODE", "AUTHOR")), indexedColumns(connection, "BOOK"));
+			assertEquals(new HashSet<>(Arrays.asList(Schema.SOURCE_COLUMN, Schema.POSITION_COLUMN)),
+					indexedColumns(connection, "AUTHOR_BOOKS"));
+
+			statement.executeUpdate("insert into BOOK (NAME) values ('Dune')");
+			statement.executeUpdate("insert into BOOK (NAME) values ('Emma')");
+			try (ResultSet rs = statement.executeQuery("select count(distinct ID) from BOOK")) {
+				rs.next();
+				assertEquals(2, rs.getInt(1));
+			}
+		}
+	}
+
+	/**
+	 * Returns the columns of {@code tableName} that are part of a non-primary
+	 * index.
+	 */
+	private static Set<String> indexedColumns(Connection connection, String tableName) throws SQLException {
+		Set<String> columns = new HashSet<>();
+		try (ResultSet rs = connection.getMetaData().getIndexInfo(null, null, tableName, false, false)) {
+			while (rs.next()) {
+				if (!rs.getString("INDEX_NAME").startsWith("PRIMARY_KEY")) {
+					columns.add(rs.getString("COLUMN_NAME"));
+				}
+			}
+		}
+		return columns;
+	}
+
+	/**
+	 * Creates the "library" EPackage:
+	 * <ul>
+	 * <li>the abstract class Named (name, code), code being an ID</li>
+	 * <li>the interface Tagged (tags, many-valued)</li>
+	 * <li>Book extends Named and Tagged (id, pages, price, published, genre,
+	 * author)</li>
+	 * <li>Author extends Named (books, many-valued)</li>
+	 * <li>Shelf, in the sub-package "storage"</li>
+	 * </ul>
+	 */
+	private static EPackage createEPackage() {
+		EcoreFactory factory = EcoreFactory.eINSTANCE;
+		EPackage ePackage = factory.createEPackage();
+		ePackage.setName("library");
+		ePackage.setNsURI("library");
+
+		EClass named = factory.createEClass();
+		named.setName("Named");
+		named.setAbstract(true);
+		named.getEStructuralFeatures().add(attribute("name", EcorePackage.Literals.ESTRING));
+		EAttribute code = attribute("code", EcorePackage.Literals.ESTRING);
+		code.setID(true);
+		named.getEStructuralFeatures().add(code);
+
+		EClass tagged = factory.createEClass();
+		tagged.setName("Tagged");
+		tagged.setAbstract(true);
+		tagged.setInterface(true);
+		EAttribute tags = attribute("tags", EcorePackage.Literals.ESTRING);
+		tags.setUpperBound(-1);
+		tagged.getEStructuralFeatures().add(tags);
+
+		EEnum genre = factory.createEEnum();
+		genre.setName("Genre");
+		EEnumLiteral novel = factory.createEEnumLiteral();
+		novel.setName("NOVEL");
+		genre.getELiterals().add(novel);
+
+		EClass book = factory.createEClass();
+		book.setName("Book");
+		book.getESuperTypes().addAll(Arrays.asList(named, tagged));
+		book.getEStructuralFeatures().add(attribute("id", EcorePackage.Literals.ESTRING));
+		book.getEStructuralFeatures().add(attribute("pages", EcorePackage.Literals.EINT));
+		book.getEStructuralFeatures().add(attribute("price", EcorePackage.Literals.EDOUBLE_OBJECT));
+		book.getEStructuralFeatures().add(attribute("published", EcorePackage.Literals.EDATE));
+		book.getEStructuralFeatures().add(attribute("genre", genre));
+
+		EClass author = factory.createEClass();
+		author.setName("Author");
+		author.getESuperTypes().add(named);
+		book.getEStructuralFeatures().add(reference("author", author, false));
+		author.getEStructuralFeatures().add(reference("books", book, true));
+
+		ePackage.getEClassifiers().addAll(Arrays.<EClassifier> asList(named, tagged, genre, book, author));
+
+		EPackage storage = factory.createEPackage();
+		storage.setName("storage");
+		storage.setNsURI("library/storage");
+		EClass shelf = factory.createEClass();
+		shelf.setName("Shelf");
+		storage.getEClassifiers().add(shelf);
+		ePackage.getESubpackages().add(storage);
+		return ePackage;
+	}
+
+	private static EAttribute attribute(String name, EClassifier type) {
+		EAttribute eAttribute = EcoreFactory.eINSTANCE.createEAttribute();
+		eAttribute.setName(name);
+		eAttribute.setEType(type);
+		return eAttribute;
+	}
+
+	private static EReference reference(String name, EClass type, boolean many) {
+		EReference eReference = EcoreFactory.eINSTANCE.createEReference();
+		eReference.setName(name);
+		eReference.setEType(type);
+		eReference.setUpperBound(many ? -1 : 1);
+		return eReference;
+	}
+
+}
@@ -0,0 +1,198 @@
+package fr.inria.atlanmod.mogwai.datastore.neo4j3;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
+
+/**
+ * A parameterized Cypher query computing a {@link TraversalPattern}.
+ * <p>
+ * The pattern is translated into a single {@code MATCH} clause: the type is
+ * mapped to the {@link org.neo4j.graphdb.Label} of the first node, the
+ * navigated references to outgoing relationships, and the
+ * {@link AttributeFilter}s to a {@code WHERE} clause comparing the properties
+ * of the first node to parameters, allowing Neo4j to use its label and property
+ * indexes. For example, the pattern
+ * {@code allOfKind("Officer")[name EQUAL Smith][crew]} is translated into:
+ *
+ * <pre>
+ * {@code
+ * MATCH (n0:`Officer`)-[:`crew`]->(n1) WHERE n0.`name` = {p0} RETURN n1 AS result
+ * }
+ * </pre>
+ *
+ * If the property of an equality filter has an online schema index, a
+ * {@code USING INDEX} hint is added to the query to make sure the index is
+ * used to find the first node.
+ * <p>
+ * <b>Note:</b> this class is used by {@link DefaultEmbeddedNeo4j3Datastore}
+ * and is not intended to be used by clients. Filters on array properties
+ * compare the whole array to the filter value. {@code DIFFERENT} filters also
+ * match the {@link org.neo4j.graphdb.Node}s without the filtered property.
+ *
+ * @see DefaultEmbeddedNeo4j3Datastore#traversalPipeline(TraversalPattern)
+ * @see DefaultEmbeddedNeo4j3Datastore#countTraversal(TraversalPattern)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+final class CypherQuery {
+
+	/**
+	 * The column containing the reached {@link org.neo4j.graphdb.Node}s.
+	 */
+	static final String RESULT_COLUMN = "result";
+
+	/**
+	 * The column containing the number of reached
+	 * {@link org.neo4j.graphdb.Node}s.
+	 */
+	static final String COUNT_COLUMN = "count";
+
+	/**
+	 * The parameter containing the number of {@link org.neo4j.graphdb.Label}s
+	 * of the instances of the exact type.
+	 */
+	private static final String LABEL_COUNT_PARAMETER = "labelCount";
+
+	/**
+	 * The Cypher statement.
+	 */
+	private final String statement;
+
+	/**
+	 * The parameters of {@link #statement}, indexed by name.
+	 */
+	private final Map<String, Object> parameters;
+
+	/**
+	 * Constructs a new {@link CypherQuery}.
+	 * <p>
+	 * <b>Note:</b> this constructor is private, use
+	 * {@link #of(TraversalPattern, int, Set, boolean)} to create queries.
+	 */
+	private CypherQuery(String statement, Map<String, Object> parameters) {
+		this.statement = statement;
+		this.parameters = Collections.unmodifiableMap(parameters);
+	}
+
+	/**
+	 * Creates the {@link CypherQuery} computing the provided {@code pattern}.
+	 *
+	 * @param pattern
+	 *            the {@link TraversalPattern} to translate
+	 * @param labelCount
+	 *            the number of {@link org.neo4j.graphdb.Label}s of the instances
+	 *            of the exact type of the pattern, used to filter out the
+	 *            instances of its subtypes, or {@code 0} if the
+	 *            {@link org.neo4j.graphdb.Label} scan doesn't need to be
+	 *            filtered
+	 * @param indexedAttributes
+	 *            the attributes of the type of the pattern that have an online
+	 *            schema index
+	 * @param count
+	 *            whether the query returns the number of reached
+	 *            {@link org.neo4j.graphdb.Node}s (in {@link #COUNT_COLUMN})
+	 *            instead of the {@link org.neo4j.graphdb.Node}s themselves (in
+	 *            {@link #RESULT_COLUMN})
+	 * @return the created {@link CypherQuery}
+	 */
+	static CypherQuery of(TraversalPattern pattern, int labelCount, Set<String> indexedAttributes, boolean count) {
+		checkNotNull(pattern, "Cannot translate the pattern {0}", pattern);
+		Map<String, Object> parameters = new HashMap<>();
+		StringBuilder sb = new StringBuilder();
+		sb.append("MATCH (n0:").append(escape(pattern.getTypeName())).append(')');
+		int nodeIndex = 0;
+		for (String refName : pattern.getReferences()) {
+			nodeIndex++;
+			sb.append("-[:").append(escape(refName)).append("]->(n").append(nodeIndex).append(')');
+		}
+		pattern.getFilters().stream()
+				.filter(f -> f.getComparison() == AttributeFilter.Comparison.EQUAL
+						&& indexedAttributes.contains(f.getAttName()))
+				.findFirst().ifPresent(f -> sb.append(" USING INDEX n0:").append(escape(pattern.getTypeName()))
+						.append('(').append(escape(f.getAttName())).append(')'));
+		String delim = " WHERE ";
+		for (AttributeFilter filter : pattern.getFilters()) {
+			String parameterName = "p" + parameters.size();
+			String property = "n0." + escape(filter.getAttName());
+			String condition = property + ' ' + operatorOf(filter.getComparison()) + " {" + parameterName + '}';
+			if (filter.getComparison() == AttributeFilter.Comparison.DIFFERENT) {
+				/*
+				 * Comparisons with missing properties are null in Cypher, but
+				 * the Groovy != comparison keeps the elements without a value
+				 */
+				condition = '(' + condition + " OR " + property + " IS NULL)";
+			}
+			sb.append(delim).append(condition);
+			parameters.put(parameterName, filter.getValue());
+			delim = " AND ";
+		}
+		if (labelCount > 0) {
+			sb.append(delim).append("size(labels(n0)) = {").append(LABEL_COUNT_PARAMETER).append('}');
+			parameters.put(LABEL_COUNT_PARAMETER, labelCount);
+		}
+		if (count) {
+			sb.append(" RETURN count(n").append(nodeIndex).append(") AS ").append(COUNT_COLUMN);
+		} else {
+			sb.append(" RETURN n").append(nodeIndex).append(" AS ").append(RESULT_COLUMN);
+		}
+		return new CypherQuery(sb.toString(), parameters);
+	}
+
+	/**
+	 * Returns the Cypher statement.
+	 *
+	 * @return the statement
+	 */
+	public String getStatement() {
+		return statement;
+	}
+
+	/**
+	 * Returns the parameters of the statement.
+	 *
+	 * @return an unmodifiable {@link Map} containing the parameters indexed by
+	 *         name
+	 */
+	public Map<String, Object> getParameters() {
+		return parameters;
+	}
+
+	private static String operatorOf(AttributeFilter.Comparison comparison) {
+		switch (comparison) {
+		case EQUAL:
+			return "=";
+		case DIFFERENT:
+			return "<>";
+		case LESS:
+			return "<";
+		case LESS_OR_EQUAL:
+			return "<=";
+		case GREATER:
+			return ">";
+		default:
+			return ">=";
+		}
+	}
+
+	/**
+	 * Returns the Cypher identifier representing {@code name}, quoted with
+	 * backticks.
+	 */
+	private static String escape(String name) {
+		return '`' + name.replace("`", "``") + '`';
+	}
+
+	@Override
+	public String toString() {
+		return statement + " " + parameters;
+	}
+
+}
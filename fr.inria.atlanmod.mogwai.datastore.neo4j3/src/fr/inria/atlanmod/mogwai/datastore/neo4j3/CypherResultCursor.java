@@ -0,0 +1,107 @@
+package fr.inria.atlanmod.mogwai.datastore.neo4j3;
+
+import static java.util.Objects.nonNull;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Result;
+
+import com.google.common.collect.AbstractIterator;
+
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+
+/**
+ * An {@link Iterator} over the {@link Node}s returned by a {@link CypherQuery}
+ * in its {@link CypherQuery#RESULT_COLUMN}.
+ * <p>
+ * The underlying {@link Result} is closed when its last row is reached, when
+ * an error occurs, or when {@link #close()} is called, releasing the resources
+ * it holds in the running transaction.
+ *
+ * @see DefaultEmbeddedNeo4j3Datastore#traversalPipeline(fr.inria.atlanmod.mogwai.datastore.TraversalPattern)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+class CypherResultCursor extends AbstractIterator<Node> implements AutoCloseable {
+
+	/**
+	 * The {@link Result} of the executed {@link CypherQuery}.
+	 */
+	private final Result result;
+
+	/**
+	 * The {@link Node}s of the {@link CypherQuery#RESULT_COLUMN} of
+	 * {@link #result}.
+	 */
+	private final ResourceIterator<Node> nodes;
+
+	/**
+	 * The callback notified when the cursor is closed, may be {@code null}.
+	 */
+	private final Consumer<CypherResultCursor> onClose;
+
+	/**
+	 * Whether the underlying {@link Result} has been closed.
+	 */
+	private boolean closed;
+
+	/**
+	 * Constructs a new {@link CypherResultCursor} iterating the provided
+	 * {@code result}.
+	 *
+	 * @param result
+	 *            the {@link Result} of a {@link CypherQuery} returning
+	 *            {@link Node}s
+	 * @param onClose
+	 *            the callback notified when the cursor is closed, may be
+	 *            {@code null}
+	 */
+	public CypherResultCursor(Result result, Consumer<CypherResultCursor> onClose) {
+		this.result = result;
+		this.nodes = result.columnAs(CypherQuery.RESULT_COLUMN);
+		this.onClose = onClose;
+	}
+
+	@Override
+	protected Node computeNext() {
+		if (closed) {
+			return endOfData();
+		}
+		try {
+			if (nodes.hasNext()) {
+				return nodes.next();
+			}
+		} catch (RuntimeException e) {
+			close();
+			throw e;
+		}
+		close();
+		return endOfData();
+	}
+
+	/**
+	 * Closes the underlying {@link Result}.
+	 * <p>
+	 * The cursor does not return any element once it has been closed.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			result.close();
+		} catch (RuntimeException e) {
+			MogwaiLogger.warn(e, "Cannot close the Cypher result");
+		}
+		if (nonNull(onClose)) {
+			onClose.accept(this);
+		}
+	}
+
+}
@@ -1,12 +1,35 @@
 package fr.inria.atlanmod.mogwai.datastore.neo4j3;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
+import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
+import org.eclipse.emf.ecore.EPackage;
 import org.neo4j.graphdb.Direction;
 import org.neo4j.graphdb.GraphDatabaseService;
 import org.neo4j.graphdb.Label;
@@ -14,12 +37,23 @@ import org.neo4j.graphdb.Node;
 import org.neo4j.graphdb.NotFoundException;
 import org.neo4j.graphdb.Relationship;
 import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Result;
 import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.graphdb.schema.Schema;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tinkerpop.pipes.util.Pipeline;
 
+import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
 import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
 import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesUtils;
 
 /**
  * An implementation of {@link ModelDatastore} representing a default
@@ -37,10 +71,32 @@ import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
  * <li>Attributes are represented as {@link Node}s properties.</li>
  * </ul>
  * <p>
- * <b>Note:</b> {@link DefaultEmbeddedNeo4j3Datastore} handles the same way
- * types and kinds, meaning that {@link #allOfKind(String)} is equivalent to
+ * If the datastore is created with an {@link EPackage} the {@link Node}s also
+ * contain a {@link Label} for each supertype of their type, allowing to
+ * compute {@link #allOfKind(String)} with a single label scan. Otherwise
+ * {@link DefaultEmbeddedNeo4j3Datastore} handles the same way types and kinds,
+ * meaning that {@link #allOfKind(String)} is equivalent to
  * {@link #allOfType(String)}, and {@link #isKindOf(String)} is equivalent to
  * {@link #isTypeOf(String)}.
+ * <p>
+ * All the operations are performed within a {@link Transaction} managed by the
+ * datastore. Large transformations can enable periodic commits (see
+ * {@link #setPeriodicCommit(int, long)}) to bound the size of the transaction
+ * state, and pure queries can use the read-only mode (see
+ * {@link #DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService, boolean)}).
+ * <p>
+ * The type scans, attribute filters, reference navigations, and counts pushed
+ * down by the query processors (see {@link #canTraverse(TraversalPattern)})
+ * are translated into parameterized Cypher queries executed by the
+ * {@link GraphDatabaseService}, allowing Neo4j to plan them with its label and
+ * property indexes. The other steps of the traversals, and the patterns that
+ * Cypher would compute differently (see {@link #canTraverse(TraversalPattern)}),
+ * are computed by Pipes.
+ * <p>
+ * Schema indexes are created for the {@link EAttribute}s marked as {@code iD}
+ * in the {@link EPackage} of the datastore, and for the attributes provided to
+ * {@link #createIndexes(Map)}. They are populated in the background, and are
+ * used to evaluate the equality filters of the Cypher queries once online.
  * 
  * @see ModelDatastore
  * @see PipesDatastore
@@ -58,20 +114,144 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	private GraphDatabaseService graph;
 
+	/**
+	 * The estimated size (in bytes) of a created {@link Node}.
+	 */
+	private static final long NODE_BYTES = 64;
+
+	/**
+	 * The estimated size (in bytes) of a created {@link Relationship}.
+	 */
+	private static final long RELATIONSHIP_BYTES = 48;
+
+	/**
+	 * The estimated size (in bytes) of a property, without its value.
+	 */
+	private static final long PROPERTY_BYTES = 32;
+
+	/**
+	 * The maximum number of {@link Node} types cached by
+	 * {@link #getType(Node)}.
+	 */
+	private static final int TYPE_CACHE_SIZE = 100000;
+
+	/**
+	 * The maximum time (in minutes) to wait for a schema index to be
+	 * populated.
+	 */
+	private static final long INDEX_ONLINE_TIMEOUT = 10;
+
 	/**
 	 * The current {@link Transaction} used to perform database operations.
 	 */
 	private Transaction transaction;
 
+	/**
+	 * The {@link EPackage} defining the types of the model, or {@code null}
+	 * if types are not organized in a hierarchy.
+	 */
+	private final EPackage ePackage;
+
+	/**
+	 * The {@link EClass}es of {@link #ePackage} and its sub-packages, indexed
+	 * by name.
+	 */
+	private final Map<String, EClass> eClasses;
+
+	/**
+	 * The names of the {@link EClass}es that have subtypes in
+	 * {@link #ePackage}.
+	 */
+	private final Set<String> extendedTypes;
+
+	/**
+	 * The {@link Label}s of the instances of each type, cached by type name.
+	 * The first {@link Label} is the one representing the type itself.
+	 */
+	private final Map<String, Label[]> typeLabels;
+
+	/**
+	 * The types of the accessed {@link Node}s, cached by {@link Node}
+	 * identifier.
+	 */
+	private final Cache<Long, String> typeCache;
+
+	/**
+	 * The names of the {@link EAttribute}s marked as {@code iD}, indexed by the
+	 * name of the {@link EClass}es containing them.
+	 */
+	private final Map<String, Set<String>> idAttributes;
+
+	/**
+	 * The properties having an online schema index in {@link #graph}, indexed
+	 * by {@link Label} name.
+	 * <p>
+	 * This map is filled by the background indexing tasks (see
+	 * {@link #startIndexing(Map)}).
+	 */
+	private Map<String, Set<String>> onlineIndexes;
+
+	/**
+	 * The {@link ExecutorService} running the indexing tasks, or {@code null}
+	 * if no task has been started.
+	 */
+	private ExecutorService indexExecutor;
+
+	/**
+	 * The indexing tasks started on {@link #graph}.
+	 */
+	private final List<Future<?>> indexTasks;
+
+	/**
+	 * The {@link CypherResultCursor}s that have not been fully iterated yet.
+	 * <p>
+	 * These cursors are closed when the running transaction is committed or
+	 * closed.
+	 */
+	private final Set<CypherResultCursor> openResults;
+
+	/**
+	 * Whether the datastore rejects the operations modifying the model.
+	 */
+	private final boolean readOnly;
+
+	/**
+	 * The number of writes performed between each commit, or {@code 0} if the
+	 * writes are not committed periodically.
+	 */
+	private int maxWrites = 0;
+
+	/**
+	 * The estimated size (in bytes) of the transaction state triggering a
+	 * commit, or {@code 0} if the writes are not committed periodically.
+	 */
+	private long maxBytes = 0;
+
+	/**
+	 * The number of writes performed since the last commit.
+	 */
+	private int pendingWrites = 0;
+
+	/**
+	 * The estimated size (in bytes) of the writes performed since the last
+	 * commit.
+	 */
+	private long pendingBytes = 0;
+
+	/**
+	 * The number of intermediate commits performed since the datastore has been
+	 * created.
+	 */
+	private long commitCount = 0;
+
 	/**
 	 * Constructs a new {@link DefaultEmbeddedNeo4j3Datastore} wrapping the
 	 * provided {@code graph}.
 	 * <p>
 	 * A new transaction is started to handle database operations. Note that
-	 * this implementation doesn't provide an autocommit feature, and will
-	 * perform all the requested operations within a single transaction.
-	 * <p>
-	 * TODO handle autocommit feature in a dedicated subclass.
+	 * by default this implementation performs all the requested operations
+	 * within a single transaction, see {@link #setPeriodicCommit(int, long)}
+	 * to commit them periodically.
 	 * 
 	 * @param graph
 	 *            the underlying {@link GraphDatabaseService} used access the
@@ -80,41 +260,469 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 * @see #setDataSource(GraphDatabaseService)
 	 */
 	public DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService graph) {
+		this(graph, false);
+	}
+
+	/**
+	 * Constructs a new {@link DefaultEmbeddedNeo4j3Datastore} wrapping the
+	 * provided {@code graph}.
+	 * <p>
+	 * If {@code readOnly} is {@code true} the operations modifying the model
+	 * throw an {@link IllegalStateException}: the datastore transaction never
+	 * contains write state, and is closed without being committed. This mode
+	 * is intended to run pure queries.
+	 * 
+	 * @param graph
+	 *            the underlying {@link GraphDatabaseService} used access the
+	 *            model to manipulate
+	 * @param readOnly
+	 *            whether the datastore rejects the operations modifying the
+	 *            model
+	 * 
+	 * @see #setDataSource(GraphDatabaseService)
+	 */
+	public DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService graph, boolean readOnly) {
+		this(graph, null, readOnly);
+	}
+
+	/**
+	 * Constructs a new {@link DefaultEmbeddedNeo4j3Datastore} wrapping the
+	 * provided {@code graph} and using {@code ePackage} to compute the type
+	 * hierarchy of the model.
+	 * 
+	 * @param graph
+	 *            the underlying {@link GraphDatabaseService} used access the
+	 *            model to manipulate
+	 * @param ePackage
+	 *            the {@link EPackage} defining the types of the model
+	 * 
+	 * @see #DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService, EPackage,
+	 *      boolean)
+	 */
+	public DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService graph, EPackage ePackage) {
+		this(graph, ePackage, false);
+	}
+
+	/**
+	 * Constructs a new {@link DefaultEmbeddedNeo4j3Datastore} wrapping the
+	 * provided {@code graph} and using {@code ePackage} to compute the type
+	 * hierarchy of the model.
+	 * <p>
+	 * The instances created by the datastore contain a {@link Label} for their
+	 * type and each of its supertypes, the type hierarchy is used to compute
+	 * {@link #allOfKind(String)}, {@link #isKindOf(Node, String)}, and
+	 * {@link #getType(Node)}.
+	 * <p>
+	 * <b>Note:</b> the instances that are not created by the datastore must
+	 * also contain the {@link Label}s of their supertypes to be found by
+	 * {@link #allOfKind(String)} and {@link #isKindOf(Node, String)}.
+	 * 
+	 * @param graph
+	 *            the underlying {@link GraphDatabaseService} used access the
+	 *            model to manipulate
+	 * @param ePackage
+	 *            the {@link EPackage} defining the types of the model, or
+	 *            {@code null} if types are not organized in a hierarchy
+	 * @param readOnly
+	 *            whether the datastore rejects the operations modifying the
+	 *            model
+	 */
+	public DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService graph, EPackage ePackage, boolean readOnly) {
+		this.readOnly = readOnly;
+		this.ePackage = ePackage;
+		this.eClasses = new HashMap<>();
+		this.extendedTypes = new HashSet<>();
+		this.typeLabels = new HashMap<>();
+		this.typeCache = CacheBuilder.newBuilder().maximumSize(TYPE_CACHE_SIZE).build();
+		this.idAttributes = new HashMap<>();
+		this.indexTasks = new ArrayList<>();
+		this.openResults = new HashSet<>();
+		if (nonNull(ePackage)) {
+			collectEClasses(ePackage);
+			for (EClass eClass : eClasses.values()) {
+				for (EClass superType : eClass.getEAllSuperTypes()) {
+					extendedTypes.add(superType.getName());
+				}
+				for (EAttribute eAttribute : eClass.getEAllAttributes()) {
+					if (eAttribute.isID()) {
+						idAttributes.computeIfAbsent(eClass.getName(), k -> new HashSet<>()).add(eAttribute.getName());
+					}
+				}
+			}
+		}
 		this.setDataSource(graph);
 	}
 
+	private void collectEClasses(EPackage ePackage) {
+		for (EClassifier eClassifier : ePackage.getEClassifiers()) {
+			if (eClassifier instanceof EClass) {
+				eClasses.put(eClassifier.getName(), (EClass) eClassifier);
+			}
+		}
+		for (EPackage subPackage : ePackage.getESubpackages()) {
+			collectEClasses(subPackage);
+		}
+	}
+
+	/**
+	 * Returns the {@link Label}s of the instances of {@code typeName}: the
+	 * {@link Label} representing the type, followed by the ones representing
+	 * its supertypes.
+	 */
+	private Label[] labelsOf(String typeName) {
+		Label[] labels = typeLabels.get(typeName);
+		if (isNull(labels)) {
+			EClass eClass = eClasses.get(typeName);
+			List<Label> labelList = new ArrayList<>();
+			labelList.add(Label.label(typeName));
+			if (nonNull(eClass)) {
+				for (EClass superType : eClass.getEAllSuperTypes()) {
+					labelList.add(Label.label(superType.getName()));
+				}
+			}
+			labels = labelList.toArray(new Label[labelList.size()]);
+			typeLabels.put(typeName, labels);
+		}
+		return labels;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 * <p>
 	 * If a {@link GraphDatabaseService} is already set the running transaction
-	 * is committed and a new one is opened on the provided {@code dataSource}.
-	 * Note that this implementation doesn't provide an autocommit feature, and
-	 * will perform all the requested operations within a single transaction.
+	 * is committed (or closed in read-only mode) and a new one is opened on the
+	 * provided {@code dataSource}.
 	 * <p>
-	 * TODO handle autocommit feature in a dedicated subclass.
+	 * The schema indexes of the {@code iD} attributes are created before
+	 * opening the new transaction if they don't exist (except in read-only
+	 * mode), and the indexes of {@code dataSource} are used as soon as they
+	 * are online.
 	 * 
+	 * @see #awaitIndexes(long, TimeUnit)
 	 * @see DefaultEmbeddedNeo4j3Datastore#DefaultEmbeddedNeo4j3Datastore(GraphDatabaseService)
 	 */
 	@Override
 	public void setDataSource(GraphDatabaseService dataSource) {
-		this.graph = dataSource;
-		if (isNull(transaction)) {
+		if (nonNull(transaction)) {
 			/*
-			 * There is no running transaction, start a new one from the
-			 * provided GraphDatabaseService and store it.
+			 * There is a running transaction, we first need to stop it and
+			 * commit the changes. Note that the previous instance of
+			 * transaction is associated to the previous value of this.graph
 			 */
-			transaction = graph.beginTx();
-		} else {
+			closeTransaction();
+		}
+		this.graph = dataSource;
+		if (!readOnly) {
 			/*
-			 * There is a running transaction, we first need to stop it, commit
-			 * the changes, then open a new transaction on the provided
-			 * GraphDatabaseService. Note that the previous instance of
-			 * transaction is associated to the previous value of this.graph
+			 * Neo4j transactions are bound to their thread: the schema indexes
+			 * are created before opening the datastore transaction to avoid
+			 * waiting for its schema locks.
 			 */
-			transaction.success();
-			transaction.close();
+			createSchemaIndexes(graph, idAttributes);
+		}
+		transaction = graph.beginTx();
+		pendingWrites = 0;
+		pendingBytes = 0;
+		typeCache.invalidateAll();
+		onlineIndexes = new ConcurrentHashMap<>();
+		indexTasks.clear();
+		startIndexing();
+	}
+
+	/**
+	 * Creates the schema indexes of the provided attributes.
+	 * <p>
+	 * Neo4j doesn't allow to create schema indexes in a {@link Transaction}
+	 * writing the model: the running transaction is committed, the indexes are
+	 * created in a dedicated {@link Transaction}, and a new transaction is
+	 * opened (see {@link #commit()}). The indexes are then populated by Neo4j
+	 * in the background, and are used by the Cypher queries of the datastore
+	 * as soon as they are online, see {@link #awaitIndexes(long, TimeUnit)} to
+	 * wait for them.
+	 * 
+	 * @param indexedAttributes
+	 *            the names of the attributes to index, indexed by the name of
+	 *            their types
+	 * @throws IllegalStateException
+	 *             if the datastore is read-only
+	 */
+	public void createIndexes(Map<String, ? extends Collection<String>> indexedAttributes) {
+		checkNotNull(indexedAttributes, "Cannot create the indexes {0}", indexedAttributes);
+		checkWritable("create the indexes", indexedAttributes);
+		closeTransaction();
+		try {
+			createSchemaIndexes(graph, indexedAttributes);
+		} finally {
 			transaction = graph.beginTx();
+			pendingWrites = 0;
+			pendingBytes = 0;
+		}
+		startIndexing();
+	}
+
+	/**
+	 * Waits for the schema indexes of the datastore to be online.
+	 * <p>
+	 * Each index is awaited at most {@value #INDEX_ONLINE_TIMEOUT} minutes by
+	 * the indexing tasks: the indexes that are not online after this delay
+	 * are not used by the datastore.
+	 * 
+	 * @param timeout
+	 *            the maximum time to wait
+	 * @param unit
+	 *            the {@link TimeUnit} of {@code timeout}
+	 * @return {@code true} if all the indexes are online, {@code false} if the
+	 *         {@code timeout} elapsed before
+	 * @throws IllegalStateException
+	 *             if the online indexes cannot be registered
+	 */
+	public boolean awaitIndexes(long timeout, TimeUnit unit) {
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		for (Future<?> task : indexTasks) {
+			try {
+				task.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			} catch (TimeoutException e) {
+				return false;
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			} catch (ExecutionException e) {
+				throw new IllegalStateException("Cannot register the online indexes", e.getCause());
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the property {@code attName} of the instances of
+	 * {@code typeName} has an online schema index.
+	 * 
+	 * @param typeName
+	 *            the name of the type
+	 * @param attName
+	 *            the name of the attribute
+	 * @return {@code true} if the attribute is indexed, {@code false}
+	 *         otherwise
+	 */
+	public boolean isIndexed(String typeName, String attName) {
+		return onlineIndexes.getOrDefault(typeName, Collections.emptySet()).contains(attName);
+	}
+
+	/**
+	 * Creates the missing schema indexes of {@code attributes} in {@code db}
+	 * in a dedicated {@link Transaction}.
+	 * <p>
+	 * <b>Note:</b> this method must be called when the datastore transaction
+	 * is closed: Neo4j transactions are bound to their thread, and the
+	 * datastore transaction would otherwise be reused to create the indexes.
+	 * 
+	 * @throws IllegalStateException
+	 *             if an index cannot be created
+	 */
+	private static void createSchemaIndexes(GraphDatabaseService db,
+			Map<String, ? extends Collection<String>> attributes) {
+		try (Transaction tx = db.beginTx()) {
+			Schema schema = db.schema();
+			for (Map.Entry<String, ? extends Collection<String>> entry : attributes.entrySet()) {
+				Label label = Label.label(entry.getKey());
+				for (String attName : entry.getValue()) {
+					if (isNull(findIndex(schema, label, attName))) {
+						schema.indexFor(label).on(attName).create();
+						MogwaiLogger.info("Creating index on {0}.{1}", entry.getKey(), attName);
+					}
+				}
+			}
+			tx.success();
+		} catch (RuntimeException e) {
+			MogwaiLogger.error(e, "Cannot create the indexes {0}", attributes);
+			throw new IllegalStateException(MessageFormat.format("Cannot create the indexes {0}", attributes), e);
+		}
+	}
+
+	/**
+	 * Starts a background task registering the online indexes of
+	 * {@link #graph} in {@link #onlineIndexes}.
+	 */
+	private void startIndexing() {
+		if (isNull(indexExecutor)) {
+			indexExecutor = Executors.newSingleThreadExecutor(
+					new ThreadFactoryBuilder().setNameFormat("mogwai-neo4j3-index-%d").setDaemon(true).build());
 		}
+		GraphDatabaseService db = graph;
+		Map<String, Set<String>> indexes = onlineIndexes;
+		indexTasks.add(indexExecutor.submit(() -> awaitOnlineIndexes(db, indexes)));
+	}
+
+	/**
+	 * Waits for the single-property schema indexes of {@code db} to be online
+	 * before adding them to {@code indexes}.
+	 * <p>
+	 * Each index is awaited at most {@value #INDEX_ONLINE_TIMEOUT} minutes,
+	 * the indexes that are not online after this delay (or that failed to be
+	 * populated) are logged and ignored.
+	 * <p>
+	 * <b>Note:</b> this method is called by the indexing threads, and uses its
+	 * own read-only {@link Transaction}.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the indexes of {@code db} cannot be read
+	 */
+	private static void awaitOnlineIndexes(GraphDatabaseService db, Map<String, Set<String>> indexes) {
+		try (Transaction tx = db.beginTx()) {
+			Schema schema = db.schema();
+			for (IndexDefinition index : schema.getIndexes()) {
+				List<String> propertyKeys = new ArrayList<>();
+				index.getPropertyKeys().forEach(propertyKeys::add);
+				if (propertyKeys.size() != 1) {
+					continue;
+				}
+				try {
+					schema.awaitIndexOnline(index, INDEX_ONLINE_TIMEOUT, TimeUnit.MINUTES);
+					indexes.computeIfAbsent(index.getLabel().name(), k -> ConcurrentHashMap.newKeySet())
+							.add(propertyKeys.get(0));
+				} catch (IllegalStateException e) {
+					MogwaiLogger.warn("Cannot use the index on {0}.{1}: {2}", index.getLabel().name(),
+							propertyKeys.get(0), e.getMessage());
+				}
+			}
+			tx.success();
+			MogwaiLogger.debug("Online indexes: {0}", indexes);
+		} catch (RuntimeException e) {
+			MogwaiLogger.error(e, "Cannot read the indexes of {0}", db);
+			throw new IllegalStateException(MessageFormat.format("Cannot read the indexes of {0}", db), e);
+		}
+	}
+
+	private static IndexDefinition findIndex(Schema schema, Label label, String attName) {
+		for (IndexDefinition index : schema.getIndexes(label)) {
+			if (Iterables.elementsEqual(index.getPropertyKeys(), Collections.singletonList(attName))) {
+				return index;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Enables the periodic commit of the modifications.
+	 * <p>
+	 * The running transaction is committed and transparently replaced by a new
+	 * one after {@code maxWrites} writes, or when the estimated size of the
+	 * written elements and values reaches {@code maxBytes}. Only the
+	 * operations modifying the model are recorded, read operations never
+	 * trigger a commit.
+	 * <p>
+	 * <b>Note:</b> lazy {@link Iterable}s returned by the datastore (e.g.
+	 * {@link #allOfType(String)}) are bound to the transaction they have been
+	 * created in, and cannot be iterated after a commit. Periodic commits
+	 * should only be enabled on datastores that are written while iterating
+	 * another datastore (e.g. the target of a transformation).
+	 * 
+	 * @param maxWrites
+	 *            the number of writes to perform between each commit, or
+	 *            {@code 0} to ignore the number of writes
+	 * @param maxBytes
+	 *            the estimated size (in bytes) of the writes triggering a
+	 *            commit, or {@code 0} to ignore the size of the writes
+	 * @throws IllegalStateException
+	 *             if the datastore is read-only
+	 * 
+	 * @see #commit()
+	 */
+	public void setPeriodicCommit(int maxWrites, long maxBytes) {
+		checkState(!readOnly, "Cannot enable periodic commits on a read-only datastore");
+		checkArgument(maxWrites >= 0, "Cannot commit every {0} writes", maxWrites);
+		checkArgument(maxBytes >= 0, "Cannot commit every {0} bytes", maxBytes);
+		this.maxWrites = maxWrites;
+		this.maxBytes = maxBytes;
+	}
+
+	/**
+	 * Returns whether the datastore rejects the operations modifying the
+	 * model.
+	 * 
+	 * @return {@code true} if the datastore is read-only, {@code false}
+	 *         otherwise
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Commits the running transaction and opens a new one.
+	 * <p>
+	 * The {@link Node}s and {@link Relationship}s accessed in the previous
+	 * transaction can still be used in the new one. The Cypher results that
+	 * have not been fully iterated are closed.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the datastore is read-only
+	 * 
+	 * @see #setPeriodicCommit(int, long)
+	 */
+	public void commit() {
+		checkState(!readOnly, "Cannot commit a read-only datastore");
+		closeResults();
+		transaction.success();
+		transaction.close();
+		transaction = graph.beginTx();
+		MogwaiLogger.debug("Committed {0} writes (estimated size: {1} bytes)", pendingWrites, pendingBytes);
+		pendingWrites = 0;
+		pendingBytes = 0;
+		commitCount++;
+	}
+
+	/**
+	 * Records a write of the estimated size {@code estimatedBytes}, and commits
+	 * the running transaction if one of the periodic commit thresholds is
+	 * reached.
+	 * 
+	 * @param estimatedBytes
+	 *            the estimated size (in bytes) of the write
+	 */
+	private void recordWrite(long estimatedBytes) {
+		pendingWrites++;
+		pendingBytes += estimatedBytes;
+		if ((maxWrites > 0 && pendingWrites >= maxWrites) || (maxBytes > 0 && pendingBytes >= maxBytes)) {
+			commit();
+		}
+	}
+
+	/**
+	 * Checks that the datastore accepts the operations modifying the model.
+	 * 
+	 * @throws IllegalStateException
+	 *             if the datastore is read-only
+	 */
+	private void checkWritable(String operation, Object target) {
+		checkState(!readOnly, "Cannot {0} {1}: the datastore is read-only", operation, target);
+	}
+
+	/**
+	 * Closes the running transaction, committing its modifications if the
+	 * datastore is not read-only. The Cypher results that have not been fully
+	 * iterated are closed first.
+	 */
+	private void closeTransaction() {
+		closeResults();
+		if (!readOnly) {
+			transaction.success();
+		}
+		transaction.close();
+	}
+
+	/**
+	 * Returns the estimated size (in bytes) of the provided attribute
+	 * {@code value}.
+	 * 
+	 * @param value
+	 *            the value to compute the size of
+	 * @return the estimated size of {@code value}
+	 */
+	private long estimateSize(Object value) {
+		if (value instanceof CharSequence) {
+			return 2 * ((CharSequence) value).length();
+		}
+		return nonNull(value) ? 8 : 0;
 	}
 
 	/**
@@ -132,13 +740,21 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 * labels. A call to this method returns all the {@link Node}s that contain
 	 * at least one {@link Label} with the provided {@code typeName}.
 	 * <p>
-	 * <b>Note:</b> for this mapping there is no difference between
+	 * If the datastore has been created with an {@link EPackage} and
+	 * {@code typeName} has subtypes, the instances of the subtypes are
+	 * filtered out of the scanned {@link Node}s.
+	 * <p>
+	 * <b>Note:</b> if the datastore has not been created with an
+	 * {@link EPackage} there is no difference between
 	 * {@link #allOfType(String)} and {@link #allOfKind(String)}.
 	 * 
 	 * @see #allOfKind(String)
 	 */
 	@Override
 	public Iterable<Node> allOfType(String typeName) {
+		if (extendedTypes.contains(typeName)) {
+			return Iterables.filter(allOfKind(typeName), n -> typeName.equals(getType(n)));
+		}
 		return () -> graph.findNodes(Label.label(typeName));
 	}
 
@@ -149,20 +765,25 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 * labels. A call to this method returns all the {@link Node}s that contain
 	 * at least one {@link Label} with the provided {@code typeName}.
 	 * <p>
-	 * <b>Note:</b> for this mapping there is no difference between
-	 * {@link #allOfType(String)} and {@link #allOfKind(String)}.
+	 * If the datastore has been created with an {@link EPackage} the instances
+	 * of the subtypes of {@code typeName} contain its {@link Label}, and are
+	 * returned by the same label scan.
 	 * 
 	 * @see #allOfType(String);
 	 */
 	@Override
 	public Iterable<Node> allOfKind(String typeName) {
-		return allOfType(typeName);
+		return () -> graph.findNodes(Label.label(typeName));
 	}
 
 	/**
 	 * Creates a new instance of {@code typeName} and adds it to the current
 	 * database.
 	 * <p>
+	 * If the datastore has been created with an {@link EPackage} the created
+	 * {@link Node} also contains the {@link Label}s of the supertypes of
+	 * {@code typeName}.
+	 * <p>
 	 * <b>Note:</b> this default implementation doesn't take into account
 	 * {@code typePackageNsURI} and {@code resourceName}.
 	 * 
@@ -179,7 +800,13 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	@Override
 	public Node newInstance(String typeName, String typePackageNsURI, String resourceName) {
-		return graph.createNode(Label.label(typeName));
+		checkWritable("create an instance of", typeName);
+		Label[] labels = labelsOf(typeName);
+		Node result = graph.createNode(labels);
+		typeCache.put(result.getId(), typeName);
+		// The node and its labels
+		recordWrite(NODE_BYTES + labels.length * PROPERTY_BYTES);
+		return result;
 	}
 
 	/**
@@ -259,7 +886,10 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	@Override
 	public Relationship setRef(Node from, String refName, String oppositeName, Node to, boolean isContainment) {
-		return from.createRelationshipTo(to, RelationshipType.withName(refName));
+		checkWritable("set the reference", refName);
+		Relationship result = from.createRelationshipTo(to, RelationshipType.withName(refName));
+		recordWrite(RELATIONSHIP_BYTES);
+		return result;
 	}
 
 	/**
@@ -286,9 +916,11 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	@Override
 	public Node removeRef(Node from, String refName, Node to, boolean isContainment) {
+		checkWritable("remove the reference", refName);
 		for (Relationship r : from.getRelationships(Direction.OUTGOING, RelationshipType.withName(refName))) {
 			if (r.getEndNode().equals(to)) {
 				r.delete();
+				recordWrite(RELATIONSHIP_BYTES);
 				return to;
 			}
 		}
@@ -351,28 +983,63 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	@Override
 	public Node setAtt(Node from, String attName, Object attValue) {
+		checkWritable("set the attribute", attName);
 		from.setProperty(attName, attValue);
+		recordWrite(PROPERTY_BYTES + estimateSize(attValue));
 		return from;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 * <p>
-	 * <b>Note:</b> this mapping considers each {@link Label} of {@code from} as
-	 * a potential type. Calling {@link #getType(Node)} returns a {@link String}
-	 * containing all the {@link Label}s of {@code from} prefixed by ':'. As an
-	 * example, calling this method on a {@link Node} with the {@link Label}s
-	 * {@code "l1}, {@code "l2"}, and {@code "l3"} returns the value
-	 * {@code ":l1:l2:l3"}
+	 * If the datastore has been created with an {@link EPackage} the type of
+	 * {@code from} is its most specific {@link Label}, i.e. the one that is a
+	 * subtype of all the others. The computed types are cached.
+	 * <p>
+	 * <b>Note:</b> otherwise this mapping considers each {@link Label} of
+	 * {@code from} as a potential type. Calling {@link #getType(Node)} returns
+	 * a {@link String} containing all the {@link Label}s of {@code from}
+	 * prefixed by ':'. As an example, calling this method on a {@link Node}
+	 * with the {@link Label}s {@code "l1}, {@code "l2"}, and {@code "l3"}
+	 * returns the value {@code ":l1:l2:l3"}
 	 * 
-	 * @return a {@link String} containing all the {@link Label}s of
-	 *         {@code from} prefixed with ':'
+	 * @return the name of the type of {@code from}, or a {@link String}
+	 *         containing all the {@link Label}s of {@code from} prefixed with
+	 *         ':'
 	 */
 	@Override
 	public String getType(Node from) {
-		StringBuilder sb = new StringBuilder();
-		from.getLabels().forEach(l -> sb.append(':').append(l.name()));
-		return sb.toString();
+		if (isNull(ePackage)) {
+			StringBuilder sb = new StringBuilder();
+			from.getLabels().forEach(l -> sb.append(':').append(l.name()));
+			return sb.toString();
+		}
+		String type = typeCache.getIfPresent(from.getId());
+		if (isNull(type)) {
+			type = computeType(from);
+			typeCache.put(from.getId(), type);
+		}
+		return type;
+	}
+
+	/**
+	 * Returns the name of the most specific {@link Label} of {@code from}.
+	 * <p>
+	 * A {@link Node} created by this datastore has a {@link Label} for its type
+	 * and each of its supertypes: its type is the {@link Label} having all the
+	 * other ones as supertypes. The first {@link Label} is returned if none of
+	 * them is defined in the {@link EPackage}.
+	 */
+	private String computeType(Node from) {
+		List<String> labels = new ArrayList<>();
+		from.getLabels().forEach(l -> labels.add(l.name()));
+		for (String label : labels) {
+			EClass eClass = eClasses.get(label);
+			if (nonNull(eClass) && eClass.getEAllSuperTypes().size() == labels.size() - 1) {
+				return label;
+			}
+		}
+		return labels.isEmpty() ? null : labels.get(0);
 	}
 
 	/**
@@ -384,7 +1051,12 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 * {@code type}. Note that equality comparison is checked using the
 	 * {@link String#equals(Object)} method and not {@code ==}.
 	 * <p>
-	 * <b>Note:</b> for this mapping there is no difference between
+	 * If the datastore has been created with an {@link EPackage} the supertype
+	 * {@link Label}s are ignored, and {@code type} is compared to the result
+	 * of {@link #getType(Node)}.
+	 * <p>
+	 * <b>Note:</b> if the datastore has not been created with an
+	 * {@link EPackage} there is no difference between
 	 * {@link #isTypeOf(String)} and {@link #isKindOf(String)}.
 	 * 
 	 * @param from
@@ -397,6 +1069,9 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	@Override
 	public boolean isTypeOf(Node from, String type) {
+		if (nonNull(ePackage)) {
+			return type.equals(getType(from));
+		}
 		for (Label l : from.getLabels()) {
 			if (l.name().equals(type)) {
 				return true;
@@ -410,12 +1085,12 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 * sub-type.
 	 * <p>
 	 * This mapping assumes that element types are represented as {@link Node}'s
-	 * labels. A call to this method checks all the {@link Label}s of
-	 * {@code from} and returns {@code true} if at least one is equal to
-	 * {@code type} Note that equality comparison is checked using the
-	 * {@link String#equals(Object)} method and not {@code ==}.
+	 * labels, and that instances contain the {@link Label}s of their
+	 * supertypes. A call to this method checks whether {@code from} has a
+	 * {@link Label} named {@code type}.
 	 * <p>
-	 * <b>Note:</b> for this mapping there is no difference between
+	 * <b>Note:</b> if the datastore has not been created with an
+	 * {@link EPackage} there is no difference between
 	 * {@link #isKindOf(String)} and {@link #isTypeOf(String)}.
 	 * 
 	 * @param from
@@ -428,10 +1103,189 @@ public class DefaultEmbeddedNeo4j3Datastore implements
 	 */
 	@Override
 	public boolean isKindOf(Node from, String type) {
-		return isTypeOf(from, type);
+		return from.hasLabel(Label.label(type));
 	}
 
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation translates into Cypher queries the patterns whose
+	 * filters can be evaluated by Cypher (see {@link #canFilter(String, List)})
+	 * and that don't navigate twice the same reference.
+	 * <p>
+	 * <b>Note:</b> Cypher doesn't match twice the same {@link Relationship} in
+	 * a path, while Pipes navigates the same {@link Relationship} again when a
+	 * path contains a cycle (e.g. a self-loop navigated twice). A
+	 * {@link Relationship} can only appear twice in a path navigating twice the
+	 * same reference, such patterns are computed by Pipes to return the same
+	 * results with and without filter pushdown.
+	 * 
+	 * @see #traversalPipeline(TraversalPattern)
+	 * @see #countTraversal(TraversalPattern)
+	 */
+	@Override
+	public boolean canTraverse(TraversalPattern pattern) {
+		List<String> references = pattern.getReferences();
+		return canFilter(pattern.getTypeName(), pattern.getFilters())
+				&& new HashSet<>(references).size() == references.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code pattern} is translated into a single Cypher {@code MATCH}
+	 * query, executed each time the returned {@link Pipeline} is iterated. If
+	 * the datastore has been created with an {@link EPackage} and the type of
+	 * the pattern has subtypes, the instances of the subtypes are filtered
+	 * out by comparing the number of {@link Label}s of the matched
+	 * {@link Node}s. Equality filters on indexed attributes are evaluated with
+	 * their schema index (see {@link #isIndexed(String, String)}).
+	 * <p>
+	 * The {@link Result} of each execution is closed when it has been fully
+	 * iterated, or when the running transaction is committed or closed.
+	 * <p>
+	 * <b>Note:</b> Cypher doesn't navigate twice the same {@link Relationship}
+	 * in a matched path. Patterns navigating twice the same reference are not
+	 * translated (see {@link #canTraverse(TraversalPattern)}), but calling
+	 * this method directly with such a pattern doesn't return the paths
+	 * containing a cycle.
+	 */
+	@Override
+	public Pipeline<Node, ?> traversalPipeline(TraversalPattern pattern) {
+		CypherQuery query = cypherQueryOf(pattern, false);
+		Iterable<Node> nodes = () -> openResult(query);
+		return PipesUtils.pipelineOf(nodes);
+	}
+
+	private CypherResultCursor openResult(CypherQuery query) {
+		CypherResultCursor cursor = new CypherResultCursor(graph.execute(query.getStatement(),
+				query.getParameters()), openResults::remove);
+		openResults.add(cursor);
+		return cursor;
+	}
+
+	private void closeResults() {
+		for (CypherResultCursor cursor : new ArrayList<>(openResults)) {
+			cursor.close();
+		}
+		openResults.clear();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code pattern} is translated into a Cypher {@code count} query.
+	 * 
+	 * @see #traversalPipeline(TraversalPattern)
+	 */
+	@Override
+	public long countTraversal(TraversalPattern pattern) {
+		CypherQuery query = cypherQueryOf(pattern, true);
+		try (Result result = graph.execute(query.getStatement(), query.getParameters())) {
+			return ((Number) result.columnAs(CypherQuery.COUNT_COLUMN).next()).longValue();
+		}
+	}
+
+	private CypherQuery cypherQueryOf(TraversalPattern pattern, boolean count) {
+		int labelCount = 0;
+		if (!pattern.isKind() && extendedTypes.contains(pattern.getTypeName())) {
+			labelCount = labelsOf(pattern.getTypeName()).length;
+		}
+		Set<String> indexedAttributes = onlineIndexes.getOrDefault(pattern.getTypeName(), Collections.emptySet());
+		CypherQuery query = CypherQuery.of(pattern, labelCount, indexedAttributes, count);
+		MogwaiLogger.debug("Translated {0} into {1}", pattern, query);
+		return query;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * This implementation translates into Cypher queries the filters
+	 * comparing attributes to {@link String}, {@link Boolean}, and
+	 * {@link Number} values, that are compared the same way by Cypher and by
+	 * the Groovy operators used in Pipes. Filters on other values (e.g.
+	 * enumeration literals) are computed by Pipes.
+	 * 
+	 * @see #traversalPipeline(TraversalPattern)
+	 */
+	@Override
+	public boolean canFilter(String typeName, List<AttributeFilter> filters) {
+		for (AttributeFilter filter : filters) {
+			Object value = filter.getValue();
+			if (!(value instanceof String || value instanceof Boolean || value instanceof Number)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code filters} are evaluated by a Cypher query.
+	 * 
+	 * @see #traversalPipeline(TraversalPattern)
+	 */
+	@Override
+	public Pipeline<Node, ?> allOfTypeWherePipeline(String typeName, List<AttributeFilter> filters) {
+		return traversalPipeline(TraversalPattern.of(typeName, false, filters, Collections.emptyList()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The {@code filters} are evaluated by a Cypher query.
+	 * 
+	 * @see #traversalPipeline(TraversalPattern)
+	 */
+	@Override
+	public Pipeline<Node, ?> allOfKindWherePipeline(String typeName, List<AttributeFilter> filters) {
+		return traversalPipeline(TraversalPattern.of(typeName, true, filters, Collections.emptyList()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The instances are counted by a Cypher query.
+	 * 
+	 * @see #countTraversal(TraversalPattern)
+	 */
+	@Override
+	public long countOfType(String typeName) {
+		return countTraversal(TraversalPattern.of(typeName, false, Collections.emptyList(), Collections.emptyList()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The instances are counted by a Cypher query.
+	 * 
+	 * @see #countTraversal(TraversalPattern)
+	 */
+	@Override
+	public long countOfKind(String typeName) {
+		return countTraversal(TraversalPattern.of(typeName, true, Collections.emptyList(), Collections.emptyList()));
+	}
+
+	/**
+	 * {@inheritDoc}
+	 * <p>
+	 * The running transaction is committed (or closed without being committed
+	 * in read-only mode), and the pending indexing tasks are interrupted (the
+	 * created indexes are still populated by Neo4j).
+	 */
 	@Override
 	public void close() {
+		if (nonNull(transaction)) {
+			closeTransaction();
+			transaction = null;
+		}
+		if (nonNull(indexExecutor)) {
+			indexExecutor.shutdownNow();
+			indexExecutor = null;
+		}
+		if (commitCount > 0) {
+			MogwaiLogger.info("{0} intermediate commits performed", commitCount);
+		}
 	}
 }
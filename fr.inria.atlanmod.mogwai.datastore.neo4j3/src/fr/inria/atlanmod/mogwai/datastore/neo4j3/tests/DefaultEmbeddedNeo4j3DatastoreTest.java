@@ -0,0 +1,278 @@
+package fr.inria.atlanmod.mogwai.datastore.neo4j3.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.factory.GraphDatabaseFactory;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+
+import fr.inria.atlanmod.mogwai.datastore.neo4j3.DefaultEmbeddedNeo4j3Datastore;
+
+public class DefaultEmbeddedNeo4j3DatastoreTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private GraphDatabaseService graph;
+
+	private DefaultEmbeddedNeo4j3Datastore datastore;
+
+	@Before
+	public void setUp() throws IOException {
+		graph = new GraphDatabaseFactory().newEmbeddedDatabase(folder.newFolder("neo4j"));
+	}
+
+	@After
+	public void tearDown() {
+		if (datastore != null) {
+			datastore.close();
+		}
+		graph.shutdown();
+	}
+
+	/**
+	 * Check that the modifications are only visible to other transactions
+	 * once the datastore is closed.
+	 */
+	@Test
+	public void closeCommits() throws Exception {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		createInstances("A", 2);
+
+		assertEquals(0, committedCount("A"));
+		datastore.close();
+		datastore = null;
+		assertEquals(2, committedCount("A"));
+	}
+
+	/**
+	 * Check that the running transaction is committed every maxWrites writes.
+	 */
+	@Test
+	public void periodicCommitWrites() throws Exception {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		datastore.setPeriodicCommit(3, 0);
+		createInstances("A", 5);
+
+		assertEquals(3, committedCount("A"));
+		assertEquals(5, Iterables.size(datastore.allOfType("A")));
+		datastore.close();
+		datastore = null;
+		assertEquals(5, committedCount("A"));
+	}
+
+	/**
+	 * Check that the running transaction is committed when the estimated size
+	 * of the writes reaches maxBytes.
+	 */
+	@Test
+	public void periodicCommitBytes() throws Exception {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		datastore.setPeriodicCommit(0, 1000);
+		Node node = datastore.newInstance("A", null, null);
+
+		assertEquals(0, committedCount("A"));
+		datastore.setAtt(node, "name", Strings.repeat("a", 1000));
+		assertEquals(1, committedCount("A"));
+	}
+
+	/**
+	 * Check that the nodes created before a commit can still be modified in
+	 * the next transaction.
+	 */
+	@Test
+	public void commitKeepsNodes() throws Exception {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		Node a = datastore.newInstance("A", null, null);
+		datastore.commit();
+		assertEquals(1, committedCount("A"));
+
+		Node b = datastore.newInstance("B", null, null);
+		datastore.setAtt(a, "name", "a");
+		datastore.setRef(a, "next", "", b, false);
+		datastore.close();
+		datastore = null;
+
+		try (Transaction tx = graph.beginTx()) {
+			assertEquals("a", a.getProperty("name"));
+			assertEquals(b, Iterables.getOnlyElement(a.getRelationships()).getEndNode());
+			tx.success();
+		}
+	}
+
+	/**
+	 * Check that a read-only datastore can read the model but rejects the
+	 * writes.
+	 */
+	@Test
+	public void readOnly() throws Exception {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		createInstances("A", 2);
+		datastore.close();
+
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph, true);
+		assertTrue(datastore.isReadOnly());
+		assertEquals(2, Iterables.size(datastore.allOfType("A")));
+		Node a = Iterables.getFirst(datastore.allOfType("A"), null);
+		assertRejected(() -> datastore.newInstance("A", null, null));
+		assertRejected(() -> datastore.setAtt(a, "name", "a"));
+		assertRejected(() -> datastore.setPeriodicCommit(1, 0));
+		assertRejected(() -> datastore.commit());
+		datastore.close();
+		datastore = null;
+
+		assertEquals(2, committedCount("A"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void periodicCommitInvalidWrites() {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		datastore.setPeriodicCommit(-1, 0);
+	}
+
+	/**
+	 * Check that the created nodes contain the labels of their supertypes, and
+	 * that the type checks and type scans distinguish the instances of the
+	 * type from the instances of its subtypes.
+	 */
+	@Test
+	public void hierarchyLabels() {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph, createEPackage());
+		Node a = datastore.newInstance("A", null, null);
+		Node b = datastore.newInstance("B", null, null);
+
+		assertEquals(Sets.newHashSet("B", "A", "Element"), labelNames(b));
+		assertEquals("B", datastore.getType(b));
+		assertTrue(datastore.isKindOf(b, "A"));
+		assertFalse(datastore.isTypeOf(b, "A"));
+		assertFalse(datastore.isKindOf(a, "B"));
+		assertEquals(Sets.newHashSet(a, b), Sets.newHashSet(datastore.allOfKind("Element")));
+		assertEquals(Sets.newHashSet(a, b), Sets.newHashSet(datastore.allOfKind("A")));
+		assertEquals(Sets.newHashSet(a), Sets.newHashSet(datastore.allOfType("A")));
+		assertEquals(Sets.newHashSet(b), Sets.newHashSet(datastore.allOfType("B")));
+	}
+
+	/**
+	 * Check that the type of the nodes that are not in the type cache is
+	 * computed from their labels.
+	 */
+	@Test
+	public void typeFromLabels() {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph, createEPackage());
+		long a = datastore.newInstance("A", null, null).getId();
+		long b = datastore.newInstance("B", null, null).getId();
+		datastore.close();
+
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph, createEPackage(), true);
+		assertEquals("A", datastore.getType(graph.getNodeById(a)));
+		assertEquals("B", datastore.getType(graph.getNodeById(b)));
+		assertEquals(Sets.newHashSet(graph.getNodeById(a)), Sets.newHashSet(datastore.allOfType("A")));
+	}
+
+	/**
+	 * Check that the nodes only contain the label of their type if the
+	 * datastore is created without EPackage.
+	 */
+	@Test
+	public void noHierarchy() {
+		datastore = new DefaultEmbeddedNeo4j3Datastore(graph);
+		Node b = datastore.newInstance("B", null, null);
+
+		assertEquals(Sets.newHashSet("B"), labelNames(b));
+		assertEquals(":B", datastore.getType(b));
+		assertFalse(datastore.isKindOf(b, "A"));
+	}
+
+	private void createInstances(String typeName, int count) {
+		for (int i = 0; i < count; i++) {
+			datastore.newInstance(typeName, null, null);
+		}
+	}
+
+	private static Set<String> labelNames(Node node) {
+		Set<String> names = new HashSet<>();
+		node.getLabels().forEach(l -> names.add(l.name()));
+		return names;
+	}
+
+	/**
+	 * Creates an EPackage containing the abstract type Element, its subtype A,
+	 * and the subtype B of A.
+	 */
+	private static EPackage createEPackage() {
+		EcoreFactory factory = EcoreFactory.eINSTANCE;
+		EPackage ePackage = factory.createEPackage();
+		ePackage.setName("test");
+		ePackage.setNsURI("test");
+		EClass element = factory.createEClass();
+		element.setName("Element");
+		element.setAbstract(true);
+		EClass a = factory.createEClass();
+		a.setName("A");
+		a.getESuperTypes().add(element);
+		EClass b = factory.createEClass();
+		b.setName("B");
+		b.getESuperTypes().add(a);
+		ePackage.getEClassifiers().addAll(Arrays.asList(element, a, b));
+		return ePackage;
+	}
+
+	private static void assertRejected(Runnable write) {
+		try {
+			write.run();
+			fail("The write has not been rejected");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Returns the number of committed nodes with the {@link Label}
+	 * {@code labelName}.
+	 * <p>
+	 * The nodes are counted in a new thread: Neo4j transactions are bound to
+	 * their thread, and a transaction started in the test thread would be
+	 * nested in the datastore one.
+	 */
+	private long committedCount(String labelName) throws Exception {
+		FutureTask<Long> task = new FutureTask<>(() -> {
+			try (Transaction tx = graph.beginTx();
+					ResourceIterator<Node> nodes = graph.findNodes(Label.label(labelName))) {
+				long count = 0;
+				while (nodes.hasNext()) {
+					nodes.next();
+					count++;
+				}
+				tx.success();
+				return count;
+			}
+		});
+		new Thread(task).start();
+		return task.get();
+	}
+
+}
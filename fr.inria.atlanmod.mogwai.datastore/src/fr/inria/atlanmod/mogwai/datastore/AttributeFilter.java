@@ -0,0 +1,225 @@
+package fr.inria.atlanmod.mogwai.datastore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
+
+/**
+ * A comparison between the value of an attribute and a constant, that can be
+ * evaluated by a datastore when retrieving the instances of a type.
+ * <p>
+ * Filters are created by the query processors from the {@code select}
+ * operations applied on the instances of a type, and are pushed down to the
+ * datastores supporting them (see
+ * {@link PipesDatastore#canFilter(String, List)}). A list of filters
+ * represents their conjunction.
+ * <p>
+ * <b>Note:</b> elements without a value for the filtered attribute only
+ * match {@link Comparison#DIFFERENT} filters, like the Groovy {@code !=}
+ * comparison of the filter steps they replace.
+ *
+ * @see PipesDatastore#allOfTypeWherePipeline(String, List)
+ * @see PipesDatastore#allOfKindWherePipeline(String, List)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public final class AttributeFilter {
+
+	/**
+	 * The comparison operators supported by {@link AttributeFilter}s.
+	 */
+	public enum Comparison {
+		EQUAL, DIFFERENT, LESS, LESS_OR_EQUAL, GREATER, GREATER_OR_EQUAL;
+
+		/**
+		 * Returns the {@link Comparison} obtained by swapping the operands of
+		 * this one.
+		 *
+		 * @return the reversed {@link Comparison}
+		 */
+		public Comparison reverse() {
+			switch (this) {
+			case LESS:
+				return GREATER;
+			case LESS_OR_EQUAL:
+				return GREATER_OR_EQUAL;
+			case GREATER:
+				return LESS;
+			case GREATER_OR_EQUAL:
+				return LESS_OR_EQUAL;
+			default:
+				return this;
+			}
+		}
+	}
+
+	/**
+	 * The name of the filtered attribute.
+	 */
+	private final String attName;
+
+	/**
+	 * The {@link Comparison} between the attribute and {@link #value}.
+	 */
+	private final Comparison comparison;
+
+	/**
+	 * The constant the attribute is compared to.
+	 */
+	private final Object value;
+
+	/**
+	 * Constructs a new {@link AttributeFilter}.
+	 * <p>
+	 * <b>Note:</b> this constructor is not public, use
+	 * {@link #of(String, Comparison, Object)} to create new instances of this
+	 * class.
+	 */
+	private AttributeFilter(String attName, Comparison comparison, Object value) {
+		this.attName = attName;
+		this.comparison = comparison;
+		this.value = value;
+	}
+
+	/**
+	 * Creates a new {@link AttributeFilter} comparing the attribute
+	 * {@code attName} to the provided {@code value}.
+	 *
+	 * @param attName
+	 *            the name of the filtered attribute
+	 * @param comparison
+	 *            the {@link Comparison} between the attribute and
+	 *            {@code value}
+	 * @param value
+	 *            the constant the attribute is compared to
+	 * @return the created {@link AttributeFilter}
+	 */
+	public static AttributeFilter of(String attName, Comparison comparison, Object value) {
+		checkNotNull(attName, "Cannot create a filter on the attribute {0}", attName);
+		checkNotNull(comparison, "Cannot create a filter with the comparison {0}", comparison);
+		checkNotNull(value, "Cannot create a filter comparing {0} to {1}", attName, value);
+		return new AttributeFilter(attName, comparison, value);
+	}
+
+	/**
+	 * Creates the {@link AttributeFilter}s represented by the provided
+	 * {@code parameters}.
+	 * <p>
+	 * This method is used by the Gremlin engine to create filters from the
+	 * parameters of the generated scripts: each filter is represented by the
+	 * name of the attribute, the name of the {@link Comparison}, and the
+	 * value.
+	 *
+	 * @param parameters
+	 *            the triples representing the filters
+	 * @return the created {@link AttributeFilter}s
+	 * @throws IllegalArgumentException
+	 *             if the number of {@code parameters} is not a multiple of
+	 *             {@code 3}
+	 */
+	public static List<AttributeFilter> fromParameters(Object... parameters) {
+		checkArgument(parameters.length % 3 == 0, "Cannot create filters from {0} parameters", parameters.length);
+		List<AttributeFilter> filters = new ArrayList<>(parameters.length / 3);
+		for (int i = 0; i < parameters.length; i += 3) {
+			filters.add(of((String) parameters[i], Comparison.valueOf((String) parameters[i + 1]),
+					parameters[i + 2]));
+		}
+		return filters;
+	}
+
+	/**
+	 * Returns the name of the filtered attribute.
+	 *
+	 * @return the name of the attribute
+	 */
+	public String getAttName() {
+		return attName;
+	}
+
+	/**
+	 * Returns the {@link Comparison} between the attribute and the value.
+	 *
+	 * @return the {@link Comparison}
+	 */
+	public Comparison getComparison() {
+		return comparison;
+	}
+
+	/**
+	 * Returns the constant the attribute is compared to.
+	 *
+	 * @return the value
+	 */
+	public Object getValue() {
+		return value;
+	}
+
+	/**
+	 * Returns whether one of the provided attribute {@code values} matches
+	 * this filter.
+	 * <p>
+	 * This method is used by the datastores that cannot evaluate the filter
+	 * natively. {@link Number}s are compared according to their
+	 * {@code double} value. Missing ({@code null} or empty) values only match
+	 * {@link Comparison#DIFFERENT} filters.
+	 *
+	 * @param values
+	 *            the values of the filtered attribute for an element
+	 * @return {@code true} if one of the {@code values} matches the filter,
+	 *         {@code false} otherwise
+	 */
+	public boolean matches(Iterable<?> values) {
+		if (!values.iterator().hasNext()) {
+			return comparison == Comparison.DIFFERENT;
+		}
+		for (Object v : values) {
+			if (matchesValue(v)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private boolean matchesValue(Object attValue) {
+		if (isNull(attValue)) {
+			return comparison == Comparison.DIFFERENT;
+		}
+		int result;
+		if (attValue instanceof Number && value instanceof Number) {
+			result = Double.compare(((Number) attValue).doubleValue(), ((Number) value).doubleValue());
+		} else if (attValue instanceof Comparable && attValue.getClass().isInstance(value)) {
+			result = ((Comparable) attValue).compareTo(value);
+		} else {
+			boolean equal = Objects.equals(attValue.toString(), value.toString());
+			return comparison == Comparison.EQUAL ? equal : comparison == Comparison.DIFFERENT && !equal;
+		}
+		switch (comparison) {
+		case EQUAL:
+			return result == 0;
+		case DIFFERENT:
+			return result != 0;
+		case LESS:
+			return result < 0;
+		case LESS_OR_EQUAL:
+			return result <= 0;
+		case GREATER:
+			return result > 0;
+		default:
+			return result >= 0;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return attName + " " + comparison + " " + value;
+	}
+
+}
@@ -1,5 +1,11 @@
 package fr.inria.atlanmod.mogwai.datastore;
 
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Defines the methods that should be implemented to manipulate a
  * {@code data source} as a model.
@@ -170,6 +176,42 @@ public interface ModelDatastore<D, E, R, A> {
 	 */
 	R setRef(E from, String refName, String oppositeName, E to, boolean isContainment);
 
+	/**
+	 * Creates reference links between {@code from} and all the elements in
+	 * {@code to} with the label {@code refName}.
+	 * <p>
+	 * The created references are appended to the existing ones, in the
+	 * iteration order of {@code to}. This method should be preferred to
+	 * successive {@link #setRef(Object, String, String, Object, boolean)}
+	 * calls when several elements are added to the same reference:
+	 * implementations storing the position of the reference's elements can
+	 * allocate them at once.
+	 * <p>
+	 * <b>Note:</b> the default implementation calls
+	 * {@link #setRef(Object, String, String, Object, boolean)} for each element
+	 * in {@code to}.
+	 * 
+	 * @param from
+	 *            the incoming element of the references
+	 * @param refName
+	 *            the label of the references
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param to
+	 *            the outgoing elements of the references
+	 * @param isContainment
+	 *            {@code true} if the reference is a containment, {@code false}
+	 *            otherwise
+	 * @return a {@link List} containing the created references
+	 */
+	default List<R> setRefs(E from, String refName, String oppositeName, Iterable<E> to, boolean isContainment) {
+		List<R> result = new ArrayList<>();
+		for (E element : to) {
+			result.add(setRef(from, refName, oppositeName, element, isContainment));
+		}
+		return result;
+	}
+
 	/**
 	 * Removes the reference link between {@code from} and {@code to} with the
 	 * label {@code refName}.
@@ -187,6 +229,42 @@ public interface ModelDatastore<D, E, R, A> {
 	 */
 	E removeRef(E from, String refName, E to, boolean isContainment);
 
+	/**
+	 * Removes the reference links between {@code from} and the elements in
+	 * {@code to} with the label {@code refName}.
+	 * <p>
+	 * This method should be preferred to successive
+	 * {@link #removeRef(Object, String, Object, boolean)} calls when several
+	 * elements are removed from the same reference: implementations storing
+	 * the position of the reference's elements can update them once for all
+	 * the removed elements.
+	 * <p>
+	 * <b>Note:</b> the default implementation calls
+	 * {@link #removeRef(Object, String, Object, boolean)} for each element in
+	 * {@code to}.
+	 * 
+	 * @param from
+	 *            the incoming element of the references to remove
+	 * @param refName
+	 *            the label of the references to remove
+	 * @param to
+	 *            the outgoing elements of the references to remove
+	 * @param isContainment
+	 *            {@code true} if the reference is a containment, {@code false}
+	 *            otherwise
+	 * @return a {@link List} containing the previously linked elements
+	 */
+	default List<E> removeRefs(E from, String refName, Collection<E> to, boolean isContainment) {
+		List<E> result = new ArrayList<>();
+		for (E element : to) {
+			E removed = removeRef(from, refName, element, isContainment);
+			if (nonNull(removed)) {
+				result.add(removed);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Returns an {@link Iterable} containing the attribute(s) {@code attName}
 	 * of {@code from}.
@@ -0,0 +1,168 @@
+package fr.inria.atlanmod.mogwai.datastore;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
+
+/**
+ * A traversal starting with the instances of a type, filtering them with
+ * {@link AttributeFilter}s, and navigating a path of references, that can be
+ * evaluated by a datastore in a single native query.
+ * <p>
+ * Patterns are created by the query processors from the beginning of the
+ * generated traversals, and are pushed down to the datastores supporting them
+ * (see {@link PipesDatastore#canTraverse(TraversalPattern)}). The remaining
+ * steps of the traversals are computed over the elements reached by the
+ * pattern.
+ * <p>
+ * <b>Note:</b> references are navigated in their outgoing direction, opposite
+ * and container references are not supported.
+ *
+ * @see PipesDatastore#traversalPipeline(TraversalPattern)
+ * @see PipesDatastore#countTraversal(TraversalPattern)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public final class TraversalPattern {
+
+	/**
+	 * The name of the type to get the instances of.
+	 */
+	private final String typeName;
+
+	/**
+	 * Whether the instances of the subtypes of {@link #typeName} are also
+	 * traversed.
+	 */
+	private final boolean kind;
+
+	/**
+	 * The {@link AttributeFilter}s the traversed instances must match.
+	 */
+	private final List<AttributeFilter> filters;
+
+	/**
+	 * The names of the references to navigate from the filtered instances.
+	 */
+	private final List<String> references;
+
+	/**
+	 * Constructs a new {@link TraversalPattern}.
+	 * <p>
+	 * <b>Note:</b> this constructor is not public, use
+	 * {@link #of(String, boolean, List, List)} to create new instances of this
+	 * class.
+	 */
+	private TraversalPattern(String typeName, boolean kind, List<AttributeFilter> filters, List<String> references) {
+		this.typeName = typeName;
+		this.kind = kind;
+		this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+		this.references = Collections.unmodifiableList(new ArrayList<>(references));
+	}
+
+	/**
+	 * Creates a new {@link TraversalPattern}.
+	 *
+	 * @param typeName
+	 *            the name of the type to get the instances of
+	 * @param kind
+	 *            whether the instances of the subtypes of {@code typeName} are
+	 *            also traversed
+	 * @param filters
+	 *            the {@link AttributeFilter}s the instances must match
+	 * @param references
+	 *            the names of the references to navigate from the filtered
+	 *            instances
+	 * @return the created {@link TraversalPattern}
+	 */
+	public static TraversalPattern of(String typeName, boolean kind, List<AttributeFilter> filters,
+			List<String> references) {
+		checkNotNull(typeName, "Cannot create a pattern on the type {0}", typeName);
+		checkNotNull(filters, "Cannot create a pattern with the filters {0}", filters);
+		checkNotNull(references, "Cannot create a pattern with the references {0}", references);
+		return new TraversalPattern(typeName, kind, filters, references);
+	}
+
+	/**
+	 * Creates the {@link TraversalPattern} represented by the provided
+	 * {@code parameters}.
+	 * <p>
+	 * This method is used by the Gremlin engine to create patterns from the
+	 * parameters of the generated scripts: a pattern is represented by the
+	 * name of the type, whether the subtypes are traversed, the number of
+	 * navigated references followed by their names, and the triples
+	 * representing the filters (see
+	 * {@link AttributeFilter#fromParameters(Object...)}).
+	 *
+	 * @param parameters
+	 *            the parameters representing the pattern
+	 * @return the created {@link TraversalPattern}
+	 * @throws IllegalArgumentException
+	 *             if the {@code parameters} don't represent a pattern
+	 */
+	public static TraversalPattern fromParameters(Object... parameters) {
+		checkArgument(parameters.length >= 3, "Cannot create a pattern from {0} parameters", parameters.length);
+		int referenceCount = ((Number) parameters[2]).intValue();
+		checkArgument(parameters.length >= 3 + referenceCount, "Cannot create a pattern from {0} parameters",
+				parameters.length);
+		List<String> references = new ArrayList<>(referenceCount);
+		for (int i = 0; i < referenceCount; i++) {
+			references.add((String) parameters[3 + i]);
+		}
+		List<AttributeFilter> filters = AttributeFilter
+				.fromParameters(Arrays.copyOfRange(parameters, 3 + referenceCount, parameters.length));
+		return of((String) parameters[0], (Boolean) parameters[1], filters, references);
+	}
+
+	/**
+	 * Returns the name of the type to get the instances of.
+	 *
+	 * @return the name of the type
+	 */
+	public String getTypeName() {
+		return typeName;
+	}
+
+	/**
+	 * Returns whether the instances of the subtypes of the type are also
+	 * traversed.
+	 *
+	 * @return {@code true} if the subtypes are traversed, {@code false}
+	 *         otherwise
+	 */
+	public boolean isKind() {
+		return kind;
+	}
+
+	/**
+	 * Returns the {@link AttributeFilter}s the traversed instances must match.
+	 *
+	 * @return an unmodifiable {@link List} containing the filters
+	 */
+	public List<AttributeFilter> getFilters() {
+		return filters;
+	}
+
+	/**
+	 * Returns the names of the references to navigate from the filtered
+	 * instances.
+	 *
+	 * @return an unmodifiable {@link List} containing the reference names
+	 */
+	public List<String> getReferences() {
+		return references;
+	}
+
+	@Override
+	public String toString() {
+		return (kind ? "allOfKind(" : "allOfType(") + typeName + ")" + filters + references;
+	}
+
+}
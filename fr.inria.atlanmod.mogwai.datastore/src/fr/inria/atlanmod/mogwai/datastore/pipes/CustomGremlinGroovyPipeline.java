@@ -1,5 +1,6 @@
 package fr.inria.atlanmod.mogwai.datastore.pipes;
 
+import java.util.Collections;
 import java.util.Iterator;
 
 import com.tinkerpop.gremlin.groovy.GremlinGroovyPipeline;
@@ -172,6 +173,143 @@ public class CustomGremlinGroovyPipeline<S, E> extends GremlinGroovyPipeline<S,
 		return (CustomGremlinGroovyPipeline<S, E>) this.add(datastore.getRef(refName, oppositeName, isContainer));
 	}
 
+	/**
+	 * Allows to chain a new {@link Pipe} in the pipeline that computes the
+	 * elements transitively connected to its input model elements with the
+	 * reference labeled {@code refName}.
+	 * <p>
+	 * The {@link Pipe} that navigates the elements' references is created by
+	 * using the {@link PipesDatastore} associated to the current
+	 * {@link CustomGremlinGroovyPipeline}.
+	 * <p>
+	 * TODO: this method may return a NullPointerException if no
+	 * {@link PipesDatastore} are associated to the current
+	 * {@link CustomGremlinGroovyPipeline} (see
+	 * https://github.com/atlanmod/Mogwai/issues/35)
+	 * 
+	 * @param refName
+	 *            the name of the reference to navigate
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @return the {@link CustomGremlinGroovyPipeline} containing an additional
+	 *         pipe that computes the transitive closure of the reference
+	 *         labeled {@code refName} of its input elements.
+	 * 
+	 * @see PipesDatastore#closure(String, String, boolean)
+	 */
+	public CustomGremlinGroovyPipeline<S, E> closure(String refName, String oppositeName, boolean isContainer) {
+		return (CustomGremlinGroovyPipeline<S, E>) this.add(datastore.closure(refName, oppositeName, isContainer));
+	}
+
+	/**
+	 * Allows to chain a new {@link Pipe} in the pipeline that computes the
+	 * element at the provided {@code position} in the reference labeled
+	 * {@code refName} of its input model elements.
+	 * <p>
+	 * {@code position} follows the OCL {@code at} semantics: the first element
+	 * of the reference is at the position {@code 1}, and positions lower than
+	 * {@code 1} are out of the bounds of the reference. Input elements that
+	 * don't have an element at the provided {@code position} don't produce any
+	 * output.
+	 * <p>
+	 * TODO: this method may return a NullPointerException if no
+	 * {@link PipesDatastore} are associated to the current
+	 * {@link CustomGremlinGroovyPipeline} (see
+	 * https://github.com/atlanmod/Mogwai/issues/35)
+	 * 
+	 * @param refName
+	 *            the name of the reference to navigate
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @param position
+	 *            the OCL position of the element to retrieve
+	 * @return the {@link CustomGremlinGroovyPipeline} containing an additional
+	 *         pipe that computes the element at the provided {@code position}
+	 *         in the reference labeled {@code refName} of its input elements
+	 * 
+	 * @see PipesDatastore#getRefAt(String, String, boolean, int)
+	 */
+	public CustomGremlinGroovyPipeline<S, E> refAt(String refName, String oppositeName, boolean isContainer,
+			int position) {
+		if (position < 1) {
+			return noOutput();
+		}
+		return (CustomGremlinGroovyPipeline<S, E>) this.add(datastore.getRefAt(refName, oppositeName, isContainer,
+				position - 1));
+	}
+
+	/**
+	 * Allows to chain a new {@link Pipe} in the pipeline that computes the
+	 * element at the provided {@code position} from the end of the reference
+	 * labeled {@code refName} of its input model elements.
+	 * <p>
+	 * The last element of the reference is at the position {@code 1} (this
+	 * corresponds to the OCL {@code last} operation), and positions lower than
+	 * {@code 1} are out of the bounds of the reference.
+	 * <p>
+	 * TODO: this method may return a NullPointerException if no
+	 * {@link PipesDatastore} are associated to the current
+	 * {@link CustomGremlinGroovyPipeline} (see
+	 * https://github.com/atlanmod/Mogwai/issues/35)
+	 * 
+	 * @param refName
+	 *            the name of the reference to navigate
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @param position
+	 *            the position of the element to retrieve, counted from the
+	 *            end of the reference
+	 * @return the {@link CustomGremlinGroovyPipeline} containing an additional
+	 *         pipe that computes the element at the provided {@code position}
+	 *         from the end of the reference labeled {@code refName} of its
+	 *         input elements
+	 * 
+	 * @see PipesDatastore#getRefAt(String, String, boolean, int)
+	 */
+	public CustomGremlinGroovyPipeline<S, E> refFromEnd(String refName, String oppositeName, boolean isContainer,
+			int position) {
+		if (position < 1) {
+			return noOutput();
+		}
+		return (CustomGremlinGroovyPipeline<S, E>) this.add(datastore.getRefAt(refName, oppositeName, isContainer,
+				-position));
+	}
+
+	/**
+	 * Allows to chain a new {@link Pipe} in the pipeline that computes the size
+	 * of the reference labeled {@code refName} of its input model elements.
+	 * <p>
+	 * TODO: this method may return a NullPointerException if no
+	 * {@link PipesDatastore} are associated to the current
+	 * {@link CustomGremlinGroovyPipeline} (see
+	 * https://github.com/atlanmod/Mogwai/issues/35)
+	 * 
+	 * @param refName
+	 *            the name of the reference to compute the size of
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @return the {@link CustomGremlinGroovyPipeline} containing an additional
+	 *         pipe that computes the size of the reference labeled
+	 *         {@code refName} of its input elements
+	 * 
+	 * @see PipesDatastore#sizeOf(String, String, boolean)
+	 */
+	public CustomGremlinGroovyPipeline<S, E> sizeOf(String refName, String oppositeName, boolean isContainer) {
+		return (CustomGremlinGroovyPipeline<S, E>) this.add(datastore.sizeOf(refName, oppositeName, isContainer));
+	}
+
 	/**
 	 * Provides a pretty printing operation that can be called on a
 	 * {@link CustomGremlinGroovyPipeline}.
@@ -230,4 +368,58 @@ public class CustomGremlinGroovyPipeline<S, E> extends GremlinGroovyPipeline<S,
 		return result;
 	}
 
+	/**
+	 * Checks if the current {@link CustomGremlinGroovyPipeline} does not
+	 * contain any element.
+	 * <p>
+	 * This method only computes the first element of the pipeline (if any),
+	 * and should be preferred to {@code toList().isEmpty()} that computes the
+	 * entire pipeline content.
+	 * <p>
+	 * <b>Note:</b> this method does not return the current instance of the
+	 * {@link CustomGremlinGroovyPipeline}, and therefore it cannot be chained
+	 * with other pipes.
+	 * 
+	 * @return {@code true} if the current {@link CustomGremlinGroovyPipeline}
+	 *         does not contain any element, {@code false} otherwise
+	 */
+	public boolean hasNone() {
+		return !iterator().hasNext();
+	}
+
+	/**
+	 * Returns the first element of the current
+	 * {@link CustomGremlinGroovyPipeline}, or {@code null} if it is empty.
+	 * <p>
+	 * This method only computes the first element of the pipeline, the
+	 * remaining elements are not evaluated.
+	 * <p>
+	 * <b>Note:</b> this method does not return the current instance of the
+	 * {@link CustomGremlinGroovyPipeline}, and therefore it cannot be chained
+	 * with other pipes.
+	 * 
+	 * @return the first element of the current
+	 *         {@link CustomGremlinGroovyPipeline} if it exists, {@code null}
+	 *         otherwise
+	 */
+	public E firstOrNull() {
+		Iterator<E> content = iterator();
+		return content.hasNext() ? content.next() : null;
+	}
+
+	/**
+	 * Chains a new {@link Pipe} in the pipeline that doesn't produce any
+	 * output.
+	 * <p>
+	 * This method is used to represent out of bounds positional accesses,
+	 * that are {@code invalid} in OCL.
+	 * 
+	 * @return the {@link CustomGremlinGroovyPipeline} containing an additional
+	 *         pipe that filters all its input elements
+	 */
+	private CustomGremlinGroovyPipeline<S, E> noOutput() {
+		return (CustomGremlinGroovyPipeline<S, E>) this.add(PipesUtils.flattenPipeFor((el) -> Collections
+				.emptyList()));
+	}
+
 }
@@ -1,11 +1,19 @@
 package fr.inria.atlanmod.mogwai.datastore.pipes;
 
+import static java.util.Objects.isNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.google.common.collect.Iterables;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.gremlin.java.GremlinPipeline;
 import com.tinkerpop.pipes.Pipe;
 import com.tinkerpop.pipes.util.Pipeline;
 
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
 import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
 
 /**
  * Refines {@link ModelDatastore} by providing methods that should be
@@ -75,6 +83,180 @@ public interface PipesDatastore<D, E, R, A> extends ModelDatastore<D, E, R, A> {
 		return PipesUtils.pipelineOf(allOfKind(typeName));
 	}
 
+	/**
+	 * Returns the number of elements of the type {@code typeName}.
+	 * <p>
+	 * The default implementation counts the elements returned by
+	 * {@link ModelDatastore#allOfType(String)}, concrete datastores storing
+	 * instance counters should override it.
+	 * 
+	 * @param typeName
+	 *            the name of the metaclass to count the instances of
+	 * @return the number of elements of the type {@code typeName}
+	 * 
+	 * @see ModelDatastore#allOfType(String)
+	 */
+	default long countOfType(String typeName) {
+		return Iterables.size(allOfType(typeName));
+	}
+
+	/**
+	 * Returns the number of elements of the type {@code typeName} and its
+	 * subclasses.
+	 * <p>
+	 * The default implementation counts the elements returned by
+	 * {@link ModelDatastore#allOfKind(String)}, concrete datastores storing
+	 * instance counters should override it.
+	 * 
+	 * @param typeName
+	 *            the name of the metaclass to count the instances of
+	 * @return the number of elements of the type {@code typeName} and its
+	 *         subclasses
+	 * 
+	 * @see ModelDatastore#allOfKind(String)
+	 */
+	default long countOfKind(String typeName) {
+		return Iterables.size(allOfKind(typeName));
+	}
+
+	/**
+	 * Returns whether this datastore can evaluate the provided {@code filters}
+	 * natively when retrieving the instances of {@code typeName}.
+	 * <p>
+	 * Query processors only push {@link AttributeFilter}s down to the
+	 * datastore (see {@link #allOfTypeWherePipeline(String, List)} and
+	 * {@link #allOfKindWherePipeline(String, List)}) if this method returns
+	 * {@code true}. The default implementation returns {@code false}.
+	 * 
+	 * @param typeName
+	 *            the name of the metaclass to get the instances of
+	 * @param filters
+	 *            the {@link AttributeFilter}s to evaluate
+	 * @return {@code true} if the {@code filters} can be evaluated by the
+	 *         datastore, {@code false} otherwise
+	 */
+	default boolean canFilter(String typeName, List<AttributeFilter> filters) {
+		return false;
+	}
+
+	/**
+	 * Returns a {@link Pipeline} initialized with the elements of the type
+	 * {@code typeName} matching all the provided {@code filters}.
+	 * <p>
+	 * The default implementation evaluates the {@code filters} on the elements
+	 * returned by {@link ModelDatastore#allOfType(String)}, concrete datastores
+	 * able to evaluate them natively should override it.
+	 * 
+	 * @param typeName
+	 *            the name of the metaclass to get the instances of
+	 * @param filters
+	 *            the {@link AttributeFilter}s the returned elements must match
+	 * @return a {@link Pipeline} initialized with the matching elements
+	 * 
+	 * @see #canFilter(String, List)
+	 */
+	default Pipeline<E, ?> allOfTypeWherePipeline(String typeName, List<AttributeFilter> filters) {
+		return PipesUtils.pipelineOf(Iterables.filter(allOfType(typeName),
+				e -> filters.stream().allMatch(f -> f.matches(getAtt(e, f.getAttName())))));
+	}
+
+	/**
+	 * Returns a {@link Pipeline} initialized with the elements of the type
+	 * {@code typeName} and its subclasses matching all the provided
+	 * {@code filters}.
+	 * <p>
+	 * The default implementation evaluates the {@code filters} on the elements
+	 * returned by {@link ModelDatastore#allOfKind(String)}, concrete datastores
+	 * able to evaluate them natively should override it.
+	 * 
+	 * @param typeName
+	 *            the name of the metaclass to get the instances of
+	 * @param filters
+	 *            the {@link AttributeFilter}s the returned elements must match
+	 * @return a {@link Pipeline} initialized with the matching elements
+	 * 
+	 * @see #canFilter(String, List)
+	 */
+	default Pipeline<E, ?> allOfKindWherePipeline(String typeName, List<AttributeFilter> filters) {
+		return PipesUtils.pipelineOf(Iterables.filter(allOfKind(typeName),
+				e -> filters.stream().allMatch(f -> f.matches(getAtt(e, f.getAttName())))));
+	}
+
+	/**
+	 * Returns whether this datastore can evaluate the provided
+	 * {@code pattern} natively.
+	 * <p>
+	 * Query processors only push {@link TraversalPattern}s down to the
+	 * datastore (see {@link #traversalPipeline(TraversalPattern)} and
+	 * {@link #countTraversal(TraversalPattern)}) if this method returns
+	 * {@code true}. The default implementation returns {@code false}.
+	 * 
+	 * @param pattern
+	 *            the {@link TraversalPattern} to evaluate
+	 * @return {@code true} if the {@code pattern} can be evaluated by the
+	 *         datastore, {@code false} otherwise
+	 */
+	default boolean canTraverse(TraversalPattern pattern) {
+		return false;
+	}
+
+	/**
+	 * Returns a {@link Pipeline} initialized with the elements reached by the
+	 * provided {@code pattern}.
+	 * <p>
+	 * The default implementation filters the elements returned by
+	 * {@link ModelDatastore#allOfType(String)} (or
+	 * {@link ModelDatastore#allOfKind(String)}) and navigates the references
+	 * of the pattern with {@link ModelDatastore#getRef(Object, String, String, boolean)},
+	 * concrete datastores able to evaluate the pattern natively should
+	 * override it.
+	 * 
+	 * @param pattern
+	 *            the {@link TraversalPattern} to evaluate
+	 * @return a {@link Pipeline} initialized with the reached elements
+	 * 
+	 * @see #canTraverse(TraversalPattern)
+	 */
+	default Pipeline<E, ?> traversalPipeline(TraversalPattern pattern) {
+		return PipesUtils.pipelineOf(traverse(pattern));
+	}
+
+	/**
+	 * Returns the number of elements reached by the provided {@code pattern}.
+	 * <p>
+	 * The default implementation counts the elements returned by
+	 * {@link #traversalPipeline(TraversalPattern)}, concrete datastores able
+	 * to count them natively should override it.
+	 * 
+	 * @param pattern
+	 *            the {@link TraversalPattern} to evaluate
+	 * @return the number of reached elements
+	 * 
+	 * @see #canTraverse(TraversalPattern)
+	 */
+	default long countTraversal(TraversalPattern pattern) {
+		return Iterables.size(traverse(pattern));
+	}
+
+	/**
+	 * Returns the elements reached by the provided {@code pattern}, computed
+	 * with the {@link ModelDatastore} operations.
+	 * 
+	 * @param pattern
+	 *            the {@link TraversalPattern} to evaluate
+	 * @return an {@link Iterable} containing the reached elements
+	 */
+	default Iterable<E> traverse(TraversalPattern pattern) {
+		Iterable<E> instances = pattern.isKind() ? allOfKind(pattern.getTypeName()) : allOfType(pattern.getTypeName());
+		Iterable<E> result = Iterables.filter(instances,
+				e -> pattern.getFilters().stream().allMatch(f -> f.matches(getAtt(e, f.getAttName()))));
+		for (String refName : pattern.getReferences()) {
+			Iterable<E> sources = result;
+			result = Iterables.concat(Iterables.transform(sources, e -> getRef(e, refName, "", false)));
+		}
+		return result;
+	}
+
 	/**
 	 * Returns a {@link Pipe} that computes the parent elements connected to its
 	 * input elements.
@@ -107,6 +289,142 @@ public interface PipesDatastore<D, E, R, A> extends ModelDatastore<D, E, R, A> {
 		return PipesUtils.flattenPipeFor((el) -> this.getRef(el, refName, oppositeName, isContainer));
 	}
 
+	/**
+	 * Returns the element at the position {@code index} in the reference
+	 * labeled {@code refName} of {@code from}.
+	 * <p>
+	 * Negative indices are counted from the end of the reference: {@code -1}
+	 * corresponds to its last element.
+	 * <p>
+	 * The default implementation iterates the result of
+	 * {@link ModelDatastore#getRef(Object, String, String, boolean)}, concrete
+	 * datastores storing the position of their references should override it.
+	 * 
+	 * @param from
+	 *            the element to get the reference from
+	 * @param refName
+	 *            the name of the reference to navigate
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @param index
+	 *            the zero-based index of the element to retrieve
+	 * @return the element at the position {@code index}, or {@code null} if
+	 *         {@code index} is out of the bounds of the reference
+	 */
+	default E getRefAt(E from, String refName, String oppositeName, boolean isContainer, int index) {
+		Iterable<E> ref = getRef(from, refName, oppositeName, isContainer);
+		if (index < 0) {
+			index += Iterables.size(ref);
+			if (index < 0) {
+				return null;
+			}
+		}
+		return Iterables.get(ref, index, null);
+	}
+
+	/**
+	 * Returns the number of elements connected to {@code from} with a
+	 * reference labeled {@code refName}.
+	 * <p>
+	 * The default implementation counts the elements returned by
+	 * {@link ModelDatastore#getRef(Object, String, String, boolean)}, concrete
+	 * datastores storing the size of their references should override it.
+	 * 
+	 * @param from
+	 *            the element to get the reference from
+	 * @param refName
+	 *            the name of the reference to compute the size of
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @return the number of elements connected to {@code from} with the
+	 *         reference {@code refName}
+	 */
+	default int sizeOf(E from, String refName, String oppositeName, boolean isContainer) {
+		return Iterables.size(getRef(from, refName, oppositeName, isContainer));
+	}
+
+	/**
+	 * Returns a {@link Pipe} that computes the element at the position
+	 * {@code index} in the reference labeled {@code refName} of its input
+	 * elements.
+	 * <p>
+	 * Input elements that don't have an element at the position {@code index}
+	 * don't produce any output.
+	 * 
+	 * @param refName
+	 *            the name of the reference to navigate
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @param index
+	 *            the zero-based index of the element to retrieve, negative
+	 *            indices are counted from the end of the reference
+	 * @return a {@link Pipe} that computes the element at the position
+	 *         {@code index} in the reference labeled {@code refName} of its
+	 *         input elements
+	 * 
+	 * @see #getRefAt(Object, String, String, boolean, int)
+	 */
+	default Pipe<E, E> getRefAt(String refName, String oppositeName, boolean isContainer, int index) {
+		return PipesUtils.flattenPipeFor((el) -> {
+			E element = this.getRefAt(el, refName, oppositeName, isContainer, index);
+			return isNull(element) ? Collections.<E> emptyList() : Collections.singletonList(element);
+		});
+	}
+
+	/**
+	 * Returns a {@link Pipe} that computes the size of the reference labeled
+	 * {@code refName} of its input elements.
+	 * 
+	 * @param refName
+	 *            the name of the reference to compute the size of
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @return a {@link Pipe} that computes the size of the reference labeled
+	 *         {@code refName} of its input elements
+	 * 
+	 * @see #sizeOf(Object, String, String, boolean)
+	 */
+	default Pipe<E, Integer> sizeOf(String refName, String oppositeName, boolean isContainer) {
+		return PipesUtils.pipeFor((el) -> this.sizeOf(el, refName, oppositeName, isContainer));
+	}
+
+	/**
+	 * Returns a {@link Pipe} that computes the elements transitively connected
+	 * to its input elements with a reference labeled {@code refName}.
+	 * <p>
+	 * The navigation is computed in the datastore layer using a visited set, so
+	 * each reachable element is returned once, even if the model contains
+	 * cycles. This method is used to compute OCL {@code closure} operations.
+	 * 
+	 * @param refName
+	 *            the name of the reference to navigate
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param isContainer
+	 *            {@code true} if {@code refName} is a containment,
+	 *            {@code false} otherwise
+	 * @return a {@link Pipe} that computes the elements transitively connected
+	 *         to its input elements with a reference labeled {@code refName}
+	 * 
+	 * @see ModelDatastore#getRef(Object, String, String, boolean)
+	 * @see PipesUtils#closurePipeFor(java.util.function.Function)
+	 */
+	default Pipe<E, E> closure(String refName, String oppositeName, boolean isContainer) {
+		return PipesUtils.closurePipeFor((el) -> this.getRef(el, refName, oppositeName, isContainer));
+	}
+
 	/**
 	 * Returns a {@link Pipe} that creates a reference link between its input
 	 * elements and {@code to} with the label {@code refName}.
@@ -129,6 +447,30 @@ public interface PipesDatastore<D, E, R, A> extends ModelDatastore<D, E, R, A> {
 		return PipesUtils.pipeFor((el) -> this.setRef(el, refName, oppositeName, to, isContainment));
 	}
 
+	/**
+	 * Returns a {@link Pipe} that creates reference links between its input
+	 * elements and all the elements in {@code to} with the label
+	 * {@code refName}.
+	 * 
+	 * @param refName
+	 *            the label of the references
+	 * @param oppositeName
+	 *            the name of the reference's opposite if it exists
+	 * @param to
+	 *            the outgoing elements of the references
+	 * @param isContainment
+	 *            {@code true} if the reference is a containment, {@code false}
+	 *            otherwise
+	 * @return a {@link Pipe} that creates reference links between its input
+	 *         elements and all the elements in {@code to} with the label
+	 *         {@code refName}
+	 * 
+	 * @see ModelDatastore#setRefs(Object, String, String, Iterable, boolean)
+	 */
+	default Pipe<E, R> setRefs(String refName, String oppositeName, Iterable<E> to, boolean isContainment) {
+		return PipesUtils.flattenPipeFor((el) -> this.setRefs(el, refName, oppositeName, to, isContainment));
+	}
+
 	/**
 	 * Returns a {@link Pipe} that removes a reference link between its input
 	 * elements and {@code to} with the label {@code refName}.
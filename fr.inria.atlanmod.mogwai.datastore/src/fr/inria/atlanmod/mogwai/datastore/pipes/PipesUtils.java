@@ -1,7 +1,11 @@
 package fr.inria.atlanmod.mogwai.datastore.pipes;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.function.Function;
 
 import com.google.common.collect.Iterables;
@@ -97,4 +101,58 @@ public class PipesUtils {
 		};
 	}
 
+	/**
+	 * Creates a new {@link Pipe} computing the transitive closure of the given
+	 * {@code function} on its input elements.
+	 * <p>
+	 * The created {@link Pipe} applies {@code function} on its input elements,
+	 * and then on each computed element until no new element is found. Computed
+	 * elements are stored in a visited set shared by all the inputs of the
+	 * {@link Pipe}, ensuring that each element is returned only once and that
+	 * cycles do not prevent the computation to terminate. Input elements are
+	 * not returned unless they are reachable from another input element.
+	 * <p>
+	 * <b>Note:</b> elements are returned lazily, in a breadth-first order.
+	 * 
+	 * @param function
+	 *            the {@link Function} to compute on the {@link Pipe}'s input
+	 *            elements and their successors
+	 * @return the created {@link Pipe}
+	 */
+	public static <E> Pipe<E, E> closurePipeFor(Function<E, Iterable<E>> function) {
+		return new AbstractPipe<E, E>() {
+
+			private Iterator<E> nextRefs = PipeHelper.emptyIterator();
+
+			private final Set<E> visited = new HashSet<>();
+
+			private final Deque<E> toVisit = new ArrayDeque<>();
+
+			@Override
+			protected E processNextStart() throws NoSuchElementException {
+				while (true) {
+					if (this.nextRefs.hasNext()) {
+						E next = this.nextRefs.next();
+						if (visited.add(next)) {
+							toVisit.add(next);
+							return next;
+						}
+					} else if (!toVisit.isEmpty()) {
+						this.nextRefs = function.apply(toVisit.poll()).iterator();
+					} else {
+						this.nextRefs = function.apply(this.starts.next()).iterator();
+					}
+				}
+			}
+
+			@Override
+			public void reset() {
+				this.nextRefs = PipeHelper.emptyIterator();
+				this.visited.clear();
+				this.toVisit.clear();
+				super.reset();
+			}
+		};
+	}
+
 }
@@ -1,31 +1,138 @@
 package fr.inria.atlanmod.mogwai.neoemf.query;
 
+import static java.util.Objects.isNull;
+
 import java.util.List;
 
 import org.eclipse.emf.ecore.EObject;
 
-import fr.inria.atlanmod.mogwai.gremlin.GremlinScript;
-import fr.inria.atlanmod.neoemf.data.blueprints.BlueprintsPersistenceBackend;
+import fr.inria.atlanmod.mogwai.core.exception.MogwaiCoreException;
+import fr.inria.atlanmod.mogwai.neoemf.resource.MogwaiResource;
 import fr.inria.atlanmod.neoemf.resource.PersistentResource;
 
-public class NeoEMFValidationResult  {
+/**
+ * Wraps the result of a model validation computed by a {@link MogwaiResource}.
+ * <p>
+ * The content of the wrapped {@link NeoEMFQueryResult} depends on the
+ * validation mode (see {@link MogwaiResource#VALIDATION_MODE}): in
+ * {@link MogwaiResource#VALIDATION_MODE_COUNT} mode it contains a single
+ * {@link Long} representing the number of violations, otherwise it contains
+ * the violating {@code Vertex} elements (all of them, or only the first ones
+ * in {@link MogwaiResource#VALIDATION_MODE_FAIL_FAST} and
+ * {@link MogwaiResource#VALIDATION_MODE_FIRST} modes).
+ *
+ * @see MogwaiResource#validate(fr.inria.atlanmod.mogwai.query.MogwaiQuery,
+ *      java.util.Map)
+ *
+ * @author Gwendal DANIEL
+ *
+ */
+public class NeoEMFValidationResult {
 
+	/**
+	 * The {@link NeoEMFQueryResult} containing the output of the validation
+	 * query.
+	 */
 	private NeoEMFQueryResult rawResult;
-	
+
+	/**
+	 * The validation mode used to compute {@link #rawResult}.
+	 */
+	private String mode;
+
+	/**
+	 * Constructs a new {@link NeoEMFValidationResult} wrapping the provided
+	 * {@code result} computed in {@link MogwaiResource#VALIDATION_MODE_FULL}
+	 * mode.
+	 *
+	 * @param result
+	 *            the {@link NeoEMFQueryResult} containing the violating
+	 *            elements
+	 */
 	public NeoEMFValidationResult(NeoEMFQueryResult result) {
-		rawResult = result;
+		this(result, MogwaiResource.VALIDATION_MODE_FULL);
 	}
-	
+
+	/**
+	 * Constructs a new {@link NeoEMFValidationResult} wrapping the provided
+	 * {@code result} computed in the given validation {@code mode}.
+	 *
+	 * @param result
+	 *            the {@link NeoEMFQueryResult} containing the output of the
+	 *            validation query
+	 * @param mode
+	 *            the validation mode used to compute {@code result}
+	 */
+	public NeoEMFValidationResult(NeoEMFQueryResult result, String mode) {
+		this.rawResult = result;
+		this.mode = isNull(mode) ? MogwaiResource.VALIDATION_MODE_FULL : mode;
+	}
+
+	/**
+	 * Returns the {@link NeoEMFQueryResult} containing the output of the
+	 * validation query.
+	 *
+	 * @return the raw output of the validation query
+	 */
 	public NeoEMFQueryResult getRawResult() {
 		return rawResult;
 	}
-	
+
+	/**
+	 * Returns the validation mode used to compute this result.
+	 *
+	 * @return the validation mode used to compute this result
+	 */
+	public String getMode() {
+		return mode;
+	}
+
+	/**
+	 * Returns whether the validated model satisfies the constraint.
+	 *
+	 * @return {@code true} if no violation has been found, {@code false}
+	 *         otherwise
+	 */
 	public boolean isValidated() {
-		return rawResult.getResults().isEmpty();
+		return getViolationCount() == 0;
+	}
+
+	/**
+	 * Returns the number of violations found during the validation.
+	 * <p>
+	 * <b>Note:</b> in {@link MogwaiResource#VALIDATION_MODE_FAIL_FAST} and
+	 * {@link MogwaiResource#VALIDATION_MODE_FIRST} modes the returned value is
+	 * bounded by the number of computed violations.
+	 *
+	 * @return the number of violations
+	 */
+	public long getViolationCount() {
+		if (MogwaiResource.VALIDATION_MODE_COUNT.equals(mode)) {
+			return ((Number) rawResult.getResult()).longValue();
+		}
+		return rawResult.resultSize();
 	}
-	
-	public List<EObject> getViolatingInstances(PersistentResource resource) {
+
+	/**
+	 * Reifies the violating elements and attach them to the provided
+	 * {@code resource}.
+	 *
+	 * @param resource
+	 *            the {@link PersistentResource} to attach the reified
+	 *            {@link EObject}s to
+	 * @return a {@link List} containing the reified violating elements
+	 * @throws MogwaiCoreException
+	 *             if the result has been computed in
+	 *             {@link MogwaiResource#VALIDATION_MODE_COUNT} mode
+	 *
+	 * @see NeoEMFQueryResult#reifyResults(PersistentResource)
+	 */
+	public List<EObject> getViolatingInstances(PersistentResource resource) throws MogwaiCoreException {
+		if (MogwaiResource.VALIDATION_MODE_COUNT.equals(mode)) {
+			throw new MogwaiCoreException("Cannot compute the violating instances of a validation computed in {0} mode",
+					mode);
+		}
 		return rawResult.reifyResults(resource);
 	}
-	
+
 }
@@ -68,6 +68,15 @@ public class DefaultMogwaiResource extends DefaultPersistentResource implements
 		return NeoEMFQueryHandler.getInstance().validate(constraintQuery, getBackend(), options);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NeoEMFValidationResult validate(MogwaiQuery constraintQuery, NeoEMFValidationResult previousResult,
+			Map<String, Object> options) {
+		return NeoEMFQueryHandler.getInstance().validate(constraintQuery, previousResult, getBackend(), options);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
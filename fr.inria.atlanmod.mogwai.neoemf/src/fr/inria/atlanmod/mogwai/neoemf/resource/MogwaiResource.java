@@ -37,8 +37,94 @@ public interface MogwaiResource extends PersistentResource {
 	 * The options key used to specify the NeoEMF model datastore to use.
 	 */
 	public static final String NEOEMF_MODEL_DATASTORE = "neoemf.model.datastore";
+
+	/**
+	 * The options key used to specify the number of threads used to validate
+	 * the resource.
+	 * <p>
+	 * If this option is set to a value greater than {@code 1} the instances to
+	 * validate are split in chunks (see {@link #VALIDATION_CHUNK_SIZE}) that are
+	 * checked in parallel.
+	 */
+	public static final String VALIDATION_PARALLELISM = "validation.parallelism";
+
+	/**
+	 * The options key used to specify the number of instances checked by each
+	 * task of a parallel validation.
+	 * <p>
+	 * <b>Note:</b> this option is not parsed if
+	 * {@link #VALIDATION_PARALLELISM} is not set.
+	 */
+	public static final String VALIDATION_CHUNK_SIZE = "validation.chunk.size";
+
+	/**
+	 * The options key used to specify the validation mode.
+	 * <p>
+	 * Supported values are {@link #VALIDATION_MODE_FULL} (default),
+	 * {@link #VALIDATION_MODE_FAIL_FAST}, {@link #VALIDATION_MODE_COUNT}, and
+	 * {@link #VALIDATION_MODE_FIRST}.
+	 */
+	public static final String VALIDATION_MODE = "validation.mode";
+
+	/**
+	 * The validation mode computing all the violating elements.
+	 */
+	public static final String VALIDATION_MODE_FULL = "full";
+
+	/**
+	 * The validation mode stopping the computation at the first violating
+	 * element.
+	 */
+	public static final String VALIDATION_MODE_FAIL_FAST = "failFast";
+
+	/**
+	 * The validation mode computing only the number of violating elements.
+	 */
+	public static final String VALIDATION_MODE_COUNT = "count";
+
+	/**
+	 * The validation mode computing the first {@link #VALIDATION_LIMIT}
+	 * violating elements.
+	 */
+	public static final String VALIDATION_MODE_FIRST = "first";
+
+	/**
+	 * The options key used to specify the number of violating elements to
+	 * compute in {@link #VALIDATION_MODE_FIRST} mode.
+	 */
+	public static final String VALIDATION_LIMIT = "validation.limit";
 	
 	NeoEMFValidationResult validate(MogwaiQuery constraintQuery, Map<String, Object> options) throws QueryException;
+
+	/**
+	 * Incrementally validates the resource against the provided
+	 * {@code constraintQuery}.
+	 * <p>
+	 * The constraint is only evaluated on the elements affected by the changes
+	 * recorded since {@code previousResult} was computed, and the result is
+	 * merged with the violations of {@code previousResult}. Changes are
+	 * retrieved from the {@code ChangeTrackingNeoEMFGraphDatastore} set in the
+	 * {@link #NEOEMF_MODEL_DATASTORE} option, if this option is not set a full
+	 * validation is computed.
+	 * 
+	 * @param constraintQuery
+	 *            the {@link MogwaiQuery} representing the constraint to check
+	 * @param previousResult
+	 *            the {@link NeoEMFValidationResult} computed at the last
+	 *            checkpoint
+	 * @param options
+	 *            the execution options used to parameterize the underlying
+	 *            engine
+	 * @return a {@link NeoEMFValidationResult} wrapping the elements violating
+	 *         the constraint
+	 * @throws QueryException
+	 *             if the resource is not able to compute the provided
+	 *             {@code constraintQuery}
+	 * 
+	 * @see #validate(MogwaiQuery, Map)
+	 */
+	NeoEMFValidationResult validate(MogwaiQuery constraintQuery, NeoEMFValidationResult previousResult,
+			Map<String, Object> options) throws QueryException;
 	
 	/**
 	 * Computes the provided {@code transformation} with the given
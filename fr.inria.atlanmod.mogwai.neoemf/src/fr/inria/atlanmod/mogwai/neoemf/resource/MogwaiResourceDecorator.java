@@ -117,6 +117,15 @@ public class MogwaiResourceDecorator extends PersistentResourceDecorator impleme
 		return NeoEMFQueryHandler.getInstance().validate(constraintQuery, getBackend(), options);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public NeoEMFValidationResult validate(MogwaiQuery constraintQuery, NeoEMFValidationResult previousResult,
+			Map<String, Object> options) throws QueryException {
+		return NeoEMFQueryHandler.getInstance().validate(constraintQuery, previousResult, getBackend(), options);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
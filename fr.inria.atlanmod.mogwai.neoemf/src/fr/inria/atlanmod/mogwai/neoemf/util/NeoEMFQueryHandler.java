@@ -4,27 +4,52 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EClassifier;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EOperation;
 import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.ocl.ecore.Constraint;
 import org.eclipse.ocl.ecore.EcoreFactory;
 import org.eclipse.ocl.ecore.IteratorExp;
 import org.eclipse.ocl.ecore.OperationCallExp;
+import org.eclipse.ocl.ecore.PropertyCallExp;
 import org.eclipse.ocl.ecore.TypeExp;
 import org.eclipse.ocl.ecore.Variable;
 import org.eclipse.ocl.ecore.VariableExp;
 import org.eclipse.ocl.ecore.internal.OCLStandardLibraryImpl;
 import org.eclipse.ocl.expressions.OCLExpression;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
+
 import fr.inria.atlanmod.mogwai.common.logging.MogwaiLogger;
 import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
+import fr.inria.atlanmod.mogwai.datastore.blueprints.ChangeTrackingNeoEMFGraphDatastore;
 import fr.inria.atlanmod.mogwai.datastore.blueprints.NeoEMFGraphDatastore;
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesUtils;
 import fr.inria.atlanmod.mogwai.neoemf.processor.NeoEMFATLQueryProcessor;
 import fr.inria.atlanmod.mogwai.neoemf.processor.NeoEMFGremlinQueryProcessor;
 import fr.inria.atlanmod.mogwai.neoemf.processor.NeoEMFOCLQueryProcessor;
@@ -69,6 +94,55 @@ public class NeoEMFQueryHandler {
 		return Holder.INSTANCE;
 	}
 
+	/**
+	 * The default number of instances checked by each task of a parallel
+	 * validation.
+	 * 
+	 * @see MogwaiResource#VALIDATION_CHUNK_SIZE
+	 */
+	private static final int DEFAULT_VALIDATION_CHUNK_SIZE = 10000;
+
+	/**
+	 * The cache of the global validation constraints, indexed by their source
+	 * {@link Constraint}.
+	 * <p>
+	 * Source constraints are weakly referenced, and the cached values are
+	 * copies that do not reference them. Cached constraints can be shared by
+	 * concurrent validations: the OCL to Gremlin transformation of each thread
+	 * translates a copy of them, and caches the result with the shared
+	 * instance as key.
+	 * 
+	 * @see #translateValidationConstraint(Constraint)
+	 */
+	private final Map<Constraint, Constraint> validationConstraints = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * The cache of the incremental validation constraints, indexed by their
+	 * source {@link Constraint}.
+	 * 
+	 * @see #translateIncrementalValidationConstraint(Constraint)
+	 */
+	private final Map<Constraint, Constraint> incrementalValidationConstraints = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * The {@link ExecutorService} running the parallel validation tasks, or
+	 * {@code null} if no parallel validation has been computed.
+	 * <p>
+	 * The pool is reused by the subsequent validations with the same
+	 * parallelism: its threads keep their query processors, and the
+	 * translations cached by them.
+	 * 
+	 * @see #getValidationPool(int)
+	 */
+	private ExecutorService validationPool;
+
+	/**
+	 * The number of threads of {@link #validationPool}.
+	 */
+	private int validationPoolSize;
+
 	/**
 	 * The synchronized instance of {@link NeoEMFGremlinQueryProcessor} used to
 	 * compute {@link GremlinQuery}.
@@ -213,58 +287,483 @@ public class NeoEMFQueryHandler {
 		throw new QueryException("Cannot find a processor for " + transformation);
 	}
 	
+	/**
+	 * Validates the model stored in {@code datastore} against the provided
+	 * {@code constraintQuery}.
+	 * <p>
+	 * The constraint is translated into a global query returning all the
+	 * instances of its context type that violate it. If the
+	 * {@link MogwaiResource#VALIDATION_PARALLELISM} option is set the instances
+	 * are checked in parallel (see
+	 * {@link #validateInParallel(Constraint, BlueprintsPersistenceBackend, Map, String)}).
+	 * <p>
+	 * The {@link MogwaiResource#VALIDATION_MODE} option allows to stop the
+	 * computation at the first violation, to compute only the first violations,
+	 * or to count them without storing them. These modes are applied on the
+	 * lazy result of the query, and stop the traversal as soon as possible.
+	 * 
+	 * @param constraintQuery
+	 *            the {@link MogwaiQuery} representing the constraint to check
+	 * @param datastore
+	 *            the {@link BlueprintsPersistenceBackend} to validate
+	 * @param options
+	 *            the {@link Map} containing {@code constraintQuery} execution
+	 *            options
+	 * @return a {@link NeoEMFValidationResult} wrapping the instances violating
+	 *         the constraint
+	 * @throws QueryException
+	 *             if the provided {@code constraintQuery} is not an
+	 *             {@link OCLQuery} or if the validation mode is not supported
+	 * 
+	 * @see #validate(MogwaiQuery, NeoEMFValidationResult,
+	 *      BlueprintsPersistenceBackend, Map)
+	 */
 	public NeoEMFValidationResult validate(MogwaiQuery constraintQuery, BlueprintsPersistenceBackend datastore, Map<String, Object> options) throws QueryException {
 		if(constraintQuery instanceof OCLQuery) {
 			OCLQuery oclQuery = (OCLQuery) constraintQuery;
+			Map<String, Object> theOptions = options;
+			if (isNull(theOptions)) {
+				theOptions = new HashMap<>();
+			}
+			String mode = getValidationMode(theOptions);
+			Map<String, Object> modeOptions = createValidationModeOptions(theOptions, mode);
+			if (theOptions.containsKey(MogwaiResource.VALIDATION_PARALLELISM)
+					&& (int) theOptions.get(MogwaiResource.VALIDATION_PARALLELISM) > 1) {
+				return validateInParallel(oclQuery.getConstraint(), datastore, modeOptions, mode);
+			}
 			Constraint translatedConstraint = translateValidationConstraint(oclQuery.getConstraint());
 			MogwaiQuery translatedQuery = OCLQueryBuilder.newBuilder().fromConstraint(translatedConstraint).build();
-			NeoEMFQueryResult result = this.query(translatedQuery, null, datastore, options);
-			return new NeoEMFValidationResult(result);
+			NeoEMFQueryResult result = this.query(translatedQuery, null, datastore, modeOptions);
+			return new NeoEMFValidationResult(result, mode);
 		} else {
 			throw new QueryException("Cannot validate a model with the provided query " + constraintQuery.getClass().getSimpleName());
 		}
 	}
-	
+
+	/**
+	 * Incrementally validates the model stored in {@code datastore} against the
+	 * provided {@code constraintQuery}.
+	 * <p>
+	 * This method retrieves the changes performed since the computation of
+	 * {@code previousResult} from the {@link ChangeTrackingNeoEMFGraphDatastore}
+	 * set in the {@link MogwaiResource#NEOEMF_MODEL_DATASTORE} option. The
+	 * constraint is evaluated on the changed elements and on the elements that
+	 * can reach them through the references navigated by the constraint, and
+	 * the result is merged with the violations of {@code previousResult}.
+	 * <p>
+	 * A full validation is computed if {@code previousResult} is {@code null},
+	 * if it has not been computed in {@link MogwaiResource#VALIDATION_MODE_FULL}
+	 * mode (it doesn't contain all the previous violations), if the options do
+	 * not contain a {@link ChangeTrackingNeoEMFGraphDatastore}, or if the
+	 * constraint contains an {@code allInstances} call (its result may depend
+	 * on any element of the model).
+	 * <p>
+	 * The {@link MogwaiResource#VALIDATION_MODE} option is applied on the
+	 * merged violations: the returned result can only be used as the
+	 * {@code previousResult} of the next incremental validation if it has been
+	 * computed in {@link MogwaiResource#VALIDATION_MODE_FULL} mode.
+	 * <p>
+	 * <b>Note:</b> the change log of the datastore is not cleared by this
+	 * method, see {@link ChangeTrackingNeoEMFGraphDatastore#checkpoint()}. Deleted
+	 * elements cannot be navigated backward: their former neighbors are only
+	 * re-evaluated if the deletion has been reported with
+	 * {@link ChangeTrackingNeoEMFGraphDatastore#markDeleted(Object)} before
+	 * removing the element from the graph (or if they have been reported as
+	 * modified), otherwise their violations may be stale.
+	 * 
+	 * @param constraintQuery
+	 *            the {@link MogwaiQuery} representing the constraint to check
+	 * @param previousResult
+	 *            the {@link NeoEMFValidationResult} computed at the last
+	 *            checkpoint
+	 * @param datastore
+	 *            the {@link BlueprintsPersistenceBackend} to validate
+	 * @param options
+	 *            the {@link Map} containing {@code constraintQuery} execution
+	 *            options
+	 * @return a {@link NeoEMFValidationResult} wrapping the instances violating
+	 *         the constraint
+	 * @throws QueryException
+	 *             if the provided {@code constraintQuery} is not an
+	 *             {@link OCLQuery} or if the validation mode is not supported
+	 * 
+	 * @see ChangeTrackingNeoEMFGraphDatastore
+	 */
+	public NeoEMFValidationResult validate(MogwaiQuery constraintQuery, NeoEMFValidationResult previousResult,
+			BlueprintsPersistenceBackend datastore, Map<String, Object> options) throws QueryException {
+		Map<String, Object> theOptions = options;
+		if (isNull(theOptions)) {
+			theOptions = new HashMap<>();
+		}
+		if (!(constraintQuery instanceof OCLQuery)) {
+			throw new QueryException("Cannot validate a model with the provided query " + constraintQuery.getClass().getSimpleName());
+		}
+		ModelDatastore<?, ?, ?, ?> modelDatastore = getModelDatastore(theOptions, datastore);
+		Constraint constraint = ((OCLQuery) constraintQuery).getConstraint();
+		if (isNull(previousResult) || !MogwaiResource.VALIDATION_MODE_FULL.equals(previousResult.getMode())
+				|| !(modelDatastore instanceof ChangeTrackingNeoEMFGraphDatastore) || containsAllInstances(constraint)) {
+			MogwaiLogger.info("Cannot validate {0} incrementally, computing a full validation", constraint.getName());
+			return validate(constraintQuery, datastore, theOptions);
+		}
+		ChangeTrackingNeoEMFGraphDatastore changeLog = (ChangeTrackingNeoEMFGraphDatastore) modelDatastore;
+		Set<Vertex> affectedVertices = computeAffectedVertices(constraint, changeLog);
+		MogwaiLogger.info("Validating {0} on {1} affected elements", constraint.getName(), affectedVertices.size());
+		/*
+		 * Affected and deleted elements are removed from the previous
+		 * violations, affected ones are re-evaluated below.
+		 */
+		Set<Object> invalidatedIds = new HashSet<>(changeLog.getDeletedIds());
+		invalidatedIds.addAll(changeLog.getCreatedIds());
+		invalidatedIds.addAll(changeLog.getModifiedIds());
+		for (Vertex v : affectedVertices) {
+			invalidatedIds.add(v.getId());
+		}
+		List<Object> violations = new ArrayList<>();
+		for (Object o : previousResult.getRawResult().getResults()) {
+			if (!(o instanceof Vertex && invalidatedIds.contains(((Vertex) o).getId()))) {
+				violations.add(o);
+			}
+		}
+		String executedQuery = previousResult.getRawResult().getExecutedQuery();
+		if (!affectedVertices.isEmpty()) {
+			Constraint translatedConstraint = translateIncrementalValidationConstraint(constraint);
+			MogwaiQuery translatedQuery = OCLQueryBuilder.newBuilder().fromConstraint(translatedConstraint).build();
+			// The affected elements are fully re-evaluated, the mode is applied on the merged violations
+			Map<String, Object> fullOptions = copyOptions(theOptions);
+			fullOptions.remove(AbstractQueryProcessor.RESULT_LIMIT_OPTION);
+			fullOptions.remove(AbstractQueryProcessor.RESULT_COUNT_OPTION);
+			NeoEMFQueryResult partialResult = this.query(translatedQuery,
+					PipesUtils.pipelineOf(affectedVertices, changeLog), datastore, fullOptions);
+			violations.addAll(partialResult.getResults());
+			executedQuery = partialResult.getExecutedQuery();
+		}
+		String mode = getValidationMode(theOptions);
+		Map<String, Object> modeOptions = createValidationModeOptions(theOptions, mode);
+		if (modeOptions.containsKey(AbstractQueryProcessor.RESULT_COUNT_OPTION)) {
+			return new NeoEMFValidationResult(
+					new NeoEMFQueryResult((long) violations.size(), datastore, executedQuery), mode);
+		}
+		Integer limit = (Integer) modeOptions.get(AbstractQueryProcessor.RESULT_LIMIT_OPTION);
+		if (nonNull(limit) && violations.size() > limit) {
+			violations = new ArrayList<>(violations.subList(0, limit));
+		}
+		return new NeoEMFValidationResult(new NeoEMFQueryResult(violations, datastore, executedQuery), mode);
+	}
+
+	/**
+	 * Validates the model stored in {@code datastore} against the provided
+	 * {@code constraint} using multiple threads.
+	 * <p>
+	 * The instances of the context type of {@code constraint} are split in
+	 * chunks of {@link MogwaiResource#VALIDATION_CHUNK_SIZE} elements that are
+	 * checked by a pool of {@link MogwaiResource#VALIDATION_PARALLELISM}
+	 * threads owned by the handler. The translated constraint is shared by all
+	 * the threads, and each of them caches its own Gremlin translation, which
+	 * is reused by the next chunks and validations. The violations of each
+	 * chunk are merged in iteration order. Once the result limit of the
+	 * validation {@code mode} is reached the pending tasks are cancelled, and
+	 * the running ones stop consuming their chunk.
+	 * 
+	 * @param constraint
+	 *            the {@link Constraint} to check
+	 * @param datastore
+	 *            the {@link BlueprintsPersistenceBackend} to validate
+	 * @param options
+	 *            the {@link Map} containing {@code constraint} execution options
+	 * @param mode
+	 *            the validation mode
+	 * @return a {@link NeoEMFValidationResult} wrapping the instances violating
+	 *         the constraint
+	 * @throws QueryException
+	 *             if a chunk cannot be validated
+	 */
+	private NeoEMFValidationResult validateInParallel(Constraint constraint, BlueprintsPersistenceBackend datastore,
+			Map<String, Object> options, String mode) throws QueryException {
+		int parallelism = (int) options.get(MogwaiResource.VALIDATION_PARALLELISM);
+		int chunkSize = DEFAULT_VALIDATION_CHUNK_SIZE;
+		if (options.containsKey(MogwaiResource.VALIDATION_CHUNK_SIZE)) {
+			chunkSize = (int) options.get(MogwaiResource.VALIDATION_CHUNK_SIZE);
+		}
+		checkArgument(chunkSize > 0, "Cannot validate in parallel: invalid chunk size {0}", chunkSize);
+		NeoEMFGraphDatastore modelDatastore = (NeoEMFGraphDatastore) getModelDatastore(options, datastore);
+		EClass contextEClass = (EClass) constraint.getConstrainedElements().get(0);
+		MogwaiQuery chunkQuery = OCLQueryBuilder.newBuilder()
+				.fromConstraint(translateIncrementalValidationConstraint(constraint)).build();
+		MogwaiLogger.info("Validating {0} with {1} threads", constraint.getName(), parallelism);
+		ExecutorService pool = getValidationPool(parallelism);
+		AtomicBoolean stopped = new AtomicBoolean(false);
+		List<Future<NeoEMFQueryResult>> tasks = new ArrayList<>();
+		try {
+			for (List<Vertex> chunk : Iterables.partition(modelDatastore.allOfKind(contextEClass.getName()), chunkSize)) {
+				Map<String, Object> chunkOptions = copyOptions(options);
+				Iterable<Vertex> stoppableChunk = () -> new AbstractIterator<Vertex>() {
+
+					private final Iterator<Vertex> it = chunk.iterator();
+
+					@Override
+					protected Vertex computeNext() {
+						return !stopped.get() && it.hasNext() ? it.next() : endOfData();
+					}
+				};
+				tasks.add(pool.submit(() -> {
+					try {
+						return this.query(chunkQuery, PipesUtils.pipelineOf(stoppableChunk, modelDatastore),
+								datastore, chunkOptions);
+					} finally {
+						/*
+						 * Close the read transaction bound to the worker thread
+						 */
+						((IdGraph<?>) modelDatastore.getDataSource()).commit();
+					}
+				}));
+			}
+			Integer limit = (Integer) options.get(AbstractQueryProcessor.RESULT_LIMIT_OPTION);
+			List<Object> violations = new ArrayList<>();
+			long violationCount = 0;
+			String executedQuery = "";
+			for (Future<NeoEMFQueryResult> task : tasks) {
+				NeoEMFQueryResult chunkResult = task.get();
+				executedQuery = chunkResult.getExecutedQuery();
+				if (MogwaiResource.VALIDATION_MODE_COUNT.equals(mode)) {
+					violationCount += ((Number) chunkResult.getResult()).longValue();
+				} else {
+					violations.addAll(chunkResult.getResults());
+					if (nonNull(limit) && violations.size() >= limit) {
+						violations = new ArrayList<>(violations.subList(0, limit));
+						break;
+					}
+				}
+			}
+			if (MogwaiResource.VALIDATION_MODE_COUNT.equals(mode)) {
+				return new NeoEMFValidationResult(new NeoEMFQueryResult(violationCount, datastore, executedQuery), mode);
+			}
+			return new NeoEMFValidationResult(new NeoEMFQueryResult(violations, datastore, executedQuery), mode);
+		} catch (ExecutionException e) {
+			throw new QueryException("Cannot validate {0} in parallel: {1}", constraint.getName(),
+					e.getCause().getMessage());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueryException("Cannot validate {0} in parallel: interrupted", constraint.getName());
+		} catch (RuntimeException e) {
+			throw new QueryException("Cannot validate {0} in parallel: {1}", constraint.getName(), e.getMessage());
+		} finally {
+			/*
+			 * Stop the running tasks and cancel the pending ones (no-op if all
+			 * the tasks are completed)
+			 */
+			stopped.set(true);
+			tasks.forEach(t -> t.cancel(false));
+		}
+	}
+
+	/**
+	 * Returns the {@link ExecutorService} running the parallel validation
+	 * tasks with {@code parallelism} threads.
+	 * <p>
+	 * The pool is created on the first call, and replaced if the requested
+	 * {@code parallelism} changes. Its threads are daemon threads, and don't
+	 * prevent the JVM from exiting.
+	 * 
+	 * @param parallelism
+	 *            the number of threads of the pool
+	 * @return the {@link ExecutorService}
+	 */
+	private synchronized ExecutorService getValidationPool(int parallelism) {
+		if (isNull(validationPool) || validationPoolSize != parallelism) {
+			if (nonNull(validationPool)) {
+				validationPool.shutdown();
+			}
+			validationPool = Executors.newFixedThreadPool(parallelism,
+					new ThreadFactoryBuilder().setNameFormat("mogwai-validation-%d").setDaemon(true).build());
+			validationPoolSize = parallelism;
+		}
+		return validationPool;
+	}
+
+	/**
+	 * Returns the validation mode set in the provided {@code options}.
+	 * 
+	 * @param options
+	 *            the {@link Map} containing validation options
+	 * @return the value of the {@link MogwaiResource#VALIDATION_MODE} option if
+	 *         it is set, {@link MogwaiResource#VALIDATION_MODE_FULL} otherwise
+	 */
+	private String getValidationMode(Map<String, Object> options) {
+		if (options.containsKey(MogwaiResource.VALIDATION_MODE)) {
+			return (String) options.get(MogwaiResource.VALIDATION_MODE);
+		}
+		return MogwaiResource.VALIDATION_MODE_FULL;
+	}
+
+	/**
+	 * Creates a copy of {@code options} containing the result options
+	 * implementing the provided validation {@code mode}.
+	 * 
+	 * @param options
+	 *            the {@link Map} containing validation options
+	 * @param mode
+	 *            the validation mode
+	 * @return a copy of {@code options} containing the
+	 *         {@link AbstractQueryProcessor#RESULT_LIMIT_OPTION} and
+	 *         {@link AbstractQueryProcessor#RESULT_COUNT_OPTION} entries
+	 *         corresponding to {@code mode}
+	 * @throws QueryException
+	 *             if the provided {@code mode} is not supported
+	 * 
+	 * @see MogwaiResource#VALIDATION_MODE
+	 */
+	private Map<String, Object> createValidationModeOptions(Map<String, Object> options, String mode)
+			throws QueryException {
+		Map<String, Object> modeOptions = copyOptions(options);
+		switch (mode) {
+		case MogwaiResource.VALIDATION_MODE_FULL:
+			break;
+		case MogwaiResource.VALIDATION_MODE_FAIL_FAST:
+			modeOptions.put(AbstractQueryProcessor.RESULT_LIMIT_OPTION, 1);
+			break;
+		case MogwaiResource.VALIDATION_MODE_FIRST:
+			checkArgument(options.containsKey(MogwaiResource.VALIDATION_LIMIT),
+					"Cannot validate in {0} mode: option {1} is not set", mode, MogwaiResource.VALIDATION_LIMIT);
+			modeOptions.put(AbstractQueryProcessor.RESULT_LIMIT_OPTION, options.get(MogwaiResource.VALIDATION_LIMIT));
+			break;
+		case MogwaiResource.VALIDATION_MODE_COUNT:
+			modeOptions.put(AbstractQueryProcessor.RESULT_COUNT_OPTION, true);
+			break;
+		default:
+			throw new QueryException("Unsupported validation mode {0}", mode);
+		}
+		return modeOptions;
+	}
+
+	/**
+	 * Creates a copy of the provided {@code options} that can be modified
+	 * without side effect on the original {@link Map}.
+	 * <p>
+	 * The {@link AbstractQueryProcessor#BINDINGS_KEY} entry is also copied,
+	 * because it is updated when the query arguments are set.
+	 * 
+	 * @param options
+	 *            the {@link Map} containing query execution options
+	 * @return a copy of {@code options}
+	 */
+	@SuppressWarnings("unchecked")
+	private Map<String, Object> copyOptions(Map<String, Object> options) {
+		Map<String, Object> copy = new HashMap<>(options);
+		Object bindings = options.get(AbstractQueryProcessor.BINDINGS_KEY);
+		if (bindings instanceof Map) {
+			copy.put(AbstractQueryProcessor.BINDINGS_KEY, new HashMap<>((Map<String, Object>) bindings));
+		}
+		return copy;
+	}
+
+	/**
+	 * Returns the global query returning all the instances of the context type
+	 * of {@code c} that violate it.
+	 * <p>
+	 * The translated {@link Constraint} is cached, repeated validations of the
+	 * same {@code c} reuse it and do not need to translate it again.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to translate
+	 * @return a {@link Constraint} which body is
+	 *         {@code Type.allInstances()->select(mogwaiVar | not body)}
+	 * 
+	 * @see #createValidationConstraint(Constraint)
+	 */
 	private Constraint translateValidationConstraint(Constraint c) {
+		return validationConstraints.computeIfAbsent(c, this::createValidationConstraint);
+	}
+
+	/**
+	 * Returns the query returning the elements bound to {@code self} that
+	 * violate {@code c}.
+	 * <p>
+	 * The translated {@link Constraint} is cached, repeated validations of the
+	 * same {@code c} reuse it and do not need to translate it again.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to translate
+	 * @return a {@link Constraint} which body is
+	 *         {@code self->select(mogwaiVar | not body)}
+	 * 
+	 * @see #createIncrementalValidationConstraint(Constraint)
+	 */
+	private Constraint translateIncrementalValidationConstraint(Constraint c) {
+		return incrementalValidationConstraints.computeIfAbsent(c, this::createIncrementalValidationConstraint);
+	}
+
+	/**
+	 * Translates the provided {@code constraint} into a global query returning
+	 * all the instances of its context type that violate it.
+	 * <p>
+	 * The translation is computed on a copy of {@code c}, the provided
+	 * {@link Constraint} is not modified.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to translate
+	 * @return a {@link Constraint} which body is
+	 *         {@code Type.allInstances()->select(mogwaiVar | not body)}
+	 */
+	private Constraint createValidationConstraint(Constraint c) {
 		MogwaiLogger.info("Translating input constraint into global query");
-		EClass constraintedEClass = (EClass) c.getConstrainedElements().get(0);
-        
-        OCLStandardLibraryImpl stdPackage = OCLStandardLibraryImpl.INSTANCE;
-        EPackage oclEPackage = stdPackage.stdlibPackage;
+		Constraint copy = EcoreUtil.copy(c);
+		EClass constraintedEClass = (EClass) copy.getConstrainedElements().get(0);
         
         TypeExp typeExp = EcoreFactory.eINSTANCE.createTypeExp();
         typeExp.setReferredType(constraintedEClass);
         
-        EClass oclTypeClass = (EClass)oclEPackage.getEClassifier("OclType_Class");
-        EOperation allInstancesOperation = null;
-        for(EOperation eOperation : oclTypeClass.getEOperations()) {
-        	if(eOperation.getName().equals("allInstances")) {
-        		allInstancesOperation = eOperation;
-        	}
-        }
-        
-        EClass booleanClass = (EClass)oclEPackage.getEClassifier("Boolean_Class");
-        EOperation notOperation = null;
-        for(EOperation eOperation : booleanClass.getEOperations()) {
-        	if(eOperation.getName().equals("not")) {
-        		notOperation = eOperation;
-        	}
-        }
-        
         OperationCallExp allInstancesOperationCallExp = EcoreFactory.eINSTANCE.createOperationCallExp();
-        allInstancesOperationCallExp.setReferredOperation(allInstancesOperation);
+        allInstancesOperationCallExp.setReferredOperation(getStdlibOperation("OclType_Class", "allInstances"));
         allInstancesOperationCallExp.setSource(typeExp);
         
+        wrapInViolationSelect(copy, allInstancesOperationCallExp);
+        return copy;
+	}
+
+	/**
+	 * Translates the provided {@code constraint} into a query returning the
+	 * elements bound to {@code self} that violate it.
+	 * <p>
+	 * The translation is computed on a copy of {@code c}, the provided
+	 * {@link Constraint} is not modified. The {@code self} variable of the
+	 * translated query is expected to be bound to a collection of context
+	 * elements.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to translate
+	 * @return a {@link Constraint} which body is
+	 *         {@code self->select(mogwaiVar | not body)}
+	 */
+	private Constraint createIncrementalValidationConstraint(Constraint c) {
+		MogwaiLogger.info("Translating input constraint into incremental query");
+		Constraint copy = EcoreUtil.copy(c);
+		VariableExp selfExp = EcoreFactory.eINSTANCE.createVariableExp();
+		selfExp.setName("self");
+		selfExp.setReferredVariable((Variable) copy.getSpecification().getContextVariable());
+		wrapInViolationSelect(copy, selfExp);
+		return copy;
+	}
+
+	/**
+	 * Replaces the body of {@code c} by
+	 * {@code source->select(mogwaiVar | not body)}, where all the {@code self}
+	 * accesses of {@code body} are replaced by {@code mogwaiVar}.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to update
+	 * @param source
+	 *            the {@link OCLExpression} computing the elements to check
+	 */
+	private void wrapInViolationSelect(Constraint c, OCLExpression source) {
         IteratorExp selectExp = EcoreFactory.eINSTANCE.createIteratorExp();
         selectExp.setName("select");
-        selectExp.setSource(allInstancesOperationCallExp);
         
         Variable selectVariable = EcoreFactory.eINSTANCE.createVariable();
         selectVariable.setName("mogwaiVar");
         selectExp.getIterator().add(selectVariable);
         
         OperationCallExp notOperationCallExp = EcoreFactory.eINSTANCE.createOperationCallExp();
-        notOperationCallExp.setReferredOperation(notOperation);
+        notOperationCallExp.setReferredOperation(getStdlibOperation("Boolean_Class", "not"));
         selectExp.setBody(notOperationCallExp);
         
         Iterator<EObject> it = c.getSpecification().eAllContents();
@@ -281,9 +780,115 @@ public class NeoEMFQueryHandler {
         
         OCLExpression mainBody = c.getSpecification().getBodyExpression();
         notOperationCallExp.setSource(mainBody);
+        selectExp.setSource(source);
         
         c.getSpecification().setBodyExpression(selectExp);
-        return c;
+	}
+
+	/**
+	 * Returns the {@link EOperation} {@code operationName} defined in the OCL
+	 * standard library class {@code className}.
+	 * 
+	 * @param className
+	 *            the name of the OCL standard library class defining the
+	 *            operation
+	 * @param operationName
+	 *            the name of the operation to retrieve
+	 * @return the {@link EOperation} if it exists, {@code null} otherwise
+	 */
+	private EOperation getStdlibOperation(String className, String operationName) {
+		EPackage oclEPackage = OCLStandardLibraryImpl.INSTANCE.stdlibPackage;
+		EClass oclClass = (EClass) oclEPackage.getEClassifier(className);
+		for (EOperation eOperation : oclClass.getEOperations()) {
+			if (eOperation.getName().equals(operationName)) {
+				return eOperation;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether the provided {@code constraint} contains an
+	 * {@code allInstances} call.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to check
+	 * @return {@code true} if {@code c} contains an {@code allInstances} call,
+	 *         {@code false} otherwise
+	 */
+	private boolean containsAllInstances(Constraint c) {
+		Iterator<EObject> it = c.getSpecification().eAllContents();
+		while (it.hasNext()) {
+			EObject eObject = it.next();
+			if (eObject instanceof OperationCallExp) {
+				EOperation op = ((OperationCallExp) eObject).getReferredOperation();
+				if (nonNull(op) && op.getName().equals("allInstances")) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the context elements of {@code c} that may be affected by the
+	 * changes recorded in {@code changeLog}.
+	 * <p>
+	 * Changed elements are propagated backward along the references navigated
+	 * in {@code c}, up to the number of navigations it contains. The reached
+	 * elements that are instances of the context type of {@code c} are
+	 * returned.
+	 * 
+	 * @param c
+	 *            the {@link Constraint} to compute the affected elements of
+	 * @param changeLog
+	 *            the {@link ChangeTrackingNeoEMFGraphDatastore} containing the
+	 *            recorded changes
+	 * @return the {@link Vertex} elements to re-evaluate {@code c} on
+	 */
+	private Set<Vertex> computeAffectedVertices(Constraint c, ChangeTrackingNeoEMFGraphDatastore changeLog) {
+		EClass contextEClass = (EClass) c.getConstrainedElements().get(0);
+		Set<EReference> navigatedReferences = new HashSet<>();
+		int navigationCount = 0;
+		Iterator<EObject> it = c.getSpecification().eAllContents();
+		while (it.hasNext()) {
+			EObject eObject = it.next();
+			if (eObject instanceof PropertyCallExp
+					&& ((PropertyCallExp) eObject).getReferredProperty() instanceof EReference) {
+				navigatedReferences.add((EReference) ((PropertyCallExp) eObject).getReferredProperty());
+				navigationCount++;
+			}
+		}
+		Set<Vertex> frontier = changeLog.getChangedVertices();
+		Set<Vertex> reached = new LinkedHashSet<>(frontier);
+		for (int i = 0; i < navigationCount && !frontier.isEmpty(); i++) {
+			Set<Vertex> nextFrontier = new LinkedHashSet<>();
+			for (Vertex v : frontier) {
+				for (EReference ref : navigatedReferences) {
+					for (Vertex source : v.getVertices(Direction.IN, ref.getName())) {
+						if (reached.add(source)) {
+							nextFrontier.add(source);
+						}
+					}
+					if (nonNull(ref.getEOpposite())) {
+						for (Vertex source : v.getVertices(Direction.OUT, ref.getEOpposite().getName())) {
+							if (reached.add(source)) {
+								nextFrontier.add(source);
+							}
+						}
+					}
+				}
+			}
+			frontier = nextFrontier;
+		}
+		Set<Vertex> affected = new LinkedHashSet<>();
+		for (Vertex v : reached) {
+			EClassifier type = contextEClass.getEPackage().getEClassifier(changeLog.getType(v));
+			if (type instanceof EClass && contextEClass.isSuperTypeOf((EClass) type)) {
+				affected.add(v);
+			}
+		}
+		return affected;
 	}
 
 	/**
@@ -0,0 +1,15 @@
+package fr.inria.atlanmod.mogwai.tests;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import fr.inria.atlanmod.mogwai.tests.datastore.NeoEMFGraphDatastoreTest;
+
+@RunWith(Suite.class)
+@SuiteClasses({
+	NeoEMFGraphDatastoreTest.class
+})
+public class MogwaiDatastoreTestSuite {
+
+}
@@ -4,6 +4,7 @@ import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
+import fr.inria.atlanmod.mogwai.tests.translation.AllInstancesSizeTest;
 import fr.inria.atlanmod.mogwai.tests.translation.AllInstancesTest;
 import fr.inria.atlanmod.mogwai.tests.translation.AndTest;
 import fr.inria.atlanmod.mogwai.tests.translation.AsSequenceTest;
@@ -15,6 +16,7 @@ import fr.inria.atlanmod.mogwai.tests.translation.AttributeRejectWithIteratorTes
 import fr.inria.atlanmod.mogwai.tests.translation.AttributeRejectWithoutIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.AttributeSelectWithIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.AttributeSelectWithoutIteratorTest;
+import fr.inria.atlanmod.mogwai.tests.translation.ClosureTest;
 import fr.inria.atlanmod.mogwai.tests.translation.DifferentTest;
 import fr.inria.atlanmod.mogwai.tests.translation.EmptyStringLiteralTest;
 import fr.inria.atlanmod.mogwai.tests.translation.EnumTest;
@@ -37,27 +39,36 @@ import fr.inria.atlanmod.mogwai.tests.translation.LessOrEqualTest;
 import fr.inria.atlanmod.mogwai.tests.translation.LessTest;
 import fr.inria.atlanmod.mogwai.tests.translation.NegativeIntegerLiteralTest;
 import fr.inria.atlanmod.mogwai.tests.translation.NegativeRealLiteralTest;
+import fr.inria.atlanmod.mogwai.tests.translation.NotEmptyTest;
 import fr.inria.atlanmod.mogwai.tests.translation.NotTest;
 import fr.inria.atlanmod.mogwai.tests.translation.OclAsTypeTest;
 import fr.inria.atlanmod.mogwai.tests.translation.OclIsTypeOfTest;
 import fr.inria.atlanmod.mogwai.tests.translation.OrTest;
 import fr.inria.atlanmod.mogwai.tests.translation.PositiveIntegerLiteralTest;
 import fr.inria.atlanmod.mogwai.tests.translation.PositiveRealLiteralTest;
+import fr.inria.atlanmod.mogwai.tests.translation.ReferenceAtTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceExistsWithIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceExistsWithoutIteratorTest;
+import fr.inria.atlanmod.mogwai.tests.translation.ReferenceFirstTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceForallWithIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceForallWithoutIteratorTest;
+import fr.inria.atlanmod.mogwai.tests.translation.ReferenceLastTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceRejectWithIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceRejectWithoutIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceSelectWithIteratorTest;
 import fr.inria.atlanmod.mogwai.tests.translation.ReferenceSelectWithoutIteratorTest;
+import fr.inria.atlanmod.mogwai.tests.translation.ReferenceSizeTest;
 import fr.inria.atlanmod.mogwai.tests.translation.SizeTest;
+import fr.inria.atlanmod.mogwai.tests.translation.SortedByFirstTest;
+import fr.inria.atlanmod.mogwai.tests.translation.SortedBySubSequenceTest;
 import fr.inria.atlanmod.mogwai.tests.translation.StringLiteralTest;
+import fr.inria.atlanmod.mogwai.tests.translation.SumTest;
 import fr.inria.atlanmod.mogwai.tests.translation.TrueBooleanLiteralTest;
 import fr.inria.atlanmod.mogwai.tests.translation.TypeAccessTest;
 
 @RunWith(Suite.class)
 @SuiteClasses({ 
+		AllInstancesSizeTest.class,
 		AllInstancesTest.class, 
 		AndTest.class, 
 		AsSequenceTest.class,
@@ -69,6 +80,7 @@ import fr.inria.atlanmod.mogwai.tests.translation.TypeAccessTest;
 		AttributeRejectWithoutIteratorTest.class,
 		AttributeSelectWithIteratorTest.class,
 		AttributeSelectWithoutIteratorTest.class, 
+		ClosureTest.class,
 		DifferentTest.class,
 		EmptyStringLiteralTest.class, 
 		EnumTest.class, 
@@ -91,22 +103,30 @@ import fr.inria.atlanmod.mogwai.tests.translation.TypeAccessTest;
 		LessTest.class, 
 		NegativeIntegerLiteralTest.class,
 		NegativeRealLiteralTest.class, 
+		NotEmptyTest.class,
 		NotTest.class, 
 		OclAsTypeTest.class,
 		OclIsTypeOfTest.class, 
 		OrTest.class, 
 		PositiveIntegerLiteralTest.class,
 		PositiveRealLiteralTest.class, 
+		ReferenceAtTest.class,
 		ReferenceExistsWithIteratorTest.class,
 		ReferenceExistsWithoutIteratorTest.class,
+		ReferenceFirstTest.class,
 		ReferenceForallWithIteratorTest.class,
 		ReferenceForallWithoutIteratorTest.class,
+		ReferenceLastTest.class,
 		ReferenceRejectWithIteratorTest.class,
 		ReferenceRejectWithoutIteratorTest.class,
 		ReferenceSelectWithIteratorTest.class,
 		ReferenceSelectWithoutIteratorTest.class, 
+		ReferenceSizeTest.class,
 		SizeTest.class,
+		SortedByFirstTest.class,
+		SortedBySubSequenceTest.class,
 		StringLiteralTest.class, 
+		SumTest.class,
 		TrueBooleanLiteralTest.class,
 		TypeAccessTest.class 
 	})
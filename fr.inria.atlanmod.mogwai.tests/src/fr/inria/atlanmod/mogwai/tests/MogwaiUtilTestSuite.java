@@ -0,0 +1,19 @@
+package fr.inria.atlanmod.mogwai.tests;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+import org.junit.runners.Suite.SuiteClasses;
+
+import fr.inria.atlanmod.mogwai.tests.util.CompactVertexSetTest;
+import fr.inria.atlanmod.mogwai.tests.util.FilterPushdownPlannerTest;
+import fr.inria.atlanmod.mogwai.tests.util.GremlinHelperTest;
+
+@RunWith(Suite.class)
+@SuiteClasses({
+	CompactVertexSetTest.class,
+	FilterPushdownPlannerTest.class,
+	GremlinHelperTest.class
+})
+public class MogwaiUtilTestSuite {
+
+}
@@ -0,0 +1,252 @@
+package fr.inria.atlanmod.mogwai.tests.datastore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EPackage;
+import org.eclipse.emf.ecore.EcoreFactory;
+import org.eclipse.emf.ecore.EcorePackage;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Sets;
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Index;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+import com.tinkerpop.blueprints.util.wrappers.id.IdGraph;
+
+import fr.inria.atlanmod.mogwai.datastore.blueprints.NeoEMFGraphDatastore;
+
+public class NeoEMFGraphDatastoreTest {
+
+	private static final String NS_URI = "http://www.inria.fr/atlanmod/mogwai/test";
+
+	private static final String RESOURCE = "resource";
+
+	private IdGraph<TinkerGraph> graph;
+
+	private NeoEMFGraphDatastore datastore;
+
+	/**
+	 * Creates an empty NeoEMF graph containing the metaclass index and the
+	 * EObject metaclass used to represent resource roots.
+	 */
+	@Before
+	public void setUp() {
+		graph = new IdGraph<>(new TinkerGraph());
+		Index<Vertex> metaclasses = graph.createIndex("metaclasses", Vertex.class);
+		Vertex eObject = graph.addVertex("EObject@" + EcorePackage.eNS_URI);
+		eObject.setProperty("name", "EObject");
+		eObject.setProperty("nsURI", EcorePackage.eNS_URI);
+		metaclasses.put("name", "EObject", eObject);
+		datastore = new NeoEMFGraphDatastore(graph, createEPackage());
+	}
+
+	/**
+	 * Check that countOfType reads the counters maintained by newInstance.
+	 */
+	@Test
+	public void countOfType() {
+		createInstances("A", 3);
+		createInstances("B", 2);
+
+		assertEquals(3, datastore.countOfType("A"));
+		assertEquals(2, datastore.countOfType("B"));
+		assertEquals(3L, graph.getVertex("A@" + NS_URI).getProperty("instanceCount"));
+		assertEquals(0, datastore.countOfType("Element"));
+	}
+
+	/**
+	 * Check that countOfKind sums the counters of the concrete subtypes.
+	 */
+	@Test
+	public void countOfKind() {
+		createInstances("A", 3);
+		createInstances("B", 2);
+
+		assertEquals(5, datastore.countOfKind("Element"));
+		assertEquals(3, datastore.countOfKind("A"));
+	}
+
+	/**
+	 * Check that metaclasses without counter (e.g. created by NeoEMF) are
+	 * iterated, and that rebuildInstanceCounters initializes their counter.
+	 */
+	@Test
+	public void rebuildInstanceCounters() {
+		createInstances("A", 3);
+		Vertex metaclass = graph.getVertex("A@" + NS_URI);
+		metaclass.removeProperty("instanceCount");
+
+		assertEquals(3, datastore.countOfType("A"));
+		datastore.newInstance("A", NS_URI, RESOURCE);
+		assertNull(metaclass.getProperty("instanceCount"));
+		assertEquals(4, datastore.countOfType("A"));
+
+		assertEquals(2, datastore.rebuildInstanceCounters());
+		assertEquals(4L, metaclass.getProperty("instanceCount"));
+		assertEquals(4, datastore.countOfType("A"));
+	}
+
+	/**
+	 * Check that close links the created elements that are not contained to
+	 * the root of their resource, including the spilled ones.
+	 */
+	@Test
+	public void closeLinksCreatedElements() {
+		datastore.setCreatedVerticesThreshold(2);
+		List<Vertex> created = createInstances("A", 5);
+		Vertex other = datastore.newInstance("B", NS_URI, "other");
+		datastore.setRef(created.get(0), "children", "", created.get(1), true);
+		datastore.setRef(created.get(2), "children", "", created.get(4), true);
+
+		datastore.close();
+
+		assertEquals(Sets.newHashSet(created.get(0), created.get(2), created.get(3)), contents(RESOURCE));
+		assertEquals(Sets.newHashSet(other), contents("other"));
+	}
+
+	/**
+	 * Check that the elements are not linked twice if the datastore is closed
+	 * twice.
+	 */
+	@Test
+	public void closeTwice() {
+		datastore.setCreatedVerticesThreshold(1);
+		List<Vertex> created = createInstances("A", 3);
+
+		datastore.close();
+		datastore.close();
+
+		assertEquals(new HashSet<>(created), contents(RESOURCE));
+		assertEquals(3, Iterables.size(graph.getVertex(RESOURCE).getEdges(Direction.OUT, "eContents")));
+	}
+
+	/**
+	 * Check that the instance counters buffered in bulk-load mode are visible
+	 * through the datastore, and that the metaclasses created in bulk-load
+	 * mode are indexed when the bulk load is finished.
+	 */
+	@Test
+	public void bulkLoadCounters() {
+		datastore.startBulkLoad(4);
+		assertTrue(datastore.isBulkLoad());
+		createInstances("A", 5);
+
+		assertEquals(5, datastore.countOfType("A"));
+		assertEquals(4L, graph.getVertex("A@" + NS_URI).getProperty("instanceCount"));
+		assertFalse(metaclasses().get("name", "A").iterator().hasNext());
+
+		datastore.finishBulkLoad();
+
+		assertFalse(datastore.isBulkLoad());
+		assertEquals(5L, graph.getVertex("A@" + NS_URI).getProperty("instanceCount"));
+		assertEquals(1, Iterables.size(metaclasses().get("name", "A")));
+		assertEquals(5, new NeoEMFGraphDatastore(graph).countOfType("A"));
+	}
+
+	/**
+	 * Check that the reference sizes buffered in bulk-load mode are used to
+	 * compute positions and sizes, and are written when the bulk load is
+	 * finished.
+	 */
+	@Test
+	public void bulkLoadSizes() {
+		datastore.startBulkLoad();
+		Vertex parent = datastore.newInstance("A", NS_URI, RESOURCE);
+		List<Vertex> children = createInstances("B", 5);
+		datastore.setRef(parent, "children", "", children.get(0), false);
+		datastore.setRef(parent, "children", "", children.get(1), false);
+		datastore.setRefs(parent, "children", "", children.subList(2, 5), false);
+
+		assertEquals(5, datastore.sizeOf(parent, "children", "", false));
+		assertEquals(children.get(4), datastore.getRefAt(parent, "children", "", false, -1));
+		assertNull(parent.getProperty("children:size"));
+
+		datastore.finishBulkLoad();
+
+		assertEquals(5, (int) parent.getProperty("children:size"));
+		assertEquals(children.get(2), datastore.getRefAt(parent, "children", "", false, 2));
+	}
+
+	/**
+	 * Check that close finishes the bulk load.
+	 */
+	@Test
+	public void closeFinishesBulkLoad() {
+		datastore.startBulkLoad();
+		createInstances("A", 2);
+
+		datastore.close();
+
+		assertFalse(datastore.isBulkLoad());
+		assertEquals(2L, graph.getVertex("A@" + NS_URI).getProperty("instanceCount"));
+		assertEquals(1, Iterables.size(metaclasses().get("name", "A")));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void startBulkLoadTwice() {
+		datastore.startBulkLoad();
+		datastore.startBulkLoad();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void finishBulkLoadWithoutStart() {
+		datastore.finishBulkLoad();
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void startBulkLoadInvalidBufferSize() {
+		datastore.startBulkLoad(0);
+	}
+
+	private Index<Vertex> metaclasses() {
+		return graph.getIndex("metaclasses", Vertex.class);
+	}
+
+	private List<Vertex> createInstances(String typeName, int count) {
+		List<Vertex> created = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			created.add(datastore.newInstance(typeName, NS_URI, RESOURCE));
+		}
+		return created;
+	}
+
+	private Set<Vertex> contents(String resourceName) {
+		return Sets.newHashSet(graph.getVertex(resourceName).getVertices(Direction.OUT, "eContents"));
+	}
+
+	/**
+	 * Creates an EPackage containing the abstract type Element, and its
+	 * concrete subtypes A and B.
+	 */
+	private static EPackage createEPackage() {
+		EcoreFactory factory = EcoreFactory.eINSTANCE;
+		EPackage ePackage = factory.createEPackage();
+		ePackage.setName("test");
+		ePackage.setNsURI(NS_URI);
+		EClass element = factory.createEClass();
+		element.setName("Element");
+		element.setAbstract(true);
+		EClass a = factory.createEClass();
+		a.setName("A");
+		a.getESuperTypes().add(element);
+		EClass b = factory.createEClass();
+		b.setName("B");
+		b.getESuperTypes().add(element);
+		ePackage.getEClassifiers().addAll(Arrays.asList(element, a, b));
+		return ePackage;
+	}
+
+}
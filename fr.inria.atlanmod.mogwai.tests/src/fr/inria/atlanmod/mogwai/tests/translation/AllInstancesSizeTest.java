@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class AllInstancesSizeTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of size() call on an allInstances() expression to Gremlin steps
+	 * The instances are not iterated, the size is computed by the datastore from the instance
+	 * counters of the metaclasses: g.<b>countOfKind(<type>)</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
@@ -7,9 +7,9 @@ public class AttributeForallWithIteratorTest extends MogwaiTranslationTest {
 	/**
 	 * Check the translation of an forAll() call with a declared iterator to Gremlin steps
 	 * A forAll call generates a Gremlin filter step containing the
-	 * forAll body in a negative expression. The overall results is calculated by an isEmpty
+	 * forAll body in a negative expression. The overall results is calculated by a hasNone
 	 * call: 
-	 * [previous steps].<b>filter{!<forall body>}.toList().isEmpty()</b>
+	 * [previous steps].<b>filter{!<forall body>}.hasNone()</b>
 	 */
 	@Test
 	public void test() {
@@ -0,0 +1,17 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class ClosureTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of a closure() call on a reference to Gremlin steps
+	 * A closure call on a reference generates a closure step that navigates the
+	 * reference transitively in the datastore:
+	 * [previous steps]._().<b>closure(<reference>, '', false)</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
@@ -6,7 +6,7 @@ public class FirstTest extends MogwaiTranslationTest {
 	
 	/**
 	 * Check the translation of first() call to Gremlin steps
-	 * A first call generates a single Gremlin step: [previous steps].<b>first()</b>
+	 * A first call generates a single Gremlin step: [previous steps].<b>firstOrNull()</b>
 	 */
 	@Test
 	public void test() {
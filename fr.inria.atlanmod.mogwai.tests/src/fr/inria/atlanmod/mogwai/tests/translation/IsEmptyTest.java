@@ -7,7 +7,7 @@ public class IsEmptyTest extends MogwaiTranslationTest {
 	/**
 	 * Check the translation of isEmpty() call to Gremlin steps
 	 * An isEmpty call generates a step chain following this pattern:
-	 * 	- [previous steps].<b>toList().isEmpty()</b>
+	 * 	- [previous steps].<b>hasNone()</b>
 	 */
 	@Test
 	public void test() {
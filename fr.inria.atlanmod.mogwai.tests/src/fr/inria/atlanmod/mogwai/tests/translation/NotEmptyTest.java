@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class NotEmptyTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of notEmpty() call to Gremlin steps
+	 * A notEmpty call generates a step chain following this pattern:
+	 * 	- [previous steps]._().<b>hasNext()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class ReferenceAtTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of at() call on a multi-valued reference to Gremlin steps
+	 * An at call on a reference generates a refAt step that retrieves the element from
+	 * its stored position: [previous steps]._().<b>refAt(<reference>, '', false, <position>)._().firstOrNull()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
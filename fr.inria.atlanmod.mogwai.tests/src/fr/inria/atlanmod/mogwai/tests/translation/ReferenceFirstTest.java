@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class ReferenceFirstTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of first() call on a multi-valued reference to Gremlin steps
+	 * A first call on a reference generates a refAt step that retrieves the element stored at
+	 * position 1: [previous steps]._().<b>refAt(<reference>, '', false, 1)._().firstOrNull()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
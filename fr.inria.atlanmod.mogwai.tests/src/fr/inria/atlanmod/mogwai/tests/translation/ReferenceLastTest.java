@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class ReferenceLastTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of last() call on a multi-valued reference to Gremlin steps
+	 * A last call on a reference generates a refFromEnd step that retrieves the element stored at
+	 * position 1 from the end: [previous steps]._().<b>refFromEnd(<reference>, '', false, 1)._().firstOrNull()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
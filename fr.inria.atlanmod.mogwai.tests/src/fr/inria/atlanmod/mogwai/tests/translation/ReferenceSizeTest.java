@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class ReferenceSizeTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of size() call on a multi-valued reference to Gremlin steps
+	 * A size call on a reference generates a sizeOf step that reads the stored size of the
+	 * reference: [previous steps]._().<b>sizeOf(<reference>, '', false)._().oclSum()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class SortedByFirstTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of sortedBy() call followed by a first() call to Gremlin steps
+	 * A sortedBy call bounded by a first call generates an oclTopK method call that only keeps
+	 * the smallest element: [previous steps]._().<b>oclTopK(1, 1, {<key>})._().firstOrNull()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
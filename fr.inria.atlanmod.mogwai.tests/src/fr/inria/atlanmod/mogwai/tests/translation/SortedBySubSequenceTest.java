@@ -0,0 +1,17 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class SortedBySubSequenceTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of sortedBy() call followed by a subSequence() call with integer
+	 * literal bounds to Gremlin steps
+	 * A sortedBy call bounded by a subSequence call generates an oclTopK method call that only keeps
+	 * the elements up to the upper bound: [previous steps]._().<b>oclTopK(<lower>, <upper>, {<key>})._()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
@@ -0,0 +1,16 @@
+package fr.inria.atlanmod.mogwai.tests.translation;
+
+import org.junit.Test;
+
+public class SumTest extends MogwaiTranslationTest {
+	
+	/**
+	 * Check the translation of sum() call to Gremlin steps
+	 * A sum call generates an oclSum method call computing the sum as a streaming reduction:
+	 * 	- [previous steps]._().<b>oclSum()</b>
+	 */
+	@Test
+	public void test() {
+	}
+
+}
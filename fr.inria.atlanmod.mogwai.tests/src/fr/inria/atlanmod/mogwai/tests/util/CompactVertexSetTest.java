@@ -0,0 +1,124 @@
+package fr.inria.atlanmod.mogwai.tests.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.tg.TinkerGraph;
+
+import fr.inria.atlanmod.mogwai.util.CompactVertexSet;
+
+public class CompactVertexSetTest {
+
+	private TinkerGraph graph;
+
+	private CompactVertexSet set;
+
+	@Before
+	public void setUp() {
+		graph = new TinkerGraph();
+		set = new CompactVertexSet(graph);
+	}
+
+	/**
+	 * Check that vertices are added once, according to their identifier.
+	 */
+	@Test
+	public void add() {
+		Vertex v = graph.addVertex("v1");
+		assertTrue(set.add(v));
+		assertFalse(set.add(v));
+		assertFalse(set.add(graph.getVertex("v1")));
+		assertTrue(set.add(graph.addVertex("v2")));
+		assertEquals(2, set.size());
+	}
+
+	/**
+	 * Check that elements that are not vertices are stored as is.
+	 */
+	@Test
+	public void addOther() {
+		assertTrue(set.add("value"));
+		assertFalse(set.add("value"));
+		assertTrue(set.add(graph.addVertex("value")));
+		assertEquals(2, set.size());
+	}
+
+	/**
+	 * Check that vertices are compared according to their identifier.
+	 */
+	@Test
+	public void contains() {
+		Vertex v = graph.addVertex("v1");
+		set.add(v);
+		set.add("value");
+		assertTrue(set.contains(v));
+		assertTrue(set.contains(graph.getVertex("v1")));
+		assertTrue(set.contains("value"));
+		assertFalse(set.contains(graph.addVertex("v2")));
+		assertFalse(set.contains("v1"));
+	}
+
+	@Test
+	public void remove() {
+		Vertex v = graph.addVertex("v1");
+		set.add(v);
+		assertTrue(set.remove(v));
+		assertFalse(set.remove(v));
+		assertFalse(set.contains(v));
+		assertTrue(set.isEmpty());
+	}
+
+	/**
+	 * Check that the iterator returns all the stored elements, vertices and
+	 * other values.
+	 */
+	@Test
+	public void iterator() {
+		Set<Object> expected = new HashSet<>();
+		for (int i = 0; i < 100; i++) {
+			Vertex v = graph.addVertex("v" + i);
+			expected.add(v);
+			set.add(v);
+		}
+		expected.add("value");
+		set.add("value");
+		Set<Object> actual = new HashSet<>();
+		for (Object o : set) {
+			assertTrue(actual.add(o));
+		}
+		assertEquals(expected, actual);
+	}
+
+	/**
+	 * Check that the iterated vertices are retrieved from the graph, and
+	 * reflect its current state.
+	 */
+	@Test
+	public void rehydration() {
+		Vertex v = graph.addVertex("v1");
+		set.add(v);
+		v.setProperty("name", "updated");
+		Vertex rehydrated = (Vertex) set.iterator().next();
+		assertEquals("v1", rehydrated.getId());
+		assertEquals("updated", rehydrated.getProperty("name"));
+		assertEquals(graph.getVertex("v1"), rehydrated);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void iteratorRemove() {
+		set.add(graph.addVertex("v1"));
+		Iterator<Object> it = set.iterator();
+		it.next();
+		it.remove();
+	}
+
+}
@@ -0,0 +1,331 @@
+package fr.inria.atlanmod.mogwai.tests.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Before;
+import org.junit.Test;
+
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter;
+import fr.inria.atlanmod.mogwai.datastore.AttributeFilter.Comparison;
+import fr.inria.atlanmod.mogwai.datastore.TraversalPattern;
+import fr.inria.atlanmod.mogwai.datastore.pipes.PipesDatastore;
+import fr.inria.atlanmod.mogwai.gremlin.AndExpression;
+import fr.inria.atlanmod.mogwai.gremlin.BinaryExpression;
+import fr.inria.atlanmod.mogwai.gremlin.BooleanLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.Closure;
+import fr.inria.atlanmod.mogwai.gremlin.CountCall;
+import fr.inria.atlanmod.mogwai.gremlin.CustomStep;
+import fr.inria.atlanmod.mogwai.gremlin.FilterStep;
+import fr.inria.atlanmod.mogwai.gremlin.GremlinFactory;
+import fr.inria.atlanmod.mogwai.gremlin.GremlinScript;
+import fr.inria.atlanmod.mogwai.gremlin.IdentityStep;
+import fr.inria.atlanmod.mogwai.gremlin.Instruction;
+import fr.inria.atlanmod.mogwai.gremlin.IntegerLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.StringLiteral;
+import fr.inria.atlanmod.mogwai.gremlin.TraversalElement;
+import fr.inria.atlanmod.mogwai.gremlin.VariableAccess;
+import fr.inria.atlanmod.mogwai.gremlin.VariableDeclaration;
+import fr.inria.atlanmod.mogwai.processor.FilterPushdownPlanner;
+
+public class FilterPushdownPlannerTest {
+
+	private static final GremlinFactory FACTORY = GremlinFactory.eINSTANCE;
+
+	private boolean acceptFilters;
+
+	private boolean acceptTraversals;
+
+	private List<TraversalPattern> patterns;
+
+	private FilterPushdownPlanner planner;
+
+	@Before
+	public void setUp() {
+		acceptFilters = true;
+		acceptTraversals = true;
+		patterns = new ArrayList<>();
+		PipesDatastore<?> datastore = (PipesDatastore<?>) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class<?>[] { PipesDatastore.class }, (proxy, method, args) -> {
+					switch (method.getName()) {
+					case "canFilter":
+						return acceptFilters;
+					case "canTraverse":
+						patterns.add((TraversalPattern) args[0]);
+						return acceptTraversals;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+					}
+				});
+		planner = new FilterPushdownPlanner(datastore);
+	}
+
+	/**
+	 * Check that a filter step following an allOfKind step is merged into an
+	 * allOfKindWhere step: g.allOfKind("Officer").filter{each = it;
+	 * each.getAtt("name") == "Smith"} => g.allOfKindWhere("Officer", "name",
+	 * "EQUAL", "Smith").
+	 */
+	@Test
+	public void filter() {
+		CustomStep typeStep = typeStep("allOfKind", "Officer");
+		GremlinScript script = script(typeStep);
+		StringLiteral smith = stringLiteral("Smith");
+		append(typeStep, filterStep(comparison(FACTORY.createEqualityExpression(), getAtt("name"), smith)));
+
+		assertEquals(1, planner.plan(script));
+		assertEquals("allOfKindWhere", typeStep.getName());
+		assertParams(typeStep, "Officer", "name", "EQUAL", "Smith");
+		assertSame(smith, typeStep.getParams().get(3));
+		assertNull(typeStep.getNextElement());
+		assertTrue(patterns.isEmpty());
+	}
+
+	/**
+	 * Check that comparisons with the literal on the left side are reversed:
+	 * 3 < each.getAtt("age") => "age" "GREATER" 3.
+	 */
+	@Test
+	public void reversedComparison() {
+		CustomStep typeStep = typeStep("allOfType", "Officer");
+		GremlinScript script = script(typeStep);
+		append(typeStep, filterStep(comparison(FACTORY.createLessExpression(), integerLiteral(3), getAtt("age"))));
+
+		assertEquals(1, planner.plan(script));
+		assertEquals("allOfTypeWhere", typeStep.getName());
+		assertParams(typeStep, "Officer", "age", "GREATER", 3);
+	}
+
+	/**
+	 * Check that conjunctions and consecutive filter steps are merged, and
+	 * that the following steps are kept.
+	 */
+	@Test
+	public void filtersAndRemainingSteps() {
+		CustomStep typeStep = typeStep("allOfKind", "Officer");
+		GremlinScript script = script(typeStep);
+		AndExpression and = FACTORY.createAndExpression();
+		and.setLeft(comparison(FACTORY.createEqualityExpression(), getAtt("name"), stringLiteral("Smith")));
+		and.setRight(comparison(FACTORY.createDifferenceExpression(), getAtt("rank"), stringLiteral("Chief")));
+		FilterStep first = filterStep(and);
+		FilterStep second = filterStep(
+				comparison(FACTORY.createGreaterOrEqualExpression(), getAtt("age"), integerLiteral(30)));
+		append(typeStep, first);
+		append(first, second);
+		CustomStep getAtt = customStep("getAtt", stringLiteral("name"));
+		append(second, getAtt);
+
+		assertEquals(2, planner.plan(script));
+		assertEquals("allOfKindWhere", typeStep.getName());
+		assertParams(typeStep, "Officer", "name", "EQUAL", "Smith", "rank", "DIFFERENT", "Chief", "age",
+				"GREATER_OR_EQUAL", 30);
+		assertSame(getAtt, typeStep.getNextElement());
+	}
+
+	/**
+	 * Check that the script is left unchanged if the datastore rejects the
+	 * filters.
+	 */
+	@Test
+	public void rejectedFilter() {
+		acceptFilters = false;
+		CustomStep typeStep = typeStep("allOfKind", "Officer");
+		GremlinScript script = script(typeStep);
+		FilterStep filter = filterStep(comparison(FACTORY.createEqualityExpression(), getAtt("name"),
+				stringLiteral("Smith")));
+		append(typeStep, filter);
+
+		assertEquals(0, planner.plan(script));
+		assertEquals("allOfKind", typeStep.getName());
+		assertParams(typeStep, "Officer");
+		assertSame(filter, typeStep.getNextElement());
+	}
+
+	/**
+	 * Check that filters comparing two attributes are not pushed down.
+	 */
+	@Test
+	public void unsupportedFilter() {
+		CustomStep typeStep = typeStep("allOfKind", "Officer");
+		GremlinScript script = script(typeStep);
+		FilterStep filter = filterStep(comparison(FACTORY.createEqualityExpression(), getAtt("name"),
+				getAtt("nickname")));
+		append(typeStep, filter);
+
+		assertEquals(0, planner.plan(script));
+		assertEquals("allOfKind", typeStep.getName());
+		assertSame(filter, typeStep.getNextElement());
+	}
+
+	/**
+	 * Check that filters followed by reference navigations and a count call
+	 * are pushed down as a countTraversal step:
+	 * g.allOfKind("Officer").filter{...}._().getRef("ship","",false).count()
+	 * => g.countTraversal("Officer", true, 1, "ship", "name", "EQUAL",
+	 * "Smith").
+	 */
+	@Test
+	public void countTraversal() {
+		CustomStep typeStep = typeStep("allOfKind", "Officer");
+		GremlinScript script = script(typeStep);
+		FilterStep filter = filterStep(comparison(FACTORY.createEqualityExpression(), getAtt("name"),
+				stringLiteral("Smith")));
+		append(typeStep, filter);
+		IdentityStep identity = FACTORY.createIdentityStep();
+		append(filter, identity);
+		CustomStep getRef = getRef("ship", "", false);
+		append(identity, getRef);
+		CountCall count = FACTORY.createCountCall();
+		append(getRef, count);
+
+		assertEquals(1, planner.plan(script));
+		assertEquals("countTraversal", typeStep.getName());
+		assertParams(typeStep, "Officer", true, 1, "ship", "name", "EQUAL", "Smith");
+		assertNull(typeStep.getNextElement());
+		assertEquals(1, patterns.size());
+		TraversalPattern pattern = patterns.get(0);
+		assertEquals("Officer", pattern.getTypeName());
+		assertTrue(pattern.isKind());
+		assertEquals(Arrays.asList("ship"), pattern.getReferences());
+		assertFilter(pattern.getFilters().get(0), "name", Comparison.EQUAL, "Smith");
+	}
+
+	/**
+	 * Check that the filters are still pushed down if the datastore rejects
+	 * the traversal, and that the reference navigations are kept.
+	 */
+	@Test
+	public void rejectedTraversal() {
+		acceptTraversals = false;
+		CustomStep typeStep = typeStep("allOfType", "Officer");
+		GremlinScript script = script(typeStep);
+		FilterStep filter = filterStep(comparison(FACTORY.createEqualityExpression(), getAtt("name"),
+				stringLiteral("Smith")));
+		append(typeStep, filter);
+		CustomStep getRef = getRef("ship", "", false);
+		append(filter, getRef);
+
+		assertEquals(1, planner.plan(script));
+		assertEquals(1, patterns.size());
+		assertEquals("allOfTypeWhere", typeStep.getName());
+		assertParams(typeStep, "Officer", "name", "EQUAL", "Smith");
+		assertSame(getRef, typeStep.getNextElement());
+	}
+
+	/**
+	 * Check that navigations of opposite or containment references end the
+	 * pushed-down traversal.
+	 */
+	@Test
+	public void unsupportedNavigation() {
+		CustomStep typeStep = typeStep("allOfType", "Officer");
+		GremlinScript script = script(typeStep);
+		CustomStep getRef = getRef("ship", "", false);
+		append(typeStep, getRef);
+		CustomStep getContainer = getRef("fleet", "ships", true);
+		append(getRef, getContainer);
+
+		assertEquals(0, planner.plan(script));
+		assertEquals("traversal", typeStep.getName());
+		assertParams(typeStep, "Officer", false, 1, "ship");
+		assertSame(getContainer, typeStep.getNextElement());
+	}
+
+	private static GremlinScript script(CustomStep typeStep) {
+		GremlinScript script = FACTORY.createGremlinScript();
+		VariableAccess g = FACTORY.createVariableAccess();
+		g.setName("g");
+		g.setNextElement(typeStep);
+		script.getInstructions().add(g);
+		return script;
+	}
+
+	private static CustomStep typeStep(String name, String typeName) {
+		return customStep(name, stringLiteral(typeName));
+	}
+
+	private static CustomStep getRef(String refName, String oppositeName, boolean isContainer) {
+		BooleanLiteral containerLiteral = FACTORY.createBooleanLiteral();
+		containerLiteral.setValue(isContainer);
+		return customStep("getRef", stringLiteral(refName), stringLiteral(oppositeName), containerLiteral);
+	}
+
+	private static CustomStep customStep(String name, EObject... params) {
+		CustomStep step = FACTORY.createCustomStep();
+		step.setName(name);
+		step.getParams().addAll(Arrays.asList(params));
+		return step;
+	}
+
+	private static FilterStep filterStep(Instruction condition) {
+		VariableDeclaration each = FACTORY.createVariableDeclaration();
+		each.setName("each");
+		each.setValue(FACTORY.createClosureIt());
+		Closure closure = FACTORY.createClosure();
+		closure.getInstructions().add(each);
+		closure.getInstructions().add(condition);
+		FilterStep step = FACTORY.createFilterStep();
+		step.setClosure(closure);
+		return step;
+	}
+
+	private static BinaryExpression comparison(BinaryExpression expression, Instruction left, Instruction right) {
+		expression.setLeft(left);
+		expression.setRight(right);
+		return expression;
+	}
+
+	private static VariableAccess getAtt(String attName) {
+		VariableAccess each = FACTORY.createVariableAccess();
+		each.setName("each");
+		each.setNextElement(customStep("getAtt", stringLiteral(attName)));
+		return each;
+	}
+
+	private static StringLiteral stringLiteral(String value) {
+		StringLiteral literal = FACTORY.createStringLiteral();
+		literal.setValue(value);
+		return literal;
+	}
+
+	private static IntegerLiteral integerLiteral(int value) {
+		IntegerLiteral literal = FACTORY.createIntegerLiteral();
+		literal.setValue(value);
+		return literal;
+	}
+
+	private static void append(TraversalElement previous, TraversalElement next) {
+		previous.setNextElement(next);
+	}
+
+	private static void assertParams(CustomStep step, Object... expected) {
+		List<Object> values = new ArrayList<>();
+		for (EObject param : step.getParams()) {
+			if (param instanceof StringLiteral) {
+				values.add(((StringLiteral) param).getValue());
+			} else if (param instanceof IntegerLiteral) {
+				values.add(((IntegerLiteral) param).getValue());
+			} else if (param instanceof BooleanLiteral) {
+				values.add(((BooleanLiteral) param).isValue());
+			} else {
+				values.add(param);
+			}
+		}
+		assertEquals(Arrays.asList(expected), values);
+	}
+
+	private static void assertFilter(AttributeFilter filter, String attName, Comparison comparison, Object value) {
+		assertEquals(attName, filter.getAttName());
+		assertEquals(comparison, filter.getComparison());
+		assertEquals(value, filter.getValue());
+	}
+
+}
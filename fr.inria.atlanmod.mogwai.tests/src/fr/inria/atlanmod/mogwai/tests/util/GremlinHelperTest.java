@@ -0,0 +1,127 @@
+package fr.inria.atlanmod.mogwai.tests.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import groovy.lang.Closure;
+
+import fr.inria.atlanmod.mogwai.util.GremlinHelper;
+
+public class GremlinHelperTest {
+
+	private final GremlinHelper helper = GremlinHelper.getInstance();
+
+	/**
+	 * Check that integral sums are returned as Long, and that null values are
+	 * ignored.
+	 */
+	@Test
+	public void integralSum() {
+		assertEquals(6L, helper.sum(Arrays.asList(1, 2L, null, (short) 3)));
+		assertEquals(0L, helper.sum(Collections.emptyList()));
+	}
+
+	/**
+	 * Check that sums containing a real value are returned as Double,
+	 * including the integral values summed before it.
+	 */
+	@Test
+	public void realSum() {
+		assertEquals(6.5, helper.sum(Arrays.asList(1, 2, 3.5)));
+	}
+
+	/**
+	 * Check that the values wrapped in single-element collections (as returned
+	 * by attribute steps) are unwrapped.
+	 */
+	@Test
+	public void wrappedValues() {
+		List<Object> values = Arrays.asList(Collections.singletonList(2), Collections.emptyList(),
+				Collections.singletonList(5).iterator());
+		assertEquals(7L, helper.sum(values));
+		assertEquals(2, helper.min(values));
+		assertEquals(5, helper.max(values));
+		assertEquals(3.5, helper.avg(values), 0);
+	}
+
+	/**
+	 * Check that numbers of different types are compared according to their
+	 * numeric value.
+	 */
+	@Test
+	public void minMax() {
+		List<Object> values = Arrays.asList(3L, 2.5, null, 10);
+		assertEquals(2.5, helper.min(values));
+		assertEquals(10, helper.max(values));
+		assertEquals("a", helper.min(Arrays.asList("b", "a", "c")));
+		assertNull(helper.max(Collections.emptyList()));
+	}
+
+	/**
+	 * Check that the average of an empty collection is null.
+	 */
+	@Test
+	public void avg() {
+		assertEquals(2.0, helper.avg(Arrays.asList(1, 2, 3)), 0);
+		assertNull(helper.avg(Arrays.asList((Object) null)));
+	}
+
+	/**
+	 * Check that sortedBy is stable: elements with the same key keep their
+	 * relative order.
+	 */
+	@Test
+	public void sortedBy() {
+		List<String> elements = Arrays.asList("ccc", "a", "bb", "d", "ee");
+		assertEquals(Arrays.asList("a", "d", "bb", "ee", "ccc"), helper.sortedBy(elements, length()));
+	}
+
+	/**
+	 * Check that topK returns the same elements as a sub-list of sortedBy.
+	 */
+	@Test
+	public void topK() {
+		List<String> elements = Arrays.asList("ccc", "a", "bb", "d", "ee", "ffff", "g");
+		List<Object> sorted = helper.sortedBy(elements, length());
+		for (int lower = 1; lower <= elements.size(); lower++) {
+			for (int upper = lower; upper <= elements.size(); upper++) {
+				assertEquals(sorted.subList(lower - 1, upper), helper.topK(elements, lower, upper, length()));
+			}
+		}
+	}
+
+	/**
+	 * Check that topK returns the available elements if the range exceeds the
+	 * size of the collection.
+	 */
+	@Test
+	public void topKOutOfRange() {
+		List<String> elements = Arrays.asList("bb", "a");
+		assertEquals(Arrays.asList("bb"), helper.topK(elements, 2, 5, length()));
+		assertEquals(Collections.emptyList(), helper.topK(elements, 3, 5, length()));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void topKInvalidRange() {
+		helper.topK(Arrays.asList("a"), 2, 1, length());
+	}
+
+	private static Closure<Integer> length() {
+		return new Closure<Integer>(null) {
+
+			private static final long serialVersionUID = 1L;
+
+			@SuppressWarnings("unused")
+			public Integer doCall(Object element) {
+				return ((String) element).length();
+			}
+		};
+	}
+
+}
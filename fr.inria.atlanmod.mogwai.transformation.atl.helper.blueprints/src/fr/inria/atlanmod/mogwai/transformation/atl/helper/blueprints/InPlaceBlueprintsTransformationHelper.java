@@ -5,7 +5,10 @@ import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 import java.util.Iterator;
+import java.util.List;
 
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
@@ -154,6 +157,21 @@ public class InPlaceBlueprintsTransformationHelper extends InPlaceATLTransformat
 		this.createEdge(from, to, label, oppositeLabel, isContainment);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void createConcreteLinks(Vertex from, List<Vertex> to, String label, String oppositeLabel,
+			boolean isContainment) {
+		long begin = System.currentTimeMillis();
+		checkNotNull(from, "Cannot create links from null");
+		checkNotNull(to, "Cannot create links to null");
+		checkNotNull(label, "Cannot create links with null label");
+		sourceDatastore.setRefs(from, label, oppositeLabel, to, isContainment);
+		long end = System.currentTimeMillis();
+		linkTime += (end - begin);
+	}
+
 	/**
 	 * A private implementation that creates an {@link Edge} to represent a
 	 * reference and returns it.
@@ -192,11 +210,17 @@ public class InPlaceBlueprintsTransformationHelper extends InPlaceATLTransformat
 
 	/**
 	 * {@inheritDoc}
+	 * <p>
+	 * The proxy links are removed once all of them have been resolved, using
+	 * a single {@link ModelDatastore#removeRefs(Object, String, java.util.Collection, boolean)}
+	 * call per proxy holder. This avoids updating the positions of the
+	 * remaining proxy links of a {@link Vertex} for each removed one.
 	 */
 	@Override
 	public void resolveProxies(Vertex sourceProxy, Vertex targetElement) {
 		long begin = System.currentTimeMillis();
 		// Should be put in mapping
+		ListMultimap<Vertex, Vertex> proxiesToRemove = ArrayListMultimap.create();
 		Iterator<Edge> pEdges = sourceProxy.getEdges(Direction.IN, PROXY_LABEL).iterator();
 		while (pEdges.hasNext()) {
 			Edge pEdge = pEdges.next();
@@ -216,8 +240,11 @@ public class InPlaceBlueprintsTransformationHelper extends InPlaceATLTransformat
 				throw new RuntimeException("[Debug] A proxy link has null as its base label");
 			}
 			sourceDatastore.setRef(outV, baseLabel, null, targetElement, isContainment);
-			// Delete the proxy, it is no longer needed
-			sourceDatastore.removeRef(outV, PROXY_LABEL, sourceProxy, false);
+			// The proxy is no longer needed, it is deleted once all the proxies are resolved
+			proxiesToRemove.put(outV, sourceProxy);
+		}
+		for (Vertex outV : proxiesToRemove.keySet()) {
+			sourceDatastore.removeRefs(outV, PROXY_LABEL, proxiesToRemove.get(outV), false);
 		}
 		long end = System.currentTimeMillis();
 		resolveProxyTime += (end-begin);
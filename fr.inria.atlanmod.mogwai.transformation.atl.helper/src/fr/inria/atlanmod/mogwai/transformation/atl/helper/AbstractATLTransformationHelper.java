@@ -1,7 +1,12 @@
 package fr.inria.atlanmod.mogwai.transformation.atl.helper;
 
-import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.Objects.nonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import fr.inria.atlanmod.mogwai.datastore.ModelDatastore;
 
 /**
  * Defines the ATL primitives that should be implemented to support ATL
@@ -98,11 +103,10 @@ public abstract class AbstractATLTransformationHelper<ES, ET> {
 	 * created that will be resolved later (see
 	 * {@link #resolveProxies(Object, Object)}).
 	 * <p>
-	 * The default implementation of this method checks if {@code to} is in the
-	 * source or target model. If it is part of the source model it checks
-	 * whether the element can be resolved and creates a concrete/proxy link
-	 * accordingly. If the element is part of the target model a concrete link
-	 * is created.
+	 * The default implementation of this method computes the element of the
+	 * target model to link (see
+	 * {@link #getLinkTarget(Object, Object, String, String, boolean)}), and
+	 * creates a concrete link to it if no proxy link has been created.
 	 * 
 	 * @param from
 	 *            the tail (in the target model) of the link to create
@@ -119,36 +123,11 @@ public abstract class AbstractATLTransformationHelper<ES, ET> {
 	 * 
 	 * @see #linkReference(Object, Iterable, String, String, boolean)
 	 */
-	@SuppressWarnings("unchecked")
 	public void linkReference(ET from, Object to, String label, String oppositeLabel, boolean isContainment) {
-		checkNotNull(from, "Cannot create a reference from the provided element {0}", from);
-		checkNotNull(to, "Cannot create a reference to the provided element {0}", to);
-		checkNotNull("Cannot create a reference with the provided label {0}", label);
-		try {
-			ES sourceProxy = (ES) to;
-			if (isResolvable(sourceProxy)) {
-				createConcreteLink(from, resolve(sourceProxy), label, oppositeLabel, isContainment);
-			} else {
-				createProxyLink(from, sourceProxy, label, oppositeLabel, isContainment);
-			}
-		} catch (ClassCastException e) {
-			/*
-			 * to is not part of the source model, we have to catch the
-			 * exception because instanceof checks cannot be performed on
-			 * generic type.
-			 */
-			try {
-				ET targetElement = (ET) to;
-				createConcreteLink(from, targetElement, label, oppositeLabel, isContainment);
-			} catch (ClassCastException e1) {
-				/*
-				 * to is not part of the target model, this should not happen.
-				 */
-				throw new IllegalArgumentException("Cannot create reference: " + to
-						+ " is not contained in the source or target model");
-			}
+		ET target = getLinkTarget(from, to, label, oppositeLabel, isContainment);
+		if (nonNull(target)) {
+			createConcreteLink(from, target, label, oppositeLabel, isContainment);
 		}
-
 	}
 
 	/**
@@ -164,9 +143,11 @@ public abstract class AbstractATLTransformationHelper<ES, ET> {
 	 * created that will be resolved later (see
 	 * {@link #resolveProxies(Object, Object)}).
 	 * <p>
-	 * The default implementation of this method simply delegates to
-	 * {@link #linkReference(Object, Object, String, String, boolean)} by
-	 * iterating in the provided {@code to} {@link Iterable}.
+	 * The default implementation of this method computes the target of each
+	 * element in {@code to} (see
+	 * {@link #getLinkTarget(Object, Object, String, String, boolean)}) and
+	 * creates all the concrete links at once using
+	 * {@link #createConcreteLinks(Object, List, String, String, boolean)}.
 	 * 
 	 * @param from
 	 *            the tail (in the target model) of the links to create
@@ -184,8 +165,74 @@ public abstract class AbstractATLTransformationHelper<ES, ET> {
 	 * @see #linkReference(Object, Object, String, String, boolean)
 	 */
 	public void linkReference(ET from, Iterable<Object> to, String label, String oppositeLabel, boolean isContainment) {
+		List<ET> targets = new ArrayList<>();
 		for (Object o : to) {
-			this.linkReference(from, o, label, oppositeLabel, isContainment);
+			ET target = getLinkTarget(from, o, label, oppositeLabel, isContainment);
+			if (nonNull(target)) {
+				targets.add(target);
+			}
+		}
+		if (!targets.isEmpty()) {
+			createConcreteLinks(from, targets, label, oppositeLabel, isContainment);
+		}
+	}
+
+	/**
+	 * Returns the element of the target model {@code from} has to be linked
+	 * to in order to represent a link to {@code to}.
+	 * <p>
+	 * The default implementation of this method checks if {@code to} is in the
+	 * source or target model. If it is part of the source model it checks
+	 * whether the element can be resolved and returns the resolved element, or
+	 * creates a proxy link if it cannot be resolved yet. If the element is part
+	 * of the target model it is returned.
+	 * 
+	 * @param from
+	 *            the tail (in the target model) of the link to create
+	 * @param to
+	 *            the head of the link to create (from the source or the target
+	 *            model)
+	 * @param label
+	 *            the label of the link to create
+	 * @param oppositeLabel
+	 *            the label of the opposite reference if it exists
+	 * @param isContainment
+	 *            {@code true} if the reference is a containment, {@code false}
+	 *            otherwise
+	 * @return the element of the target model to link {@code from} to, or
+	 *         {@code null} if a proxy link has been created
+	 * 
+	 * @see #linkReference(Object, Object, String, String, boolean)
+	 * @see #linkReference(Object, Iterable, String, String, boolean)
+	 */
+	@SuppressWarnings("unchecked")
+	protected ET getLinkTarget(ET from, Object to, String label, String oppositeLabel, boolean isContainment) {
+		checkNotNull(from, "Cannot create a reference from the provided element {0}", from);
+		checkNotNull(to, "Cannot create a reference to the provided element {0}", to);
+		checkNotNull("Cannot create a reference with the provided label {0}", label);
+		try {
+			ES sourceProxy = (ES) to;
+			if (isResolvable(sourceProxy)) {
+				return resolve(sourceProxy);
+			} else {
+				createProxyLink(from, sourceProxy, label, oppositeLabel, isContainment);
+				return null;
+			}
+		} catch (ClassCastException e) {
+			/*
+			 * to is not part of the source model, we have to catch the
+			 * exception because instanceof checks cannot be performed on
+			 * generic type.
+			 */
+			try {
+				return (ET) to;
+			} catch (ClassCastException e1) {
+				/*
+				 * to is not part of the target model, this should not happen.
+				 */
+				throw new IllegalArgumentException("Cannot create reference: " + to
+						+ " is not contained in the source or target model");
+			}
 		}
 	}
 
@@ -224,6 +271,37 @@ public abstract class AbstractATLTransformationHelper<ES, ET> {
 		targetDatastore.setRef(from, label, oppositeLabel, to, isContainment);
 	}
 
+	/**
+	 * Creates concrete links between {@code from} and all the elements in
+	 * {@code to}.
+	 * <p>
+	 * The default implementation of this method delegates the reference
+	 * creation to
+	 * {@link ModelDatastore#setRefs(Object, String, String, Iterable, boolean)},
+	 * that can allocate the positions of the created references at once.
+	 * 
+	 * @param from
+	 *            the tail (in the target model) of the links to create
+	 * @param to
+	 *            the heads (in the target model) of the links to create
+	 * @param label
+	 *            the label of the links to create
+	 * @param oppositeLabel
+	 *            the label of the opposite reference if it exists
+	 * @param isContainment
+	 *            {@code true} if the reference is a containment, {@code false}
+	 *            otherwise
+	 * 
+	 * @see #linkReference(Object, Iterable, String, String, boolean)
+	 * @see #createConcreteLink(Object, Object, String, String, boolean)
+	 */
+	protected void createConcreteLinks(ET from, List<ET> to, String label, String oppositeLabel, boolean isContainment) {
+		checkNotNull(from, "Cannot create links from the provided element {0}", from);
+		checkNotNull(to, "Cannot create links to the provided elements {0}", to);
+		checkNotNull(label, "Cannot create links with the provided label {0}", label);
+		targetDatastore.setRefs(from, label, oppositeLabel, to, isContainment);
+	}
+
 	/**
 	 * Creates a proxy link between {@code from} and {@code to}.
 	 * <p>
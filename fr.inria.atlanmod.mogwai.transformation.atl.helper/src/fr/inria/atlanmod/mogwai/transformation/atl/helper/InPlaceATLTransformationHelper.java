@@ -35,7 +35,7 @@ public abstract class InPlaceATLTransformationHelper<E> extends AbstractATLTrans
 	 */
 	@SuppressWarnings("unchecked")
 	@Override
-	public void linkReference(E from, Object to, String label, String oppositeLabel, boolean isContainment) {
+	protected E getLinkTarget(E from, Object to, String label, String oppositeLabel, boolean isContainment) {
 		checkNotNull(from, "Cannot create a reference from the provided element {0}", from);
 		checkNotNull(to, "Cannot create a reference to the provided element {0}", to);
 		checkNotNull("Cannot create a reference with the provided label {0}", label);
@@ -43,12 +43,13 @@ public abstract class InPlaceATLTransformationHelper<E> extends AbstractATLTrans
 			E toElement = (E) to;
 			if (isSourceElement(toElement)) {
 				if (isResolvable(toElement)) {
-					createConcreteLink(from, resolve(toElement), label, oppositeLabel, isContainment);
+					return resolve(toElement);
 				} else {
 					createProxyLink(from, toElement, label, oppositeLabel, isContainment);
+					return null;
 				}
 			} else {
-				createConcreteLink(from, toElement, label, oppositeLabel, isContainment);
+				return toElement;
 			}
 		} catch (ClassCastException e) {
 			/*
@@ -22,6 +22,7 @@ import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
 import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.eclipse.emf.ecore.xmi.impl.XMIResourceFactoryImpl;
 import org.eclipse.m2m.atl.common.ATLLogger;
 import org.eclipse.m2m.atl.core.ATLCoreException;
@@ -126,8 +127,13 @@ public class OCL2Gremlin extends ATLTransformation {
 			}
 			registry.put(packageInOcl.getNsURI(), packageInOcl);
 			
+			/*
+			 * Transform a copy of the input constraint: adding it to the input
+			 * resource would remove it from its container, and the same
+			 * constraint may be shared by several transformations.
+			 */
 			Resource oclResource = resSet.createResource(URI.createURI("oclInput"));
-			oclResource.getContents().add(exp);
+			oclResource.getContents().add(EcoreUtil.copy(exp));
 			
 			IModel inputModel = modelFactory.newModel(inputMetamodel);
 			injector.inject(inputModel, oclResource);